@@ -32,13 +32,17 @@ import com.yahoo.search.query.profile.QueryProfileRegistry;
 import com.yahoo.schema.Application;
 import com.yahoo.schema.RankProfileRegistry;
 import com.yahoo.schema.Schema;
+import com.yahoo.schema.SchemaFingerprints;
+import com.yahoo.schema.derived.RankProfileCache;
 import com.yahoo.schema.ApplicationBuilder;
 import com.yahoo.vespa.config.ConfigDefinition;
 import com.yahoo.vespa.config.ConfigDefinitionBuilder;
 import com.yahoo.vespa.config.ConfigDefinitionKey;
 import com.yahoo.vespa.documentmodel.DocumentModel;
+import com.yahoo.vespa.model.VespaModel;
 import com.yahoo.vespa.model.container.search.QueryProfiles;
 import com.yahoo.vespa.model.container.search.QueryProfilesBuilder;
+import com.yahoo.vespa.model.utils.internal.Timings;
 import com.yahoo.vespa.model.container.search.SemanticRuleBuilder;
 import com.yahoo.vespa.model.container.search.SemanticRules;
 
@@ -90,6 +94,10 @@ public class DeployState implements ConfigDefinitionStore {
     private final Provisioned provisioned;
     private final Reindexing reindexing;
     private final ExecutorService executor;
+    private final Timings timings;
+    private final SchemaFingerprints schemaFingerprints;
+    private final RankProfileCache previousRankProfiles;
+    private final RankProfileCache rankProfiles = new RankProfileCache();
 
     public static DeployState createTestState() {
         return new Builder().build();
@@ -107,6 +115,7 @@ public class DeployState implements ConfigDefinitionStore {
                         RankProfileRegistry rankProfileRegistry,
                         FileRegistry fileRegistry,
                         ExecutorService executor,
+                        Timings timings,
                         DeployLogger deployLogger,
                         Optional<HostProvisioner> hostProvisioner,
                         Provisioned provisioned,
@@ -128,6 +137,7 @@ public class DeployState implements ConfigDefinitionStore {
         this.logger = deployLogger;
         this.fileRegistry = fileRegistry;
         this.executor = executor;
+        this.timings = timings;
         this.rankProfileRegistry = rankProfileRegistry;
         this.applicationPackage = application.applicationPackage();
         this.properties = properties;
@@ -138,6 +148,10 @@ public class DeployState implements ConfigDefinitionStore {
         this.provisioned = provisioned;
         this.schemas = List.copyOf(application.schemas().values());
         this.documentModel = application.documentModel();
+        this.schemaFingerprints = application.fingerprints();
+        this.previousRankProfiles = previousModel.filter(VespaModel.class::isInstance)
+                                                 .map(model -> ((VespaModel) model).rankProfileCache())
+                                                 .orElse(RankProfileCache.empty);
         this.permanentApplicationPackage = permanentApplicationPackage;
         this.configDefinitionRepo = configDefinitionRepo;
         this.endpoints = Set.copyOf(endpoints);
@@ -284,6 +298,18 @@ public class DeployState implements ConfigDefinitionStore {
 
     public ExecutorService getExecutor() { return executor; }
 
+    /** Returns the time spent in each phase of building the model of this so far */
+    public Timings getTimings() { return timings; }
+
+    /** Returns the fingerprints of the sources of the schemas of this */
+    public SchemaFingerprints getSchemaFingerprints() { return schemaFingerprints; }
+
+    /** Returns the rank profiles derived by the previous model, which may be reused for schemas with unchanged sources */
+    public RankProfileCache getPreviousRankProfiles() { return previousRankProfiles; }
+
+    /** Returns the rank profiles derived for the model of this, to be reused by the next model */
+    public RankProfileCache getRankProfiles() { return rankProfiles; }
+
     public Version getWantedNodeVespaVersion() { return wantedNodeVespaVersion; }
 
     public Optional<DockerImage> getWantedDockerImageRepo() { return wantedDockerImageRepo; }
@@ -455,13 +481,15 @@ public class DeployState implements ConfigDefinitionStore {
             if (queryProfiles == null)
                 queryProfiles = new QueryProfilesBuilder().build(applicationPackage, logger);
             SemanticRules semanticRules = new SemanticRuleBuilder().build(applicationPackage);
+            Timings timings = new Timings();
             Application application = new ApplicationBuilder(applicationPackage, fileRegistry, logger, properties,
                                                              rankProfileRegistry, queryProfiles.getRegistry())
-                    .build(! validationParameters.ignoreValidationErrors());
+                    .build(! validationParameters.ignoreValidationErrors(), executor, timings);
             return new DeployState(application,
                                    rankProfileRegistry,
                                    fileRegistry,
                                    executor,
+                                   timings,
                                    logger,
                                    hostProvisioner,
                                    provisioned,
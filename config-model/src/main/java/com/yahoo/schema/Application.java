@@ -10,6 +10,7 @@ import com.yahoo.schema.processing.Processing;
 import com.yahoo.schema.processing.Processor;
 import com.yahoo.vespa.documentmodel.DocumentModel;
 import com.yahoo.vespa.model.container.search.QueryProfiles;
+import com.yahoo.vespa.model.utils.internal.Timings;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -17,6 +18,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A collection of objects representing the content of an application package.
@@ -30,6 +32,7 @@ public class Application {
     private final ApplicationPackage applicationPackage;
     private final Map<String, Schema> schemas;
     private final DocumentModel documentModel;
+    private final SchemaFingerprints fingerprints;
 
     public Application(ApplicationPackage applicationPackage,
                        List<Schema> schemas,
@@ -39,7 +42,10 @@ public class Application {
                        boolean documentsOnly,
                        boolean validate,
                        Set<Class<? extends Processor>> processorsToSkip,
-                       DeployLogger logger) {
+                       Map<String, List<String>> sourceDigests,
+                       DeployLogger logger,
+                       ExecutorService executor,
+                       Timings timings) {
         this.applicationPackage = applicationPackage;
 
         Map<String, Schema> schemaMap = new LinkedHashMap<>();
@@ -72,16 +78,21 @@ public class Application {
             new DocumentGraphValidator().validateDocumentGraph(sdocs);
 
         List<Schema> schemasSomewhatOrdered = new ArrayList<>(schemas);
-        for (Schema schema : new SearchOrderer().order(schemasSomewhatOrdered)) {
-            new Processing(properties).process(schema,
+        timings.time("process schemas", () -> {
+            new Processing(properties).process(new SearchOrderer().order(schemasSomewhatOrdered),
                                                logger,
                                                rankProfileRegistry,
                                                queryProfiles,
                                                validate,
                                                documentsOnly,
-                                               processorsToSkip);
-        }
-
+                                               processorsToSkip,
+                                               executor,
+                                               timings);
+            return null;
+        });
+
+        this.fingerprints = timings.time("fingerprint schemas", () -> SchemaFingerprints.of(schemas, sourceDigests, applicationPackage,
+                                                                                        properties, rankProfileRegistry));
         this.documentModel = new DocumentModelBuilder().build(schemasSomewhatOrdered);
     }
 
@@ -92,6 +103,9 @@ public class Application {
 
     public DocumentModel documentModel() { return documentModel; }
 
+    /** Returns the fingerprints of the sources of the schemas of this */
+    public SchemaFingerprints fingerprints() { return fingerprints; }
+
     @Override
     public String toString() { return "application " + applicationPackage.getApplicationId(); }
 
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.schema;
 
+import com.yahoo.concurrent.InThreadExecutorService;
 import com.yahoo.config.application.api.ApplicationPackage;
 import com.yahoo.config.application.api.DeployLogger;
 import com.yahoo.config.application.api.FileRegistry;
@@ -20,6 +21,7 @@ import com.yahoo.schema.parser.ParseException;
 import com.yahoo.schema.processing.Processor;
 import com.yahoo.vespa.documentmodel.DocumentModel;
 import com.yahoo.vespa.model.container.search.QueryProfiles;
+import com.yahoo.vespa.model.utils.internal.Timings;
 
 import java.io.File;
 import java.io.IOException;
@@ -30,6 +32,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Application builder. Usage:
@@ -211,6 +214,15 @@ public class ApplicationBuilder {
      * @throws IllegalStateException thrown if this method has already been called
      */
     public Application build(boolean validate) {
+        return build(validate, new InThreadExecutorService(), new Timings());
+    }
+
+    /**
+     * Processes and finalizes the schemas of this, using the given executor, and adds the time spent to the given timings.
+     *
+     * @throws IllegalStateException thrown if this method has already been called
+     */
+    public Application build(boolean validate, ExecutorService executor, Timings timings) {
         if (application != null) throw new IllegalStateException("Application already built");
         var converter = new ConvertSchemaCollection(mediator,
                                                     documentTypeManager,
@@ -230,7 +242,10 @@ public class ApplicationBuilder {
                                       documentsOnly,
                                       validate,
                                       processorsToSkip,
-                                      deployLogger);
+                                      mediator.getSourceDigests(),
+                                      deployLogger,
+                                      executor,
+                                      timings);
         return application;
     }
 
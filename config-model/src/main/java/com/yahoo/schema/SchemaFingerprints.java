@@ -0,0 +1,199 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.schema;
+
+import com.yahoo.component.Vtag;
+import com.yahoo.config.application.api.ApplicationFile;
+import com.yahoo.config.application.api.ApplicationPackage;
+import com.yahoo.config.model.api.ModelContext;
+import com.yahoo.io.IOUtils;
+import com.yahoo.io.reader.NamedReader;
+import com.yahoo.path.Path;
+import com.yahoo.schema.document.SDDocumentType;
+import com.yahoo.text.Utf8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fingerprints of the sources each schema of an application is derived from: its own schema and rank profile files,
+ * the fingerprints of the schemas it inherits or references, and the application wide inputs to rank profile
+ * compilation, like the Vespa version, query profiles and models. A schema with the same fingerprint as in a
+ * previous model is derived to the same rank profiles, so those can be reused from that model.
+ * Schemas which are not created from sources have no fingerprint, and neither do schemas which depend on those.
+ *
+ * @author agent
+ */
+public class SchemaFingerprints {
+
+    private static final Logger log = Logger.getLogger(SchemaFingerprints.class.getName());
+
+    public static final SchemaFingerprints empty = new SchemaFingerprints(Map.of());
+
+    private final Map<String, String> fingerprints;
+
+    private SchemaFingerprints(Map<String, String> fingerprints) {
+        this.fingerprints = Map.copyOf(fingerprints);
+    }
+
+    /**
+     * Computes the fingerprints of the given schemas, which must have their references resolved.
+     *
+     * @param sourceDigests the digests of the source files of each schema, by schema name
+     */
+    static SchemaFingerprints of(Collection<Schema> schemas,
+                                 Map<String, List<String>> sourceDigests,
+                                 ApplicationPackage applicationPackage,
+                                 ModelContext.Properties properties,
+                                 RankProfileRegistry rankProfileRegistry) {
+        if (sourceDigests.isEmpty()) return empty;
+        try {
+            String global = globalDigest(schemas, applicationPackage, properties, rankProfileRegistry);
+            Map<String, Schema> byDocumentName = new HashMap<>();
+            for (Schema schema : schemas)
+                if (schema.getDocument() != null) byDocumentName.put(schema.getDocument().getName(), schema);
+
+            Map<String, Optional<String>> fingerprints = new HashMap<>();
+            for (Schema schema : schemas)
+                fingerprint(schema, global, sourceDigests, byDocumentName, fingerprints, new HashSet<>());
+
+            Map<String, String> present = new HashMap<>();
+            fingerprints.forEach((name, fingerprint) -> fingerprint.ifPresent(value -> present.put(name, value)));
+            return new SchemaFingerprints(present);
+        }
+        catch (IOException | RuntimeException e) { // Reuse is an optimization only, so fall back to always deriving.
+            log.log(Level.FINE, "Failed reading application package, derived configs will not be reused", e);
+            return empty;
+        }
+    }
+
+    /** Returns the fingerprint of the schema with the given name, if it has one. */
+    public Optional<String> of(String schemaName) {
+        return Optional.ofNullable(fingerprints.get(schemaName));
+    }
+
+    /** Returns a digest of the given source text. */
+    public static String digest(String source) {
+        MessageDigest digest = sha256();
+        digest.update(Utf8.toBytes(source));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static Optional<String> fingerprint(Schema schema, String global, Map<String, List<String>> sourceDigests,
+                                                Map<String, Schema> byDocumentName, Map<String, Optional<String>> fingerprints,
+                                                Set<String> visiting) {
+        if (fingerprints.containsKey(schema.getName())) return fingerprints.get(schema.getName());
+        if ( ! visiting.add(schema.getName())) return Optional.empty(); // A cycle, which fails validation elsewhere.
+
+        Optional<String> fingerprint = Optional.empty();
+        if (sourceDigests.containsKey(schema.getName())) {
+            // Sorted, so the fingerprint does not depend on the order in which files are listed.
+            Set<String> inputs = new TreeSet<>(sourceDigests.get(schema.getName()));
+            boolean complete = true;
+            for (Schema dependency : dependencies(schema, byDocumentName)) {
+                Optional<String> dependencyFingerprint = fingerprint(dependency, global, sourceDigests, byDocumentName, fingerprints, visiting);
+                complete &= dependencyFingerprint.isPresent();
+                dependencyFingerprint.ifPresent(value -> inputs.add(dependency.getName() + ":" + value));
+            }
+            if (complete)
+                fingerprint = Optional.of(digest(global + "\n" + schema.getName() + "\n" + String.join("\n", inputs)));
+        }
+        visiting.remove(schema.getName());
+        fingerprints.put(schema.getName(), fingerprint);
+        return fingerprint;
+    }
+
+    /** Returns the schemas the given schema inherits, or references, directly. */
+    private static List<Schema> dependencies(Schema schema, Map<String, Schema> byDocumentName) {
+        List<Schema> dependencies = new ArrayList<>();
+        schema.inherited().ifPresent(dependencies::add);
+        SDDocumentType document = schema.getDocument();
+        if (document != null) {
+            for (SDDocumentType inherited : document.getInheritedTypes())
+                if (byDocumentName.containsKey(inherited.getName()))
+                    dependencies.add(byDocumentName.get(inherited.getName()));
+            document.getDocumentReferences()
+                    .ifPresent(references -> references.forEach(reference -> dependencies.add(reference.getValue().targetSearch())));
+        }
+        return dependencies;
+    }
+
+    /** Returns a digest of the inputs to rank profile compilation which are shared by all schemas. */
+    private static String globalDigest(Collection<Schema> schemas, ApplicationPackage applicationPackage,
+                                       ModelContext.Properties properties, RankProfileRegistry rankProfileRegistry) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, Vtag.currentVersion.toFullString());
+        update(digest, "defaultTermwiseLimit=" + properties.featureFlags().defaultTermwiseLimit());
+        update(digest, "phraseOptimization=" + properties.featureFlags().phraseOptimization());
+        update(digest, "useV8GeoPositions=" + properties.featureFlags().useV8GeoPositions());
+
+        for (NamedReader reader : applicationPackage.getFiles(ApplicationPackage.QUERY_PROFILES_DIR, ".xml", true)) update(digest, reader);
+        for (NamedReader reader : applicationPackage.getFiles(ApplicationPackage.SCHEMAS_DIR, ".expression", true)) update(digest, reader);
+        for (NamedReader reader : applicationPackage.getFiles(ApplicationPackage.SEARCH_DEFINITIONS_DIR, ".expression", true)) update(digest, reader);
+
+        ApplicationFile models = applicationPackage.getFile(ApplicationPackage.MODELS_DIR);
+        if (models.exists()) {
+            List<ApplicationFile> files = new ArrayList<>(models.listFiles(true));
+            files.sort(Comparator.comparing(file -> file.getPath().getRelative()));
+            for (ApplicationFile file : files)
+                update(digest, file);
+        }
+
+        // Types of ONNX model outputs are read from the model files, which may be anywhere in the application package.
+        List<OnnxModel> onnxModels = new ArrayList<>();
+        for (Schema schema : schemas) onnxModels.addAll(schema.onnxModels().values());
+        for (RankProfile profile : rankProfileRegistry.all()) onnxModels.addAll(profile.onnxModels().values());
+        for (OnnxModel model : onnxModels)
+            if (model.getPathType() == DistributableResource.PathType.FILE)
+                update(digest, applicationPackage.getFile(Path.fromString(model.getFileName())));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(Utf8.toBytes(value));
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, NamedReader reader) throws IOException {
+        try (reader) {
+            update(digest, reader.getName());
+            update(digest, IOUtils.readAll(reader));
+        }
+    }
+
+    private static void update(MessageDigest digest, ApplicationFile file) throws IOException {
+        if ( ! file.exists() || file.isDirectory()) return;
+        update(digest, file.getPath().getRelative());
+        try (InputStream in = file.createInputStream()) {
+            byte[] buffer = new byte[1 << 16];
+            for (int read; (read = in.read(buffer)) != -1; )
+                digest.update(buffer, 0, read);
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -14,6 +14,7 @@ import com.yahoo.schema.derived.validation.Validation;
 import com.yahoo.vespa.config.search.AttributesConfig;
 import com.yahoo.vespa.config.search.core.RankingConstantsConfig;
 import com.yahoo.vespa.model.container.search.QueryProfiles;
+import com.yahoo.vespa.model.utils.internal.Timings;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -72,20 +73,21 @@ public class DerivedConfiguration implements AttributesConfig.Producer {
         this.queryProfiles = deployState.getQueryProfiles().getRegistry();
         this.maxUncommittedMemory = deployState.getProperties().featureFlags().maxUnCommittedMemory();
         this.enableBitVectors = deployState.getProperties().featureFlags().enableBitVectors();
+        Timings timings = deployState.getTimings();
         if ( ! schema.isDocumentsOnly()) {
-            streamingFields = new VsmFields(schema);
-            streamingSummary = new VsmSummary(schema);
+            streamingFields = timings.time("derive VsmFields", () -> new VsmFields(schema));
+            streamingSummary = timings.time("derive VsmSummary", () -> new VsmSummary(schema));
         }
         if ( ! schema.isDocumentsOnly()) {
-            attributeFields = new AttributeFields(schema);
-            summaries = new Summaries(schema, deployState.getDeployLogger(), deployState.getProperties().featureFlags());
-            juniperrc = new Juniperrc(schema);
-            rankProfileList = new RankProfileList(schema, schema.rankExpressionFiles(), attributeFields, deployState);
-            indexingScript = new IndexingScript(schema);
-            indexInfo = new IndexInfo(schema);
-            schemaInfo = new SchemaInfo(schema, deployState.rankProfileRegistry(), summaries);
-            indexSchema = new IndexSchema(schema);
-            importedFields = new ImportedFields(schema);
+            attributeFields = timings.time("derive AttributeFields", () -> new AttributeFields(schema));
+            summaries = timings.time("derive Summaries", () -> new Summaries(schema, deployState.getDeployLogger(), deployState.getProperties().featureFlags()));
+            juniperrc = timings.time("derive Juniperrc", () -> new Juniperrc(schema));
+            rankProfileList = timings.time("derive RankProfileList", () -> new RankProfileList(schema, schema.rankExpressionFiles(), attributeFields, deployState));
+            indexingScript = timings.time("derive IndexingScript", () -> new IndexingScript(schema));
+            indexInfo = timings.time("derive IndexInfo", () -> new IndexInfo(schema));
+            schemaInfo = timings.time("derive SchemaInfo", () -> new SchemaInfo(schema, deployState.rankProfileRegistry(), summaries));
+            indexSchema = timings.time("derive IndexSchema", () -> new IndexSchema(schema));
+            importedFields = timings.time("derive ImportedFields", () -> new ImportedFields(schema));
         }
         Validation.validate(this, schema);
     }
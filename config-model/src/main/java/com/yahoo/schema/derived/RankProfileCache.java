@@ -0,0 +1,37 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.schema.derived;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rank profiles derived for each schema of a model, with the fingerprints of the sources they were derived from,
+ * so the next model can reuse those of schemas whose sources are unchanged, instead of compiling them again.
+ *
+ * @author agent
+ */
+public class RankProfileCache {
+
+    public static final RankProfileCache empty = new RankProfileCache();
+
+    private final Map<String, Entry> schemas = new ConcurrentHashMap<>();
+
+    /** Returns the rank profiles derived for the given schema, if these were derived from sources with the given fingerprint. */
+    public Optional<Map<String, RawRankProfile>> get(String schemaName, String fingerprint) {
+        return Optional.ofNullable(schemas.get(schemaName))
+                       .filter(entry -> entry.fingerprint.equals(fingerprint))
+                       .map(entry -> entry.profiles);
+    }
+
+    /** Adds the rank profiles derived for the given schema, from sources with the given fingerprint. */
+    public void put(String schemaName, String fingerprint, Map<String, RawRankProfile> profiles) {
+        if (this == empty) throw new IllegalStateException("The empty cache can not be modified");
+        schemas.put(schemaName, new Entry(fingerprint, Collections.unmodifiableMap(new LinkedHashMap<>(profiles))));
+    }
+
+    private record Entry(String fingerprint, Map<String, RawRankProfile> profiles) { }
+
+}
@@ -15,6 +15,7 @@ import com.yahoo.schema.Schema;
 import com.yahoo.vespa.config.search.core.OnnxModelsConfig;
 import com.yahoo.vespa.config.search.core.RankingConstantsConfig;
 import com.yahoo.vespa.config.search.core.RankingExpressionsConfig;
+import com.yahoo.vespa.model.utils.internal.ParallelTasks;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -22,10 +23,9 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 
 /**
  * The derived rank profiles of a schema
@@ -60,7 +60,7 @@ public class RankProfileList extends Derived implements RankProfilesConfig.Produ
                            DeployState deployState) {
         setName(schema == null ? "default" : schema.getName());
         this.largeRankExpressions = largeRankExpressions;
-        this.rankProfiles = deriveRankProfiles(schema, attributeFields, deployState);
+        this.rankProfiles = reuseOrDeriveRankProfiles(schema, attributeFields, deployState);
         this.constants = deriveFileDistributedConstants(schema, rankProfiles.values(), deployState);
         this.onnxModels = deriveFileDistributedOnnxModels(schema, rankProfiles.values(), deployState);
     }
@@ -71,6 +71,23 @@ public class RankProfileList extends Derived implements RankProfilesConfig.Produ
                (rank.schema() != null && rank.inheritedNames().stream().allMatch(name -> registry.resolve(rank.schema().getDocument(), name) != null));
     }
 
+    /**
+     * Returns the rank profiles derived for the given schema by the previous model, if its sources are unchanged,
+     * or derives them otherwise, and adds them to the rank profiles of the model being built.
+     */
+    private Map<String, RawRankProfile> reuseOrDeriveRankProfiles(Schema schema,
+                                                                  AttributeFields attributeFields,
+                                                                  DeployState deployState) {
+        Optional<String> fingerprint = schema == null ? Optional.empty() : deployState.getSchemaFingerprints().of(schema.getName());
+        if (fingerprint.isEmpty()) return deriveRankProfiles(schema, attributeFields, deployState);
+
+        Optional<Map<String, RawRankProfile>> reused = deployState.getPreviousRankProfiles().get(schema.getName(), fingerprint.get());
+        reused.ifPresent(profiles -> profiles.values().forEach(profile -> profile.addLargeExpressionsTo(largeRankExpressions)));
+        Map<String, RawRankProfile> rawRankProfiles = reused.orElseGet(() -> deriveRankProfiles(schema, attributeFields, deployState));
+        deployState.getRankProfiles().put(schema.getName(), fingerprint.get(), rawRankProfiles);
+        return rawRankProfiles;
+    }
+
     private Map<String, RawRankProfile>  deriveRankProfiles(Schema schema,
                                                             AttributeFields attributeFields,
                                                             DeployState deployState) {
@@ -111,21 +128,15 @@ public class RankProfileList extends Derived implements RankProfilesConfig.Produ
                                                             AttributeFields attributeFields,
                                                             ModelContext.Properties deployProperties,
                                                             ExecutorService executor) {
-        Map<String, Future<RawRankProfile>> futureRawRankProfiles = new LinkedHashMap<>();
+        ParallelTasks<RawRankProfile> tasks = new ParallelTasks<>(executor);
         for (RankProfile profile : profiles) {
-            futureRawRankProfiles.put(profile.name(), executor.submit(() -> new RawRankProfile(profile, largeRankExpressions, queryProfiles, importedModels,
-                                                                                            attributeFields, deployProperties)));
-        }
-        try {
-            Map<String,  RawRankProfile> rawRankProfiles = new LinkedHashMap<>();
-            for (Future<RawRankProfile> rawFuture : futureRawRankProfiles.values()) {
-                RawRankProfile rawRank = rawFuture.get();
-                rawRankProfiles.put(rawRank.getName(), rawRank);
-            }
-            return rawRankProfiles;
-        } catch (InterruptedException | ExecutionException e) {
-            throw new IllegalStateException(e);
+            tasks.submit(() -> new RawRankProfile(profile, largeRankExpressions, queryProfiles, importedModels,
+                                                  attributeFields, deployProperties));
         }
+        Map<String,  RawRankProfile> rawRankProfiles = new LinkedHashMap<>();
+        for (RawRankProfile rawRank : tasks.join())
+            rawRankProfiles.put(rawRank.getName(), rawRank);
+        return rawRankProfiles;
     }
 
     private static FileDistributedConstants deriveFileDistributedConstants(Schema schema,
@@ -58,6 +58,7 @@ public class RawRankProfile implements RankProfilesConfig.Producer {
     /**  The compiled profile this is created from. */
     private final Collection<RankProfile.Constant> constants;
     private final Collection<OnnxModel> onnxModels;
+    private final List<RankExpressionBody> largeExpressions = new ArrayList<>();
 
     /** Creates a raw rank profile from the given rank profile. */
     public RawRankProfile(RankProfile rankProfile, LargeRankExpressions largeExpressions,
@@ -72,12 +73,21 @@ public class RawRankProfile implements RankProfilesConfig.Producer {
         constants = compiled.constants().values();
         onnxModels = compiled.onnxModels().values();
         compressedProperties = compress(new Deriver(compiled, attributeFields, deployProperties, queryProfiles)
-                                                .derive(largeExpressions));
+                                                .derive(largeExpressions, this.largeExpressions));
     }
 
     public Collection<RankProfile.Constant> constants() { return constants; }
     public Collection<OnnxModel> onnxModels() { return onnxModels; }
 
+    /**
+     * Adds the expressions of this which are too large to be inlined in the config, and are distributed as files
+     * instead, to the given large rank expressions. Used when this is reused in a later model.
+     */
+    public void addLargeExpressionsTo(LargeRankExpressions target) {
+        for (RankExpressionBody expression : largeExpressions)
+            target.add(new RankExpressionBody(expression.getName(), expression.getBlob().duplicate().rewind()));
+    }
+
     private Compressor.Compression compress(List<Pair<String, String>> properties) {
         StringBuilder b = new StringBuilder();
         for (Pair<String, String> property : properties)
@@ -344,7 +354,7 @@ public class RawRankProfile implements RankProfilesConfig.Producer {
         }
 
         /** Derives the properties this produces */
-        public List<Pair<String, String>> derive(LargeRankExpressions largeRankExpressions) {
+        public List<Pair<String, String>> derive(LargeRankExpressions largeRankExpressions, List<RankExpressionBody> distributed) {
             List<Pair<String, String>>  properties = new ArrayList<>();
             for (RankProfile.RankProperty property : rankProperties) {
                 if (RankingExpression.propertyName(RankProfile.FIRST_PHASE).equals(property.getName())) {
@@ -453,11 +463,12 @@ public class RawRankProfile implements RankProfilesConfig.Producer {
                 }
             }
             if (properties.size() >= 1000000) throw new IllegalArgumentException("Too many rank properties");
-            distributeLargeExpressionsAsFiles(properties, largeRankExpressions);
+            distributeLargeExpressionsAsFiles(properties, largeRankExpressions, distributed);
             return properties;
         }
 
-        private void distributeLargeExpressionsAsFiles(List<Pair<String, String>> properties, LargeRankExpressions largeRankExpressions) {
+        private void distributeLargeExpressionsAsFiles(List<Pair<String, String>> properties, LargeRankExpressions largeRankExpressions,
+                                                       List<RankExpressionBody> distributed) {
             for (ListIterator<Pair<String, String>> iter = properties.listIterator(); iter.hasNext();) {
                 Pair<String, String> property = iter.next();
                 String expression = property.getSecond();
@@ -466,7 +477,9 @@ public class RawRankProfile implements RankProfilesConfig.Producer {
                     String functionName = RankingExpression.extractScriptName(propertyName);
                     if (functionName != null) {
                         String mangledName = rankprofileName + "." + functionName;
-                        largeRankExpressions.add(new RankExpressionBody(mangledName, ByteBuffer.wrap(expression.getBytes(StandardCharsets.UTF_8))));
+                        RankExpressionBody body = new RankExpressionBody(mangledName, ByteBuffer.wrap(expression.getBytes(StandardCharsets.UTF_8)));
+                        largeRankExpressions.add(body);
+                        distributed.add(body);
                         iter.set(new Pair<>(RankingExpression.propertyExpressionName(functionName), mangledName));
                     }
                 }
@@ -54,6 +54,43 @@ public class SearchOrderer {
         return ordered;
     }
 
+    /**
+     * Groups the given, ordered schemas such that schemas which inherit one another, directly or through
+     * other schemas, by either schema or document inheritance, are in the same group. Each group preserves
+     * the given order, and the groups are ordered by their first schema.
+     *
+     * @return a new list of disjoint groups, containing all the given schemas
+     */
+    public List<List<Schema>> groupByInheritance(List<Schema> ordered) {
+        indexOnDocumentName(ordered);
+        Map<Schema, Schema> parents = new HashMap<>();
+        for (Schema schema : ordered) {
+            schema.inherited().ifPresent(parent -> union(parents, schema, parent));
+            if (schema.getDocument() == null) continue;
+            for (SDDocumentType sdoc : schema.getDocument().getInheritedTypes()) {
+                Schema parent = documentNameToSearch.get(sdoc.getDocumentName());
+                if (parent != null) union(parents, schema, parent);
+            }
+        }
+        documentNameToSearch.clear();
+
+        Map<Schema, List<Schema>> groups = new LinkedHashMap<>();
+        for (Schema schema : ordered)
+            groups.computeIfAbsent(root(parents, schema), __ -> new ArrayList<>()).add(schema);
+        return new ArrayList<>(groups.values());
+    }
+
+    private static void union(Map<Schema, Schema> parents, Schema first, Schema second) {
+        Schema firstRoot = root(parents, first), secondRoot = root(parents, second);
+        if ( ! firstRoot.equals(secondRoot)) parents.put(firstRoot, secondRoot);
+    }
+
+    private static Schema root(Map<Schema, Schema> parents, Schema schema) {
+        for (Schema parent; (parent = parents.get(schema)) != null; )
+            schema = parent;
+        return schema;
+    }
+
     private void addOrdered(List<Schema> ordered, Schema schema, List<Schema> moveOutwards) {
         ordered.add(schema);
         Schema eligibleMove;
@@ -8,11 +8,14 @@ import com.yahoo.config.model.application.provider.BaseDeployLogger;
 import com.yahoo.config.model.deploy.TestProperties;
 import com.yahoo.io.IOUtils;
 import com.yahoo.io.reader.NamedReader;
+import com.yahoo.schema.SchemaFingerprints;
 import com.yahoo.yolean.Exceptions;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,6 +30,7 @@ public class IntermediateCollection {
     private final ModelContext.Properties modelProperties;
 
     private final Map<String, ParsedSchema> parsedSchemas = new LinkedHashMap<>();
+    private final Map<String, List<String>> sourceDigests = new LinkedHashMap<>();
 
     IntermediateCollection() {
         this.deployLogger = new BaseDeployLogger();
@@ -42,6 +46,9 @@ public class IntermediateCollection {
 
     public ParsedSchema getParsedSchema(String name) { return parsedSchemas.get(name); }
 
+    /** Returns the digests of the schema and rank profile sources parsed for each schema, by schema name. */
+    public Map<String, List<String>> getSourceDigests() { return Collections.unmodifiableMap(sourceDigests); }
+
     public ParsedSchema addSchemaFromString(String input) throws ParseException {
         var stream = new SimpleCharStream(input);
         var parser = new SchemaParser(stream, deployLogger, modelProperties);
@@ -51,6 +58,7 @@ public class IntermediateCollection {
                 throw new IllegalArgumentException("Duplicate schemas named: " + schema.name());
             }
             parsedSchemas.put(schema.name(), schema);
+            sourceDigests.computeIfAbsent(schema.name(), __ -> new ArrayList<>()).add(SchemaFingerprints.digest(input));
             return schema;
         } catch (TokenMgrException e) {
             throw new ParseException("Unknown symbol: " + e.getMessage());
@@ -129,10 +137,12 @@ public class IntermediateCollection {
             if (schema == null) {
                 throw new IllegalArgumentException("No schema named: " + schemaName);
             }
-            var stream = new SimpleCharStream(IOUtils.readAll(reader.getReader()));
+            String input = IOUtils.readAll(reader.getReader());
+            var stream = new SimpleCharStream(input);
             var parser = new SchemaParser(stream, deployLogger, modelProperties);
             try {
                 parser.rankProfile(schema);
+                sourceDigests.computeIfAbsent(schemaName, __ -> new ArrayList<>()).add(SchemaFingerprints.digest(input));
             } catch (ParseException pe) {
                 throw new ParseException("Failed parsing rank-profile from " + reader.getName() + ": " +
                                          stream.formatException(Exceptions.toMessageString(pe)));
@@ -4,14 +4,28 @@ package com.yahoo.schema.processing;
 import com.yahoo.config.application.api.DeployLogger;
 import com.yahoo.schema.RankProfileRegistry;
 import com.yahoo.schema.Schema;
+import com.yahoo.schema.derived.SearchOrderer;
 import com.yahoo.schema.processing.multifieldresolver.RankProfileTypeSettingsProcessor;
 import com.yahoo.vespa.model.container.search.QueryProfiles;
 import com.yahoo.config.model.api.ModelContext;
 import com.yahoo.config.model.deploy.TestProperties;
+import com.yahoo.vespa.model.utils.internal.ParallelTasks;
+import com.yahoo.vespa.model.utils.internal.Timings;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
 
 /**
  * Executor of processors. This defines the right order of processor execution.
@@ -129,6 +143,64 @@ public class Processing {
                 .forEach(processor -> runProcessor(processor, validate, documentsOnly));
     }
 
+    /**
+     * Runs all search processors on all the given schemas, like {@link #process(Schema, DeployLogger, RankProfileRegistry,
+     * QueryProfiles, boolean, boolean, Set)}, with the given executor, and adds the time spent in each processor to
+     * the given timings. Schemas which inherit one another are processed in order, in the same task, and schemas are
+     * processed after the schemas they reference. Other schemas are processed in parallel, except that processors
+     * which are {@link Processor#isCrossSchema() cross-schema} run alone.
+     *
+     * @param schemas the schemas to process, in the order they should be processed if this were done sequentially
+     */
+    public void process(List<Schema> schemas, DeployLogger deployLogger, RankProfileRegistry rankProfileRegistry,
+                        QueryProfiles queryProfiles, boolean validate, boolean documentsOnly,
+                        Set<Class<? extends Processor>> processorsToSkip, ExecutorService executor, Timings timings) {
+        DeployLogger logger = new SynchronizedDeployLogger(deployLogger);
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        ParallelTasks<Void> tasks = new ParallelTasks<>(executor);
+        Map<Schema, Future<Void>> processed = new HashMap<>();
+        for (List<Schema> group : new SearchOrderer().groupByInheritance(schemas)) {
+            Set<Future<Void>> dependencies = new LinkedHashSet<>();
+            for (Schema schema : group)
+                for (Schema target : referencedSchemas(schema))
+                    if (processed.containsKey(target)) dependencies.add(processed.get(target));
+
+            Future<Void> task = tasks.submit(() -> {
+                dependencies.forEach(ParallelTasks::await);
+                for (Schema schema : group)
+                    processors().stream()
+                                .map(factory -> factory.create(schema, logger, rankProfileRegistry, queryProfiles))
+                                .filter(processor -> ! processorsToSkip.contains(processor.getClass()))
+                                .forEach(processor -> runProcessor(processor, validate, documentsOnly, lock, timings));
+                return null;
+            });
+            group.forEach(schema -> processed.put(schema, task));
+        }
+        tasks.join();
+    }
+
+    private static List<Schema> referencedSchemas(Schema schema) {
+        List<Schema> targets = new ArrayList<>();
+        if (schema.getDocument() != null)
+            schema.getDocument().getDocumentReferences()
+                  .ifPresent(references -> references.forEach(entry -> targets.add(entry.getValue().targetSearch())));
+        return targets;
+    }
+
+    private void runProcessor(Processor processor, boolean validate, boolean documentsOnly, ReadWriteLock lock, Timings timings) {
+        Lock held = processor.isCrossSchema() ? lock.writeLock() : lock.readLock();
+        held.lock();
+        try {
+            timings.time("process " + processor.getClass().getSimpleName(), () -> {
+                runProcessor(processor, validate, documentsOnly);
+                return null;
+            });
+        }
+        finally {
+            held.unlock();
+        }
+    }
+
     /**
      * Runs rank profiles processors only.
      *
@@ -144,6 +216,21 @@ public class Processing {
                  .forEach(processor -> runProcessor(processor, validate, documentsOnly));
     }
 
+    /** Serializes logging from processors of different schemas, as deploy loggers need not be thread safe. */
+    private static class SynchronizedDeployLogger implements DeployLogger {
+
+        private final DeployLogger delegate;
+
+        SynchronizedDeployLogger(DeployLogger delegate) { this.delegate = delegate; }
+
+        @Override
+        public synchronized void log(Level level, String message) { delegate.log(level, message); }
+
+        @Override
+        public synchronized void logApplicationPackage(Level level, String message) { delegate.logApplicationPackage(level, message); }
+
+    }
+
     @FunctionalInterface
     public interface ProcessorFactory {
         Processor create(Schema schema, DeployLogger deployLogger, RankProfileRegistry rankProfileRegistry,
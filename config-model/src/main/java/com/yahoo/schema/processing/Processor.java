@@ -67,6 +67,13 @@ public abstract class Processor {
         process(validate, documentsOnly);
     }
 
+    /**
+     * Returns whether this reads or modifies rank profiles or fields of other schemas than its own, and the ones
+     * it inherits or references. Such processors are never run concurrently with processors of other schemas.
+     * Override if needed.
+     */
+    public boolean isCrossSchema() { return false; }
+
     /**
      * Convenience method for adding a no-strings-attached implementation field for a regular field
      *
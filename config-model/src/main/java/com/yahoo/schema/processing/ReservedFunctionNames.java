@@ -26,6 +26,10 @@ public class ReservedFunctionNames extends Processor {
         super(schema, deployLogger, rankProfileRegistry, queryProfiles);
     }
 
+    /** Reads the rank profiles of all schemas. */
+    @Override
+    public boolean isCrossSchema() { return true; }
+
     @Override
     public void process(boolean validate, boolean documentsOnly) {
         if ( ! validate) return;
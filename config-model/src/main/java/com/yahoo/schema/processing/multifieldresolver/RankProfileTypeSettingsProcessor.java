@@ -35,6 +35,10 @@ public class RankProfileTypeSettingsProcessor extends Processor {
         super(schema, deployLogger, rankProfileRegistry, queryProfiles);
     }
 
+    /** Reads, or adds query feature types to, the rank profiles of all schemas. */
+    @Override
+    public boolean isCrossSchema() { return true; }
+
     @Override
     public void process(boolean validate, boolean documentsOnly) {
         if (documentsOnly) return;
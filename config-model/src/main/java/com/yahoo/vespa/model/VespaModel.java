@@ -31,6 +31,7 @@ import com.yahoo.schema.OnnxModel;
 import com.yahoo.schema.RankProfile;
 import com.yahoo.schema.RankProfileRegistry;
 import com.yahoo.schema.derived.AttributeFields;
+import com.yahoo.schema.derived.RankProfileCache;
 import com.yahoo.schema.derived.RankProfileList;
 import com.yahoo.schema.document.SDField;
 import com.yahoo.schema.processing.Processing;
@@ -69,6 +70,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
@@ -111,6 +113,9 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
     /** The global rank profiles of this model */
     private final RankProfileList rankProfileList;
 
+    /** The rank profiles derived for the schemas of this model, for reuse by the next model */
+    private final RankProfileCache rankProfileCache;
+
     /** The validation overrides of this. This is never null. */
     private final ValidationOverrides validationOverrides;
 
@@ -118,6 +123,9 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
 
     private final Provisioned provisioned;
 
+    /** The builder class for each config definition served, or empty if generic, as finding these searches all producers */
+    private final Map<ConfigDefinitionKey, Optional<Class<?>>> builderClasses = new ConcurrentHashMap<>();
+
     /** Creates a Vespa Model from internal model types only */
     public VespaModel(ApplicationPackage app) throws IOException, SAXException {
         this(app, new NullConfigModelRegistry());
@@ -159,6 +167,7 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
         validationOverrides = deployState.validationOverrides();
         applicationPackage = deployState.getApplicationPackage();
         provisioned = deployState.provisioned();
+        rankProfileCache = deployState.getRankProfiles();
         VespaModelBuilder builder = new VespaDomBuilder();
         root = builder.getRoot(VespaModel.ROOT_CONFIGID, deployState, this);
 
@@ -171,12 +180,16 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
         HostSystem hostSystem = root.hostSystem();
         if (complete) { // create a completed, frozen model
             root.useFeatureFlags(deployState.getProperties().featureFlags());
+            long startNanos = System.nanoTime();
             configModelRepo.readConfigModels(deployState, this, builder, root, new VespaConfigModelRegistry(configModelRegistry));
+            deployState.getTimings().add("read config models", System.nanoTime() - startNanos);
             setupRouting(deployState);
             getAdmin().addPerHostServices(hostSystem.getHosts(), deployState);
             freezeModelTopology();
+            startNanos = System.nanoTime();
             root.prepare(configModelRepo);
             configModelRepo.prepareConfigModels(deployState);
+            deployState.getTimings().add("prepare config models", System.nanoTime() - startNanos);
             validateWrapExceptions();
             hostSystem.dumpPortAllocations();
             propagateRestartOnDeploy();
@@ -185,6 +198,7 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
 
         // must be done last
         this.allocatedHosts = AllocatedHosts.withHosts(hostSystem.getHostSpecs());
+        log.log(Level.FINE, () -> "Built model for " + applicationPackage.getApplicationId() + ", " + deployState.getTimings());
     }
 
     @Override
@@ -337,6 +351,9 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
     /** Returns the global rank profiles as a rank profile list */
     public RankProfileList rankProfileList() { return rankProfileList; }
 
+    /** Returns the rank profiles derived for the schemas of this, by the fingerprints of their sources */
+    public RankProfileCache rankProfileCache() { return rankProfileCache; }
+
     private void setupRouting(DeployState deployState) {
         root.setupRouting(deployState, this, configModelRepo);
     }
@@ -496,9 +513,28 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
     }
 
     private ConfigInstance.Builder createBuilder(ConfigDefinitionKey key) {
-        String className = createClassName(key.getName());
-        Class<?> clazz;
+        Optional<Class<?>> clazz = builderClasses.computeIfAbsent(key, this::findBuilderClass);
+        if (clazz.isEmpty()) {
+            // TODO: Enable config compiler when configserver is using new API.
+            // ConfigCompiler compiler = new LazyConfigCompiler(Files.createTempDir());
+            // return compiler.compile(targetDef.generateClass()).newInstance();
+            return new GenericConfigBuilder(key, new ConfigPayloadBuilder());
+        }
+        Object i;
+        try {
+            i = clazz.get().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ConfigurationRuntimeException(e);
+        }
+        if (!(i instanceof ConfigInstance.Builder)) {
+            throw new ConfigurationRuntimeException(clazz.get().getName() + " is not a ConfigInstance.Builder, can not produce config for the name '" + key.getName() + "'.");
+        }
+        return (ConfigInstance.Builder) i;
+    }
 
+    /** Returns the builder class for the given config definition, or empty if there is none, and a generic builder must be used. */
+    private Optional<Class<?>> findBuilderClass(ConfigDefinitionKey key) {
+        String className = createClassName(key.getName());
         Pair<String, ClassLoader> fullClassNameAndLoader = getClassLoaderForProducer(key, className);
         String fullClassName = fullClassNameAndLoader.getFirst();
         ClassLoader classLoader = fullClassNameAndLoader.getSecond();
@@ -509,24 +545,11 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Mode
             log.log(Level.FINE, () -> "No producer found to get classloader from for " + fullClassName + ". Using default");
         }
         try {
-            clazz = classLoader.loadClass(builderName);
+            return Optional.of(classLoader.loadClass(builderName));
         } catch (ClassNotFoundException e) {
             log.log(Level.FINE, () -> "Tried to load " + builderName + ", not found, trying with generic builder");
-            // TODO: Enable config compiler when configserver is using new API.
-            // ConfigCompiler compiler = new LazyConfigCompiler(Files.createTempDir());
-            // return compiler.compile(targetDef.generateClass()).newInstance();
-            return new GenericConfigBuilder(key, new ConfigPayloadBuilder());
+            return Optional.empty();
         }
-        Object i;
-        try {
-            i = clazz.getDeclaredConstructor().newInstance();
-        } catch (ReflectiveOperationException e) {
-            throw new ConfigurationRuntimeException(e);
-        }
-        if (!(i instanceof ConfigInstance.Builder)) {
-            throw new ConfigurationRuntimeException(fullClassName + " is not a ConfigInstance.Builder, can not produce config for the name '" + key.getName() + "'.");
-        }
-        return (ConfigInstance.Builder) i;
     }
 
     /**
@@ -66,6 +66,13 @@ public class VespaMetricSet {
         metrics.add(new Metric("jrt.transport.server.unencrypted-connections-established"));
         metrics.add(new Metric("jrt.transport.client.unencrypted-connections-established"));
 
+        // Java (JRT) write batching metrics
+        metrics.add(new Metric("jrt.transport.selector-wakeups"));
+        metrics.add(new Metric("jrt.transport.socket-writes"));
+        metrics.add(new Metric("jrt.transport.write-batches"));
+        metrics.add(new Metric("jrt.transport.packets-written"));
+        metrics.add(new Metric("jrt.transport.write-queue-nanos"));
+
         // C++ TLS metrics
         metrics.add(new Metric("vds.server.network.tls-handshakes-failed"));
         metrics.add(new Metric("vds.server.network.peer-authorization-failures"));
@@ -95,6 +102,9 @@ public class VespaMetricSet {
         metrics.add(new Metric("configserver.latency.count"));
         metrics.add(new Metric("configserver.cacheConfigElems.last"));
         metrics.add(new Metric("configserver.cacheChecksumElems.last"));
+        metrics.add(new Metric("configserver.payloadStoreElems.last"));
+        metrics.add(new Metric("configserver.payloadStoreHitRatio.last"));
+        metrics.add(new Metric("configserver.payloadStoreBytesShared.sum"));
         metrics.add(new Metric("configserver.hosts.last"));
         metrics.add(new Metric("configserver.delayedResponses.count"));
         metrics.add(new Metric("configserver.sessionChangeErrors.count"));
@@ -104,6 +114,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("configserver.zkMaxLatency.last"));
         metrics.add(new Metric("configserver.zkConnections.last"));
         metrics.add(new Metric("configserver.zkOutstandingRequests.last"));
+        metrics.add(new Metric("configserver.zkPhaseAvgLatency.last"));
+        metrics.add(new Metric("configserver.zkPhaseMaxLatency.last"));
 
         return metrics;
     }
@@ -176,6 +188,13 @@ public class VespaMetricSet {
         addMetric(metrics, "httpapi_condition_not_met", List.of("rate"));
         addMetric(metrics, "httpapi_not_found", List.of("rate"));
 
+        metrics.add(new Metric("mbus.messenger.queue_size.max"));
+        metrics.add(new Metric("mbus.messenger.queue_size.last"));
+        metrics.add(new Metric("mbus.messenger.tasks.rate"));
+        metrics.add(new Metric("mbus.messenger.latency.max"));
+        metrics.add(new Metric("mbus.messenger.latency.sum"));
+        metrics.add(new Metric("mbus.messenger.latency.count"));
+
         metrics.add(new Metric("mem.heap.total.average"));
         metrics.add(new Metric("mem.heap.free.average"));
         metrics.add(new Metric("mem.heap.used.average"));
@@ -21,6 +21,7 @@ import com.yahoo.vespa.model.container.docproc.DocprocChain;
 import com.yahoo.vespa.model.content.DispatchSpec;
 import com.yahoo.vespa.model.content.DispatchTuning;
 import com.yahoo.vespa.model.content.SearchCoverage;
+import com.yahoo.vespa.model.utils.internal.ParallelTasks;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -190,12 +191,13 @@ public class IndexedSearchCluster extends SearchCluster
 
     @Override
     public void deriveFromSchemas(DeployState deployState) {
+        ParallelTasks<DerivedConfiguration> tasks = new ParallelTasks<>(deployState.getExecutor());
         for (SchemaInfo spec : schemas().values()) {
             if (spec.fullSchema() instanceof DocumentOnlySchema) continue;
-            DocumentDatabase db = new DocumentDatabase(this, spec.fullSchema().getName(),
-                                                       new DerivedConfiguration(spec.fullSchema(), deployState));
-            documentDbs.add(db);
+            tasks.submit(() -> new DerivedConfiguration(spec.fullSchema(), deployState));
         }
+        for (DerivedConfiguration derived : tasks.join())
+            documentDbs.add(new DocumentDatabase(this, derived.getSchema().getName(), derived));
     }
 
     public List<DocumentDatabase> getDocumentDbs() {
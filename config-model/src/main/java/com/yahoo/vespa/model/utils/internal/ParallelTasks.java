@@ -0,0 +1,97 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.model.utils.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a group of tasks using an executor which may also be used by the tasks themselves, like the one of a
+ * {@link com.yahoo.config.model.deploy.DeployState}. Waiting for a task which has not yet started runs it in
+ * the waiting thread, instead of blocking it, so tasks may wait for other tasks, including ones they submit
+ * themselves, without starving an executor with few threads. Once a task fails, tasks which have not yet
+ * started are skipped, and the failure is rethrown when the group is joined.
+ *
+ * @author agent
+ */
+public class ParallelTasks<T> {
+
+    private final ExecutorService executor;
+    private final List<FutureTask<T>> tasks = new ArrayList<>();
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    public ParallelTasks(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /** Submits the given task for execution, and returns a future which may be passed to {@link #await}. */
+    public Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(() -> {
+            if (failed.get()) throw new SkippedException();
+            try {
+                return task.call();
+            }
+            catch (Throwable t) {
+                failed.set(true);
+                throw t;
+            }
+        });
+        tasks.add(future);
+        executor.execute(future);
+        return future;
+    }
+
+    /**
+     * Waits for all submitted tasks to complete, and returns their results in submission order.
+     * If any task failed, the failure of the first of these is rethrown instead.
+     */
+    public List<T> join() {
+        for (FutureTask<T> task : tasks)
+            task.run(); // Runs the task in this thread, unless it was already started.
+
+        List<T> results = new ArrayList<>(tasks.size());
+        RuntimeException skipped = null;
+        for (FutureTask<T> task : tasks) {
+            try {
+                results.add(await(task));
+            }
+            catch (SkippedException e) {
+                skipped = e;
+            }
+        }
+        if (skipped != null) throw new IllegalStateException("A task was skipped, but no task failed", skipped);
+        return results;
+    }
+
+    /**
+     * Returns the result of the given task, which must have been submitted to a task group, running it in
+     * this thread if not yet started, or rethrows what it threw.
+     */
+    public static <T> T await(Future<T> future) {
+        if (future instanceof FutureTask<T> task)
+            task.run(); // Runs the task in this thread, unless it was already started.
+
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for task", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static class SkippedException extends RuntimeException {
+        SkippedException() { super("Skipped because another task failed", null, false, false); }
+    }
+
+}
@@ -0,0 +1,55 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.model.utils.internal;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Accumulates the time spent in each named phase of building a model, from any number of threads.
+ * Phases run in parallel add up their time across threads, so the sum of the breakdown may exceed the wall time.
+ *
+ * @author agent
+ */
+public class Timings {
+
+    private final Map<String, LongAdder> nanos = new ConcurrentHashMap<>();
+
+    /** Runs the given task, and adds its run time to the given phase. */
+    public <T> T time(String phase, Supplier<T> task) {
+        long startNanos = System.nanoTime();
+        try {
+            return task.get();
+        }
+        finally {
+            add(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    /** Adds the given number of nanoseconds to the given phase. */
+    public void add(String phase, long nanos) {
+        this.nanos.computeIfAbsent(phase, __ -> new LongAdder()).add(nanos);
+    }
+
+    /** Returns the time spent in each phase so far, with the most time consuming phases first. */
+    public Map<String, Duration> breakdown() {
+        return nanos.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), Duration.ofNanos(entry.getValue().sum())))
+                    .sorted(Map.Entry.<String, Duration>comparingByValue(Comparator.reverseOrder())
+                                     .thenComparing(Map.Entry.comparingByKey()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    @Override
+    public String toString() {
+        return breakdown().entrySet().stream()
+                          .map(entry -> entry.getKey() + ": " + entry.getValue().toMillis() + " ms")
+                          .collect(Collectors.joining(", ", "timings: [", "]"));
+    }
+
+}
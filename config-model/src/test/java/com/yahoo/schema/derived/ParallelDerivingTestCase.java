@@ -0,0 +1,102 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.schema.derived;
+
+import com.yahoo.concurrent.InThreadExecutorService;
+import com.yahoo.config.model.application.provider.BaseDeployLogger;
+import com.yahoo.config.model.application.provider.MockFileRegistry;
+import com.yahoo.config.model.deploy.DeployState;
+import com.yahoo.config.model.deploy.TestProperties;
+import com.yahoo.config.model.test.MockApplicationPackage;
+import com.yahoo.schema.AbstractSchemaTestCase;
+import com.yahoo.schema.ApplicationBuilder;
+import com.yahoo.schema.RankProfileRegistry;
+import com.yahoo.schema.Schema;
+import com.yahoo.schema.parser.ParseException;
+import com.yahoo.search.query.profile.QueryProfileRegistry;
+import com.yahoo.vespa.model.utils.internal.ParallelTasks;
+import com.yahoo.vespa.model.utils.internal.Timings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that processing and deriving schemas in parallel gives the same result as doing it sequentially.
+ *
+ * @author agent
+ */
+public class ParallelDerivingTestCase extends AbstractSchemaTestCase {
+
+    @TempDir
+    public File tmpDir;
+
+    @Test
+    void parallelDerivingEqualsSequentialDeriving() throws IOException, ParseException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (String application : List.of("importedfields", "imported_fields_inherited_reference", "inheritdiamond",
+                                              "rankprofileinheritance", "reference_from_several")) {
+                Timings timings = new Timings();
+                Map<String, String> sequential = derive(application, new InThreadExecutorService(), new Timings(), "sequential");
+                Map<String, String> parallel = derive(application, executor, timings, "parallel");
+                assertFalse(sequential.isEmpty());
+                assertEquals(sequential, parallel, application);
+                assertTrue(timings.breakdown().containsKey("process schemas"), timings.toString());
+                assertTrue(timings.breakdown().containsKey("derive RankProfileList"), timings.toString());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Returns the exported config of all schemas in the given application, by schema and file name. */
+    private Map<String, String> derive(String application, ExecutorService executor, Timings timings, String run) throws IOException, ParseException {
+        String dir = "src/test/derived/" + application + "/";
+        RankProfileRegistry rankProfileRegistry = new RankProfileRegistry();
+        QueryProfileRegistry queryProfileRegistry = new QueryProfileRegistry();
+        ApplicationBuilder builder = new ApplicationBuilder(MockApplicationPackage.createEmpty(), new MockFileRegistry(),
+                                                            new BaseDeployLogger(), new TestProperties(),
+                                                            rankProfileRegistry, queryProfileRegistry);
+        try (Stream<Path> files = Files.list(Path.of(dir))) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".sd")).sorted().toList())
+                builder.addSchemaFile(file.toString());
+        }
+        builder.build(true, executor, timings);
+
+        DeployState deployState = new DeployState.Builder().rankProfileRegistry(rankProfileRegistry)
+                                                           .queryProfiles(queryProfileRegistry)
+                                                           .executor(executor)
+                                                           .build();
+        ParallelTasks<DerivedConfiguration> tasks = new ParallelTasks<>(executor);
+        for (Schema schema : builder.getSchemaList())
+            tasks.submit(() -> new DerivedConfiguration(schema, deployState));
+
+        Map<String, String> exported = new TreeMap<>();
+        for (DerivedConfiguration derived : tasks.join()) {
+            Path toDir = tmpDir.toPath().resolve(run).resolve(application).resolve(derived.getSchema().getName());
+            Files.createDirectories(toDir);
+            derived.export(toDir.toString());
+            try (Stream<Path> files = Files.list(toDir)) {
+                for (Path file : files.toList())
+                    exported.put(derived.getSchema().getName() + "/" + file.getFileName(), Files.readString(file));
+            }
+        }
+        deployState.getTimings().breakdown().forEach((phase, duration) -> timings.add(phase, duration.toNanos()));
+        return exported;
+    }
+
+}
@@ -0,0 +1,99 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.schema.derived;
+
+import com.yahoo.config.model.deploy.DeployState;
+import com.yahoo.config.model.test.MockApplicationPackage;
+import com.yahoo.vespa.config.search.RankProfilesConfig;
+import com.yahoo.vespa.model.VespaModel;
+import com.yahoo.vespa.model.search.IndexedSearchCluster;
+import com.yahoo.vespa.model.test.utils.VespaModelCreatorWithMockPkg;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Verifies that rank profiles of schemas with unchanged sources are reused from the previous model.
+ *
+ * @author agent
+ */
+public class RankProfileReuseTestCase {
+
+    private static final String services =
+            "<?xml version='1.0' encoding='utf-8' ?>" +
+            "<services version='1.0'>" +
+            "  <content version='1.0' id='test'>" +
+            "    <redundancy>1</redundancy>" +
+            "    <documents>" +
+            "      <document type='first' mode='index'/>" +
+            "      <document type='second' mode='index'/>" +
+            "    </documents>" +
+            "    <nodes>" +
+            "      <node hostalias='node0' distribution-key='0'/>" +
+            "    </nodes>" +
+            "  </content>" +
+            "</services>";
+
+    private static String schema(String name, String expression) {
+        return "schema " + name + " {" +
+               "  document " + name + " {" +
+               "    field f type int { indexing: attribute }" +
+               "  }" +
+               "  rank-profile p {" +
+               "    first-phase { expression: " + expression + " }" +
+               "  }" +
+               "}";
+    }
+
+    @Test
+    void unchangedSchemasReuseRankProfilesFromPreviousModel() {
+        VespaModel first = model(List.of(schema("first", "attribute(f)"), schema("second", "attribute(f)")), null);
+        VespaModel second = model(List.of(schema("first", "attribute(f)"), schema("second", "attribute(f)")), first);
+        assertSame(rankProfile(first, "first"), rankProfile(second, "first"));
+        assertSame(rankProfile(first, "second"), rankProfile(second, "second"));
+        assertEquals(config(first, "first"), config(second, "first"));
+
+        VespaModel third = model(List.of(schema("first", "attribute(f)"), schema("second", "attribute(f) * 2")), second);
+        assertSame(rankProfile(second, "first"), rankProfile(third, "first"));
+        assertNotSame(rankProfile(second, "second"), rankProfile(third, "second"));
+        assertEquals(config(second, "first"), config(third, "first"));
+        assertEquals("attribute(f) * 2", firstPhase(config(third, "second")));
+    }
+
+    private static VespaModel model(List<String> schemas, VespaModel previous) {
+        var applicationPackage = new MockApplicationPackage.Builder().withServices(services).withSchemas(schemas).build();
+        var deployState = new DeployState.Builder();
+        if (previous != null) deployState.previousModel(previous);
+        return new VespaModelCreatorWithMockPkg(applicationPackage).create(deployState);
+    }
+
+    private static RawRankProfile rankProfile(VespaModel model, String schema) {
+        return derived(model, schema).getRankProfileList().getRankProfiles().get("p");
+    }
+
+    private static RankProfilesConfig config(VespaModel model, String schema) {
+        RankProfilesConfig.Builder builder = new RankProfilesConfig.Builder();
+        derived(model, schema).getRankProfileList().getConfig(builder);
+        return builder.build();
+    }
+
+    private static DerivedConfiguration derived(VespaModel model, String schema) {
+        return ((IndexedSearchCluster) model.getSearchClusters().get(0)).getDocumentDbs().stream()
+                                                                         .filter(db -> db.getSchemaName().equals(schema))
+                                                                         .findFirst().orElseThrow()
+                                                                         .getDerivedConfiguration();
+    }
+
+    private static String firstPhase(RankProfilesConfig config) {
+        return config.rankprofile().stream()
+                     .filter(profile -> profile.name().equals("p"))
+                     .flatMap(profile -> profile.fef().property().stream())
+                     .filter(property -> property.name().equals("rankingExpression(firstphase).rankingScript"))
+                     .map(property -> property.value())
+                     .findFirst().orElseThrow();
+    }
+
+}
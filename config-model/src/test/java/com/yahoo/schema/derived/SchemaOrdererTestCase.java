@@ -143,5 +143,20 @@ public class SchemaOrdererTestCase extends AbstractSchemaTestCase {
                 Arrays.asList("accessory-pc", "daughter", "pc", "son", "mother", "grandParent", "father", "product", "alone"));
     }
 
+    @Test
+    void schemas_are_grouped_by_inheritance() {
+        Map<String, Schema> schemas = createSchemas();
+        List<Schema> ordered = new SearchOrderer().order(Arrays.asList(schemas.get("accessory-pc"), schemas.get("daughter"), schemas.get("pc"),
+                                                                       schemas.get("son"), schemas.get("mother"), schemas.get("grandParent"),
+                                                                       schemas.get("father"), schemas.get("product"), schemas.get("alone")));
+        List<List<String>> groups = new SearchOrderer().groupByInheritance(ordered)
+                                                       .stream()
+                                                       .map(group -> group.stream().map(Schema::getName).collect(toList()))
+                                                       .collect(toList());
+        assertEquals(List.of(List.of("grandParent", "mother", "father", "daughter", "son"),
+                             List.of("product", "pc", "accessory-pc"),
+                             List.of("alone")),
+                     groups);
+    }
 
 }
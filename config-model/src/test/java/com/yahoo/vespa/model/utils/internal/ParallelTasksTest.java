@@ -0,0 +1,54 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.model.utils.internal;
+
+import com.yahoo.concurrent.InThreadExecutorService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author agent
+ */
+public class ParallelTasksTest {
+
+    @Test
+    void nestedTasksDoNotStarveExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ParallelTasks<Integer> outer = new ParallelTasks<>(executor);
+            for (int i = 0; i < 4; i++) {
+                int value = i;
+                outer.submit(() -> {
+                    // The only executor thread is busy with this task, so the inner tasks must run in this thread.
+                    ParallelTasks<Integer> inner = new ParallelTasks<>(executor);
+                    Future<Integer> first = inner.submit(() -> value);
+                    inner.submit(() -> ParallelTasks.await(first) * 10);
+                    return inner.join().stream().mapToInt(Integer::intValue).sum();
+                });
+            }
+            assertEquals(List.of(0, 11, 22, 33), outer.join());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failureSkipsRemainingTasksAndIsRethrown() {
+        AtomicInteger runs = new AtomicInteger();
+        ParallelTasks<Integer> tasks = new ParallelTasks<>(new InThreadExecutorService());
+        tasks.submit(() -> { runs.incrementAndGet(); return 1; });
+        tasks.submit(() -> { runs.incrementAndGet(); throw new IllegalArgumentException("failed"); });
+        tasks.submit(() -> { runs.incrementAndGet(); return 3; });
+        assertEquals("failed", assertThrows(IllegalArgumentException.class, tasks::join).getMessage());
+        assertEquals(2, runs.get());
+    }
+
+}
@@ -18,7 +18,6 @@ import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequestV3;
 
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -110,6 +109,10 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
                 this::getMode)
                 .methodDesc("What serving mode the config proxy is in (default, memorycache)")
                 .returnDesc(0, "ret", "mode as a string"));
+        supervisor.addMethod(new Method("printStatistics", "", "S",
+                this::printStatistics)
+                .methodDesc("print statistics for upstream subscriptions and delayed responses")
+                .returnDesc(0, "data", "string array of statistics, as name=value"));
         supervisor.addMethod(new Method("dumpCache", "s", "s",
                 this::dumpCache)
                 .methodDesc("Dump cache to disk")
@@ -178,6 +181,13 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
         });
     }
 
+    private void printStatistics(Request req) {
+        dispatchRpcRequest(req, () -> {
+            req.returnValues().add(new StringArray(proxyServer.statistics().toArray(new String[0])));
+            req.returnRequest();
+        });
+    }
+
     private void invalidateCache(Request req) {
         dispatchRpcRequest(req, () -> {
             proxyServer.memoryCache().clear();
@@ -317,14 +327,8 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
     @Override
     public void notifyTargetInvalid(Target target) {
         log.log(Level.FINE, () -> "Target invalid " + target);
-        for (Iterator<DelayedResponse> it = proxyServer.delayedResponses().responses().iterator(); it.hasNext(); ) {
-            DelayedResponse delayed = it.next();
-            JRTServerConfigRequest request = delayed.getRequest();
-            if (request.getRequest().target().equals(target)) {
-                log.log(Level.FINE, () -> "Removing " + request.getShortDescription());
-                it.remove();
-            }
-        }
+        for (DelayedResponse delayed : proxyServer.delayedResponses().remove(delayed -> delayed.getRequest().getRequest().target().equals(target)))
+            log.log(Level.FINE, () -> "Removed " + delayed.getRequest().getShortDescription());
         // TODO: Could we also cancel active getConfig requests upstream if the client was the only one
         // requesting this config?
     }
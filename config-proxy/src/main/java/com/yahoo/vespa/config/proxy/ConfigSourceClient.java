@@ -29,4 +29,7 @@ interface ConfigSourceClient {
 
     MemoryCache memoryCache();
 
+    /** Returns statistics for this client, as lines of name=value. */
+    List<String> statistics();
+
 }
@@ -43,9 +43,8 @@ public class DelayedResponseHandler implements Runnable {
         try {
             long start = System.currentTimeMillis();
             log.log(Level.FINEST, () -> "Running DelayedResponseHandler. There are " + delayedResponses.size() +
-                    " delayed responses. First one is " + delayedResponses.responses().peek());
-            DelayedResponse response;
-            while ((response = delayedResponses.responses().poll()) != null) {
+                    " delayed responses");
+            for (DelayedResponse response : delayedResponses.removeExpired()) {
                 JRTServerConfigRequest request = response.getRequest();
                 ConfigCacheKey cacheKey = new ConfigCacheKey(request.getConfigKey(), request.getRequestDefMd5());
                 Optional<RawConfig> config = memoryCache.get(cacheKey);
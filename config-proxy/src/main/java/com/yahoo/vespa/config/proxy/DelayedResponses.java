@@ -1,31 +1,99 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.config.proxy;
 
-import java.util.concurrent.DelayQueue;
+import com.yahoo.vespa.config.ConfigKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
- * Queue for requests that have no corresponding config in cache and which we are awaiting response from server for
+ * Requests that have no corresponding config in cache and which we are awaiting response from server for,
+ * by config key, so new config for a key is returned to all requests waiting for it in one pass.
+ * A response is returned by whoever removes it from this, which only one caller can succeed with, so returning
+ * new config, and returning timed out requests, need no further coordination, nor any lock on all responses.
+ * Sets are added to, and removed from when empty, only in atomic updates of their key's mapping.
  *
  * @author hmusum
  */
 class DelayedResponses {
 
-    private final DelayQueue<DelayedResponse> delayedResponses = new DelayQueue<>();
+    private final Map<ConfigKey<?>, Set<DelayedResponse>> delayedResponses = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
 
     void add(DelayedResponse response) {
-        delayedResponses.add(response);
+        delayedResponses.compute(response.getRequest().getConfigKey(), (__, responses) -> {
+            if (responses == null) responses = ConcurrentHashMap.newKeySet();
+            responses.add(response);
+            return responses;
+        });
+        size.incrementAndGet();
     }
 
+    /** Removes the given response, and returns whether it was present, i.e., whether the caller should return it. */
     boolean remove(DelayedResponse response) {
-        return delayedResponses.remove(response);
+        ConfigKey<?> key = response.getRequest().getConfigKey();
+        Set<DelayedResponse> responses = delayedResponses.get(key);
+        if (responses == null || ! responses.remove(response)) return false;
+        size.decrementAndGet();
+        removeIfEmpty(key);
+        return true;
+    }
+
+    /** Removes and returns all responses for the given key which match the given filter. */
+    List<DelayedResponse> remove(ConfigKey<?> key, Predicate<DelayedResponse> filter) {
+        Set<DelayedResponse> responses = delayedResponses.get(key);
+        if (responses == null) return List.of();
+        return remove(key, responses, filter);
+    }
+
+    /** Removes and returns all responses which match the given filter. */
+    List<DelayedResponse> remove(Predicate<DelayedResponse> filter) {
+        List<DelayedResponse> removed = new ArrayList<>();
+        for (Map.Entry<ConfigKey<?>, Set<DelayedResponse>> responses : delayedResponses.entrySet())
+            removed.addAll(remove(responses.getKey(), responses.getValue(), filter));
+        return removed;
+    }
+
+    /** Removes and returns all responses whose requests have timed out. */
+    List<DelayedResponse> removeExpired() {
+        long now = System.currentTimeMillis();
+        return remove(response -> response.getReturnTime() <= now);
     }
 
-    DelayQueue<DelayedResponse> responses() {
-        return delayedResponses;
+    /** Returns a snapshot of the responses in this. */
+    List<DelayedResponse> responses() {
+        List<DelayedResponse> responses = new ArrayList<>();
+        delayedResponses.values().forEach(responses::addAll);
+        return responses;
     }
 
     int size() {
-        return responses().size();
+        return size.get();
+    }
+
+    /** Returns the number of config keys with responses in this. */
+    int keys() {
+        return delayedResponses.size();
+    }
+
+    private List<DelayedResponse> remove(ConfigKey<?> key, Set<DelayedResponse> responses, Predicate<DelayedResponse> filter) {
+        List<DelayedResponse> removed = new ArrayList<>();
+        for (DelayedResponse response : responses)
+            if (filter.test(response) && responses.remove(response)) {
+                size.decrementAndGet();
+                removed.add(response);
+            }
+        if ( ! removed.isEmpty()) removeIfEmpty(key);
+        return removed;
+    }
+
+    private void removeIfEmpty(ConfigKey<?> key) {
+        delayedResponses.computeIfPresent(key, (__, responses) -> responses.isEmpty() ? null : responses);
     }
 
 }
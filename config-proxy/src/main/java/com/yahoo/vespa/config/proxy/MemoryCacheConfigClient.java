@@ -67,4 +67,9 @@ class MemoryCacheConfigClient implements ConfigSourceClient {
     @Override
     public MemoryCache memoryCache() { return cache; }
 
+    @Override
+    public List<String> statistics() {
+        return List.of("cachedConfigs=" + cache.size());
+    }
+
 }
@@ -59,7 +59,7 @@ public class ProxyServer implements Runnable {
         this.supervisor = new Supervisor(new Transport("proxy-server", JRT_TRANSPORT_THREADS)).setDropEmptyBuffers(true);
         this.rpcServer = createRpcServer(spec);
         this.configClient = Objects.requireNonNull(configClient);
-        this.fileDistributionAndUrlDownload = new FileDistributionAndUrlDownload(supervisor, source);
+        this.fileDistributionAndUrlDownload = new FileDistributionAndUrlDownload(supervisor, source, Optional.ofNullable(spec));
     }
 
     @Override
@@ -221,4 +221,8 @@ public class ProxyServer implements Runnable {
         return configClient.delayedResponses();
     }
 
+    List<String> statistics() {
+        return configClient.statistics();
+    }
+
 }
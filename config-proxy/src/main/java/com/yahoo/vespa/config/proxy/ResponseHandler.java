@@ -3,6 +3,7 @@ package com.yahoo.vespa.config.proxy;
 
 import com.yahoo.vespa.config.RawConfig;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
+import com.yahoo.vespa.config.protocol.PayloadDeltas;
 
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
@@ -18,6 +19,9 @@ import static com.yahoo.vespa.config.proxy.ConfigProxyRpcServer.TRACELEVEL;
  */
 public class ResponseHandler  {
 
+    /** Deltas between payloads served by this proxy, shared by all handlers, as clients may be served by any of these. */
+    private static final PayloadDeltas payloadDeltas = new PayloadDeltas();
+
     private final Optional<AtomicLong> sentResponses;
 
     public ResponseHandler() {
@@ -36,7 +40,8 @@ public class ResponseHandler  {
         request.addOkResponse(config.getPayload(),
                               config.getGeneration(),
                               config.applyOnRestart(),
-                              config.getPayloadChecksums());
+                              config.getPayloadChecksums(),
+                              payloadDeltas);
         log.log(Level.FINE, () -> "Return response: " + request.getShortDescription() + ",config checksums=" + config.getPayloadChecksums() +
                 ",generation=" + config.getGeneration());
         log.log(Level.FINEST, () -> "Config payload in response for " + request.getShortDescription() + ":" + config.getPayload());
@@ -52,6 +57,11 @@ public class ResponseHandler  {
         sentResponses.ifPresent(AtomicLong::getAndIncrement);
     }
 
+    /** Keeps the given config, which the client of the given request already has, as the base for the next delta to it. */
+    public void keepPayloadDeltaBase(JRTServerConfigRequest request, RawConfig config) {
+        request.keepPayloadDeltaBase(config.getPayload(), config.getPayloadChecksums(), payloadDeltas);
+    }
+
     public void returnErrorResponse(JRTServerConfigRequest request, int errorCode, String message) {
         request.getRequestTrace().trace(TRACELEVEL, "Config proxy returnErrorResponse()");
         request.addErrorResponse(errorCode, message);
@@ -11,6 +11,7 @@ import com.yahoo.jrt.Spec;
 import com.yahoo.jrt.Supervisor;
 import com.yahoo.jrt.Target;
 import com.yahoo.jrt.Transport;
+import com.yahoo.log.event.Event;
 import com.yahoo.vespa.config.ConfigCacheKey;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.RawConfig;
@@ -24,10 +25,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -60,6 +62,13 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
     private final ScheduledExecutorService delayedResponsesScheduler =
             Executors.newScheduledThreadPool(1, new DaemonThreadFactory("delayed responses"));
     private final ScheduledFuture<?> delayedResponsesFuture;
+    private final LongAdder fanOuts = new LongAdder();
+    private final LongAdder fanOutResponses = new LongAdder();
+    private final LongAdder totalFanOutNanos = new LongAdder();
+    private final AtomicLong maxFanOutNanos = new AtomicLong();
+    private final AtomicLong periodMaxFanOutNanos = new AtomicLong();
+    private long reportedFanOuts = 0;
+    private long reportedFanOutNanos = 0;
 
     RpcConfigSourceClient(ResponseHandler responseHandler, ConfigSourceSet configSourceSet) {
         this.responseHandler = responseHandler;
@@ -71,6 +80,7 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
         this.requesters = new JrtConfigRequesters();
         DelayedResponseHandler command = new DelayedResponseHandler(delayedResponses, memoryCache, responseHandler);
         this.delayedResponsesFuture = delayedResponsesScheduler.scheduleAtFixedRate(command, 5, 1, SECONDS);
+        delayedResponsesScheduler.scheduleAtFixedRate(this::reportMetrics, 60, 60, SECONDS);
     }
 
     /**
@@ -132,6 +142,10 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
                     return cachedConfig;
                 }
             }
+            else if ( ! config.isError()) {
+                // The client may have this config from before this proxy started, so keep it as the base for the next delta
+                responseHandler.keepPayloadDeltaBase(request, config);
+            }
             if (!config.isError() && config.getGeneration() > 0) {
                 needToGetConfig = false;
             }
@@ -220,39 +234,63 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
     /**
      * Updates subscribers with new config. This method will be called when a response with changed config is
      * received from upstream (content or generation has changed) or the server timeout has elapsed.
+     * All requests waiting for the key of the config are found and returned in one pass.
      *
      * @param config new config
      */
     public void updateSubscribers(RawConfig config) {
+        long startNanos = System.nanoTime();
         ConfigKey<?> key = config.getKey();
         long generation = config.getGeneration();
         log.log(Level.FINE, () -> "Config updated for " + key + "," + generation);
-        DelayQueue<DelayedResponse> responseDelayQueue = delayedResponses.responses();
-        if (responseDelayQueue.size() == 0) return;
-
-        log.log(Level.FINE, () -> "Delayed response queue has " + responseDelayQueue.size() + " elements");
-        log.log(Level.FINEST, () -> "Delayed response queue: " + responseDelayQueue);
-        boolean found = false;
-        for (DelayedResponse response : responseDelayQueue.toArray(new DelayedResponse[0])) {
-            JRTServerConfigRequest request = response.getRequest();
-            if (request.getConfigKey().equals(key)
-                    // Generation 0 is special, used when returning empty sentinel config
-                    && (generation >= request.getRequestGeneration() || generation == 0)) {
-                if (delayedResponses.remove(response)) {
-                    found = true;
-                    log.log(Level.FINE, () -> "Call returnOkResponse for " + key + "," + generation);
-                    if (config.getPayload().getData().getByteLength() == 0)
-                        log.log(Level.WARNING, () -> "Call returnOkResponse for " + key + "," + generation + " with empty config");
-                    responseHandler.returnOkResponse(request, config);
-                } else {
-                    log.log(Level.INFO, "Could not remove " + key + " from delayedResponses queue, already removed");
-                }
-            }
+        // Generation 0 is special, used when returning empty sentinel config
+        List<DelayedResponse> responses = delayedResponses.remove(key, response -> generation >= response.getRequest().getRequestGeneration()
+                                                                                   || generation == 0);
+        if (responses.isEmpty()) {
+            log.log(Level.FINE, () -> "Found no recipient for " + key + " in delayed responses");
+            return;
         }
-        if (!found) {
-            log.log(Level.FINE, () -> "Found no recipient for " + key + " in delayed response queue");
+
+        if (config.getPayload().getData().getByteLength() == 0)
+            log.log(Level.WARNING, () -> "Call returnOkResponse for " + key + "," + generation + " with empty config");
+        for (DelayedResponse response : responses) {
+            log.log(Level.FINE, () -> "Call returnOkResponse for " + key + "," + generation);
+            responseHandler.returnOkResponse(response.getRequest(), config);
         }
-        log.log(Level.FINE, () -> "Finished updating config for " + key + "," + generation);
+        long fanOutNanos = System.nanoTime() - startNanos;
+        fanOuts.increment();
+        fanOutResponses.add(responses.size());
+        totalFanOutNanos.add(fanOutNanos);
+        maxFanOutNanos.accumulateAndGet(fanOutNanos, Math::max);
+        periodMaxFanOutNanos.accumulateAndGet(fanOutNanos, Math::max);
+        log.log(Level.FINE, () -> "Finished updating config for " + key + "," + generation + ", returned " +
+                                  responses.size() + " responses in " + fanOutNanos / 1_000 + " us");
+    }
+
+    @Override
+    public List<String> statistics() {
+        long fanOuts = this.fanOuts.sum();
+        return List.of("upstreamSubscriptions=" + subscribers.size(),
+                       "delayedResponses=" + delayedResponses.size(),
+                       "fanOuts=" + fanOuts,
+                       "fanOutResponses=" + fanOutResponses.sum(),
+                       "fanOutLatencyAverageMillis=" + (fanOuts == 0 ? 0 : totalFanOutNanos.sum() / fanOuts / 1e6),
+                       "fanOutLatencyMaxMillis=" + maxFanOutNanos.get() / 1e6);
+    }
+
+    /** Reports statistics as metric events, with fan-out latencies for the period since the last report. */
+    void reportMetrics() {
+        long fanOuts = this.fanOuts.sum();
+        long fanOutNanos = totalFanOutNanos.sum();
+        long periodFanOuts = fanOuts - reportedFanOuts;
+        Event.value("configproxy.upstreamSubscriptions", subscribers.size());
+        Event.value("configproxy.delayedResponses", delayedResponses.size());
+        Event.count("configproxy.fanOuts", fanOuts);
+        Event.count("configproxy.fanOutResponses", fanOutResponses.sum());
+        Event.value("configproxy.fanOutLatencyAverageMillis", periodFanOuts == 0 ? 0 : (fanOutNanos - reportedFanOutNanos) / periodFanOuts / 1e6);
+        Event.value("configproxy.fanOutLatencyMaxMillis", periodMaxFanOutNanos.getAndSet(0) / 1e6);
+        reportedFanOuts = fanOuts;
+        reportedFanOutNanos = fanOutNanos;
     }
 
     @Override
@@ -3,11 +3,14 @@ package com.yahoo.vespa.config.proxy.filedistribution;
 
 import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.config.subscription.ConfigSourceSet;
+import com.yahoo.jrt.Spec;
 import com.yahoo.jrt.Supervisor;
+import com.yahoo.net.HostName;
 import com.yahoo.vespa.filedistribution.FileDistributionConnectionPool;
 import com.yahoo.vespa.filedistribution.FileDownloader;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -31,7 +34,12 @@ public class FileDistributionAndUrlDownload {
             new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("file references and downloads cleanup"));
 
     public FileDistributionAndUrlDownload(Supervisor supervisor, ConfigSourceSet source) {
-        fileDistributionRpcServer = new FileDistributionRpcServer(supervisor, createDownloader(supervisor, source));
+        this(supervisor, source, Optional.empty());
+    }
+
+    /** Creates a new instance, which serves downloaded files to peers on the given spec, if peer-to-peer distribution is enabled. */
+    public FileDistributionAndUrlDownload(Supervisor supervisor, ConfigSourceSet source, Optional<Spec> spec) {
+        fileDistributionRpcServer = new FileDistributionRpcServer(supervisor, createDownloader(supervisor, source, spec));
         urlDownloadRpcServer = new UrlDownloadRpcServer(supervisor);
         cleanupExecutor.scheduleAtFixedRate(new CachedFilesMaintainer(), delay.toSeconds(), delay.toSeconds(), TimeUnit.SECONDS);
     }
@@ -48,17 +56,22 @@ public class FileDistributionAndUrlDownload {
         }
     }
 
-    private FileDownloader createDownloader(Supervisor supervisor, ConfigSourceSet source) {
+    private FileDownloader createDownloader(Supervisor supervisor, ConfigSourceSet source, Optional<Spec> spec) {
         Set<CompressionType> acceptedCompressionTypes = Set.of(CompressionType.gzip);
         String env = System.getenv("VESPA_FILE_DISTRIBUTION_ACCEPTED_COMPRESSION_TYPES");
         if (env != null && ! env.isEmpty()) {
             String[] types = env.split(",");
             acceptedCompressionTypes = Arrays.stream(types).map(CompressionType::valueOf).collect(Collectors.toSet());
         }
+        // Nodes may download large files from peers which already have them, instead of all from the config servers
+        Optional<String> peerSpec = Boolean.parseBoolean(System.getenv("VESPA_FILE_DISTRIBUTION_PEER_TO_PEER"))
+                                    ? spec.map(s -> "tcp/" + HostName.getLocalhost() + ":" + s.port())
+                                    : Optional.empty();
         return new FileDownloader(new FileDistributionConnectionPool(source, supervisor),
                                   supervisor,
                                   Duration.ofMinutes(5),
-                                  acceptedCompressionTypes);
+                                  acceptedCompressionTypes,
+                                  peerSpec);
     }
 
 }
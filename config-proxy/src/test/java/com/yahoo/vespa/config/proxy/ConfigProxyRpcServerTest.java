@@ -146,6 +146,22 @@ public class ConfigProxyRpcServerTest {
         assertEquals("All sources:\n" + configSourceAddress + "\n", ret[1]);
     }
 
+    /**
+     * Tests printStatistics RPC command
+     */
+    @Test
+    void testRpcMethodPrintStatistics() {
+        Request req = new Request("printStatistics");
+        client.invoke(req);
+
+        assertFalse(req.isError(), req.errorMessage());
+        assertEquals(1, req.returnValues().size());
+        String[] ret = req.returnValues().get(0).asStringArray();
+        assertEquals(6, ret.length);
+        assertEquals("upstreamSubscriptions=0", ret[0]);
+        assertEquals("delayedResponses=0", ret[1]);
+    }
+
     /**
      * Tests invalidateCache RPC command
      */
@@ -1,9 +1,15 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.config.proxy;
 
+import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author hmusum
@@ -11,20 +17,45 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class DelayedResponsesTest {
 
     @Test
-    void basic() throws InterruptedException {
+    void basic() {
         ConfigTester tester = new ConfigTester();
         DelayedResponses responses = new DelayedResponses();
-        DelayedResponse delayedResponse = new DelayedResponse(tester.createRequest("foo", "id", "bar", 10));
+        JRTServerConfigRequest request = tester.createRequest("foo", "id", "bar", 10);
+        DelayedResponse delayedResponse = new DelayedResponse(request, System.currentTimeMillis() - 1);
         responses.add(delayedResponse);
 
         assertEquals(1, responses.size());
-        assertEquals(delayedResponse, responses.responses().take());
+        assertEquals(List.of(delayedResponse), responses.removeExpired());
         assertEquals(0, responses.size());
 
         responses.add(delayedResponse);
         assertEquals(1, responses.size());
-        responses.remove(delayedResponse);
+        assertTrue(responses.remove(delayedResponse));
+        assertFalse(responses.remove(delayedResponse));
+        assertEquals(0, responses.size());
+        assertEquals(0, responses.keys());
+    }
+
+    @Test
+    void responses_are_removed_by_key() {
+        ConfigTester tester = new ConfigTester();
+        DelayedResponses responses = new DelayedResponses();
+        DelayedResponse foo1 = new DelayedResponse(tester.createRequest("foo", "id", "bar", 60_000));
+        DelayedResponse foo2 = new DelayedResponse(tester.createRequest("foo", "id", "bar", 60_000));
+        DelayedResponse baz = new DelayedResponse(tester.createRequest("baz", "id", "bar", 60_000));
+        responses.add(foo1);
+        responses.add(foo2);
+        responses.add(baz);
+
+        assertEquals(List.of(), responses.removeExpired());
+        assertEquals(Set.of(foo1, foo2), Set.copyOf(responses.remove(foo1.getRequest().getConfigKey(), __ -> true)));
+        assertEquals(List.of(baz), responses.responses());
+        assertEquals(1, responses.size());
+        assertEquals(1, responses.keys());
+
+        assertEquals(List.of(baz), responses.remove(__ -> true));
         assertEquals(0, responses.size());
+        assertEquals(0, responses.keys());
     }
 
 }
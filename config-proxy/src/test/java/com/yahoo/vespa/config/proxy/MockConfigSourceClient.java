@@ -57,6 +57,9 @@ public class MockConfigSourceClient implements ConfigSourceClient{
     @Override
     public DelayedResponses delayedResponses() { return delayedResponses; }
 
+    @Override
+    public List<String> statistics() { return List.of(); }
+
     @Override
     public MemoryCache memoryCache() { return memoryCache; }
 
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.config.proxy;
 
+import com.yahoo.log.event.Event;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.RawConfig;
 import com.yahoo.vespa.config.protocol.JRTConfigRequestFactory;
@@ -10,8 +11,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author hmusum
@@ -48,6 +55,58 @@ public class RpcConfigSourceClientTest {
         assertSentResponses(1);
     }
 
+    @Test
+    void new_config_is_returned_to_all_requests_waiting_for_it() {
+        simulateClientRequestingConfig(ProxyServerTest.fooConfig);
+        simulateClientRequestingConfig(ProxyServerTest.fooConfig);
+        simulateClientRequestingConfig(ProxyServerTest.errorConfig);
+        assertEquals(3, rpcConfigSourceClient.delayedResponses().size());
+
+        configUpdatedSendResponse(ProxyServerTest.fooConfig);
+        assertSentResponses(2);
+        assertEquals(1, rpcConfigSourceClient.delayedResponses().size());
+        assertTrue(rpcConfigSourceClient.statistics().containsAll(List.of("upstreamSubscriptions=0",
+                                                                          "delayedResponses=1",
+                                                                          "fanOuts=1",
+                                                                          "fanOutResponses=2")));
+    }
+
+    @Test
+    void statistics_are_reported_as_metric_events() {
+        List<String> events = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override public void publish(LogRecord record) {
+                if (record.getParameters() != null && record.getParameters()[0] instanceof Event event)
+                    events.add(event.getValue("name") + "=" + event.getValue("value"));
+            }
+            @Override public void flush() { }
+            @Override public void close() { }
+        };
+        Logger logger = Logger.getLogger(RpcConfigSourceClient.class.getName());
+        logger.addHandler(handler);
+        try {
+            simulateClientRequestingConfig(ProxyServerTest.fooConfig);
+            simulateClientRequestingConfig(ProxyServerTest.fooConfig);
+            configUpdatedSendResponse(ProxyServerTest.fooConfig);
+            rpcConfigSourceClient.reportMetrics();
+            assertTrue(events.containsAll(List.of("configproxy.upstreamSubscriptions=0.0",
+                                                  "configproxy.delayedResponses=0.0",
+                                                  "configproxy.fanOuts=1",
+                                                  "configproxy.fanOutResponses=2")),
+                       events.toString());
+
+            events.clear();
+            rpcConfigSourceClient.reportMetrics();
+            assertTrue(events.containsAll(List.of("configproxy.fanOuts=1",
+                                                  "configproxy.fanOutLatencyAverageMillis=0.0",
+                                                  "configproxy.fanOutLatencyMaxMillis=0.0")),
+                       events.toString());
+        }
+        finally {
+            logger.removeHandler(handler);
+        }
+    }
+
     @Test
     void errorResponse() {
         configUpdatedSendResponse(ProxyServerTest.errorConfig);
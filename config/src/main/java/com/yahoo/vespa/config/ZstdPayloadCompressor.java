@@ -0,0 +1,35 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config;
+
+import com.yahoo.compress.ZstdCompressor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wrapper for Zstd compression of config payloads, which compresses better than LZ4, at some cost in speed.
+ *
+ * @author agent
+ */
+public class ZstdPayloadCompressor {
+
+    private static final ZstdCompressor compressor = new ZstdCompressor();
+
+    public byte[] compress(byte[] input) {
+        return compressor.compress(input, 0, input.length);
+    }
+
+    public byte[] compress(ByteBuffer input) {
+        return compressor.compress(input.array(), input.arrayOffset() + input.position(), input.remaining());
+    }
+
+    public byte[] decompress(byte[] input, int uncompressedLen) {
+        return decompress(ByteBuffer.wrap(input), uncompressedLen);
+    }
+
+    public byte[] decompress(ByteBuffer input, int uncompressedLen) {
+        byte[] uncompressed = new byte[uncompressedLen];
+        compressor.decompress(input.array(), input.arrayOffset() + input.position(), input.remaining(), uncompressed, 0, uncompressedLen);
+        return uncompressed;
+    }
+
+}
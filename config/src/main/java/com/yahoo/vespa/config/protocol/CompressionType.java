@@ -5,7 +5,7 @@ package com.yahoo.vespa.config.protocol;
  * @author Ulf Lilleengen
  */
 public enum CompressionType {
-    UNCOMPRESSED, LZ4;
+    UNCOMPRESSED, LZ4, ZSTD;
     public static CompressionType parse(String value) {
         for (CompressionType type : CompressionType.values()) {
             if (type.name().equals(value)) {
@@ -11,6 +11,7 @@ import com.yahoo.slime.Slime;
 import com.yahoo.text.Utf8;
 import com.yahoo.text.Utf8Array;
 import com.yahoo.vespa.config.ConfigKey;
+import com.yahoo.vespa.config.ErrorCode;
 import com.yahoo.vespa.config.JRTMethods;
 import com.yahoo.vespa.config.PayloadChecksum;
 import com.yahoo.vespa.config.PayloadChecksums;
@@ -25,6 +26,7 @@ import java.util.logging.Logger;
 
 import static com.yahoo.vespa.config.PayloadChecksum.Type.MD5;
 import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
+import static com.yahoo.vespa.config.protocol.CompressionType.UNCOMPRESSED;
 
 /**
  * Represents version 3 config request for config clients. Provides methods for inspecting request and response
@@ -40,6 +42,9 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
     protected final SlimeRequestData requestData;
     protected final Request request;
     private final SlimeResponseData responseData;
+    /** The payload with the requested checksums, if known, which the response may be a delta from. */
+    private final Optional<Payload> basePayload;
+    private Optional<Payload> newPayload = null;
 
     protected JRTClientConfigRequestV3(ConfigKey<?> key,
                                        String hostname,
@@ -49,7 +54,11 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
                                        long timeout,
                                        Trace trace,
                                        CompressionType compressionType,
-                                       Optional<VespaVersion> vespaVersion) {
+                                       Optional<VespaVersion> vespaVersion,
+                                       Optional<Payload> basePayload) {
+        PayloadChecksum baseChecksum = payloadChecksums.getForType(XXHASH64);
+        boolean hasBase = baseChecksum != null && ! baseChecksum.isEmpty();
+        this.basePayload = hasBase ? basePayload : Optional.empty();
         Slime data = SlimeRequestData.encodeRequest(key,
                                                     hostname,
                                                     defSchema,
@@ -59,7 +68,9 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
                                                     trace,
                                                     getProtocolVersion(),
                                                     compressionType,
-                                                    vespaVersion);
+                                                    vespaVersion,
+                                                    // Clients without a base accept deltas, so the server keeps what it sends as their base.
+                                                    ! hasBase || this.basePayload.isPresent());
         Request jrtReq = new Request(getJRTMethodName());
         jrtReq.parameters().add(new StringValue(encodeAsUtf8String(data)));
 
@@ -88,9 +99,40 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
 
     @Override
     public Payload getNewPayload() {
-        CompressionInfo compressionInfo = getResponseData().getCompressionInfo();
-        Utf8Array payload = new Utf8Array(request.returnValues().get(1).asData());
-        return Payload.from(payload, compressionInfo);
+        return newPayload().orElseThrow(() -> new IllegalStateException("Payload delta in response can not be applied, for " + this));
+    }
+
+    /** Returns the payload of the response, with any delta applied to the base payload, or empty if this is not possible. */
+    private Optional<Payload> newPayload() {
+        if (newPayload == null) {
+            CompressionInfo compressionInfo = getResponseData().getCompressionInfo();
+            Payload payload = Payload.from(new Utf8Array(request.returnValues().get(1).asData()), compressionInfo);
+            newPayload = getResponseData().getPayloadDelta()
+                                          .map(header -> applyDelta(header, payload))
+                                          .orElse(Optional.of(payload));
+        }
+        return newPayload;
+    }
+
+    private Optional<Payload> applyDelta(PayloadDelta.Header header, Payload middle) {
+        if (basePayload.isEmpty() || ! header.base().equals(getRequestConfigChecksums().getForType(XXHASH64))) {
+            log.log(Level.FINE, () -> "Got payload delta from unknown base " + header.base() + " for " + getConfigKey());
+            return Optional.empty();
+        }
+        PayloadDelta delta = PayloadDelta.of(header, middle.withCompression(UNCOMPRESSED).getData());
+        Payload payload = Payload.from(delta.applyTo(basePayload.get().withCompression(UNCOMPRESSED).getData()));
+        if ( ! PayloadChecksum.fromPayload(payload, XXHASH64).equals(getNewChecksums().getForType(XXHASH64))) {
+            log.log(Level.FINE, () -> "Payload with delta applied does not match checksum in response for " + getConfigKey());
+            return Optional.empty();
+        }
+        // Keep the payload as compressed as it would be without the delta.
+        return Optional.of(payload.withCompression(middle.getCompressionInfo().getCompressionType()));
+    }
+
+    /** Returns the payload of a valid response, which the next response may be a delta from. */
+    private Optional<Payload> nextBasePayload() {
+        if (isError() || request.returnValues().size() == 0 || ! checkReturnTypes(request)) return Optional.empty();
+        return newPayload();
     }
 
     @Override
@@ -108,7 +150,8 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
                 timeout,
                 Trace.createNew(),
                 requestData.getCompressionType(),
-                requestData.getVespaVersion());
+                requestData.getVespaVersion(),
+                nextBasePayload());
     }
 
     public static <T extends ConfigInstance> JRTClientConfigRequest createFromSub(JRTConfigSubscription<T> sub,
@@ -161,7 +204,8 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
                                             serverTimeout,
                                             trace,
                                             compressionType,
-                                            vespaVersion);
+                                            vespaVersion,
+                                            Optional.empty());
     }
 
     @Override
@@ -290,6 +334,10 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
         } else if (!checkReturnTypes(request)) {
             log.warning("Invalid return types for config response: " + errorMessage());
             return false;
+        } else if (getResponseData().getPayloadDelta().isPresent() && newPayload().isEmpty()) {
+            // The delta can not be applied, so the next request should ask for the full payload, as if this had failed.
+            request.setError(ErrorCode.ILLEGAL_CONFIG_CHECKSUM, "Payload delta in response can not be applied");
+            return false;
         }
         return true;
     }
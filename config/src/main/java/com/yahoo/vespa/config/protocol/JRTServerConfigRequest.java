@@ -39,6 +39,21 @@ public interface JRTServerConfigRequest extends JRTConfigRequest, GetConfigReque
      */
     void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums payloadChecksums);
 
+    /**
+     * As {@link #addOkResponse(Payload, long, boolean, PayloadChecksums)}, but sends only the delta from the payload
+     * the client already has, if the client accepts this, and the given deltas have the payload of the client.
+     */
+    default void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums payloadChecksums,
+                               PayloadDeltas deltas) {
+        addOkResponse(payload, generation, applyOnRestart, payloadChecksums);
+    }
+
+    /**
+     * Keeps the given payload, which the client already has, in the given deltas, if the client accepts deltas,
+     * so that the response to this request can be a delta from it, when the payload changes while this waits.
+     */
+    default void keepPayloadDeltaBase(Payload payload, PayloadChecksums payloadChecksums, PayloadDeltas deltas) { }
+
     /**
      * Returns the md5 of the config definition in the request.
      *
@@ -78,6 +93,12 @@ public interface JRTServerConfigRequest extends JRTConfigRequest, GetConfigReque
      */
     Payload payloadFromResponse(ConfigResponse response);
 
+    /**
+     * Returns the compression type the client wants the payload of the response in.
+     *
+     * @return the compression type requested by the client.
+     */
+    CompressionType getCompressionType();
 
     /**
      * Returns the payload checksums from the config request.
@@ -20,6 +20,7 @@ import java.util.logging.Logger;
 
 import static com.yahoo.vespa.config.PayloadChecksum.Type.MD5;
 import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
+import static com.yahoo.vespa.config.protocol.CompressionType.UNCOMPRESSED;
 
 /**
  * The V3 config protocol implemented on the server side. The V3 protocol uses 2 fields:
@@ -27,6 +28,10 @@ import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
  * * A metadata field containing json data describing config generation, md5 and compression info
  * * A data field containing compressed or uncompressed json config payload
  *
+ * If the client has the payload with the checksum in its request, and accepts a delta from this, the data field may
+ * instead contain only the part of the new payload which differs from that, as described by a payload delta in the
+ * metadata field; see {@link PayloadDelta}.
+ *
  * The implementation of addOkResponse is optimized for doing as little copying of payload data as possible, ensuring
  * that we get a lower memory footprint.
  *
@@ -71,10 +76,33 @@ public class JRTServerConfigRequestV3 implements JRTServerConfigRequest {
 
     @Override
     public void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums checksums) {
+        addOkResponse(payload, generation, applyOnRestart, checksums, Optional.empty());
+    }
+
+    @Override
+    public void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums checksums,
+                              PayloadDeltas deltas) {
+        Optional<PayloadDelta> delta = Optional.empty();
+        if (acceptsPayloadDelta() && payload != null)
+            delta = deltas.between(getRequestConfigChecksums().getForType(XXHASH64), checksums.getForType(XXHASH64), payload);
+
+        addOkResponse(payload, generation, applyOnRestart, checksums, delta);
+    }
+
+    @Override
+    public void keepPayloadDeltaBase(Payload payload, PayloadChecksums checksums, PayloadDeltas deltas) {
+        if (acceptsPayloadDelta() && payload != null)
+            deltas.keep(checksums.getForType(XXHASH64), payload);
+    }
+
+    private void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums checksums,
+                               Optional<PayloadDelta> delta) {
         this.applyOnRestart = applyOnRestart;
-        Payload responsePayload = payload.withCompression(getCompressionType());
+        Payload responsePayload = delta.map(d -> Payload.from(d.middle(), CompressionInfo.create(UNCOMPRESSED, d.middle().getByteLength())))
+                                       .orElse(payload);
         if (responsePayload == null)
             throw new RuntimeException("Payload is null for ' " + this + ", not able to create response");
+        responsePayload = responsePayload.withCompression(getCompressionType());
 
         ByteArrayOutputStream outputStream = new NoCopyByteArrayOutputStream(4096);
         try {
@@ -88,6 +116,11 @@ public class JRTServerConfigRequestV3 implements JRTServerConfigRequest {
             jsonGenerator.writeObjectFieldStart(SlimeResponseData.RESPONSE_COMPRESSION_INFO);
             responsePayload.getCompressionInfo().serialize(jsonGenerator);
             jsonGenerator.writeEndObject();
+            if (delta.isPresent()) {
+                jsonGenerator.writeObjectFieldStart(SlimeResponseData.RESPONSE_PAYLOAD_DELTA);
+                delta.get().header().serialize(jsonGenerator);
+                jsonGenerator.writeEndObject();
+            }
 
             jsonGenerator.writeEndObject();
             jsonGenerator.close();
@@ -175,6 +208,9 @@ public class JRTServerConfigRequestV3 implements JRTServerConfigRequest {
 
     public PayloadChecksums getRequestConfigChecksums() { return requestData.getRequestConfigChecksums(); }
 
+    /** Returns whether the client accepts a delta from the payload it has, instead of the full payload. */
+    public boolean acceptsPayloadDelta() { return requestData.getAcceptPayloadDelta(); }
+
     private void addErrorResponse(int errorCode) {
         addErrorResponse(errorCode, ErrorCode.getName(errorCode));
     }
@@ -256,7 +292,8 @@ public class JRTServerConfigRequestV3 implements JRTServerConfigRequest {
         return toString();
     }
 
-    protected CompressionType getCompressionType() {
+    @Override
+    public CompressionType getCompressionType() {
         return requestData.getCompressionType();
     }
 
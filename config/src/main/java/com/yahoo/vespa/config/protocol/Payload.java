@@ -6,6 +6,7 @@ import com.yahoo.text.Utf8Array;
 import com.yahoo.text.Utf8String;
 import com.yahoo.vespa.config.ConfigPayload;
 import com.yahoo.vespa.config.LZ4PayloadCompressor;
+import com.yahoo.vespa.config.ZstdPayloadCompressor;
 
 import java.util.Objects;
 
@@ -20,6 +21,7 @@ public class Payload {
     private final AbstractUtf8Array data;
     private final CompressionInfo compressionInfo;
     private final static LZ4PayloadCompressor compressor = new LZ4PayloadCompressor();
+    private final static ZstdPayloadCompressor zstdCompressor = new ZstdPayloadCompressor();
 
     private Payload(ConfigPayload payload) {
         this.data = payload.toUtf8Array(true);
@@ -60,18 +62,22 @@ public class Payload {
     /** Returns a copy of this payload where the data is compressed using the given compression */
     public Payload withCompression(CompressionType requestedCompression) {
         CompressionType responseCompression = compressionInfo.getCompressionType();
-        if (requestedCompression == CompressionType.UNCOMPRESSED && responseCompression == CompressionType.LZ4) {
-            byte[] buffer = compressor.decompress(data.wrap(), compressionInfo.getUncompressedSize());
-            Utf8Array data = new Utf8Array(buffer);
-            CompressionInfo info = CompressionInfo.create(CompressionType.UNCOMPRESSED, compressionInfo.getUncompressedSize());
-            return Payload.from(data, info);
-        } else if (requestedCompression == CompressionType.LZ4 && responseCompression == CompressionType.UNCOMPRESSED) {
-            Utf8Array data = new Utf8Array(compressor.compress(this.data.wrap()));
-            CompressionInfo info = CompressionInfo.create(CompressionType.LZ4, this.data.getByteLength());
-            return Payload.from(data, info);
-        } else {
+        if (requestedCompression == responseCompression)
             return Payload.from(data, compressionInfo);
+
+        if (responseCompression != CompressionType.UNCOMPRESSED) {
+            byte[] buffer = responseCompression == CompressionType.LZ4
+                            ? compressor.decompress(data.wrap(), compressionInfo.getUncompressedSize())
+                            : zstdCompressor.decompress(data.wrap(), compressionInfo.getUncompressedSize());
+            CompressionInfo info = CompressionInfo.create(CompressionType.UNCOMPRESSED, compressionInfo.getUncompressedSize());
+            return Payload.from(new Utf8Array(buffer), info).withCompression(requestedCompression);
         }
+
+        Utf8Array data = new Utf8Array(requestedCompression == CompressionType.LZ4
+                                       ? compressor.compress(this.data.wrap())
+                                       : zstdCompressor.compress(this.data.wrap()));
+        CompressionInfo info = CompressionInfo.create(requestedCompression, this.data.getByteLength());
+        return Payload.from(data, info);
     }
 
     public CompressionInfo getCompressionInfo() { return compressionInfo; }
@@ -0,0 +1,126 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.protocol;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yahoo.slime.Inspector;
+import com.yahoo.text.AbstractUtf8Array;
+import com.yahoo.text.Utf8Array;
+import com.yahoo.vespa.config.PayloadChecksum;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
+
+/**
+ * The difference between an uncompressed base payload, identified by its checksum, and a target payload, as the
+ * lengths of the prefix and suffix the two have in common, and the bytes of the target between these.
+ * Config changes are typically local, e.g., a host added to a long list, so this is small for most changes,
+ * and only this is then sent to clients which already have the base payload, instead of the whole target payload.
+ *
+ * @author agent
+ */
+public class PayloadDelta {
+
+    private static final String BASE_XXHASH64 = "baseXxhash64";
+    private static final String PREFIX_LENGTH = "prefixLength";
+    private static final String SUFFIX_LENGTH = "suffixLength";
+
+    private final PayloadChecksum base;
+    private final int prefixLength;
+    private final int suffixLength;
+    private final AbstractUtf8Array middle;
+
+    private PayloadDelta(PayloadChecksum base, int prefixLength, int suffixLength, AbstractUtf8Array middle) {
+        if (base.type() != XXHASH64 || base.isEmpty())
+            throw new IllegalArgumentException("The base of a delta must be identified by a non-empty " + XXHASH64 + " checksum, but got " + base);
+        if (prefixLength < 0 || suffixLength < 0)
+            throw new IllegalArgumentException("Prefix and suffix lengths must be non-negative, but got " + prefixLength + " and " + suffixLength);
+
+        this.base = base;
+        this.prefixLength = prefixLength;
+        this.suffixLength = suffixLength;
+        this.middle = middle;
+    }
+
+    /**
+     * Returns the delta from the given uncompressed base payload, with the given checksum, to the given uncompressed
+     * target payload, or empty if the delta is not less than half the size of the target, and not worth sending.
+     */
+    public static Optional<PayloadDelta> between(PayloadChecksum baseChecksum, AbstractUtf8Array base, AbstractUtf8Array target) {
+        int baseLength = base.getByteLength(), targetLength = target.getByteLength();
+        int maxCommon = Math.min(baseLength, targetLength);
+
+        int prefix = 0;
+        while (prefix < maxCommon && base.getByte(prefix) == target.getByte(prefix))
+            prefix++;
+
+        int suffix = 0;
+        while (suffix < maxCommon - prefix && base.getByte(baseLength - 1 - suffix) == target.getByte(targetLength - 1 - suffix))
+            suffix++;
+
+        int middleLength = targetLength - prefix - suffix;
+        if (middleLength * 2 >= targetLength && targetLength > 0) return Optional.empty();
+
+        byte[] middle = new byte[middleLength];
+        target.wrap().slice().position(prefix).get(middle);
+        return Optional.of(new PayloadDelta(baseChecksum, prefix, suffix, new Utf8Array(middle)));
+    }
+
+    /** Returns a delta with the given header, and the given uncompressed middle part. */
+    public static PayloadDelta of(Header header, AbstractUtf8Array middle) {
+        return new PayloadDelta(header.base(), header.prefixLength(), header.suffixLength(), middle);
+    }
+
+    /** Returns the target payload of this, given its uncompressed base payload. */
+    public Utf8Array applyTo(AbstractUtf8Array base) {
+        int baseLength = base.getByteLength();
+        if (prefixLength + suffixLength > baseLength)
+            throw new IllegalArgumentException("Base payload of " + baseLength + " bytes is too short for " + this);
+
+        ByteBuffer target = ByteBuffer.allocate(prefixLength + middle.getByteLength() + suffixLength);
+        target.put(base.wrap().slice().limit(prefixLength));
+        middle.writeTo(target);
+        target.put(base.wrap().slice().position(baseLength - suffixLength));
+        return new Utf8Array(target.array());
+    }
+
+    /** The checksum of the base payload this is a delta from. */
+    public PayloadChecksum base() { return base; }
+
+    /** The uncompressed bytes of the target payload which are not in common with the base payload. */
+    public AbstractUtf8Array middle() { return middle; }
+
+    public Header header() { return new Header(base, prefixLength, suffixLength); }
+
+    /** The part of a delta which is sent in the response data, while the middle part is sent as the payload. */
+    public record Header(PayloadChecksum base, int prefixLength, int suffixLength) {
+
+        public Header {
+            Objects.requireNonNull(base);
+        }
+
+        public static Optional<Header> fromSlime(Inspector field) {
+            if ( ! field.valid()) return Optional.empty();
+            return Optional.of(new Header(new PayloadChecksum(field.field(BASE_XXHASH64).asString(), XXHASH64),
+                                          (int) field.field(PREFIX_LENGTH).asLong(),
+                                          (int) field.field(SUFFIX_LENGTH).asLong()));
+        }
+
+        public void serialize(JsonGenerator jsonGenerator) throws IOException {
+            jsonGenerator.writeStringField(BASE_XXHASH64, base.asString());
+            jsonGenerator.writeNumberField(PREFIX_LENGTH, prefixLength);
+            jsonGenerator.writeNumberField(SUFFIX_LENGTH, suffixLength);
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return "delta from " + base + ", with prefix " + prefixLength + ", suffix " + suffixLength +
+               " and " + middle.getByteLength() + " new bytes";
+    }
+
+}
@@ -0,0 +1,112 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.protocol;
+
+import com.yahoo.text.AbstractUtf8Array;
+import com.yahoo.vespa.config.PayloadChecksum;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
+
+/**
+ * Computes and caches {@link PayloadDelta}s between config payloads served to clients.
+ * The uncompressed payloads served to clients which accept deltas, or which these clients are known to have, are kept,
+ * up to a total size, by their checksums, as these are the base payloads of the next requests of those clients. Deltas are cached as well, as all clients
+ * subscribing to the same config typically request the same delta when that config changes.
+ *
+ * @author agent
+ */
+public class PayloadDeltas {
+
+    private static final long defaultMaxBaseBytes = 64 << 20;
+    private static final int defaultMaxDeltas = 1 << 10;
+
+    private final long maxBaseBytes;
+    private final Map<String, AbstractUtf8Array> bases = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<DeltaKey, Optional<PayloadDelta>> deltas;
+    private long baseBytes = 0;
+
+    public PayloadDeltas() {
+        this(defaultMaxBaseBytes, defaultMaxDeltas);
+    }
+
+    public PayloadDeltas(long maxBaseBytes, int maxDeltas) {
+        this.maxBaseBytes = maxBaseBytes;
+        this.deltas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<DeltaKey, Optional<PayloadDelta>> eldest) {
+                return size() > maxDeltas;
+            }
+        };
+    }
+
+    /**
+     * Returns the delta from the payload with the given base checksum, to the given payload with the given target checksum,
+     * if the base payload is known, and the delta is worth sending. The given payload is kept as a base for later deltas,
+     * also when the client has no base payload, e.g., on its first request.
+     */
+    public Optional<PayloadDelta> between(PayloadChecksum base, PayloadChecksum target, Payload payload) {
+        if ( ! isValid(target)) return Optional.empty();
+        if ( ! isValid(base)) {
+            keep(target, payload);
+            return Optional.empty();
+        }
+
+        DeltaKey key = new DeltaKey(base.asString(), target.asString());
+        AbstractUtf8Array basePayload, targetPayload;
+        synchronized (this) {
+            Optional<PayloadDelta> delta = deltas.get(key);
+            if (delta != null) return delta;
+
+            basePayload = bases.get(key.base);
+            targetPayload = bases.get(key.target);
+        }
+        if (targetPayload == null) {
+            targetPayload = payload.withCompression(CompressionType.UNCOMPRESSED).getData();
+            add(key.target, targetPayload);
+        }
+        if (basePayload == null && key.base.equals(key.target)) basePayload = targetPayload;
+        if (basePayload == null) return Optional.empty();
+
+        Optional<PayloadDelta> delta = PayloadDelta.between(base, basePayload, targetPayload);
+        synchronized (this) {
+            deltas.put(key, delta);
+        }
+        return delta;
+    }
+
+    /**
+     * Keeps the given payload, with the given checksum, as a base for later deltas, unless it is already kept.
+     * This is used for clients which already have this payload, e.g., from before this was restarted, and wait for changes.
+     */
+    public void keep(PayloadChecksum checksum, Payload payload) {
+        if ( ! isValid(checksum)) return;
+        synchronized (this) {
+            if (bases.containsKey(checksum.asString())) return;
+        }
+        add(checksum.asString(), payload.withCompression(CompressionType.UNCOMPRESSED).getData());
+    }
+
+    /** Returns the total size of the base payloads currently kept. */
+    public synchronized long baseBytes() { return baseBytes; }
+
+    private static boolean isValid(PayloadChecksum checksum) {
+        return checksum != null && checksum.type() == XXHASH64 && ! checksum.isEmpty();
+    }
+
+    private synchronized void add(String checksum, AbstractUtf8Array payload) {
+        if (payload.getByteLength() > maxBaseBytes) return;
+
+        AbstractUtf8Array previous = bases.put(checksum, payload);
+        if (previous != null) baseBytes -= previous.getByteLength();
+        baseBytes += payload.getByteLength();
+        for (var iterator = bases.values().iterator(); baseBytes > maxBaseBytes; ) {
+            baseBytes -= iterator.next().getByteLength();
+            iterator.remove();
+        }
+    }
+
+    private record DeltaKey(String base, String target) { }
+
+}
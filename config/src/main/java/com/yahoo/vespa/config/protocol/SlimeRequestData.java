@@ -38,6 +38,7 @@ class SlimeRequestData {
     private static final String REQUEST_DEF_MD5 = "defMD5";
     private static final String REQUEST_COMPRESSION_TYPE = "compressionType";
     private static final String REQUEST_VESPA_VERSION = "vespaVersion";
+    private static final String REQUEST_ACCEPT_PAYLOAD_DELTA = "acceptPayloadDelta";
 
     private final Request request;
     private Slime data = null;
@@ -109,7 +110,8 @@ class SlimeRequestData {
                                Trace trace,
                                long protocolVersion,
                                CompressionType compressionType,
-                               Optional<VespaVersion> vespaVersion) {
+                               Optional<VespaVersion> vespaVersion,
+                               boolean acceptPayloadDelta) {
         Slime data = new Slime();
         Cursor request = data.setObject();
         request.setLong(REQUEST_VERSION, protocolVersion);
@@ -127,6 +129,8 @@ class SlimeRequestData {
         request.setLong(REQUEST_TIMEOUT, timeout);
         request.setString(REQUEST_COMPRESSION_TYPE, compressionType.name());
         vespaVersion.ifPresent(version -> request.setString(REQUEST_VESPA_VERSION, version.toString()));
+        if (acceptPayloadDelta)
+            request.setBool(REQUEST_ACCEPT_PAYLOAD_DELTA, true);
         trace.serialize(request.setObject(REQUEST_TRACE));
         return data;
     }
@@ -145,4 +149,9 @@ class SlimeRequestData {
         return versionString.isEmpty() ? Optional.empty() : Optional.of(VespaVersion.fromString(versionString));
     }
 
+    /** Returns whether the client has the payload with the requested checksum, and accepts a delta from that. */
+    boolean getAcceptPayloadDelta() {
+        return getRequestField(REQUEST_ACCEPT_PAYLOAD_DELTA).asBool();
+    }
+
 }
@@ -8,6 +8,8 @@ import com.yahoo.slime.Inspector;
 import com.yahoo.slime.Slime;
 import com.yahoo.slime.SlimeUtils;
 
+import java.util.Optional;
+
 import static com.yahoo.vespa.config.PayloadChecksum.Type.MD5;
 import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
 
@@ -31,6 +33,7 @@ class SlimeResponseData {
     static final String RESPONSE_CONFIG_GENERATION = "generation";
     static final String RESPONSE_APPLY_ON_RESTART = "applyOnRestart";
     static final String RESPONSE_COMPRESSION_INFO = "compressionInfo";
+    static final String RESPONSE_PAYLOAD_DELTA = "payloadDelta";
 
     private final Request request;
     private Slime data = null;
@@ -86,6 +89,10 @@ class SlimeResponseData {
         return CompressionInfo.fromSlime(getResponseField(RESPONSE_COMPRESSION_INFO));
     }
 
+    Optional<PayloadDelta.Header> getPayloadDelta() {
+        return PayloadDelta.Header.fromSlime(getResponseField(RESPONSE_PAYLOAD_DELTA));
+    }
+
     boolean getResponseApplyOnRestart() {
         Inspector inspector = getResponseField(RESPONSE_APPLY_ON_RESTART);
         return inspector.valid() && inspector.asBool();
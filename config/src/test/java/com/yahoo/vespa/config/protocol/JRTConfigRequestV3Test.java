@@ -127,6 +127,94 @@ public class JRTConfigRequestV3Test {
         assertTrue(clientReq.hasUpdatedGeneration());
     }
 
+    @Test
+    public void delta_is_returned_when_client_has_base_payload() {
+        PayloadDeltas deltas = new PayloadDeltas();
+        Payload base = createPayload("a long list of hosts: " + "host.example.com ".repeat(100));
+        serverReq.addOkResponse(base, 4L, false, PayloadChecksums.fromPayload(base), deltas);
+        assertTrue(clientReq.validateResponse());
+        assertFalse(hasPayloadDelta(serverReq));
+        assertEquals(base.getData().toString(), clientReq.getNewPayload().withCompression(CompressionType.UNCOMPRESSED).getData().toString());
+
+        // Only the generation changes, so the delta is empty.
+        JRTClientConfigRequest nextClientReq = clientReq.nextRequest(timeout);
+        JRTServerConfigRequestV3 nextServerReq = JRTServerConfigRequestV3.createFromRequest(nextClientReq.getRequest());
+        assertTrue(nextServerReq.acceptsPayloadDelta());
+        nextServerReq.addOkResponse(base, 5L, false, PayloadChecksums.fromPayload(base), deltas);
+        assertTrue(hasPayloadDelta(nextServerReq));
+        assertTrue(nextClientReq.validateResponse());
+        assertEquals(base.getData().toString(), nextClientReq.getNewPayload().withCompression(CompressionType.UNCOMPRESSED).getData().toString());
+        assertEquals(CompressionType.LZ4, nextClientReq.getNewPayload().getCompressionInfo().getCompressionType());
+
+        Payload target = createPayload("a long list of hosts: " + "host.example.com ".repeat(50) + "new.example.com " + "host.example.com ".repeat(50));
+        clientReq = nextClientReq;
+        nextClientReq = clientReq.nextRequest(timeout);
+        nextServerReq = JRTServerConfigRequestV3.createFromRequest(nextClientReq.getRequest());
+        nextServerReq.addOkResponse(target, 6L, false, PayloadChecksums.fromPayload(target), deltas);
+        assertTrue(hasPayloadDelta(nextServerReq));
+        assertTrue(nextClientReq.validateResponse());
+        assertTrue(nextClientReq.hasUpdatedConfig());
+        assertEquals(target.getData().toString(), nextClientReq.getNewPayload().withCompression(CompressionType.UNCOMPRESSED).getData().toString());
+
+        // A delta which does not produce the payload with the checksum in the response fails the request.
+        Payload other = createPayload("a long list of hosts: " + "host.example.com ".repeat(101));
+        clientReq = nextClientReq;
+        nextClientReq = clientReq.nextRequest(timeout);
+        nextServerReq = JRTServerConfigRequestV3.createFromRequest(nextClientReq.getRequest());
+        nextServerReq.addOkResponse(other, 7L, false, PayloadChecksums.from("", "0123456789abcdef"), deltas);
+        assertTrue(hasPayloadDelta(nextServerReq));
+        assertFalse(nextClientReq.validateResponse());
+        assertTrue(nextClientReq.isError());
+        JRTClientConfigRequest retry = nextClientReq.nextRequest(timeout);
+        assertEquals(nextClientReq.getRequestConfigChecksums(), retry.getRequestConfigChecksums());
+        assertFalse(JRTServerConfigRequestV3.createFromRequest(retry.getRequest()).acceptsPayloadDelta());
+    }
+
+    @Test
+    public void delta_is_returned_for_first_change_after_first_request() {
+        PayloadDeltas deltas = new PayloadDeltas();
+        JRTClientConfigRequest firstClientReq = createReq(defName, defNamespace, hostname, configId, PayloadChecksums.empty(), 0, timeout, trace);
+        JRTServerConfigRequestV3 firstServerReq = JRTServerConfigRequestV3.createFromRequest(firstClientReq.getRequest());
+        assertTrue(firstServerReq.acceptsPayloadDelta());
+        Payload base = createPayload("a long list of hosts: " + "host.example.com ".repeat(100));
+        firstServerReq.addOkResponse(base, 4L, false, PayloadChecksums.fromPayload(base), deltas);
+        assertFalse(hasPayloadDelta(firstServerReq));
+        assertTrue(firstClientReq.validateResponse());
+
+        // The payload served in full is kept as the base of the delta sent when it changes.
+        Payload target = createPayload("a long list of hosts: " + "host.example.com ".repeat(50) + "new.example.com " + "host.example.com ".repeat(50));
+        JRTClientConfigRequest nextClientReq = firstClientReq.nextRequest(timeout);
+        JRTServerConfigRequestV3 nextServerReq = JRTServerConfigRequestV3.createFromRequest(nextClientReq.getRequest());
+        nextServerReq.addOkResponse(target, 5L, false, PayloadChecksums.fromPayload(target), deltas);
+        assertTrue(hasPayloadDelta(nextServerReq));
+        assertTrue(nextClientReq.validateResponse());
+        assertEquals(target.getData().toString(), nextClientReq.getNewPayload().withCompression(CompressionType.UNCOMPRESSED).getData().toString());
+    }
+
+    @Test
+    public void delta_is_returned_for_first_change_when_waiting_client_has_base_from_before() {
+        Payload base = createPayload("a long list of hosts: " + "host.example.com ".repeat(100));
+        serverReq.addOkResponse(base, 4L, false, PayloadChecksums.fromPayload(base), new PayloadDeltas());
+        assertTrue(clientReq.validateResponse());
+
+        // The server restarts, and the client waits for a change to the payload it already has.
+        PayloadDeltas deltas = new PayloadDeltas();
+        JRTClientConfigRequest nextClientReq = clientReq.nextRequest(timeout);
+        JRTServerConfigRequestV3 nextServerReq = JRTServerConfigRequestV3.createFromRequest(nextClientReq.getRequest());
+        nextServerReq.keepPayloadDeltaBase(base, PayloadChecksums.fromPayload(base), deltas);
+
+        Payload target = createPayload("a long list of hosts: " + "host.example.com ".repeat(50) + "new.example.com " + "host.example.com ".repeat(50));
+        nextServerReq.addOkResponse(target, 5L, false, PayloadChecksums.fromPayload(target), deltas);
+        assertTrue(hasPayloadDelta(nextServerReq));
+        assertTrue(nextClientReq.validateResponse());
+        assertEquals(target.getData().toString(), nextClientReq.getNewPayload().withCompression(CompressionType.UNCOMPRESSED).getData().toString());
+    }
+
+    private static boolean hasPayloadDelta(JRTServerConfigRequest request) {
+        Inspector response = SlimeUtils.jsonToSlime(request.getRequest().returnValues().get(0).asString()).get();
+        return response.field(SlimeResponseData.RESPONSE_PAYLOAD_DELTA).valid();
+    }
+
     @Test
     public void error_response_adds_common_elements() {
         serverReq.addErrorResponse(ErrorCode.APPLICATION_NOT_LOADED, ErrorCode.getName(ErrorCode.APPLICATION_NOT_LOADED));
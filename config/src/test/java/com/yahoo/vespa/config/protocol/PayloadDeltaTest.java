@@ -0,0 +1,88 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.protocol;
+
+import com.yahoo.text.Utf8Array;
+import com.yahoo.text.Utf8String;
+import com.yahoo.vespa.config.PayloadChecksum;
+import com.yahoo.vespa.config.util.ConfigUtils;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class PayloadDeltaTest {
+
+    @Test
+    public void delta_is_the_part_between_common_prefix_and_suffix() {
+        assertDelta("abcdefgh", "abcXYZgh", "XYZ");
+        assertDelta("abcdefgh", "abcdefgh", "");
+        assertDelta("abcdefgh", "abcdefghij", "ij");
+        assertDelta("abcdefgh", "abcgh", "");
+        assertDelta("aaaa", "aaaaaa", "aa");
+        assertDelta("", "", "");
+        assertFalse(PayloadDelta.between(checksum("abcd"), new Utf8String("abcd"), new Utf8String("wxyz")).isPresent());
+    }
+
+    @Test
+    public void deltas_are_computed_from_known_bases_and_cached() {
+        PayloadDeltas deltas = new PayloadDeltas(48, 2);
+        Payload first = Payload.from(new Utf8String("first payload with some content"));
+        Payload second = Payload.from(new Utf8String("first payload with more content")).withCompression(CompressionType.LZ4);
+
+        assertFalse(deltas.between(checksum(first), checksum(second), second).isPresent());
+        assertEquals(31, deltas.baseBytes());
+
+        Optional<PayloadDelta> delta = deltas.between(checksum(second), checksum(first), first);
+        assertTrue(delta.isPresent());
+        assertEquals("som", delta.get().middle().toString());
+        assertSame(delta, deltas.between(checksum(second), checksum(first), first));
+        assertEquals(31, deltas.baseBytes()); // Only one of the two bases fits, so the second was evicted.
+
+        Payload third = Payload.from(new Utf8String("first payload with less content"));
+        assertFalse(deltas.between(checksum(second), checksum(third), third).isPresent());
+        assertEquals("", deltas.between(checksum(third), checksum(third), third).get().middle().toString());
+    }
+
+    @Test
+    public void payloads_are_kept_as_bases_also_for_clients_without_base() {
+        PayloadDeltas deltas = new PayloadDeltas();
+        Payload first = Payload.from(new Utf8String("first payload with some content"));
+        Payload second = Payload.from(new Utf8String("first payload with more content"));
+
+        assertFalse(deltas.between(PayloadChecksum.empty(XXHASH64), checksum(first), first).isPresent());
+        assertEquals(31, deltas.baseBytes());
+        assertEquals("mor", deltas.between(checksum(first), checksum(second), second).get().middle().toString());
+
+        deltas.keep(checksum(second), second);
+        assertEquals(62, deltas.baseBytes());
+        Payload third = Payload.from(new Utf8String("third payload with some content"));
+        deltas.keep(checksum(third), third);
+        assertEquals(93, deltas.baseBytes());
+        assertEquals("first", deltas.between(checksum(third), checksum(first), first).get().middle().toString());
+    }
+
+    private static void assertDelta(String base, String target, String middle) {
+        Optional<PayloadDelta> delta = PayloadDelta.between(checksum(base), new Utf8String(base), new Utf8String(target));
+        assertTrue(delta.isPresent());
+        assertEquals(middle, delta.get().middle().toString());
+        assertEquals(target, delta.get().applyTo(new Utf8Array(base.getBytes())).toString());
+        assertEquals(target, PayloadDelta.of(delta.get().header(), delta.get().middle()).applyTo(new Utf8String(base)).toString());
+    }
+
+    private static PayloadChecksum checksum(String data) {
+        return new PayloadChecksum(ConfigUtils.getXxhash64(new Utf8String(data)), XXHASH64);
+    }
+
+    private static PayloadChecksum checksum(Payload payload) {
+        return PayloadChecksum.fromPayload(payload.withCompression(CompressionType.UNCOMPRESSED), XXHASH64);
+    }
+
+}
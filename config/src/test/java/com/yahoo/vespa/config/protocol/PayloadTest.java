@@ -31,6 +31,25 @@ public class PayloadTest {
         assertEquals(json, uncompressed.toString());
     }
 
+    @Test
+    public void testConversionBetweenAllCompressionTypes() {
+        String json = "{\"foo\":13,\"bar\":[\"baz\",\"baz\",\"baz\",\"baz\"]}";
+        for (String data : new String[]{ json, "" }) {
+            Payload uncompressed = Payload.from(data, CompressionInfo.create(CompressionType.UNCOMPRESSED, data.length()));
+            for (CompressionType from : CompressionType.values()) {
+                Payload source = uncompressed.withCompression(from);
+                assertEquals(from, source.getCompressionInfo().getCompressionType());
+                assertEquals(data.length(), source.getCompressionInfo().getUncompressedSize());
+                for (CompressionType to : CompressionType.values()) {
+                    Payload target = source.withCompression(to);
+                    assertEquals(to, target.getCompressionInfo().getCompressionType());
+                    assertEquals(uncompressed.withCompression(to), target);
+                    assertEquals(data, target.toString());
+                }
+            }
+        }
+    }
+
     @Test
     public void testEquals() {
         final String foo1 = "foo 1";
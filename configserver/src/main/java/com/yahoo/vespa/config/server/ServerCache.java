@@ -16,6 +16,8 @@ import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
 
 /**
  * Cache that holds configs and config definitions (builtin and user config definitions).
+ * The payloads of the cached configs are shared with the caches of other applications and generations,
+ * through the {@link com.yahoo.vespa.config.server.rpc.PayloadStore} of the response factories.
  *
  * @author vegardh
  */
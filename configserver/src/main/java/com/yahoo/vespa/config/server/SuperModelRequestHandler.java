@@ -12,6 +12,7 @@ import com.yahoo.vespa.config.GetConfigRequest;
 import com.yahoo.vespa.config.protocol.ConfigResponse;
 import com.yahoo.vespa.config.server.application.ApplicationSet;
 import com.yahoo.vespa.config.server.rpc.ConfigResponseFactory;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 
 import java.util.Optional;
 import java.util.Set;
@@ -35,9 +36,10 @@ public class SuperModelRequestHandler implements RequestHandler {
     @Inject
     public SuperModelRequestHandler(ConfigDefinitionRepo configDefinitionRepo,
                                     ConfigserverConfig configserverConfig,
-                                    SuperModelManager superModelManager) {
+                                    SuperModelManager superModelManager,
+                                    PayloadStore payloadStore) {
         this.configDefinitionRepo = configDefinitionRepo;
-        this.responseFactory = ConfigResponseFactory.create(configserverConfig);
+        this.responseFactory = ConfigResponseFactory.create(configserverConfig, payloadStore);
         this.superModelManager = superModelManager;
         updateHandler();
     }
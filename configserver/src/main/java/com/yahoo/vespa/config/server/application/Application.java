@@ -16,22 +16,31 @@ import com.yahoo.vespa.config.ConfigPayload;
 import com.yahoo.vespa.config.ConfigPayloadBuilder;
 import com.yahoo.vespa.config.GenericConfig;
 import com.yahoo.vespa.config.GetConfigRequest;
+import com.yahoo.vespa.config.PayloadChecksums;
 import com.yahoo.vespa.config.buildergen.ConfigDefinition;
 import com.yahoo.vespa.config.protocol.ConfigResponse;
 import com.yahoo.vespa.config.protocol.DefContent;
+import com.yahoo.vespa.config.protocol.VespaVersion;
 import com.yahoo.vespa.config.server.ServerCache;
 import com.yahoo.vespa.config.server.UnknownConfigDefinitionException;
 import com.yahoo.vespa.config.server.modelfactory.ModelResult;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
 import com.yahoo.vespa.config.server.rpc.ConfigResponseFactory;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 import com.yahoo.vespa.config.server.rpc.UncompressedConfigResponseFactory;
 import com.yahoo.vespa.config.server.tenant.TenantRepository;
 import com.yahoo.vespa.config.util.ConfigUtils;
 import com.yahoo.yolean.Exceptions;
 
-import java.util.logging.Level;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
 
 /**
  * A Vespa application for a specific version of Vespa. It holds data and metadata associated with
@@ -51,6 +60,8 @@ public class Application implements ModelResult {
     private final ServerCache cache;
     private final MetricUpdater metricUpdater;
     private final ApplicationId app;
+    /** The number of cacheable requests for each config, and a copy of the first such request. */
+    private final Map<ConfigCacheKey, RequestCount> requestCounts = new ConcurrentHashMap<>();
 
     public Application(Model model, ServerCache cache, long applicationGeneration,
                        Version vespaVersion, MetricUpdater metricUpdater, ApplicationId app) {
@@ -111,6 +122,7 @@ public class Application implements ModelResult {
 
         ConfigResponse config;
         if (useCache(req)) {
+            requestCounts.computeIfAbsent(cacheKey, __ -> new RequestCount(PrewarmRequest.copyOf(req, cacheKey.getDefMd5()))).count.increment();
             config = cache.computeIfAbsent(cacheKey, (ConfigCacheKey key) -> {
                 var response = createConfigResponse(configKey, req, responseFactory);
                 metricUpdater.setCacheConfigElems(cache.configElems());
@@ -124,6 +136,35 @@ public class Application implements ModelResult {
         return config;
     }
 
+    /** Returns copies of the given number of most requested cacheable configs, for resolving these with another generation. */
+    public List<GetConfigRequest> mostRequested(int count) {
+        return requestCounts.values().stream()
+                            .map(requests -> new Pair<>(requests.count.sum(), requests.request))
+                            .sorted(Comparator.comparing(Pair<Long, GetConfigRequest>::getFirst, Comparator.reverseOrder()))
+                            .limit(count)
+                            .map(Pair::getSecond)
+                            .toList();
+    }
+
+    /**
+     * Resolves the configs of the given requests into the cache of this, so they are ready when requested by clients.
+     * These are not counted as requests, and failures are logged and otherwise ignored.
+     */
+    public void prewarm(List<GetConfigRequest> requests, ConfigResponseFactory responseFactory) {
+        for (GetConfigRequest req : requests) {
+            try {
+                cache.computeIfAbsent(new ConfigCacheKey(req.getConfigKey(), req.getRequestDefMd5()),
+                                      __ -> createConfigResponse(req.getConfigKey(), req, responseFactory));
+            }
+            catch (RuntimeException e) {
+                log.log(Level.FINE, () -> TenantRepository.logPre(getId()) + "Failed prewarming " + req.getConfigKey() + ": " +
+                                          Exceptions.toMessageString(e));
+            }
+        }
+        metricUpdater.setCacheConfigElems(cache.configElems());
+        metricUpdater.setCacheChecksumElems(cache.checkSumElems());
+    }
+
     private ConfigResponse createConfigResponse(ConfigKey<?> configKey, GetConfigRequest req, ConfigResponseFactory responseFactory) {
         ConfigDefinition def = getTargetDef(req);
         if (def == null) {
@@ -193,7 +234,36 @@ public class Application implements ModelResult {
 
     // For testing only
     ConfigResponse resolveConfig(GetConfigRequest req) {
-        return resolveConfig(req, new UncompressedConfigResponseFactory());
+        return resolveConfig(req, new UncompressedConfigResponseFactory(new PayloadStore()));
+    }
+
+    private static class RequestCount {
+
+        private final GetConfigRequest request;
+        private final LongAdder count = new LongAdder();
+
+        private RequestCount(GetConfigRequest request) {
+            this.request = request;
+        }
+
+    }
+
+    /** A copy of a config request, without references to the connection it arrived on. */
+    private record PrewarmRequest(ConfigKey<?> configKey, DefContent defContent, Optional<VespaVersion> vespaVersion,
+                                  String defMd5, PayloadChecksums payloadChecksums) implements GetConfigRequest {
+
+        static PrewarmRequest copyOf(GetConfigRequest request, String defMd5) {
+            return new PrewarmRequest(request.getConfigKey(), request.getDefContent(), request.getVespaVersion(),
+                                      defMd5, request.configPayloadChecksums());
+        }
+
+        @Override public ConfigKey<?> getConfigKey() { return configKey; }
+        @Override public DefContent getDefContent() { return defContent; }
+        @Override public Optional<VespaVersion> getVespaVersion() { return vespaVersion; }
+        @Override public boolean noCache() { return false; }
+        @Override public String getRequestDefMd5() { return defMd5; }
+        @Override public PayloadChecksums configPayloadChecksums() { return payloadChecksums; }
+
     }
 
     public Set<ConfigKey<?>> allConfigsProduced() {
@@ -22,12 +22,15 @@ import com.yahoo.vespa.config.server.host.HostValidator;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
 import com.yahoo.vespa.config.server.monitoring.Metrics;
 import com.yahoo.vespa.config.server.rpc.ConfigResponseFactory;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 import com.yahoo.vespa.config.server.tenant.TenantRepository;
 import com.yahoo.vespa.curator.CompletionTimeoutException;
 import com.yahoo.vespa.curator.Curator;
 import com.yahoo.vespa.curator.Lock;
 import com.yahoo.vespa.curator.transaction.CuratorTransaction;
 import com.yahoo.vespa.flags.FlagSource;
+import com.yahoo.vespa.flags.Flags;
+import com.yahoo.vespa.flags.IntFlag;
 import com.yahoo.vespa.flags.ListFlag;
 import com.yahoo.vespa.flags.PermanentFlags;
 import org.apache.curator.framework.CuratorFramework;
@@ -76,11 +79,13 @@ public class TenantApplications implements RequestHandler, HostValidator<Applica
     private final TenantFileSystemDirs tenantFileSystemDirs;
     private final ConfigserverConfig configserverConfig;
     private final ListFlag<String> incompatibleVersions;
+    private final IntFlag prewarmCount;
 
     public TenantApplications(TenantName tenant, Curator curator, StripedExecutor<TenantName> zkWatcherExecutor,
                               ExecutorService zkCacheExecutor, Metrics metrics, ConfigActivationListener configActivationListener,
                               ConfigserverConfig configserverConfig, HostRegistry hostRegistry,
-                              TenantFileSystemDirs tenantFileSystemDirs, Clock clock, FlagSource flagSource) {
+                              TenantFileSystemDirs tenantFileSystemDirs, Clock clock, FlagSource flagSource,
+                              PayloadStore payloadStore) {
         this.curator = curator;
         this.database = new ApplicationCuratorDatabase(tenant, curator);
         this.tenant = tenant;
@@ -90,13 +95,14 @@ public class TenantApplications implements RequestHandler, HostValidator<Applica
         this.directoryCache.start();
         this.metrics = metrics;
         this.configActivationListener = configActivationListener;
-        this.responseFactory = ConfigResponseFactory.create(configserverConfig);
+        this.responseFactory = ConfigResponseFactory.create(configserverConfig, payloadStore);
         this.tenantMetricUpdater = metrics.getOrCreateMetricUpdater(Metrics.createDimensions(tenant));
         this.hostRegistry = hostRegistry;
         this.tenantFileSystemDirs = tenantFileSystemDirs;
         this.clock = clock;
         this.configserverConfig = configserverConfig;
         this.incompatibleVersions = PermanentFlags.INCOMPATIBLE_VERSIONS.bindTo(flagSource);
+        this.prewarmCount = Flags.CONFIG_PREWARM_COUNT.bindTo(flagSource);
     }
 
     /** The curator backed ZK storage of this. */
@@ -230,11 +236,14 @@ public class TenantApplications implements RequestHandler, HostValidator<Applica
      */
     public void activateApplication(ApplicationSet applicationSet, long activeSessionId) {
         ApplicationId id = applicationSet.getId();
+        if (applicationSet.getApplicationGeneration() != activeSessionId)
+            return; // Application activated a new session before we got here.
+
+        // The new generation is not yet visible to clients, so its cache can be filled before taking the lock.
+        prewarm(applicationSet);
         try (Lock lock = lock(id)) {
             if ( ! exists(id))
                 return; // Application was deleted before activation.
-            if (applicationSet.getApplicationGeneration() != activeSessionId)
-                return; // Application activated a new session before we got here.
 
             setActiveApp(applicationSet);
             notifyConfigActivationListeners(applicationSet);
@@ -281,6 +290,17 @@ public class TenantApplications implements RequestHandler, HostValidator<Applica
         configActivationListener.applicationRemoved(applicationId);
     }
 
+    /** Resolves the configs most requested from the currently active generation of the application with the given one. */
+    private void prewarm(ApplicationSet applicationSet) {
+        ApplicationId id = applicationSet.getId();
+        int count = prewarmCount.with(APPLICATION_ID, id.serializedForm()).value();
+        if (count <= 0 || ! hasApplication(id)) return;
+
+        for (Application previous : applicationMapper.listApplications(id))
+            applicationSet.get(previous.getVespaVersion())
+                          .ifPresent(application -> application.prewarm(previous.mostRequested(count), responseFactory));
+    }
+
     private void setActiveApp(ApplicationSet applicationSet) {
         ApplicationId id = applicationSet.getId();
         Collection<String> hostsForApp = applicationSet.getAllHosts();
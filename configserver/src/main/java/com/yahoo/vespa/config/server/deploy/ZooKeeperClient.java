@@ -17,6 +17,7 @@ import com.yahoo.vespa.config.ConfigDefinitionKey;
 import com.yahoo.vespa.config.server.filedistribution.FileDBRegistry;
 import com.yahoo.vespa.config.server.zookeeper.ZKApplicationPackage;
 import com.yahoo.vespa.curator.Curator;
+import com.yahoo.vespa.curator.transaction.CuratorWriteBatch;
 import com.yahoo.yolean.Exceptions;
 
 import java.io.ByteArrayOutputStream;
@@ -59,29 +60,33 @@ public class ZooKeeperClient {
      * This is the first operation on ZK during deploy.
      */
     void initialize() {
-        curator.create(sessionPath);
+        CuratorWriteBatch batch = new CuratorWriteBatch(curator);
+        batch.create(sessionPath);
 
         for (String subPath : Arrays.asList(DEFCONFIGS_ZK_SUBPATH,
                                             USER_DEFCONFIGS_ZK_SUBPATH,
                                             USERAPP_ZK_SUBPATH,
                                             ZKApplicationPackage.fileRegistryNode)) {
             // TODO: The replaceFirst below is hackish.
-            curator.create(getZooKeeperAppPath().append(subPath.replaceFirst("/", "")));
+            batch.create(getZooKeeperAppPath().append(subPath.replaceFirst("/", "")));
         }
+        batch.commit();
     }
 
     /**
-     * Writes def files and user config into ZK.
+     * Writes def files and user config into ZK, in as few transactions as the size of the application package allows.
      *
      * @param app the application package to feed to zookeeper
      */
     void writeApplicationPackage(ApplicationPackage app) {
         try {
-            writeUserDefs(app);
-            writeSomeOf(app);
-            writeSchemas(app);
-            writeUserIncludeDirs(app, app.getUserIncludeDirs());
-            writeMetadata(app.getMetaData());
+            CuratorWriteBatch batch = new CuratorWriteBatch(curator);
+            writeUserDefs(batch, app);
+            writeSomeOf(batch, app);
+            writeSchemas(batch, app);
+            writeUserIncludeDirs(batch, app, app.getUserIncludeDirs());
+            writeMetadata(batch, app.getMetaData());
+            batch.commit();
         } catch (Exception e) {
             throw new IllegalStateException("Unable to write vespa model to config server(s) " + System.getProperty("configsources") + "\n" +
                                             "Please ensure that config server is started " +
@@ -89,17 +94,17 @@ public class ZooKeeperClient {
         }
     }
 
-    private void writeSchemas(ApplicationPackage app) throws IOException {
+    private void writeSchemas(CuratorWriteBatch batch, ApplicationPackage app) throws IOException {
         Collection<NamedReader> schemas = app.getSchemas();
         if (schemas.isEmpty()) return;
 
         Path zkPath = getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(SCHEMAS_DIR);
-        curator.create(zkPath);
+        batch.create(zkPath);
         // Ensures that ranking expressions and other files are also written
-        writeDir(app.getFile(ApplicationPackage.SEARCH_DEFINITIONS_DIR), zkPath, true);
-        writeDir(app.getFile(ApplicationPackage.SCHEMAS_DIR), zkPath, true);
+        writeDir(batch, app.getFile(ApplicationPackage.SEARCH_DEFINITIONS_DIR), zkPath, true);
+        writeDir(batch, app.getFile(ApplicationPackage.SCHEMAS_DIR), zkPath, true);
         for (NamedReader sd : schemas) {
-            curator.set(zkPath.append(sd.getName()), Utf8.toBytes(com.yahoo.io.IOUtils.readAll(sd.getReader())));
+            batch.set(zkPath.append(sd.getName()), Utf8.toBytes(com.yahoo.io.IOUtils.readAll(sd.getReader())));
             sd.getReader().close();
         }
     }
@@ -110,55 +115,55 @@ public class ZooKeeperClient {
      * @param app the application package to use as input.
      * @throws java.io.IOException if not able to write to Zookeeper
      */
-    private void writeSomeOf(ApplicationPackage app) throws IOException {
+    private void writeSomeOf(CuratorWriteBatch batch, ApplicationPackage app) throws IOException {
         // TODO: We should have a way of doing this which doesn't require repeating all the content
-        writeFile(app.getFile(Path.fromString(SERVICES)), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
-        writeFile(app.getFile(Path.fromString(HOSTS)), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
-        writeFile(app.getFile(Path.fromString(DEPLOYMENT_FILE.getName())), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
-        writeFile(app.getFile(Path.fromString(VALIDATION_OVERRIDES.getName())), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
-        writeDir(app.getFile(RULES_DIR),
+        writeFile(batch, app.getFile(Path.fromString(SERVICES)), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
+        writeFile(batch, app.getFile(Path.fromString(HOSTS)), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
+        writeFile(batch, app.getFile(Path.fromString(DEPLOYMENT_FILE.getName())), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
+        writeFile(batch, app.getFile(Path.fromString(VALIDATION_OVERRIDES.getName())), getZooKeeperAppPath(USERAPP_ZK_SUBPATH));
+        writeDir(batch, app.getFile(RULES_DIR),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(RULES_DIR),
                  (path) -> path.getName().endsWith(ApplicationPackage.RULES_NAME_SUFFIX),
                  true);
-        writeDir(app.getFile(QUERY_PROFILES_DIR),
+        writeDir(batch, app.getFile(QUERY_PROFILES_DIR),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(QUERY_PROFILES_DIR),
                  xmlFilter, true);
-        writeDir(app.getFile(PAGE_TEMPLATES_DIR),
+        writeDir(batch, app.getFile(PAGE_TEMPLATES_DIR),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(PAGE_TEMPLATES_DIR),
                  xmlFilter, true);
-        writeDir(app.getFile(Path.fromString(SEARCHCHAINS_DIR)),
+        writeDir(batch, app.getFile(Path.fromString(SEARCHCHAINS_DIR)),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(SEARCHCHAINS_DIR),
                  xmlFilter, true);
-        writeDir(app.getFile(Path.fromString(DOCPROCCHAINS_DIR)),
+        writeDir(batch, app.getFile(Path.fromString(DOCPROCCHAINS_DIR)),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(DOCPROCCHAINS_DIR),
                  xmlFilter, true);
-        writeDir(app.getFile(Path.fromString(ROUTINGTABLES_DIR)),
+        writeDir(batch, app.getFile(Path.fromString(ROUTINGTABLES_DIR)),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(ROUTINGTABLES_DIR),
                  xmlFilter, true);
-        writeDir(app.getFile(MODELS_GENERATED_REPLICATED_DIR),
+        writeDir(batch, app.getFile(MODELS_GENERATED_REPLICATED_DIR),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(MODELS_GENERATED_REPLICATED_DIR),
                  true);
-        writeDir(app.getFile(SECURITY_DIR),
+        writeDir(batch, app.getFile(SECURITY_DIR),
                  getZooKeeperAppPath(USERAPP_ZK_SUBPATH).append(SECURITY_DIR),
                  true);
     }
 
-    private void writeDir(ApplicationFile file, Path zooKeeperAppPath, boolean recurse) throws IOException {
-        writeDir(file, zooKeeperAppPath, (__) -> true, recurse);
+    private void writeDir(CuratorWriteBatch batch, ApplicationFile file, Path zooKeeperAppPath, boolean recurse) throws IOException {
+        writeDir(batch, file, zooKeeperAppPath, (__) -> true, recurse);
     }
 
-    private void writeDir(ApplicationFile dir, Path path, ApplicationFile.PathFilter filenameFilter, boolean recurse) throws IOException {
+    private void writeDir(CuratorWriteBatch batch, ApplicationFile dir, Path path, ApplicationFile.PathFilter filenameFilter, boolean recurse) throws IOException {
         if ( ! dir.isDirectory()) return;
         for (ApplicationFile file : listFiles(dir, filenameFilter)) {
             String name = file.getPath().getName();
             if (name.startsWith(".")) continue; //.svn , .git ...
             if (file.isDirectory()) {
-                curator.create(path.append(name));
+                batch.create(path.append(name));
                 if (recurse) {
-                    writeDir(file, path.append(name), filenameFilter, recurse);
+                    writeDir(batch, file, path.append(name), filenameFilter, recurse);
                 }
             } else {
-                writeFile(file, path);
+                writeFile(batch, file, path);
             }
         }
     }
@@ -184,25 +189,25 @@ public class ZooKeeperClient {
         return ret;
     }
 
-    private void writeFile(ApplicationFile file, Path zkPath) throws IOException {
+    private void writeFile(CuratorWriteBatch batch, ApplicationFile file, Path zkPath) throws IOException {
         if ( ! file.exists()) return;
 
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (InputStream inputStream = file.createInputStream()) {
             inputStream.transferTo(baos);
             baos.flush();
-            curator.set(zkPath.append(file.getPath().getName()), baos.toByteArray());
+            batch.set(zkPath.append(file.getPath().getName()), baos.toByteArray());
         }
     }
 
-    private void writeUserIncludeDirs(ApplicationPackage applicationPackage, List<String> userIncludeDirs) throws IOException {
+    private void writeUserIncludeDirs(CuratorWriteBatch batch, ApplicationPackage applicationPackage, List<String> userIncludeDirs) throws IOException {
         for (String userInclude : userIncludeDirs) {
             ApplicationFile dir = applicationPackage.getFile(Path.fromString(userInclude));
             final List<ApplicationFile> files = dir.listFiles();
             if (files == null || files.isEmpty()) {
-                curator.create(getZooKeeperAppPath(USERAPP_ZK_SUBPATH + "/" + userInclude));
+                batch.create(getZooKeeperAppPath(USERAPP_ZK_SUBPATH + "/" + userInclude));
             }
-            writeDir(dir,
+            writeDir(batch, dir,
                      getZooKeeperAppPath(USERAPP_ZK_SUBPATH + "/" + userInclude),
                      xmlFilter, true);
         }
@@ -212,25 +217,25 @@ public class ZooKeeperClient {
      * Feeds all user-defined .def file from the application package into ZooKeeper (both into
      * /defconfigs and /userdefconfigs
      */
-    private void writeUserDefs(ApplicationPackage applicationPackage) {
+    private void writeUserDefs(CuratorWriteBatch batch, ApplicationPackage applicationPackage) {
         Map<ConfigDefinitionKey, UnparsedConfigDefinition> configDefs = applicationPackage.getAllExistingConfigDefs();
         for (Map.Entry<ConfigDefinitionKey, UnparsedConfigDefinition> entry : configDefs.entrySet()) {
             ConfigDefinitionKey key = entry.getKey();
             String contents = entry.getValue().getUnparsedContent();
-            writeConfigDefinition(key.getName(), key.getNamespace(), getZooKeeperAppPath(USER_DEFCONFIGS_ZK_SUBPATH), contents);
-            writeConfigDefinition(key.getName(), key.getNamespace(), getZooKeeperAppPath(DEFCONFIGS_ZK_SUBPATH), contents);
+            writeConfigDefinition(batch, key.getName(), key.getNamespace(), getZooKeeperAppPath(USER_DEFCONFIGS_ZK_SUBPATH), contents);
+            writeConfigDefinition(batch, key.getName(), key.getNamespace(), getZooKeeperAppPath(DEFCONFIGS_ZK_SUBPATH), contents);
         }
         logger.log(Level.FINE, configDefs.size() + " user config definitions");
     }
 
-    private void writeConfigDefinition(String name, String namespace, Path path, String data) {
-        curator.set(path.append(namespace + "." + name), Utf8.toBytes(data));
+    private void writeConfigDefinition(CuratorWriteBatch batch, String name, String namespace, Path path, String data) {
+        batch.set(path.append(namespace + "." + name), Utf8.toBytes(data));
     }
 
-    private void write(Version vespaVersion, FileRegistry fileRegistry) {
+    private void write(CuratorWriteBatch batch, Version vespaVersion, FileRegistry fileRegistry) {
         String exportedRegistry = FileDBRegistry.exportRegistry(fileRegistry);
-        curator.set(getZooKeeperAppPath(ZKApplicationPackage.fileRegistryNode).append(vespaVersion.toFullString()),
-                    Utf8.toBytes(exportedRegistry));
+        batch.set(getZooKeeperAppPath(ZKApplicationPackage.fileRegistryNode).append(vespaVersion.toFullString()),
+                  Utf8.toBytes(exportedRegistry));
     }
 
     /**
@@ -239,8 +244,8 @@ public class ZooKeeperClient {
      *
      * @param metaData The application metadata.
      */
-    private void writeMetadata(ApplicationMetaData metaData) {
-        curator.set(getZooKeeperAppPath(META_ZK_PATH), metaData.asJsonBytes());
+    private void writeMetadata(CuratorWriteBatch batch, ApplicationMetaData metaData) {
+        batch.set(getZooKeeperAppPath(META_ZK_PATH), metaData.asJsonBytes());
     }
 
     void cleanupZooKeeper() {
@@ -280,9 +285,11 @@ public class ZooKeeperClient {
     }
 
     public void write(Map<Version, FileRegistry> fileRegistryMap) {
+        CuratorWriteBatch batch = new CuratorWriteBatch(curator);
         for (Map.Entry<Version, FileRegistry> versionFileRegistryEntry : fileRegistryMap.entrySet()) {
-            write(versionFileRegistryEntry.getKey(), versionFileRegistryEntry.getValue());
+            write(batch, versionFileRegistryEntry.getKey(), versionFileRegistryEntry.getValue());
         }
+        batch.commit();
     }
 
 }
@@ -30,9 +30,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -53,10 +57,25 @@ public class FileServer {
     // Set this low, to make sure we don't wait for a long time trying to download file
     private static final Duration timeout = Duration.ofSeconds(10);
 
+    // Peers are nodes which have downloaded a file reference, and serve it to other nodes; keep only the most recent ones
+    private static final int maxPeersPerFileReference = 16;
+    private static final int maxFileReferencesWithPeers = 1024;
+
     private final FileDirectory root;
     private final ExecutorService executor;
     private final FileDownloader downloader;
     private final List<CompressionType> compressionTypes; // compression types to use, in preferred order
+    private final Map<FileReference, Set<String>> peers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<FileReference, Set<String>> eldest) {
+            return size() > maxFileReferencesWithPeers;
+        }
+    };
+    // File references are immutable, so their hashes are kept until evicted, like their peers
+    private final Map<FileReference, CompletableFuture<Optional<Long>>> hashes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<FileReference, CompletableFuture<Optional<Long>>> eldest) {
+            return size() > maxFileReferencesWithPeers;
+        }
+    };
 
     // TODO: Move to filedistribution module, so that it can be used by both clients and servers
     private enum FileApiErrorCodes {
@@ -235,6 +254,66 @@ public class FileServer {
         }
     }
 
+    /** Registers a node, with the given spec, which has the given file reference, and serves it to its peers. */
+    public void addPeer(FileReference reference, String spec) {
+        synchronized (peers) {
+            Set<String> specs = peers.computeIfAbsent(reference, __ -> new LinkedHashSet<>());
+            specs.remove(spec);
+            specs.add(spec);
+            if (specs.size() > maxPeersPerFileReference) specs.remove(specs.iterator().next());
+        }
+    }
+
+    /** Returns the specs of the most recently registered peers which have the given file reference. */
+    public List<String> peers(FileReference reference) {
+        synchronized (peers) {
+            return List.copyOf(peers.getOrDefault(reference, Set.of()));
+        }
+    }
+
+    /**
+     * Returns the xxhash64 of the given file reference, if it is a plain file this has, which is what peers must
+     * also have sent, as they do not serve other file references. The hash is computed only once per file reference,
+     * and the returned future always completes on the executor of this, never on the calling thread.
+     */
+    public CompletableFuture<Optional<Long>> xxhash(FileReference reference) {
+        CompletableFuture<Optional<Long>> hash;
+        boolean computing = false;
+        synchronized (hashes) {
+            hash = hashes.get(reference);
+            if (hash == null) {
+                hash = new CompletableFuture<>();
+                hashes.put(reference, hash);
+                computing = true;
+            }
+        }
+        if (computing) {
+            CompletableFuture<Optional<Long>> computed = hash;
+            executor.execute(() -> {
+                Optional<Long> result = computeXxhash(reference);
+                // The file may be downloaded later, so forget that it was missing
+                if (result.isEmpty()) synchronized (hashes) { hashes.remove(reference, computed); }
+                computed.complete(result);
+            });
+        }
+        return hash.thenApplyAsync(result -> result, executor);
+    }
+
+    private Optional<Long> computeXxhash(FileReference reference) {
+        if ( ! hasFile(reference)) return Optional.empty();
+
+        File file = root.getFile(reference);
+        if ( ! file.isFile()) return Optional.empty();
+
+        try {
+            return Optional.of(LazyFileReferenceData.xxhash(file));
+        }
+        catch (IOException e) {
+            log.log(Level.WARNING, "Failed computing xxhash of " + reference + ": " + Exceptions.toMessageString(e));
+            return Optional.empty();
+        }
+    }
+
     public FileDownloader downloader() { return downloader; }
 
     public void close() {
@@ -10,7 +10,11 @@ import com.yahoo.config.provision.TenantName;
 import com.yahoo.container.jdisc.config.HealthMonitorConfig;
 import com.yahoo.docproc.jdisc.metric.NullMetric;
 import com.yahoo.jdisc.Metric;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
+import com.yahoo.vespa.curator.stats.LatencyMetrics;
+import com.yahoo.vespa.curator.stats.LatencyStats;
 
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -34,22 +38,36 @@ public class Metrics extends AbstractComponent implements MetricUpdaterFactory,
     private static final String METRIC_FAILED_REQUESTS = getMetricName("failedRequests");
     private static final String METRIC_FREE_MEMORY = getMetricName("freeMemory");
     private static final String METRIC_LATENCY = getMetricName("latency");
+    private static final String METRIC_PAYLOAD_STORE_ELEMENTS = getMetricName("payloadStoreElems");
+    private static final String METRIC_PAYLOAD_STORE_HIT_RATIO = getMetricName("payloadStoreHitRatio");
+    private static final String METRIC_PAYLOAD_STORE_BYTES_SHARED = getMetricName("payloadStoreBytesShared");
+    private static final String METRIC_ZK_PHASE_LATENCY_AVERAGE = getMetricName("zkPhaseAvgLatency");
+    private static final String METRIC_ZK_PHASE_LATENCY_MAX = getMetricName("zkPhaseMaxLatency");
+
+    /** Phases of deployment which are dominated by ZooKeeper requests, and whose latencies are reported separately. */
+    public enum ZooKeeperPhase { writeApplicationPackage, writeSessionData, copySessionData }
 
     private final Metric metric;
+    private final PayloadStore payloadStore;
     private final Optional<ZKMetricUpdater> zkMetricUpdater;
 
     // TODO The map is the key for now
     private final Map<Map<String, String>, MetricUpdater> metricUpdaters = new ConcurrentHashMap<>();
     private final Optional<ScheduledExecutorService> executorService;
+    private final Map<ZooKeeperPhase, LatencyStats> zooKeeperLatencies = new EnumMap<>(ZooKeeperPhase.class);
 
     @Inject
-    public Metrics(Metric metric, HealthMonitorConfig healthMonitorConfig, ZookeeperServerConfig zkServerConfig) {
-        this(metric, healthMonitorConfig, zkServerConfig, true);
+    public Metrics(Metric metric, HealthMonitorConfig healthMonitorConfig, ZookeeperServerConfig zkServerConfig,
+                   PayloadStore payloadStore) {
+        this(metric, healthMonitorConfig, zkServerConfig, payloadStore, true);
     }
 
     private Metrics(Metric metric, HealthMonitorConfig healthMonitorConfig,
-                    ZookeeperServerConfig zkServerConfig, boolean createZkMetricUpdater) {
+                    ZookeeperServerConfig zkServerConfig, PayloadStore payloadStore, boolean createZkMetricUpdater) {
         this.metric = metric;
+        this.payloadStore = payloadStore;
+        for (ZooKeeperPhase phase : ZooKeeperPhase.values())
+            zooKeeperLatencies.put(phase, new LatencyStats());
 
         if (createZkMetricUpdater) {
             log.log(Level.FINE, () -> "Metric update interval is " + healthMonitorConfig.snapshot_interval() + " seconds");
@@ -68,7 +86,7 @@ public class Metrics extends AbstractComponent implements MetricUpdaterFactory,
         HealthMonitorConfig.Builder builder = new HealthMonitorConfig.Builder();
         builder.snapshot_interval(60.0);
         ZookeeperServerConfig.Builder zkBuilder = new ZookeeperServerConfig.Builder().myid(1);
-        return new Metrics(metric, new HealthMonitorConfig(builder), new ZookeeperServerConfig(zkBuilder), false);
+        return new Metrics(metric, new HealthMonitorConfig(builder), new ZookeeperServerConfig(zkBuilder), new PayloadStore(), false);
     }
 
     void incrementRequests(Metric.Context metricContext) {
@@ -87,6 +105,11 @@ public class Metrics extends AbstractComponent implements MetricUpdaterFactory,
         return metric;
     }
 
+    /** Starts timing the given phase, which ends when the returned interval is closed. */
+    public LatencyStats.ActiveInterval startZooKeeperPhase(ZooKeeperPhase phase) {
+        return zooKeeperLatencies.get(phase).startNewInterval();
+    }
+
     public MetricUpdater removeMetricUpdater(Map<String, String> dimensions) {
         return metricUpdaters.remove(dimensions);
     }
@@ -124,6 +147,7 @@ public class Metrics extends AbstractComponent implements MetricUpdaterFactory,
             }
         }
         setRegularMetrics();
+        setZooKeeperPhaseMetrics();
         zkMetricUpdater.ifPresent(updater -> updater.getZKMetrics().forEach((attr, val) -> metric.set(attr, val, null)));
     }
 
@@ -134,6 +158,19 @@ public class Metrics extends AbstractComponent implements MetricUpdaterFactory,
 
     private void setRegularMetrics() {
         metric.set(METRIC_FREE_MEMORY, Runtime.getRuntime().freeMemory(), null);
+        metric.set(METRIC_PAYLOAD_STORE_ELEMENTS, payloadStore.size(), null);
+        PayloadStore.Stats payloadStoreStats = payloadStore.getStatsAndStartNewPeriod();
+        metric.set(METRIC_PAYLOAD_STORE_HIT_RATIO, payloadStoreStats.hitRatio(), null);
+        metric.add(METRIC_PAYLOAD_STORE_BYTES_SHARED, payloadStoreStats.bytesShared(), null);
+    }
+
+    private void setZooKeeperPhaseMetrics() {
+        zooKeeperLatencies.forEach((phase, stats) -> {
+            LatencyMetrics latency = stats.getLatencyMetricsAndStartNewPeriod();
+            Metric.Context context = metric.createContext(Map.of("phase", phase.name()));
+            metric.set(METRIC_ZK_PHASE_LATENCY_AVERAGE, latency.latencySeconds() * 1000, context);
+            metric.set(METRIC_ZK_PHASE_LATENCY_MAX, latency.maxLatencySeconds() * 1000, context);
+        });
     }
 
     void increment(String metricName, Metric.Context context) {
@@ -20,12 +20,14 @@ import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
  */
 public interface ConfigResponseFactory {
 
-    static ConfigResponseFactory create(ConfigserverConfig configserverConfig) {
+    static ConfigResponseFactory create(ConfigserverConfig configserverConfig, PayloadStore payloads) {
         switch (configserverConfig.payloadCompressionType()) {
             case LZ4:
-                return new LZ4ConfigResponseFactory();
+                return new LZ4ConfigResponseFactory(payloads);
+            case ZSTD:
+                return new ZstdConfigResponseFactory(payloads);
             case UNCOMPRESSED:
-                return new UncompressedConfigResponseFactory();
+                return new UncompressedConfigResponseFactory(payloads);
             default:
                 throw new IllegalArgumentException("Unknown payload compression type " + configserverConfig.payloadCompressionType());
         }
@@ -138,11 +138,17 @@ class GetConfigProcessor implements Runnable {
             }
 
             // debugLog(trace, "config response before encoding:" + config.toString());
-            request.addOkResponse(request.payloadFromResponse(config), config.getGeneration(), config.applyOnRestart(), config.getPayloadChecksums());
+            // Convert each distinct payload only once for clients which want another compression than is stored
+            Payload payload = rpcServer.payloadStore().withCompression(request.payloadFromResponse(config), request.getCompressionType());
+            request.addOkResponse(payload, config.getGeneration(), config.applyOnRestart(),
+                                  config.getPayloadChecksums(), rpcServer.payloadDeltas());
             debugLog(trace, "return response: " + request.getShortDescription());
             respond(request);
         } else {
             debugLog(trace, "delaying response " + request.getShortDescription());
+            // The client may have this config from before this server started, so keep it as the base for the next delta
+            if (config != null)
+                request.keepPayloadDeltaBase(request.payloadFromResponse(config), config.getPayloadChecksums(), rpcServer.payloadDeltas());
             return new Pair<>(context, config != null ? config.getGeneration() : 0);
         }
         return null;
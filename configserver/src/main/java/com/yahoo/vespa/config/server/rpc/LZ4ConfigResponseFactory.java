@@ -11,7 +11,7 @@ import com.yahoo.vespa.config.protocol.ConfigResponse;
 import com.yahoo.vespa.config.protocol.SlimeConfigResponse;
 
 /**
- * Compressor that compresses config payloads to lz4.
+ * Compressor that compresses config payloads to lz4, sharing identical compressed payloads through a {@link PayloadStore}.
  *
  * @author Ulf Lilleengen
  */
@@ -19,14 +19,20 @@ public class LZ4ConfigResponseFactory implements ConfigResponseFactory {
 
     private static final LZ4PayloadCompressor compressor = new LZ4PayloadCompressor();
 
+    private final PayloadStore payloads;
+
+    public LZ4ConfigResponseFactory(PayloadStore payloads) {
+        this.payloads = payloads;
+    }
+
     @Override
     public ConfigResponse createResponse(AbstractUtf8Array rawPayload,
                                          long generation,
                                          boolean applyOnRestart,
                                          PayloadChecksums requestsPayloadChecksums) {
         CompressionInfo info = CompressionInfo.create(CompressionType.LZ4, rawPayload.getByteLength());
-        Utf8Array compressed = new Utf8Array(compressor.compress(rawPayload.wrap()));
         PayloadChecksums payloadChecksums = generatePayloadChecksums(rawPayload, requestsPayloadChecksums);
+        AbstractUtf8Array compressed = payloads.intern(rawPayload, CompressionType.LZ4, () -> new Utf8Array(compressor.compress(rawPayload.wrap())));
         return new SlimeConfigResponse(compressed, generation, applyOnRestart, payloadChecksums, info);
     }
 
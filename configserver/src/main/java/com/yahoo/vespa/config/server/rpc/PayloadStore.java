@@ -0,0 +1,172 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.rpc;
+
+import com.yahoo.component.annotation.Inject;
+import com.yahoo.text.AbstractUtf8Array;
+import com.yahoo.vespa.config.protocol.CompressionInfo;
+import com.yahoo.vespa.config.protocol.CompressionType;
+import com.yahoo.vespa.config.protocol.Payload;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Content addressed store of serialized config payloads, shared by all tenants, applications and generations.
+ * Many applications produce identical configs, and each of these is then compressed only once, and kept only once
+ * in memory, by all the {@link com.yahoo.vespa.config.server.ServerCache}s which hold a response with it.
+ * Payloads are only weakly referenced from this, so memory use is bounded by the payloads in use elsewhere.
+ * Payloads are keyed by the SHA-256 digest of their raw form, so one tenant can never be served another's config
+ * through a checksum collision.
+ * Payloads converted to the compression a client asks for, when this differs from what the server stores, are kept
+ * here as well, keyed by the SHA-256 digest of the stored payload, which costs much less than converting it again.
+ * No response holds these conversions, so the most recently used ones are also referenced strongly, up to a total size.
+ * This is a component, so that the response factories, the RPC server and the metrics of a config server all use the same store.
+ *
+ * @author agent
+ */
+public class PayloadStore {
+
+    private static final long defaultMaxConversionBytes = 64 << 20;
+
+    private final long maxConversionBytes;
+    private final Map<Key, Entry> payloads = new ConcurrentHashMap<>();
+    private final ReferenceQueue<AbstractUtf8Array> cleared = new ReferenceQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesShared = new LongAdder();
+    private final Map<Key, AbstractUtf8Array> conversions = new LinkedHashMap<>(16, 0.75f, true);
+    private long conversionBytes = 0;
+
+    @Inject
+    public PayloadStore() {
+        this(defaultMaxConversionBytes);
+    }
+
+    public PayloadStore(long maxConversionBytes) {
+        this.maxConversionBytes = maxConversionBytes;
+    }
+
+    /**
+     * Returns a stored payload with the given raw payload and compression, if present,
+     * or stores and returns the payload created by the given supplier otherwise.
+     */
+    public AbstractUtf8Array intern(AbstractUtf8Array rawPayload, CompressionType compression,
+                                    Supplier<? extends AbstractUtf8Array> payload) {
+        return intern(new Key(sha256(rawPayload), CompressionType.UNCOMPRESSED, compression), payload);
+    }
+
+    /**
+     * Returns the given payload with the given compression, using a stored conversion of it, if present,
+     * or storing the conversion otherwise.
+     */
+    public Payload withCompression(Payload payload, CompressionType compression) {
+        CompressionInfo info = payload.getCompressionInfo();
+        if (info.getCompressionType() == compression) return payload;
+
+        Key key = new Key(sha256(payload.getData()), info.getCompressionType(), compression);
+        AbstractUtf8Array converted = intern(key, () -> payload.withCompression(compression).getData());
+        retain(key, converted);
+        return Payload.from(converted, CompressionInfo.create(compression, info.getUncompressedSize()));
+    }
+
+    private void retain(Key key, AbstractUtf8Array converted) {
+        synchronized (conversions) {
+            AbstractUtf8Array previous = conversions.put(key, converted);
+            conversionBytes += converted.getByteLength() - (previous == null ? 0 : previous.getByteLength());
+            for (var eldest = conversions.values().iterator(); conversionBytes > maxConversionBytes && eldest.hasNext(); ) {
+                conversionBytes -= eldest.next().getByteLength();
+                eldest.remove();
+            }
+        }
+    }
+
+    private AbstractUtf8Array intern(Key key, Supplier<? extends AbstractUtf8Array> payload) {
+        expungeCleared();
+        AbstractUtf8Array[] result = new AbstractUtf8Array[1];
+        boolean[] created = new boolean[1];
+        payloads.compute(key, (__, present) -> {
+            if (present != null && (result[0] = present.get()) != null) return present;
+            created[0] = true;
+            result[0] = payload.get();
+            return new Entry(key, result[0], cleared);
+        });
+        if (created[0]) {
+            misses.increment();
+        }
+        else {
+            hits.increment();
+            bytesShared.add(result[0].getByteLength());
+        }
+        return result[0];
+    }
+
+    /** Returns the number of payloads currently in this store. */
+    public int size() {
+        expungeCleared();
+        return payloads.size();
+    }
+
+    /** Returns the statistics of this store since the previous call to this, and starts a new period. */
+    public Stats getStatsAndStartNewPeriod() {
+        return new Stats(hits.sumThenReset(), misses.sumThenReset(), bytesShared.sumThenReset());
+    }
+
+    private static ByteBuffer sha256(AbstractUtf8Array payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(payload.wrap());
+            return ByteBuffer.wrap(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void expungeCleared() {
+        for (Reference<? extends AbstractUtf8Array> reference; (reference = cleared.poll()) != null; ) {
+            Entry entry = (Entry) reference;
+            payloads.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * Statistics for a period.
+     *
+     * @param hits        the number of requested payloads which were found in the store
+     * @param misses      the number of requested payloads which were not found in the store, and were created
+     * @param bytesShared the total size of payloads which were found in the store, rather than created and kept again
+     */
+    public record Stats(long hits, long misses, long bytesShared) {
+
+        /** Returns the fraction of requested payloads which were found in the store, or 0 if none were requested. */
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+    }
+
+    /** The digest of a payload with the given compression, which is kept with the other given compression. */
+    private record Key(ByteBuffer sha256, CompressionType digestedCompression, CompressionType compression) { }
+
+    private static class Entry extends WeakReference<AbstractUtf8Array> {
+
+        private final Key key;
+
+        private Entry(Key key, AbstractUtf8Array payload, ReferenceQueue<AbstractUtf8Array> queue) {
+            super(payload, queue);
+            this.key = key;
+        }
+
+    }
+
+}
@@ -10,13 +10,13 @@ import com.yahoo.config.provision.ApplicationId;
 import com.yahoo.config.provision.HostLivenessTracker;
 import com.yahoo.config.provision.TenantName;
 import com.yahoo.jrt.Acceptor;
-import com.yahoo.jrt.DataValue;
 import com.yahoo.jrt.Int32Value;
 import com.yahoo.jrt.Int64Value;
 import com.yahoo.jrt.ListenFailedException;
 import com.yahoo.jrt.Method;
 import com.yahoo.jrt.Request;
 import com.yahoo.jrt.Spec;
+import com.yahoo.jrt.StringArray;
 import com.yahoo.jrt.StringValue;
 import com.yahoo.jrt.Supervisor;
 import com.yahoo.jrt.Target;
@@ -26,6 +26,7 @@ import com.yahoo.vespa.config.JRTMethods;
 import com.yahoo.vespa.config.protocol.ConfigResponse;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequestV3;
+import com.yahoo.vespa.config.protocol.PayloadDeltas;
 import com.yahoo.vespa.config.protocol.Trace;
 import com.yahoo.vespa.config.server.GetConfigContext;
 import com.yahoo.vespa.config.server.ConfigActivationListener;
@@ -41,17 +42,16 @@ import com.yahoo.vespa.config.server.tenant.Tenant;
 import com.yahoo.vespa.config.server.tenant.TenantListener;
 import com.yahoo.vespa.config.server.tenant.TenantRepository;
 import com.yahoo.vespa.filedistribution.FileDownloader;
-import com.yahoo.vespa.filedistribution.FileReceiver;
 import com.yahoo.vespa.filedistribution.FileReferenceData;
 import com.yahoo.vespa.filedistribution.FileReferenceDownload;
-import java.nio.ByteBuffer;
-import java.time.Duration;
+import com.yahoo.vespa.filedistribution.FileSender;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletionService;
@@ -105,9 +105,11 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
     private final HostLivenessTracker hostLivenessTracker;
     private final FileServer fileServer;
     private final RpcAuthorizer rpcAuthorizer;
+    private final PayloadStore payloadStore;
 
     private final ThreadPoolExecutor executorService;
     private final FileDownloader downloader;
+    private final PayloadDeltas payloadDeltas = new PayloadDeltas();
     private volatile boolean allTenantsLoaded = false;
     private boolean isRunning = false;
     boolean isServingConfigRequests = false;
@@ -129,7 +131,7 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
     public RpcServer(ConfigserverConfig config, SuperModelRequestHandler superModelRequestHandler,
                      MetricUpdaterFactory metrics, HostRegistry hostRegistry,
                      HostLivenessTracker hostLivenessTracker, FileServer fileServer, RpcAuthorizer rpcAuthorizer,
-                     RpcRequestHandlerProvider handlerProvider) {
+                     RpcRequestHandlerProvider handlerProvider, PayloadStore payloadStore) {
         this.superModelRequestHandler = superModelRequestHandler;
         metricUpdaterFactory = metrics;
         supervisor.setMaxOutputBufferSize(config.maxoutputbuffersize());
@@ -147,6 +149,7 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
         this.canReturnEmptySentinelConfig = config.canReturnEmptySentinelConfig();
         this.fileServer = fileServer;
         this.rpcAuthorizer = rpcAuthorizer;
+        this.payloadStore = payloadStore;
         downloader = fileServer.downloader();
         handlerProvider.setInstance(this);
         setUpFileDistributionHandlers();
@@ -231,6 +234,16 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
                                      .methodDesc("set which file references to download")
                                      .paramDesc(0, "file references", "file reference to download")
                                      .returnDesc(0, "ret", "0 if success, 1 otherwise"));
+        getSupervisor().addMethod(new Method("filedistribution.addPeer", "Si", "i", this::addPeer)
+                                     .methodDesc("register the calling node, which has the given file references, and serves them to its peers")
+                                     .paramDesc(0, "file references", "file references the peer has")
+                                     .paramDesc(1, "port", "port the peer serves file references on, on the address it calls from")
+                                     .returnDesc(0, "ret", "0 if success, 1 otherwise"));
+        getSupervisor().addMethod(new Method("filedistribution.getPeers", "s", "Sl", this::getPeers)
+                                     .methodDesc("get specs of nodes which serve the given file reference to their peers")
+                                     .paramDesc(0, "file reference", "file reference to get peers for")
+                                     .returnDesc(0, "specs", "specs of peers which have the file reference, or none if this does not have it")
+                                     .returnDesc(1, "xxhash", "xxhash64 of the file, which the file received from a peer must have"));
     }
 
     /**
@@ -467,6 +480,12 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
      * not part of an application asks for sentinel config */
     public boolean canReturnEmptySentinelConfig() { return canReturnEmptySentinelConfig; }
     
+    /** Returns the deltas between payloads served by this, which clients that accept these are sent instead. */
+    PayloadDeltas payloadDeltas() { return payloadDeltas; }
+
+    /** Returns the store of the payloads of this, which also has their conversions to the compressions clients ask for. */
+    PayloadStore payloadStore() { return payloadStore; }
+
     MetricUpdaterFactory metricUpdaterFactory() {
         return metricUpdaterFactory;
     }
@@ -476,9 +495,17 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
     }
 
     static class ChunkedFileReceiver implements FileServer.Receiver {
+
         final Target target;
+        final FileSender sender;
+
         ChunkedFileReceiver(Target target) {
+            this(target, OptionalInt.empty());
+        }
+
+        ChunkedFileReceiver(Target target, OptionalInt firstPart) {
             this.target = target;
+            this.sender = new FileSender(target, firstPart);
         }
 
         @Override
@@ -488,103 +515,15 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
 
         @Override
         public void receive(FileReferenceData fileData, FileServer.ReplayStatus status) {
-            int session = sendMeta(fileData);
-            sendParts(session, fileData);
-            sendEof(session, fileData, status);
-        }
-
-        private void sendParts(int session, FileReferenceData fileData) {
-            ByteBuffer bb = ByteBuffer.allocate(0x100000);
-            for (int partId = 0, read = fileData.nextContent(bb); read >= 0; partId++, read = fileData.nextContent(bb)) {
-                byte [] buf = bb.array();
-                if (buf.length != bb.position()) {
-                    buf = new byte [bb.position()];
-                    bb.flip();
-                    bb.get(buf);
-                }
-                sendPart(session, fileData.fileReference(), partId, buf);
-                bb.clear();
-            }
+            sender.send(fileData, status.getCode(), status.getDescription());
         }
 
-        private int sendMeta(FileReferenceData fileData) {
-            Request request = createMetaRequest(fileData);
-            invokeRpcIfValidConnection(request);
-            if (request.isError()) {
-                log.warning("Failed delivering meta for reference '" + fileData.fileReference().value() + "' with file '" + fileData.filename() + "' to " +
-                        target.toString() + " with error: '" + request.errorMessage() + "'.");
-                return 1;
-            } else {
-                if (request.returnValues().get(0).asInt32() != 0) {
-                    throw new IllegalArgumentException("Unknown error from target '" + target.toString() + "' during rpc call " + request.methodName());
-                }
-                return request.returnValues().get(1).asInt32();
-            }
-        }
-
-        // non-private for testing
-        static Request createMetaRequest(FileReferenceData fileData) {
-            Request request = new Request(FileReceiver.RECEIVE_META_METHOD);
-            request.parameters().add(new StringValue(fileData.fileReference().value()));
-            request.parameters().add(new StringValue(fileData.filename()));
-            request.parameters().add(new StringValue(fileData.type().name()));
-            request.parameters().add(new Int64Value(fileData.size()));
-            // Only add paramter if not gzip, this is default and old clients will not handle the extra parameter
-            if (fileData.compressionType() != CompressionType.gzip)
-                request.parameters().add(new StringValue(fileData.compressionType().name()));
-            return request;
-        }
-
-        private void sendPart(int session, FileReference ref, int partId, byte [] buf) {
-            Request request = new Request(FileReceiver.RECEIVE_PART_METHOD);
-            request.parameters().add(new StringValue(ref.value()));
-            request.parameters().add(new Int32Value(session));
-            request.parameters().add(new Int32Value(partId));
-            request.parameters().add(new DataValue(buf));
-            invokeRpcIfValidConnection(request);
-            if (request.isError()) {
-                throw new IllegalArgumentException("Failed delivering reference '" + ref.value() + "' to " +
-                                                           target.toString() + " with error: '" + request.errorMessage() + "'.");
-            } else {
-                if (request.returnValues().get(0).asInt32() != 0) {
-                    throw new IllegalArgumentException("Unknown error from target '" + target.toString() + "' during rpc call " + request.methodName());
-                }
-            }
-        }
-
-        private void sendEof(int session, FileReferenceData fileData, FileServer.ReplayStatus status) {
-            Request request = new Request(FileReceiver.RECEIVE_EOF_METHOD);
-            request.parameters().add(new StringValue(fileData.fileReference().value()));
-            request.parameters().add(new Int32Value(session));
-            request.parameters().add(new Int64Value(fileData.xxhash()));
-            request.parameters().add(new Int32Value(status.getCode()));
-            request.parameters().add(new StringValue(status.getDescription()));
-            invokeRpcIfValidConnection(request);
-            if (request.isError()) {
-                throw new IllegalArgumentException("Failed delivering reference '" + fileData.fileReference().value() + "' with file '" + fileData.filename() + "' to " +
-                                                           target.toString() + " with error: '" + request.errorMessage() + "'.");
-            } else {
-                if (request.returnValues().get(0).asInt32() != 0) {
-                    throw new IllegalArgumentException("Unknown error from target '" + target.toString() + "' during rpc call " + request.methodName());
-                }
-            }
-        }
-
-        private void invokeRpcIfValidConnection(Request request) {
-            if (target.isValid()) {
-                target.invokeSync(request, Duration.ofMinutes(10));
-            } else {
-                throw new RuntimeException("Connection to " + target + " is invalid", target.getConnectionLostReason());
-            }
-        }
     }
 
     private void serveFile(Request request) {
         request.detach();
         rpcAuthorizer.authorizeFileRequest(request)
                 .thenRun(() -> { // okay to do in authorizer thread as serveFile is async
-                    FileServer.Receiver receiver = new ChunkedFileReceiver(request.target());
-
                     FileReference reference = new FileReference(request.parameters().get(0).asString());
                     boolean downloadFromOtherSourceIfNotFound = request.parameters().get(1).asInt32() == 0;
                     Set<FileReferenceData.CompressionType> acceptedCompressionTypes = Set.of(CompressionType.gzip);
@@ -594,6 +533,10 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
                                                          .map(CompressionType::valueOf)
                                                          .collect(Collectors.toSet());
                     log.log(Level.FINE, "acceptedCompressionTypes=" + acceptedCompressionTypes);
+                    // Newest clients specify the first part they need, and accept the file as chunks
+                    OptionalInt firstPart = request.parameters().size() > 3 ? OptionalInt.of(request.parameters().get(3).asInt32())
+                                                                            : OptionalInt.empty();
+                    FileServer.Receiver receiver = new ChunkedFileReceiver(request.target(), firstPart);
 
                     fileServer.serveFile(reference, downloadFromOtherSourceIfNotFound, acceptedCompressionTypes, request, receiver);
                 });
@@ -614,6 +557,35 @@ public class RpcServer implements Runnable, ConfigActivationListener, TenantList
                 });
     }
 
+    private void addPeer(Request req) {
+        req.detach();
+        rpcAuthorizer.authorizeFileRequest(req)
+                .thenRun(() -> {
+                    // The peer is only trusted to tell its port, as its host is the one the request came from
+                    String spec = new Spec(req.target().peerSpec().host(), req.parameters().get(1).asInt32()).toString();
+                    Stream.of(req.parameters().get(0).asStringArray())
+                          .map(FileReference::new)
+                          .forEach(fileReference -> fileServer.addPeer(fileReference, spec));
+                    req.returnValues().add(new Int32Value(0));
+                    req.returnRequest();
+                });
+    }
+
+    private void getPeers(Request req) {
+        req.detach();
+        rpcAuthorizer.authorizeFileRequest(req)
+                .thenRun(() -> { // okay to do in authorizer thread as the file server computes the hash, and replies, in its own executor
+                    FileReference fileReference = new FileReference(req.parameters().get(0).asString());
+                    // Peers are not trusted, so clients verify what they send against the hash of the file this has
+                    fileServer.xxhash(fileReference).thenAccept(xxhash -> {
+                        List<String> peers = xxhash.isPresent() ? fileServer.peers(fileReference) : List.of();
+                        req.returnValues().add(new StringArray(peers.toArray(String[]::new)));
+                        req.returnValues().add(new Int64Value(xxhash.orElse(0L)));
+                        req.returnRequest();
+                    });
+                });
+    }
+
     HostLivenessTracker hostLivenessTracker() {
         return hostLivenessTracker;
     }
@@ -9,12 +9,18 @@ import com.yahoo.vespa.config.protocol.ConfigResponse;
 import com.yahoo.vespa.config.protocol.SlimeConfigResponse;
 
 /**
- * Simply returns an uncompressed payload.
+ * Simply returns an uncompressed payload, sharing identical payloads through a {@link PayloadStore}.
  *
  * @author Ulf Lilleengen
  */
 public class UncompressedConfigResponseFactory implements ConfigResponseFactory {
 
+    private final PayloadStore payloads;
+
+    public UncompressedConfigResponseFactory(PayloadStore payloads) {
+        this.payloads = payloads;
+    }
+
     @Override
     public ConfigResponse createResponse(AbstractUtf8Array rawPayload,
                                          long generation,
@@ -22,7 +28,8 @@ public class UncompressedConfigResponseFactory implements ConfigResponseFactory
                                          PayloadChecksums requestsPayloadChecksums) {
         CompressionInfo info = CompressionInfo.create(CompressionType.UNCOMPRESSED, rawPayload.getByteLength());
         PayloadChecksums payloadChecksums = generatePayloadChecksums(rawPayload, requestsPayloadChecksums);
-        return new SlimeConfigResponse(rawPayload, generation, applyOnRestart, payloadChecksums, info);
+        AbstractUtf8Array payload = payloads.intern(rawPayload, CompressionType.UNCOMPRESSED, () -> rawPayload);
+        return new SlimeConfigResponse(payload, generation, applyOnRestart, payloadChecksums, info);
     }
 
 }
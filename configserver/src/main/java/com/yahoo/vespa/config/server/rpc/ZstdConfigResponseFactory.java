@@ -0,0 +1,39 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.rpc;
+
+import com.yahoo.text.AbstractUtf8Array;
+import com.yahoo.text.Utf8Array;
+import com.yahoo.vespa.config.PayloadChecksums;
+import com.yahoo.vespa.config.ZstdPayloadCompressor;
+import com.yahoo.vespa.config.protocol.CompressionInfo;
+import com.yahoo.vespa.config.protocol.CompressionType;
+import com.yahoo.vespa.config.protocol.ConfigResponse;
+import com.yahoo.vespa.config.protocol.SlimeConfigResponse;
+
+/**
+ * Compressor that compresses config payloads to zstd, sharing identical compressed payloads through a {@link PayloadStore}.
+ *
+ * @author agent
+ */
+public class ZstdConfigResponseFactory implements ConfigResponseFactory {
+
+    private static final ZstdPayloadCompressor compressor = new ZstdPayloadCompressor();
+
+    private final PayloadStore payloads;
+
+    public ZstdConfigResponseFactory(PayloadStore payloads) {
+        this.payloads = payloads;
+    }
+
+    @Override
+    public ConfigResponse createResponse(AbstractUtf8Array rawPayload,
+                                         long generation,
+                                         boolean applyOnRestart,
+                                         PayloadChecksums requestsPayloadChecksums) {
+        CompressionInfo info = CompressionInfo.create(CompressionType.ZSTD, rawPayload.getByteLength());
+        PayloadChecksums payloadChecksums = generatePayloadChecksums(rawPayload, requestsPayloadChecksums);
+        AbstractUtf8Array compressed = payloads.intern(rawPayload, CompressionType.ZSTD, () -> new Utf8Array(compressor.compress(rawPayload.wrap())));
+        return new SlimeConfigResponse(compressed, generation, applyOnRestart, payloadChecksums, info);
+    }
+
+}
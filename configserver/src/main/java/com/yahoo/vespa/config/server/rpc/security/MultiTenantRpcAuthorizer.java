@@ -10,6 +10,7 @@ import com.yahoo.config.provision.security.NodeIdentifier;
 import com.yahoo.config.provision.security.NodeIdentifierException;
 import com.yahoo.config.provision.security.NodeIdentity;
 import com.yahoo.jrt.Request;
+import com.yahoo.jrt.Value;
 import com.yahoo.security.tls.MixedMode;
 import com.yahoo.security.tls.TransportSecurityUtils;
 import com.yahoo.security.tls.ConnectionAuthContext;
@@ -29,6 +30,7 @@ import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import static com.yahoo.vespa.config.server.rpc.security.AuthorizationException.Type;
 import static com.yahoo.yolean.Exceptions.throwUnchecked;
@@ -137,15 +139,15 @@ public class MultiTenantRpcAuthorizer implements RpcAuthorizer {
             case tenant:
             case host:
                 ApplicationId peerOwner = applicationId(peerIdentity);
-                FileReference requestedFile = new FileReference(request.parameters().get(0).asString());
                 RequestHandler tenantHandler = getTenantHandler(peerOwner.tenant());
                 Set<FileReference> filesOwnedByApplication = tenantHandler.listFileReferences(peerOwner);
-                if (filesOwnedByApplication.contains(requestedFile)) {
-                    return; // allowed to access
+                for (FileReference requestedFile : requestedFiles(request)) {
+                    if ( ! filesOwnedByApplication.contains(requestedFile))
+                        throw new AuthorizationException(
+                                String.format("Peer is not allowed to access file reference %s. Peer is owned by %s. File references owned by this application: %s",
+                                              requestedFile.value(), peerOwner.toShortString(), filesOwnedByApplication));
                 }
-                throw new AuthorizationException(
-                        String.format("Peer is not allowed to access file reference %s. Peer is owned by %s. File references owned by this application: %s",
-                                      requestedFile.value(), peerOwner.toShortString(), filesOwnedByApplication));
+                return; // allowed to access
             default:
                 throw new AuthorizationException(String.format("'%s' nodes are not allowed to access files", peerIdentity.nodeType()));
         }
@@ -186,6 +188,13 @@ public class MultiTenantRpcAuthorizer implements RpcAuthorizer {
         }
     }
 
+    /** Returns the file references of the given request, whose first parameter is either one file reference, or an array of them. */
+    private static List<FileReference> requestedFiles(Request request) {
+        Value files = request.parameters().get(0);
+        return files.type() == Value.STRING_ARRAY ? Stream.of(files.asStringArray()).map(FileReference::new).toList()
+                                                  : List.of(new FileReference(files.asString()));
+    }
+
     private static boolean isConfigKeyForGlobalConfig(ConfigKey<?> configKey) {
         return "*".equals(configKey.getConfigId());
     }
@@ -147,6 +147,10 @@ public abstract class Session implements Comparable<Session>  {
         sessionZooKeeperClient.writeCloudAccount(cloudAccount);
     }
 
+    SessionZooKeeperClient getSessionZooKeeperClient() {
+        return sessionZooKeeperClient;
+    }
+
     /** Returns application id read from ZooKeeper. Will throw RuntimeException if not found */
     public ApplicationId getApplicationId() {
         return sessionZooKeeperClient.readApplicationId()
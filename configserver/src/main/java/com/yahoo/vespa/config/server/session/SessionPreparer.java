@@ -44,6 +44,8 @@ import com.yahoo.vespa.config.server.modelfactory.AllocatedHostsFromAllModels;
 import com.yahoo.vespa.config.server.modelfactory.LegacyFlags;
 import com.yahoo.vespa.config.server.modelfactory.ModelFactoryRegistry;
 import com.yahoo.vespa.config.server.modelfactory.PreparedModelsBuilder;
+import com.yahoo.vespa.config.server.monitoring.Metrics;
+import com.yahoo.vespa.config.server.monitoring.Metrics.ZooKeeperPhase;
 import com.yahoo.vespa.config.server.provision.HostProvisionerProvider;
 import com.yahoo.vespa.config.server.tenant.ContainerEndpointsCache;
 import com.yahoo.vespa.config.server.tenant.EndpointCertificateMetadataStore;
@@ -95,6 +97,7 @@ public class SessionPreparer {
     private final SecretStore secretStore;
     private final FlagSource flagSource;
     private final ExecutorService executor;
+    private final Metrics metrics;
 
     public SessionPreparer(ModelFactoryRegistry modelFactoryRegistry,
                            FileDistributionFactory fileDistributionFactory,
@@ -106,7 +109,8 @@ public class SessionPreparer {
                            Curator curator,
                            Zone zone,
                            FlagSource flagSource,
-                           SecretStore secretStore) {
+                           SecretStore secretStore,
+                           Metrics metrics) {
         this.modelFactoryRegistry = modelFactoryRegistry;
         this.fileDistributionFactory = fileDistributionFactory;
         this.hostProvisionerProvider = hostProvisionerProvider;
@@ -118,6 +122,7 @@ public class SessionPreparer {
         this.secretStore = secretStore;
         this.flagSource = flagSource;
         this.executor = executor;
+        this.metrics = metrics;
     }
 
     ExecutorService getExecutor() { return executor; }
@@ -405,17 +410,13 @@ public class SessionPreparer {
                                        Optional<CloudAccount> cloudAccount) {
         ZooKeeperDeployer zkDeployer = zooKeeperClient.createDeployer(deployLogger);
         try {
-            zkDeployer.deploy(applicationPackage, fileRegistryMap, allocatedHosts);
-            // Note: When changing the below you need to also change similar calls in SessionRepository.createSessionFromExisting()
-            zooKeeperClient.writeApplicationId(applicationId);
-            zooKeeperClient.writeApplicationPackageReference(Optional.of(fileReference));
-            zooKeeperClient.writeVespaVersion(vespaVersion);
-            zooKeeperClient.writeDockerImageRepository(dockerImageRepository);
-            zooKeeperClient.writeAthenzDomain(athenzDomain);
-            zooKeeperClient.writeQuota(quota);
-            zooKeeperClient.writeTenantSecretStores(tenantSecretStores);
-            zooKeeperClient.writeOperatorCertificates(operatorCertificates);
-            zooKeeperClient.writeCloudAccount(cloudAccount);
+            try (var phase = metrics.startZooKeeperPhase(ZooKeeperPhase.writeApplicationPackage)) {
+                zkDeployer.deploy(applicationPackage, fileRegistryMap, allocatedHosts);
+            }
+            try (var phase = metrics.startZooKeeperPhase(ZooKeeperPhase.writeSessionData)) {
+                zooKeeperClient.writeSessionData(applicationId, fileReference, vespaVersion, dockerImageRepository, athenzDomain,
+                                                 quota, tenantSecretStores, operatorCertificates, cloudAccount);
+            }
         } catch (RuntimeException | IOException e) {
             zkDeployer.cleanup();
             throw new RuntimeException("Error preparing session", e);
@@ -33,11 +33,13 @@ import com.yahoo.vespa.config.server.zookeeper.ZKApplicationPackage;
 import com.yahoo.vespa.curator.Curator;
 import com.yahoo.vespa.curator.transaction.CuratorOperations;
 import com.yahoo.vespa.curator.transaction.CuratorTransaction;
+import com.yahoo.vespa.curator.transaction.CuratorWriteBatch;
 import org.apache.zookeeper.data.Stat;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 import static com.yahoo.vespa.config.server.zookeeper.ZKApplication.USER_DEFCONFIGS_ZK_SUBPATH;
@@ -162,9 +164,13 @@ public class SessionZooKeeperClient {
     }
 
     public void writeApplicationId(ApplicationId id) {
+        write(batch -> writeApplicationId(batch, id));
+    }
+
+    private void writeApplicationId(CuratorWriteBatch batch, ApplicationId id) {
         if ( ! id.tenant().equals(tenantName))
             throw new IllegalArgumentException("Cannot write application id '" + id + "' for tenant '" + tenantName + "'");
-        curator.set(applicationIdPath(), Utf8.toBytes(id.serializedForm()));
+        batch.set(applicationIdPath(), Utf8.toBytes(id.serializedForm()));
     }
 
     public Optional<ApplicationId> readApplicationId() {
@@ -172,8 +178,12 @@ public class SessionZooKeeperClient {
     }
 
     void writeApplicationPackageReference(Optional<FileReference> applicationPackageReference) {
+        write(batch -> writeApplicationPackageReference(batch, applicationPackageReference));
+    }
+
+    private void writeApplicationPackageReference(CuratorWriteBatch batch, Optional<FileReference> applicationPackageReference) {
         applicationPackageReference.ifPresent(
-                reference -> curator.set(applicationPackageReferencePath(), Utf8.toBytes(reference.value())));
+                reference -> batch.set(applicationPackageReferencePath(), Utf8.toBytes(reference.value())));
     }
 
     FileReference readApplicationPackageReference() {
@@ -216,7 +226,11 @@ public class SessionZooKeeperClient {
     }
 
     public void writeVespaVersion(Version version) {
-       curator.set(versionPath(), Utf8.toBytes(version.toString()));
+        write(batch -> writeVespaVersion(batch, version));
+    }
+
+    private void writeVespaVersion(CuratorWriteBatch batch, Version version) {
+        batch.set(versionPath(), Utf8.toBytes(version.toString()));
     }
 
     public Version readVespaVersion() {
@@ -231,7 +245,11 @@ public class SessionZooKeeperClient {
     }
 
     public void writeDockerImageRepository(Optional<DockerImage> dockerImageRepository) {
-        dockerImageRepository.ifPresent(repo -> curator.set(dockerImageRepositoryPath(), Utf8.toBytes(repo.untagged())));
+        write(batch -> writeDockerImageRepository(batch, dockerImageRepository));
+    }
+
+    private void writeDockerImageRepository(CuratorWriteBatch batch, Optional<DockerImage> dockerImageRepository) {
+        dockerImageRepository.ifPresent(repo -> batch.set(dockerImageRepositoryPath(), Utf8.toBytes(repo.untagged())));
     }
 
     public Instant readCreateTime() {
@@ -269,7 +287,11 @@ public class SessionZooKeeperClient {
     }
 
     public void writeAthenzDomain(Optional<AthenzDomain> athenzDomain) {
-        athenzDomain.ifPresent(domain -> curator.set(athenzDomainPath(), Utf8.toBytes(domain.value())));
+        write(batch -> writeAthenzDomain(batch, athenzDomain));
+    }
+
+    private void writeAthenzDomain(CuratorWriteBatch batch, Optional<AthenzDomain> athenzDomain) {
+        athenzDomain.ifPresent(domain -> batch.set(athenzDomainPath(), Utf8.toBytes(domain.value())));
     }
 
     public Optional<AthenzDomain> readAthenzDomain() {
@@ -280,9 +302,13 @@ public class SessionZooKeeperClient {
     }
 
     public void writeQuota(Optional<Quota> maybeQuota) {
+        write(batch -> writeQuota(batch, maybeQuota));
+    }
+
+    private void writeQuota(CuratorWriteBatch batch, Optional<Quota> maybeQuota) {
         maybeQuota.ifPresent(quota -> {
             var bytes = uncheck(() -> SlimeUtils.toJsonBytes(quota.toSlime()));
-            curator.set(quotaPath(), bytes);
+            batch.set(quotaPath(), bytes);
         });
     }
 
@@ -293,11 +319,14 @@ public class SessionZooKeeperClient {
     }
 
     public void writeTenantSecretStores(List<TenantSecretStore> tenantSecretStores) {
+        write(batch -> writeTenantSecretStores(batch, tenantSecretStores));
+    }
+
+    private void writeTenantSecretStores(CuratorWriteBatch batch, List<TenantSecretStore> tenantSecretStores) {
         if (!tenantSecretStores.isEmpty()) {
             var bytes = uncheck(() -> SlimeUtils.toJsonBytes(TenantSecretStoreSerializer.toSlime(tenantSecretStores)));
-            curator.set(tenantSecretStorePath(), bytes);
+            batch.set(tenantSecretStorePath(), bytes);
         }
-
     }
 
     public List<TenantSecretStore> readTenantSecretStores() {
@@ -308,9 +337,13 @@ public class SessionZooKeeperClient {
     }
 
     public void writeOperatorCertificates(List<X509Certificate> certificates) {
+        write(batch -> writeOperatorCertificates(batch, certificates));
+    }
+
+    private void writeOperatorCertificates(CuratorWriteBatch batch, List<X509Certificate> certificates) {
         if( ! certificates.isEmpty()) {
             var bytes = uncheck(() -> SlimeUtils.toJsonBytes(OperatorCertificateSerializer.toSlime(certificates)));
-            curator.set(operatorCertificatesPath(), bytes);
+            batch.set(operatorCertificatesPath(), bytes);
         }
     }
 
@@ -322,14 +355,75 @@ public class SessionZooKeeperClient {
     }
 
     public void writeCloudAccount(Optional<CloudAccount> cloudAccount) {
+        write(batch -> writeCloudAccount(batch, cloudAccount));
+    }
+
+    private void writeCloudAccount(CuratorWriteBatch batch, Optional<CloudAccount> cloudAccount) {
         if (cloudAccount.isPresent()) {
             byte[] data = uncheck(() -> SlimeUtils.toJsonBytes(CloudAccountSerializer.toSlime(cloudAccount.get())));
-            curator.set(cloudAccountPath(), data);
+            batch.set(cloudAccountPath(), data);
         } else {
-            curator.delete(cloudAccountPath());
+            batch.delete(cloudAccountPath());
         }
     }
 
+    /**
+     * Writes the data of this session which is set on prepare, in a single transaction.
+     * Note: When changing this, you also need to change {@link #copySessionData(SessionZooKeeperClient)}.
+     */
+    void writeSessionData(ApplicationId applicationId,
+                          FileReference applicationPackageReference,
+                          Version vespaVersion,
+                          Optional<DockerImage> dockerImageRepository,
+                          Optional<AthenzDomain> athenzDomain,
+                          Optional<Quota> quota,
+                          List<TenantSecretStore> tenantSecretStores,
+                          List<X509Certificate> operatorCertificates,
+                          Optional<CloudAccount> cloudAccount) {
+        write(batch -> {
+            writeApplicationId(batch, applicationId);
+            writeApplicationPackageReference(batch, Optional.of(applicationPackageReference));
+            writeVespaVersion(batch, vespaVersion);
+            writeDockerImageRepository(batch, dockerImageRepository);
+            writeAthenzDomain(batch, athenzDomain);
+            writeQuota(batch, quota);
+            writeTenantSecretStores(batch, tenantSecretStores);
+            writeOperatorCertificates(batch, operatorCertificates);
+            writeCloudAccount(batch, cloudAccount);
+        });
+    }
+
+    /**
+     * Copies the session data set on prepare, except quota, from the given session to this new session.
+     * The data is read with pipelined requests, and written in a single transaction.
+     * Note: When changing this, you also need to change {@link #writeSessionData}.
+     */
+    void copySessionData(SessionZooKeeperClient existing) {
+        List<String> names = List.of(APPLICATION_ID_PATH,
+                                     APPLICATION_PACKAGE_REFERENCE_PATH,
+                                     VERSION_PATH,
+                                     DOCKER_IMAGE_REPOSITORY_PATH,
+                                     ATHENZ_DOMAIN,
+                                     TENANT_SECRET_STORES_PATH,
+                                     OPERATOR_CERTIFICATES_PATH,
+                                     CLOUD_ACCOUNT_PATH);
+        List<Optional<byte[]>> data = curator.getData(names.stream().map(existing.sessionPath::append).toList());
+        write(batch -> {
+            for (int i = 0; i < names.size(); i++) {
+                if (data.get(i).isPresent())
+                    batch.set(sessionPath.append(names.get(i)), data.get(i).get());
+                else if (names.get(i).equals(VERSION_PATH))
+                    writeVespaVersion(batch, existing.readVespaVersion());
+            }
+        });
+    }
+
+    private void write(Consumer<CuratorWriteBatch> writes) {
+        CuratorWriteBatch batch = new CuratorWriteBatch(curator);
+        writes.accept(batch);
+        batch.commit();
+    }
+
     public Optional<CloudAccount> readCloudAccount() {
         return curator.getData(cloudAccountPath()).map(SlimeUtils::jsonToSlime).map(slime -> CloudAccountSerializer.fromSlime(slime.get()));
     }
@@ -29,6 +29,7 @@ import com.yahoo.vespa.config.server.modelfactory.ModelFactoryRegistry;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
 import com.yahoo.vespa.config.server.monitoring.Metrics;
 import com.yahoo.vespa.config.server.provision.HostProvisionerProvider;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 import com.yahoo.vespa.config.server.session.SessionPreparer;
 import com.yahoo.vespa.config.server.session.SessionRepository;
 import com.yahoo.vespa.curator.Curator;
@@ -120,6 +121,7 @@ public class TenantRepository {
             new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("check for removed applications"));
     private final Curator.DirectoryCache directoryCache;
     private final ZookeeperServerConfig zookeeperServerConfig;
+    private final PayloadStore payloadStore;
 
     /**
      * Creates a new tenant repository
@@ -138,7 +140,8 @@ public class TenantRepository {
                             ConfigDefinitionRepo configDefinitionRepo,
                             ConfigActivationListener configActivationListener,
                             TenantListener tenantListener,
-                            ZookeeperServerConfig zookeeperServerConfig) {
+                            ZookeeperServerConfig zookeeperServerConfig,
+                            PayloadStore payloadStore) {
         this(hostRegistry,
              curator,
              metrics,
@@ -157,7 +160,8 @@ public class TenantRepository {
              configDefinitionRepo,
              configActivationListener,
              tenantListener,
-             zookeeperServerConfig);
+             zookeeperServerConfig,
+             payloadStore);
     }
 
     public TenantRepository(HostRegistry hostRegistry,
@@ -178,7 +182,8 @@ public class TenantRepository {
                             ConfigDefinitionRepo configDefinitionRepo,
                             ConfigActivationListener configActivationListener,
                             TenantListener tenantListener,
-                            ZookeeperServerConfig zookeeperServerConfig) {
+                            ZookeeperServerConfig zookeeperServerConfig,
+                            PayloadStore payloadStore) {
         this.hostRegistry = hostRegistry;
         this.configserverConfig = configserverConfig;
         this.curator = curator;
@@ -199,6 +204,7 @@ public class TenantRepository {
         this.configActivationListener = configActivationListener;
         this.tenantListener = tenantListener;
         this.zookeeperServerConfig = zookeeperServerConfig;
+        this.payloadStore = payloadStore;
         // This we should control with a feature flag.
         this.deployHelperExecutor = createModelBuilderExecutor();
 
@@ -343,7 +349,8 @@ public class TenantRepository {
                                        hostRegistry,
                                        new TenantFileSystemDirs(configServerDB, tenantName),
                                        clock,
-                                       flagSource);
+                                       flagSource,
+                                       payloadStore);
         PermanentApplicationPackage permanentApplicationPackage = new PermanentApplicationPackage(configserverConfig);
         SessionPreparer sessionPreparer = new SessionPreparer(modelFactoryRegistry,
                                                               fileDistributionFactory,
@@ -355,7 +362,8 @@ public class TenantRepository {
                                                               curator,
                                                               zone,
                                                               flagSource,
-                                                              secretStore);
+                                                              secretStore,
+                                                              metrics);
         SessionRepository sessionRepository = new SessionRepository(tenantName,
                                                                     applicationRepo,
                                                                     sessionPreparer,
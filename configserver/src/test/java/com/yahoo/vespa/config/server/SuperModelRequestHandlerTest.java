@@ -9,6 +9,7 @@ import com.yahoo.config.provision.Zone;
 import com.yahoo.vespa.config.server.application.Application;
 import com.yahoo.vespa.config.server.application.ApplicationSet;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 import com.yahoo.vespa.curator.mock.MockCurator;
 import com.yahoo.vespa.flags.InMemoryFlagSource;
 import com.yahoo.vespa.model.VespaModel;
@@ -48,7 +49,7 @@ public class SuperModelRequestHandlerTest {
         counter = new SuperModelGenerationCounter(new MockCurator());
         ConfigserverConfig configserverConfig = new ConfigserverConfig(new ConfigserverConfig.Builder());
         manager = new SuperModelManager(configserverConfig, Zone.defaultZone(), counter, new InMemoryFlagSource());
-        controller = new SuperModelRequestHandler(new TestConfigDefinitionRepo(), configserverConfig, manager);
+        controller = new SuperModelRequestHandler(new TestConfigDefinitionRepo(), configserverConfig, manager, new PayloadStore());
     }
 
     @Test
@@ -98,7 +99,7 @@ public class SuperModelRequestHandlerTest {
         long masterGen = 10;
         ConfigserverConfig configserverConfig = new ConfigserverConfig(new ConfigserverConfig.Builder().masterGeneration(masterGen));
         manager = new SuperModelManager(configserverConfig, Zone.defaultZone(), counter, new InMemoryFlagSource());
-        controller = new SuperModelRequestHandler(new TestConfigDefinitionRepo(), configserverConfig, manager);
+        controller = new SuperModelRequestHandler(new TestConfigDefinitionRepo(), configserverConfig, manager, new PayloadStore());
 
         long gen = counter.get();
         controller.activateConfig(createApp(foo, 3L));
@@ -30,6 +30,8 @@ import com.yahoo.vespa.config.server.UnknownConfigDefinitionException;
 import com.yahoo.vespa.config.server.UserConfigDefinitionRepo;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
 import com.yahoo.vespa.config.server.monitoring.Metrics;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
+import com.yahoo.vespa.config.server.rpc.UncompressedConfigResponseFactory;
 import com.yahoo.vespa.model.VespaModel;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,6 +41,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
@@ -147,6 +150,30 @@ public class ApplicationTest {
         assertSame(response, cached_response);
     }
 
+    @Test
+    public void require_that_most_requested_configs_can_be_prewarmed_in_next_generation() throws IOException, SAXException {
+        handler.resolveConfig(createSimpleConfigRequest());
+        for (int i = 0; i < 3; i++)
+            handler.resolveConfig(createRequest(ModelConfig.CONFIG_DEF_NAME, ModelConfig.CONFIG_DEF_NAMESPACE, ModelConfig.CONFIG_DEF_SCHEMA));
+        List<GetConfigRequest> mostRequested = handler.mostRequested(1);
+        assertEquals(1, mostRequested.size());
+        assertEquals(ModelConfig.CONFIG_DEF_NAME, mostRequested.get(0).getConfigKey().getName());
+        assertEquals(2, handler.mostRequested(3).size());
+
+        ServerCache cache = createCacheAndAddContent();
+        ApplicationId applicationId = new ApplicationId.Builder().tenant("foo").applicationName("foo").build();
+        Application next = new Application(new VespaModel(FilesApplicationPackage.fromFile(new File("src/test/apps/app"))),
+                                           cache, 2L, new Version(1, 2, 3),
+                                           new MetricUpdater(Metrics.createTestMetrics(), Metrics.createDimensions(applicationId)), applicationId);
+        next.prewarm(mostRequested, new UncompressedConfigResponseFactory(new PayloadStore()));
+        assertEquals(1, cache.configElems());
+        assertEquals(List.of(), next.mostRequested(1)); // Prewarming is not counted as requests.
+
+        ConfigResponse response = next.resolveConfig(createRequest(ModelConfig.CONFIG_DEF_NAME, ModelConfig.CONFIG_DEF_NAMESPACE, ModelConfig.CONFIG_DEF_SCHEMA));
+        assertEquals(2L, response.getGeneration());
+        assertEquals(1, cache.configElems());
+    }
+
     private static GetConfigRequest createRequest(String name, String namespace, String[] schema) {
         Request request =
                 JRTClientConfigRequestV3.createWithParams(new ConfigKey<>(name, "admin/model", namespace, null),
@@ -21,6 +21,7 @@ import com.yahoo.vespa.config.server.model.TestModelFactory;
 import com.yahoo.vespa.config.server.modelfactory.ModelFactoryRegistry;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
 import com.yahoo.vespa.config.server.monitoring.Metrics;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 import com.yahoo.vespa.config.server.tenant.TenantRepository;
 import com.yahoo.vespa.config.server.tenant.TestTenantRepository;
 import com.yahoo.vespa.curator.CompletionTimeoutException;
@@ -338,7 +339,8 @@ public class TenantApplicationsTest {
                                       new HostRegistry(),
                                       new TenantFileSystemDirs(new ConfigServerDB(configserverConfig), tenantName),
                                       Clock.systemUTC(),
-                                      flagSource);
+                                      flagSource,
+                                      new PayloadStore());
     }
 
     private static class MockCurator3ConfigServers extends Curator {
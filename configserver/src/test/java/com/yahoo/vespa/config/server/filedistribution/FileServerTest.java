@@ -11,6 +11,7 @@ import com.yahoo.vespa.filedistribution.FileDownloader;
 import com.yahoo.vespa.filedistribution.FileReferenceCompressor;
 import com.yahoo.vespa.filedistribution.FileReferenceData;
 import com.yahoo.vespa.filedistribution.FileReferenceDownload;
+import com.yahoo.vespa.filedistribution.LazyFileReferenceData;
 import com.yahoo.vespa.flags.InMemoryFlagSource;
 import org.junit.Before;
 import org.junit.Rule;
@@ -21,6 +22,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -74,6 +76,34 @@ public class FileServerTest {
         assertTrue(fileServer.hasFile("124/subdir"));
     }
 
+    @Test
+    public void requireThatMostRecentPeersAreKept() {
+        FileReference reference = new FileReference("12z");
+        assertEquals(List.of(), fileServer.peers(reference));
+        for (int i = 0; i < 20; i++)
+            fileServer.addPeer(reference, "tcp/host" + i + ":19090");
+        fileServer.addPeer(reference, "tcp/host10:19090");
+        List<String> peers = fileServer.peers(reference);
+        assertEquals(16, peers.size());
+        assertEquals("tcp/host4:19090", peers.get(0));
+        assertEquals("tcp/host10:19090", peers.get(15));
+        assertEquals(List.of(), fileServer.peers(new FileReference("12x")));
+    }
+
+    @Test
+    public void requireThatHashIsOnlyKnownForPlainFiles() throws IOException, InterruptedException, ExecutionException {
+        File dir = getFileServerRootDir();
+        IOUtils.writeFile(dir + "/12a/f1", "dummy-data", true);
+        IOUtils.writeFile(dir + "/12b/subdir/f1", "dummy-data", true);
+        assertEquals(Optional.of(LazyFileReferenceData.xxhash(new File(dir, "12a/f1"))), fileServer.xxhash(new FileReference("12a")).get());
+        assertEquals(Optional.empty(), fileServer.xxhash(new FileReference("12b")).get());
+        assertEquals(Optional.empty(), fileServer.xxhash(new FileReference("12x")).get());
+
+        // A file which is missing may be downloaded later
+        IOUtils.writeFile(dir + "/12x/f1", "dummy-data", true);
+        assertEquals(Optional.of(LazyFileReferenceData.xxhash(new File(dir, "12x/f1"))), fileServer.xxhash(new FileReference("12x")).get());
+    }
+
     @Test
     public void requireThatWeCanReplayFile() throws IOException, InterruptedException, ExecutionException {
         File dir = getFileServerRootDir();
@@ -30,7 +30,7 @@ public class ConfigResponseFactoryTest {
 
     @Test
     public void testUncompressedFactory() {
-        UncompressedConfigResponseFactory responseFactory = new UncompressedConfigResponseFactory();
+        UncompressedConfigResponseFactory responseFactory = new UncompressedConfigResponseFactory(new PayloadStore());
         ConfigResponse response = responseFactory.createResponse(payload.toUtf8Array(true), 3, false, payloadChecksums);
         assertEquals(CompressionType.UNCOMPRESSED, response.getCompressionInfo().getCompressionType());
         assertEquals(3L,response.getGeneration());
@@ -38,6 +38,17 @@ public class ConfigResponseFactoryTest {
         assertEquals(payloadChecksums, response.getPayloadChecksums());
     }
 
+    @Test
+    public void testZstdCompressedFactory() {
+        ZstdConfigResponseFactory responseFactory = new ZstdConfigResponseFactory(new PayloadStore());
+        ConfigResponse response = responseFactory.createResponse(payload.toUtf8Array(true), 3, false, payloadChecksums);
+        assertEquals(CompressionType.ZSTD, response.getCompressionInfo().getCompressionType());
+        assertEquals(3L, response.getGeneration());
+        assertEquals(payloadChecksums, response.getPayloadChecksums());
+        Payload uncompressed = Payload.from(response.getPayload(), response.getCompressionInfo()).withCompression(CompressionType.UNCOMPRESSED);
+        assertEquals(payload.toString(true), uncompressed.toString());
+    }
+
     @Test
     public void testLZ4CompressedFactory() {
         // md5 and xxhash64 checksums in request, both md5 and xxhash64 checksums should be in response
@@ -69,7 +80,7 @@ public class ConfigResponseFactoryTest {
     }
 
     private ConfigResponse createResponse(PayloadChecksums payloadChecksums) {
-        LZ4ConfigResponseFactory responseFactory = new LZ4ConfigResponseFactory();
+        LZ4ConfigResponseFactory responseFactory = new LZ4ConfigResponseFactory(new PayloadStore());
         ConfigResponse response = responseFactory.createResponse(payload.toUtf8Array(true), 3, false, payloadChecksums);
         assertEquals(CompressionType.LZ4, response.getCompressionInfo().getCompressionType());
         assertEquals(3L, response.getGeneration());
@@ -41,7 +41,8 @@ public class MockRpcServer extends RpcServer {
               new ConfigRequestHostLivenessTracker(),
               new FileServer(tempDir),
               new NoopRpcAuthorizer(),
-              new RpcRequestHandlerProvider());
+              new RpcRequestHandlerProvider(),
+              new PayloadStore());
     }
 
     private static ConfigserverConfig createConfig(int port) {
@@ -0,0 +1,94 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.rpc;
+
+import com.yahoo.text.Utf8;
+import com.yahoo.text.Utf8Array;
+import com.yahoo.vespa.config.ConfigPayload;
+import com.yahoo.vespa.config.PayloadChecksums;
+import com.yahoo.vespa.config.protocol.CompressionType;
+import com.yahoo.vespa.config.protocol.ConfigResponse;
+import com.yahoo.vespa.config.protocol.Payload;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author agent
+ */
+public class PayloadStoreTest {
+
+    private static final ConfigPayload payload = ConfigPayload.fromString("{ \"field1\": 11, \"field2\": 11 }");
+    private static final ConfigPayload other = ConfigPayload.fromString("{ \"field1\": 12, \"field2\": 11 }");
+
+    @Test
+    public void identicalPayloadsAreSharedAcrossFactoriesAndGenerations() {
+        PayloadStore store = new PayloadStore();
+        ConfigResponseFactory first = new LZ4ConfigResponseFactory(store);
+        ConfigResponseFactory second = new LZ4ConfigResponseFactory(store);
+
+        ConfigResponse response = first.createResponse(payload.toUtf8Array(true), 3, false, PayloadChecksums.empty());
+        ConfigResponse shared = second.createResponse(payload.toUtf8Array(true), 4, true, PayloadChecksums.empty());
+        assertSame(response.getPayload(), shared.getPayload());
+        assertEquals(3, response.getGeneration());
+        assertEquals(4, shared.getGeneration());
+        assertEquals(response.getPayloadChecksums(), shared.getPayloadChecksums());
+
+        ConfigResponse different = second.createResponse(other.toUtf8Array(true), 4, false, PayloadChecksums.empty());
+        assertNotSame(response.getPayload(), different.getPayload());
+
+        ConfigResponse uncompressed = new UncompressedConfigResponseFactory(store).createResponse(payload.toUtf8Array(true), 4, false, PayloadChecksums.empty());
+        assertNotSame(response.getPayload(), uncompressed.getPayload());
+        assertEquals(25, uncompressed.getPayload().getByteLength());
+
+        assertEquals(3, store.size());
+        PayloadStore.Stats stats = store.getStatsAndStartNewPeriod();
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(0.25, stats.hitRatio(), 1e-9);
+        assertEquals(response.getPayload().getByteLength(), stats.bytesShared());
+
+        second.createResponse(payload.toUtf8Array(true), 5, false, PayloadChecksums.empty());
+        stats = store.getStatsAndStartNewPeriod();
+        assertEquals(1, stats.hits());
+        assertEquals(0, stats.misses());
+        assertEquals(1, stats.hitRatio(), 1e-9);
+        assertEquals(new PayloadStore.Stats(0, 0, 0), store.getStatsAndStartNewPeriod());
+        assertEquals(0, new PayloadStore.Stats(0, 0, 0).hitRatio(), 1e-9);
+    }
+
+    @Test
+    public void payloadsAreKeyedByContent() {
+        PayloadStore store = new PayloadStore();
+        Utf8Array first = new Utf8Array(Utf8.toBytes("first"));
+        Utf8Array second = new Utf8Array(Utf8.toBytes("second"));
+        Utf8Array stored = new Utf8Array(Utf8.toBytes("stored"));
+        assertSame(stored, store.intern(first, CompressionType.LZ4, () -> stored));
+        assertSame(stored, store.intern(new Utf8Array(Utf8.toBytes("first")), CompressionType.LZ4, () -> second));
+        assertSame(second, store.intern(second, CompressionType.LZ4, () -> second));
+        assertSame(first, store.intern(first, CompressionType.UNCOMPRESSED, () -> first));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void payloadsAreConvertedOnlyOnce() {
+        PayloadStore store = new PayloadStore();
+        ConfigResponse response = new ZstdConfigResponseFactory(store).createResponse(payload.toUtf8Array(true), 3, false, PayloadChecksums.empty());
+        Payload stored = Payload.from(response.getPayload(), response.getCompressionInfo());
+        assertSame(stored, store.withCompression(stored, CompressionType.ZSTD));
+
+        Payload lz4 = store.withCompression(stored, CompressionType.LZ4);
+        assertEquals(CompressionType.LZ4, lz4.getCompressionInfo().getCompressionType());
+        assertEquals(payload.toUtf8Array(true), lz4.withCompression(CompressionType.UNCOMPRESSED).getData());
+        Payload copy = Payload.from(new Utf8Array(response.getPayload().wrap(), response.getPayload().getByteLength()),
+                                    response.getCompressionInfo());
+        assertSame(lz4.getData(), store.withCompression(copy, CompressionType.LZ4).getData());
+
+        // A conversion to lz4 of a zstd payload is the same as the lz4 payload of the raw content, but is stored separately
+        assertEquals(new LZ4ConfigResponseFactory(store).createResponse(payload.toUtf8Array(true), 3, false, PayloadChecksums.empty()).getPayload(),
+                     lz4.getData());
+        assertEquals(3, store.size());
+    }
+
+}
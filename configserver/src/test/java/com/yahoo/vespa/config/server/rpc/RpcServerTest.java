@@ -12,7 +12,13 @@ import com.yahoo.config.provision.ApplicationId;
 import com.yahoo.config.provision.ApplicationName;
 import com.yahoo.config.provision.InstanceName;
 import com.yahoo.config.provision.TenantName;
+import com.yahoo.io.IOUtils;
+import com.yahoo.jrt.Int32Value;
 import com.yahoo.jrt.Request;
+import com.yahoo.jrt.Spec;
+import com.yahoo.jrt.StringArray;
+import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Value;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.ConfigPayload;
 import com.yahoo.vespa.config.ConfigPayloadApplier;
@@ -27,6 +33,8 @@ import com.yahoo.vespa.config.server.ServerCache;
 import com.yahoo.vespa.config.server.application.Application;
 import com.yahoo.vespa.config.server.application.ApplicationSet;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
+import com.yahoo.vespa.config.server.rpc.security.NoopRpcAuthorizer;
+import com.yahoo.vespa.config.server.rpc.security.RpcAuthorizer;
 import com.yahoo.vespa.config.server.session.PrepareParams;
 import com.yahoo.vespa.filedistribution.LazyFileReferenceData;
 import com.yahoo.vespa.model.VespaModel;
@@ -36,12 +44,16 @@ import org.junit.rules.TemporaryFolder;
 import org.xml.sax.SAXException;
 import java.io.File;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType.gzip;
 import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType.lz4;
 import static com.yahoo.vespa.filedistribution.FileReferenceData.Type.compressed;
-import static com.yahoo.vespa.config.server.rpc.RpcServer.ChunkedFileReceiver.createMetaRequest;
+import static com.yahoo.vespa.filedistribution.FileSender.createMetaRequest;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -102,6 +114,61 @@ public class RpcServerTest {
         }
     }
 
+    @Test
+    public void testFilePeers() throws IOException, InterruptedException {
+        RpcAuthorizer authorizer = new FileReferenceAuthorizer(Set.of("foo", "bar"));
+        try (RpcTester tester = new RpcTester(applicationId, temporaryFolder, new ConfigserverConfig.Builder(), authorizer)) {
+            assertEquals(List.of(), getPeers(tester, "foo"));
+            IOUtils.writeFile(new File(tester.fileReferencesDir(), "foo/foo.jar"), "foo", true);
+
+            Request addPeer = createAddPeerRequest(19090, "foo", "bar");
+            tester.performRequest(addPeer);
+            assertFalse(addPeer.errorMessage(), addPeer.isError());
+            assertEquals(0, addPeer.returnValues().get(0).asInt32());
+            List<String> peers = getPeers(tester, "foo");
+            assertEquals(1, peers.size());
+            Spec peer = new Spec(peers.get(0));
+            assertEquals(19090, peer.port());
+            assertTrue(peer.host(), InetAddress.getByName(peer.host()).isLoopbackAddress());
+
+            // Peers are returned with the hash of the file, and not at all for files this does not have
+            Request getPeers = new Request("filedistribution.getPeers");
+            getPeers.parameters().add(new StringValue("foo"));
+            tester.performRequest(getPeers);
+            assertEquals(LazyFileReferenceData.xxhash(new File(tester.fileReferencesDir(), "foo/foo.jar")),
+                         getPeers.returnValues().get(1).asInt64());
+            assertEquals(List.of(), getPeers(tester, "bar"));
+            IOUtils.writeFile(new File(tester.fileReferencesDir(), "bar/bar.jar"), "bar", true);
+            assertEquals(peers, getPeers(tester, "bar"));
+
+            // Peers can neither register for, nor look up, file references they may not access
+            Request unauthorizedAddPeer = createAddPeerRequest(19091, "foo", "baz");
+            tester.performRequest(unauthorizedAddPeer);
+            assertTrue(unauthorizedAddPeer.isError());
+            assertEquals(peers, getPeers(tester, "foo"));
+
+            Request unauthorizedGetPeers = new Request("filedistribution.getPeers");
+            unauthorizedGetPeers.parameters().add(new StringValue("baz"));
+            tester.performRequest(unauthorizedGetPeers);
+            assertTrue(unauthorizedGetPeers.isError());
+        }
+    }
+
+    private static Request createAddPeerRequest(int port, String... fileReferences) {
+        Request request = new Request("filedistribution.addPeer");
+        request.parameters().add(new StringArray(fileReferences));
+        request.parameters().add(new Int32Value(port));
+        return request;
+    }
+
+    private static List<String> getPeers(RpcTester tester, String fileReference) {
+        Request request = new Request("filedistribution.getPeers");
+        request.parameters().add(new StringValue(fileReference));
+        tester.performRequest(request);
+        assertFalse(request.errorMessage(), request.isError());
+        return List.of(request.returnValues().get(0).asStringArray());
+    }
+
     @Test
     public void testFileReceiverMetaRequest() throws IOException {
         File file = temporaryFolder.newFile();
@@ -119,6 +186,12 @@ public class RpcServerTest {
         assertEquals("compressed", request.parameters().get(2).asString());
         assertEquals(0, request.parameters().get(3).asInt64());
         assertEquals("lz4", request.parameters().get(4).asString());
+
+        request = createMetaRequest(new LazyFileReferenceData(new FileReference("foo"), "fileA", compressed, file, gzip), true);
+        assertEquals(7, request.parameters().size());
+        assertEquals("gzip", request.parameters().get(4).asString());
+        assertEquals(1 << 20, request.parameters().get(5).asInt32());
+        assertEquals(LazyFileReferenceData.xxhash(file), request.parameters().get(6).asInt64());
     }
 
     private JRTClientConfigRequest createSimpleRequest() {
@@ -185,4 +258,27 @@ public class RpcServerTest {
         return JRTClientConfigRequestV3.createFromRaw(config, 120_000, Trace.createDummy(), CompressionType.UNCOMPRESSED, Optional.empty());
     }
 
+    /** Authorizes file requests only for the given file references, like a node's application would be. */
+    private static class FileReferenceAuthorizer extends NoopRpcAuthorizer {
+
+        private final Set<String> fileReferences;
+
+        FileReferenceAuthorizer(Set<String> fileReferences) {
+            this.fileReferences = fileReferences;
+        }
+
+        @Override
+        public CompletableFuture<Void> authorizeFileRequest(Request request) {
+            Value requested = request.parameters().get(0);
+            if (fileReferences.containsAll(requested.type() == Value.STRING_ARRAY ? List.of(requested.asStringArray())
+                                                                                  : List.of(requested.asString())))
+                return CompletableFuture.completedFuture(null);
+
+            request.setError(com.yahoo.jrt.ErrorCode.PERMISSION_DENIED, "Not allowed to access " + requested);
+            request.returnRequest();
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Not allowed to access " + requested));
+        }
+
+    }
+
 }
@@ -25,6 +25,7 @@ import com.yahoo.vespa.config.server.host.ConfigRequestHostLivenessTracker;
 import com.yahoo.vespa.config.server.host.HostRegistry;
 import com.yahoo.vespa.config.server.monitoring.Metrics;
 import com.yahoo.vespa.config.server.rpc.security.NoopRpcAuthorizer;
+import com.yahoo.vespa.config.server.rpc.security.RpcAuthorizer;
 import com.yahoo.vespa.config.server.tenant.Tenant;
 import com.yahoo.vespa.config.server.tenant.TenantRepository;
 import com.yahoo.vespa.config.server.tenant.TestTenantRepository;
@@ -32,6 +33,7 @@ import com.yahoo.vespa.flags.InMemoryFlagSource;
 import org.junit.After;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
@@ -66,13 +68,21 @@ public class RpcTester implements AutoCloseable {
     private final List<Integer> allocatedPorts = new ArrayList<>();
     private final TemporaryFolder temporaryFolder;
     private final ConfigserverConfig configserverConfig;
+    private final RpcAuthorizer rpcAuthorizer;
+    private File fileReferencesDir;
 
     RpcTester(ApplicationId applicationId, TemporaryFolder temporaryFolder) throws InterruptedException, IOException {
         this(applicationId, temporaryFolder, new ConfigserverConfig.Builder());
     }
 
     RpcTester(ApplicationId applicationId, TemporaryFolder temporaryFolder, ConfigserverConfig.Builder configBuilder) throws InterruptedException, IOException {
+        this(applicationId, temporaryFolder, configBuilder, new NoopRpcAuthorizer());
+    }
+
+    RpcTester(ApplicationId applicationId, TemporaryFolder temporaryFolder, ConfigserverConfig.Builder configBuilder,
+              RpcAuthorizer rpcAuthorizer) throws InterruptedException, IOException {
         this.temporaryFolder = temporaryFolder;
+        this.rpcAuthorizer = rpcAuthorizer;
         this.applicationId = applicationId;
         this.tenantName = applicationId.tenant();
         int port = allocatePort();
@@ -112,6 +122,8 @@ public class RpcTester implements AutoCloseable {
     }
 
     RpcServer createRpcServer(ConfigserverConfig config) throws IOException {
+        fileReferencesDir = temporaryFolder.newFolder();
+        PayloadStore payloadStore = new PayloadStore();
         RpcServer rpcServer = new RpcServer(config,
                              new SuperModelRequestHandler(new TestConfigDefinitionRepo(),
                                                           configserverConfig,
@@ -119,13 +131,15 @@ public class RpcTester implements AutoCloseable {
                                                                   config,
                                                                   Zone.defaultZone(),
                                                                   new MemoryGenerationCounter(),
-                                                                  new InMemoryFlagSource())),
+                                                                  new InMemoryFlagSource()),
+                                                          payloadStore),
                              Metrics.createTestMetrics(),
                              hostRegistry,
                              hostLivenessTracker,
-                             new FileServer(temporaryFolder.newFolder()),
-                             new NoopRpcAuthorizer(),
-                             new RpcRequestHandlerProvider());
+                             new FileServer(fileReferencesDir),
+                             rpcAuthorizer,
+                             new RpcRequestHandlerProvider(),
+                             payloadStore);
         rpcServer.setUpGetConfigHandlers();
         return rpcServer;
     }
@@ -177,6 +191,8 @@ public class RpcTester implements AutoCloseable {
 
     Tenant tenant() { return tenantRepository.getTenant(tenantName); }
 
+    File fileReferencesDir() { return fileReferencesDir; }
+
     public ApplicationRepository applicationRepository() { return applicationRepository; }
 
 }
@@ -10,9 +10,12 @@ import com.yahoo.config.provision.NodeType;
 import com.yahoo.config.provision.security.NodeIdentifier;
 import com.yahoo.config.provision.security.NodeIdentifierException;
 import com.yahoo.config.provision.security.NodeIdentity;
+import com.yahoo.jrt.Int32Value;
 import com.yahoo.jrt.Request;
+import com.yahoo.jrt.StringArray;
 import com.yahoo.jrt.StringValue;
 import com.yahoo.jrt.Target;
+import com.yahoo.jrt.Value;
 import com.yahoo.jrt.Values;
 import com.yahoo.security.KeyAlgorithm;
 import com.yahoo.security.KeyUtils;
@@ -44,6 +47,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 import static java.time.temporal.ChronoUnit.DAYS;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
@@ -145,6 +149,24 @@ public class MultiTenantRpcAuthorizerTest {
                 .get();
     }
 
+    @Test
+    public void tenant_node_can_advertise_only_its_own_files() throws ExecutionException, InterruptedException {
+        NodeIdentity identity = new NodeIdentity.Builder(NodeType.tenant)
+                .applicationId(APPLICATION_ID)
+                .build();
+
+        RpcAuthorizer authorizer = createAuthorizer(identity, new HostRegistry());
+
+        authorizer.authorizeFileRequest(createAddPeerRequest(FILE_REFERENCE))
+                .get();
+
+        exceptionRule.expectMessage("Peer is not allowed to access file reference other-file-reference. Peer is owned by mytenant.myapplication. File references owned by this application: [file 'myfilereference']");
+        exceptionRule.expectCause(instanceOf(AuthorizationException.class));
+
+        authorizer.authorizeFileRequest(createAddPeerRequest(FILE_REFERENCE, new FileReference("other-file-reference")))
+                .get();
+    }
+
     @Test
     public void tenant_node_cannot_access_other_config() throws ExecutionException, InterruptedException {
         NodeIdentity identity = new NodeIdentity.Builder(NodeType.tenant)
@@ -237,6 +259,11 @@ public class MultiTenantRpcAuthorizerTest {
         return mockJrtRpcRequest(fileReference.value());
     }
 
+    private static Request createAddPeerRequest(FileReference... fileReferences) {
+        return mockJrtRpcRequest(new StringArray(Stream.of(fileReferences).map(FileReference::value).toArray(String[]::new)),
+                                 new Int32Value(19090));
+    }
+
     private static RequestHandlerProvider createRequestHandlerProviderMock() {
         RequestHandler requestHandler = mock(RequestHandler.class);
         when(requestHandler.hasApplication(APPLICATION_ID, Optional.empty())).thenReturn(true);
@@ -250,6 +277,10 @@ public class MultiTenantRpcAuthorizerTest {
     }
 
     private static Request mockJrtRpcRequest(String payload) {
+        return mockJrtRpcRequest(new StringValue(payload));
+    }
+
+    private static Request mockJrtRpcRequest(Value... parameters) {
         ConnectionAuthContext authContext =
                 new ConnectionAuthContext(PEER_CERTIFICATE_CHAIN, CapabilitySet.all(), Set.of(), CapabilityMode.ENFORCE);
         Target target = mock(Target.class);
@@ -257,7 +288,8 @@ public class MultiTenantRpcAuthorizerTest {
         Request request = mock(Request.class);
         when(request.target()).thenReturn(target);
         Values values = new Values();
-        values.add(new StringValue(payload));
+        for (Value parameter : parameters)
+            values.add(parameter);
         when(request.parameters()).thenReturn(values);
         return request;
     }
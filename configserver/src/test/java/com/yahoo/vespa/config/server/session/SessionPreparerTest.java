@@ -38,6 +38,7 @@ import com.yahoo.vespa.config.server.host.HostRegistry;
 import com.yahoo.vespa.config.server.http.InvalidApplicationException;
 import com.yahoo.vespa.config.server.model.TestModelFactory;
 import com.yahoo.vespa.config.server.modelfactory.ModelFactoryRegistry;
+import com.yahoo.vespa.config.server.monitoring.Metrics;
 import com.yahoo.vespa.config.server.provision.HostProvisionerProvider;
 import com.yahoo.vespa.config.server.tenant.ContainerEndpointsCache;
 import com.yahoo.vespa.config.server.tenant.EndpointCertificateMetadataStore;
@@ -135,7 +136,8 @@ public class SessionPreparerTest {
                 curator,
                 zone,
                 flagSource,
-                secretStore);
+                secretStore,
+                Metrics.createTestMetrics());
     }
 
     @Test(expected = InvalidApplicationException.class)
@@ -24,7 +24,7 @@ public class SessionTest {
     public static class MockSessionPreparer extends SessionPreparer {
 
         public MockSessionPreparer() {
-            super(null, null, new InThreadExecutorService(), null, null, null, null, new MockCurator(), null, null, null);
+            super(null, null, new InThreadExecutorService(), null, null, null, null, new MockCurator(), null, null, null, null);
         }
 
         @Override
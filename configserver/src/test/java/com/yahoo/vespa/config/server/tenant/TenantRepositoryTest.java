@@ -26,6 +26,7 @@ import com.yahoo.vespa.config.server.host.HostRegistry;
 import com.yahoo.vespa.config.server.modelfactory.ModelFactoryRegistry;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
 import com.yahoo.vespa.config.server.monitoring.Metrics;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 import com.yahoo.vespa.config.server.provision.HostProvisionerProvider;
 import com.yahoo.vespa.curator.Curator;
 import com.yahoo.vespa.curator.mock.MockCurator;
@@ -225,7 +226,8 @@ public class TenantRepositoryTest {
                   new TestConfigDefinitionRepo(),
                   new TenantApplicationsTest.MockConfigActivationListener(),
                   new MockTenantListener(),
-                  new ZookeeperServerConfig.Builder().myid(0).build());
+                  new ZookeeperServerConfig.Builder().myid(0).build(),
+                  new PayloadStore());
         }
 
         @Override
@@ -17,6 +17,7 @@ import com.yahoo.vespa.config.server.host.HostRegistry;
 import com.yahoo.vespa.config.server.modelfactory.ModelFactoryRegistry;
 import com.yahoo.vespa.config.server.monitoring.Metrics;
 import com.yahoo.vespa.config.server.provision.HostProvisionerProvider;
+import com.yahoo.vespa.config.server.rpc.PayloadStore;
 import com.yahoo.vespa.curator.Curator;
 import com.yahoo.vespa.curator.mock.MockCurator;
 import com.yahoo.vespa.flags.FlagSource;
@@ -63,7 +64,8 @@ public class TestTenantRepository extends TenantRepository {
               configDefinitionRepo,
               configActivationListener,
               tenantListener,
-              new ZookeeperServerConfig.Builder().myid(0).build());
+              new ZookeeperServerConfig.Builder().myid(0).build(),
+              new PayloadStore());
     }
 
     public static class Builder {
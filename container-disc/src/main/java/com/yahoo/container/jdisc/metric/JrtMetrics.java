@@ -30,6 +30,11 @@ class JrtMetrics {
         increment("jrt.transport.client.tls-connections-established", changesSincePrevious.clientTlsConnectionsEstablished());
         increment("jrt.transport.server.unencrypted-connections-established", changesSincePrevious.serverUnencryptedConnectionsEstablished());
         increment("jrt.transport.client.unencrypted-connections-established", changesSincePrevious.clientUnencryptedConnectionsEstablished());
+        increment("jrt.transport.selector-wakeups", changesSincePrevious.selectorWakeups());
+        increment("jrt.transport.socket-writes", changesSincePrevious.socketWrites());
+        increment("jrt.transport.write-batches", changesSincePrevious.writeBatches());
+        increment("jrt.transport.packets-written", changesSincePrevious.packetsWritten());
+        increment("jrt.transport.write-queue-nanos", changesSincePrevious.writeQueueNanos());
         previousSnapshot = snapshot;
     }
 
@@ -0,0 +1,72 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc.messagebus;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.messagebus.Messenger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reports the statistics of the threads of the messenger of a message bus as metrics, per thread.
+ *
+ * @author agent
+ */
+class MessengerMetricReporter {
+
+    static final String QUEUE_SIZE = "mbus.messenger.queue_size";
+    static final String TASKS = "mbus.messenger.tasks";
+    static final String LATENCY = "mbus.messenger.latency";
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("mbus-messenger-metric-reporter-"));
+    private final List<Metric.Context> contexts = new ArrayList<>();
+    private final Metric metric;
+    private List<Messenger.Stats> previous = List.of();
+
+    MessengerMetricReporter(Metric metric) {
+        this.metric = metric;
+    }
+
+    void start(Supplier<List<Messenger.Stats>> stats) {
+        executor.scheduleAtFixedRate(() -> report(stats.get()), 10, 10, TimeUnit.SECONDS);
+    }
+
+    /** Reports the current queue sizes, and the number of tasks run, and their average latency, since the last report. */
+    synchronized void report(List<Messenger.Stats> current) {
+        for (int i = 0; i < current.size(); i++) {
+            Messenger.Stats now = current.get(i);
+            Messenger.Stats then = i < previous.size() ? previous.get(i) : new Messenger.Stats(0, 0, 0);
+            Metric.Context context = context(i);
+            long tasks = now.tasks() - then.tasks();
+            metric.set(QUEUE_SIZE, now.queueSize(), context);
+            metric.add(TASKS, tasks, context);
+            if (tasks > 0)
+                metric.set(LATENCY, (now.latencyNanos() - then.latencyNanos()) * 1e-9 / tasks, context);
+        }
+        previous = current;
+    }
+
+    private Metric.Context context(int thread) {
+        while (contexts.size() <= thread)
+            contexts.add(metric.createContext(Map.of("thread", Integer.toString(contexts.size()))));
+
+        return contexts.get(thread);
+    }
+
+    void shutdown() {
+        try {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
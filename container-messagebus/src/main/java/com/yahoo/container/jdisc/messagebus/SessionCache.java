@@ -9,6 +9,7 @@ import com.yahoo.document.DocumentUtil;
 import com.yahoo.documentapi.messagebus.protocol.DocumentProtocol;
 import com.yahoo.documentapi.messagebus.protocol.DocumentProtocolPoliciesConfig;
 import com.yahoo.jdisc.ReferencedResource;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.References;
 import com.yahoo.jdisc.ResourceReference;
 import com.yahoo.jdisc.SharedResource;
@@ -54,6 +55,7 @@ public final class SessionCache extends AbstractComponent {
     private static final Logger log = Logger.getLogger(SessionCache.class.getName());
 
     private final Memoized<SharedMessageBus, RuntimeException> messageBus;
+    private final MessengerMetricReporter metricReporter; // Null if metrics are not reported.
 
     private final Object intermediateLock = new Object();
     private final Map<String, SharedIntermediateSession> intermediates = new HashMap<>();
@@ -68,10 +70,11 @@ public final class SessionCache extends AbstractComponent {
                         DocumentTypeManager documentTypeManager,
                         MessagebusConfig messagebusConfig,
                         DocumentProtocolPoliciesConfig policiesConfig,
-                        DistributionConfig distributionConfig) {
-        this(nets::net, containerMbusConfig, documentTypeManager,
-             messagebusConfig, policiesConfig, distributionConfig);
-
+                        DistributionConfig distributionConfig,
+                        Metric metric) {
+        this(nets::net, containerMbusConfig, messagebusConfig,
+             new DocumentProtocol(documentTypeManager, policiesConfig, distributionConfig),
+             new MessengerMetricReporter(metric));
     }
 
     public SessionCache(Supplier<NetworkMultiplexer> net, ContainerMbusConfig containerMbusConfig,
@@ -89,12 +92,19 @@ public final class SessionCache extends AbstractComponent {
 
     public SessionCache(Supplier<NetworkMultiplexer> net, ContainerMbusConfig containerMbusConfig,
                         MessagebusConfig messagebusConfig, Protocol protocol) {
-        this.messageBus = new Memoized<>(() -> createSharedMessageBus(net.get(), containerMbusConfig, messagebusConfig, protocol),
+        this(net, containerMbusConfig, messagebusConfig, protocol, null);
+    }
+
+    private SessionCache(Supplier<NetworkMultiplexer> net, ContainerMbusConfig containerMbusConfig,
+                         MessagebusConfig messagebusConfig, Protocol protocol, MessengerMetricReporter metricReporter) {
+        this.metricReporter = metricReporter;
+        this.messageBus = new Memoized<>(() -> createSharedMessageBus(net.get(), containerMbusConfig, messagebusConfig, protocol, metricReporter),
                                          SharedMessageBus::release);
     }
 
     @Override
     public void deconstruct() {
+        if (metricReporter != null) metricReporter.shutdown();
         messageBus.close();
     }
 
@@ -106,7 +116,8 @@ public final class SessionCache extends AbstractComponent {
     private static SharedMessageBus createSharedMessageBus(NetworkMultiplexer net,
                                                            ContainerMbusConfig mbusConfig,
                                                            MessagebusConfig messagebusConfig,
-                                                           Protocol protocol) {
+                                                           Protocol protocol,
+                                                           MessengerMetricReporter metricReporter) {
         MessageBusParams mbusParams = new MessageBusParams().addProtocol(protocol);
 
         int maxPendingSize = DocumentUtil
@@ -116,9 +127,11 @@ public final class SessionCache extends AbstractComponent {
 
         mbusParams.setMaxPendingCount(mbusConfig.maxpendingcount());
         mbusParams.setMaxPendingSize(maxPendingSize);
+        mbusParams.setMessengerThreads(mbusConfig.messengerthreads());
 
         MessageBus bus = new MessageBus(net, mbusParams);
         new ConfigAgent(messagebusConfig, bus); // Configure the wrapped MessageBus with a routing table.
+        if (metricReporter != null) metricReporter.start(bus::getMessengerStats);
         return new SharedMessageBus(bus);
     }
 
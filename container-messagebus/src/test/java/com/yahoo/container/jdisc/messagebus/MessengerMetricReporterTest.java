@@ -0,0 +1,40 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc.messagebus;
+
+import com.yahoo.jdisc.test.MockMetric;
+import com.yahoo.messagebus.Messenger;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class MessengerMetricReporterTest {
+
+    @Test
+    public void testReportsPerThreadAndPerPeriod() {
+        MockMetric metric = new MockMetric();
+        MessengerMetricReporter reporter = new MessengerMetricReporter(metric);
+        reporter.report(List.of(new Messenger.Stats(3, 10, 10_000_000), new Messenger.Stats(0, 0, 0)));
+        reporter.report(List.of(new Messenger.Stats(1, 15, 20_000_000), new Messenger.Stats(2, 4, 8_000_000)));
+        reporter.shutdown();
+
+        Map<Map<String, ?>, Double> queueSizes = metric.metrics().get(MessengerMetricReporter.QUEUE_SIZE);
+        assertEquals(1.0, queueSizes.get(Map.of("thread", "0")), 0);
+        assertEquals(2.0, queueSizes.get(Map.of("thread", "1")), 0);
+
+        Map<Map<String, ?>, Double> tasks = metric.metrics().get(MessengerMetricReporter.TASKS);
+        assertEquals(15.0, tasks.get(Map.of("thread", "0")), 0);
+        assertEquals(4.0, tasks.get(Map.of("thread", "1")), 0);
+
+        // Latency is the average of the last period: 10ms over 5 tasks, and 8ms over 4 tasks.
+        Map<Map<String, ?>, Double> latencies = metric.metrics().get(MessengerMetricReporter.LATENCY);
+        assertEquals(0.002, latencies.get(Map.of("thread", "0")), 1e-9);
+        assertEquals(0.002, latencies.get(Map.of("thread", "1")), 1e-9);
+    }
+
+}
@@ -11,6 +11,7 @@ import com.yahoo.document.serialization.DocumentSerializerFactory;
 import com.yahoo.document.serialization.DocumentWriter;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.LazyFieldValues;
 import com.yahoo.document.serialization.SerializationException;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
@@ -35,6 +36,9 @@ import java.util.Map;
  * not with primitive types. Support for direct access to primitive types will
  * be removed soon.
  *
+ * A document with {@link #setLazyFieldValues lazy field values} deserializes these when they are read,
+ * and is therefore not safe for concurrent readers, unlike other documents.
+ *
  * @author bratseth
  * @author Einar M R Rosenvinge
  */
@@ -44,6 +48,7 @@ public class Document extends StructuredFieldValue {
     public static final short SERIALIZED_VERSION = 8;
     private DocumentId docId;
     private Struct header;
+    private LazyFieldValues lazyValues = null;
     private Long lastModified = null;
 
     /**
@@ -74,6 +79,7 @@ public class Document extends StructuredFieldValue {
     public Document(Document doc) {
         this(doc.getDataType(), doc.getId());
         header = doc.header;
+        lazyValues = doc.lazyValues;
         lastModified = doc.lastModified;
     }
 
@@ -106,11 +112,41 @@ public class Document extends StructuredFieldValue {
         Document doc = (Document) super.clone();
         doc.docId = docId.clone();
         doc.header = header.clone();
+        doc.lazyValues = lazyValues == null ? null : lazyValues.copy();
         return doc;
     }
 
     private void setNewType(DocumentType type) {
         header = type.contentStruct().createFieldValue();
+        lazyValues = null;
+    }
+
+    /**
+     * Sets the serialized field values of this, which are deserialized when first accessed. This is used by deserializers.
+     * Fields of this should otherwise be set with {@link #setFieldValue}.
+     * Reading fields then modifies this document, so it must not be read by several threads without synchronization.
+     */
+    public void setLazyFieldValues(LazyFieldValues lazyValues) {
+        this.lazyValues = lazyValues;
+    }
+
+    /** Returns the serialized field values of this which are not yet deserialized, or null if there are none. */
+    public LazyFieldValues getLazyFieldValues() {
+        return lazyValues == null || lazyValues.size() == 0 ? null : lazyValues;
+    }
+
+    private FieldValue deserializeLazily(int fieldId) {
+        Field field = header.getDataType().getField(fieldId);
+        FieldValue value = lazyValues.deserialize(field);
+        header.setFieldValue(field, value);
+        return value;
+    }
+
+    private void deserializeAll() {
+        if (getLazyFieldValues() == null) return;
+        for (Field field : header.getDataType().getFields())
+            if (lazyValues.contains(field.getId()))
+                deserializeLazily(field.getId());
     }
 
     public void setDataType(DataType type) {
@@ -175,28 +211,39 @@ public class Document extends StructuredFieldValue {
         return field;
     }
 
+    /** Returns the value of the given field, deserializing it first if it is a lazy value; see {@link #setLazyFieldValues}. */
     @Override
     public FieldValue getFieldValue(Field field) {
-        return header.getFieldValue(field);
+        FieldValue value = header.getFieldValue(field);
+        if (value == null && lazyValues != null && lazyValues.contains(field.getId()))
+            value = deserializeLazily(field.getId());
+
+        return value;
     }
 
     @Override
     protected void doSetFieldValue(Field field, FieldValue value) {
+        if (lazyValues != null) lazyValues.remove(field.getId());
         header.setFieldValue(field, value);
     }
 
     @Override
     public FieldValue removeFieldValue(Field field) {
+        if (lazyValues != null && lazyValues.contains(field.getId()))
+            deserializeLazily(field.getId());
+
         return header.removeFieldValue(field);
     }
 
     @Override
     public void clear() {
+        lazyValues = null;
         header.clear();
     }
 
     @Override
     public Iterator<Map.Entry<Field, FieldValue>> iterator() {
+        deserializeAll();
         return header.iterator();
     }
 
@@ -244,6 +291,8 @@ public class Document extends StructuredFieldValue {
         if (o == this) return true;
         if (!(o instanceof Document)) return false;
         Document other = (Document) o;
+        deserializeAll();
+        other.deserializeAll();
         return (super.equals(o) && docId.equals(other.docId) &&
                 header.equals(other.header));
     }
@@ -290,7 +339,7 @@ public class Document extends StructuredFieldValue {
 
     @Override
     public int getFieldCount() {
-        return header.getFieldCount();
+        return header.getFieldCount() + (lazyValues == null ? 0 : lazyValues.size());
     }
 
     public void serialize(DocumentWriter writer) {
@@ -330,6 +379,8 @@ public class Document extends StructuredFieldValue {
             return comp;
         }
 
+        deserializeAll();
+        otherValue.deserializeAll();
         comp = header.compareTo(otherValue.header);
 
         if (comp != 0) {
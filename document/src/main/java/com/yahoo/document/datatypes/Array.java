@@ -10,6 +10,7 @@ import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
+import com.yahoo.io.GrowableByteBuffer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -21,7 +22,9 @@ import java.util.ListIterator;
 import java.util.RandomAccess;
 
 /**
- * FieldValue which encapsulates an Array value
+ * FieldValue which encapsulates an Array value. Arrays of int, long, float and double which are read from serialized
+ * form store their elements as primitives, until an element field value is accessed or added, after which they store
+ * field values like other arrays do, so the element objects of an array are always the same.
  *
  * @author Einar M R Rosenvinge
  */
@@ -55,12 +58,27 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
 
     @Override
     public Iterator<T> fieldValueIterator() {
-        return values.iterator();
+        return boxed().iterator();
+    }
+
+    /** Returns the values of this as a list of field values, replacing any primitive storage of these. */
+    private List<T> boxed() {
+        if (values instanceof NumericArrayValues) values = new ArrayList<>(values);
+        return values;
+    }
+
+    /** Returns whether the elements of this are currently stored as primitives. */
+    boolean storesPrimitives() {
+        return values instanceof NumericArrayValues;
     }
 
     @Override
     public Array<T> clone() {
         Array<T> array = (Array<T>) super.clone();
+        if (values instanceof NumericArrayValues) {
+            array.values = ((NumericArrayValues<T>) values).copy();
+            return array;
+        }
         array.values = new ArrayList<>(values.size());
         for (T fval : values) {
             array.values.add((T) fval.clone());
@@ -104,11 +122,38 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
     }
 
     public List<T> getValues() {
-        return values;
+        return boxed();
     }
 
     public FieldValue getFieldValue(int index) {
-        return values.get(index);
+        return boxed().get(index);
+    }
+
+    /**
+     * Writes the elements of this directly to the given buffer, if they are stored as primitives.
+     *
+     * @return whether the elements were written
+     */
+    public boolean writePrimitives(GrowableByteBuffer buffer) {
+        if ( ! (values instanceof NumericArrayValues)) return false;
+        ((NumericArrayValues<T>) values).write(buffer);
+        return true;
+    }
+
+    /**
+     * Reads the given number of elements directly from the given buffer, and appends them to this, if this is empty,
+     * or already stores its elements as primitives, and its element type is one which may be stored as primitives.
+     *
+     * @return whether the elements were read
+     */
+    public boolean readPrimitives(GrowableByteBuffer buffer, int count) {
+        if (values instanceof ArrayList && values.isEmpty()) {
+            List<T> primitives = NumericArrayValues.create(getDataType().getNestedType(), count);
+            if (primitives != null) values = primitives;
+        }
+        if ( ! (values instanceof NumericArrayValues)) return false;
+        ((NumericArrayValues<T>) values).read(buffer, count);
+        return true;
     }
 
     @Override
@@ -156,7 +201,7 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
 
     public void add(int index, T o) {
         verifyElementCompatibility(o);
-        values.add(index, o);
+        boxed().add(index, o);
     }
 
     public boolean remove(Object o) {
@@ -165,7 +210,7 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
 
     public boolean add(T o) {
         verifyElementCompatibility(o);
-        return values.add(o);
+        return boxed().add(o);
     }
 
     @Override
@@ -180,7 +225,7 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
 
     @Override
     public Iterator<T> iterator() {
-        return values.iterator();
+        return boxed().iterator();
     }
 
     @Override
@@ -197,7 +242,7 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
         for (T t : c) {
             verifyElementCompatibility(t);
         }
-        return values.addAll(c);
+        return boxed().addAll(c);
     }
 
     public boolean containsAll(Collection<?> c) {
@@ -205,19 +250,19 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
     }
 
     public Object[] toArray() {
-        return values.toArray();
+        return boxed().toArray();
     }
 
     @SuppressWarnings({"unchecked"})
     public <T> T[] toArray(T[] a) {
-        return values.toArray(a);
+        return boxed().toArray(a);
     }
 
     public boolean addAll(int index, Collection<? extends T> c) {
         for (T t : c) {
             verifyElementCompatibility(t);
         }
-        return values.addAll(index, c);
+        return boxed().addAll(index, c);
     }
 
     public boolean retainAll(Collection<?> c) {
@@ -229,7 +274,7 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
     }
 
     public T get(int index) {
-        return values.get(index);
+        return boxed().get(index);
     }
 
     public int indexOf(Object o) {
@@ -241,11 +286,11 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
     }
 
     public ListIterator<T> listIterator() {
-        return values.listIterator();
+        return boxed().listIterator();
     }
 
     public ListIterator<T> listIterator(final int index) {
-        return values.listIterator(index);
+        return boxed().listIterator(index);
     }
 
     public T remove(int index) {
@@ -254,18 +299,19 @@ public final class Array<T extends FieldValue> extends CollectionFieldValue<T> i
 
     public T set(int index, T o) {
         verifyElementCompatibility(o);
-        T fval = values.set(index, o);
+        T fval = boxed().set(index, o);
         return fval;
     }
 
     public List<T> subList(int fromIndex, int toIndex) {
-        return values.subList(fromIndex, toIndex);
+        return boxed().subList(fromIndex, toIndex);
     }
 
     FieldPathIteratorHandler.ModificationStatus iterateSubset(int startPos, int endPos, FieldPath fieldPath, String variable, int nextPos, FieldPathIteratorHandler handler) {
         FieldPathIteratorHandler.ModificationStatus retVal = FieldPathIteratorHandler.ModificationStatus.NOT_MODIFIED;
 
         LinkedList<Integer> indicesToRemove = new LinkedList<Integer>();
+        boxed();
 
         for (int i = startPos; i <= endPos && i < values.size(); i++) {
             if (variable != null) {
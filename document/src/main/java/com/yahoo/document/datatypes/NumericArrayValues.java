@@ -0,0 +1,213 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.datatypes;
+
+import com.yahoo.document.DataType;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The values of an {@link Array} of a numeric type, stored in a primitive array rather than as one field value object
+ * per element. Elements are created on access, so changes to a returned element are not reflected in this; an
+ * {@link Array} therefore replaces this with a list of field values before it exposes or accepts any element objects.
+ *
+ * @author agent
+ */
+abstract class NumericArrayValues<T extends FieldValue> extends AbstractList<T> implements RandomAccess {
+
+    /** Returns a new, empty list for values of the given type, or null if that type is not stored as primitives. */
+    @SuppressWarnings("unchecked")
+    static <T extends FieldValue> NumericArrayValues<T> create(DataType type, int initialCapacity) {
+        if (DataType.INT.equals(type)) return (NumericArrayValues<T>) new IntegerValues(initialCapacity);
+        if (DataType.LONG.equals(type)) return (NumericArrayValues<T>) new LongValues(initialCapacity);
+        if (DataType.FLOAT.equals(type)) return (NumericArrayValues<T>) new FloatValues(initialCapacity);
+        if (DataType.DOUBLE.equals(type)) return (NumericArrayValues<T>) new DoubleValues(initialCapacity);
+        return null;
+    }
+
+    int size = 0;
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index, size);
+        return valueAt(index);
+    }
+
+    @Override
+    public T set(int index, T value) {
+        checkIndex(index, size);
+        T old = valueAt(index);
+        store(index, value);
+        return old;
+    }
+
+    @Override
+    public void add(int index, T value) {
+        checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        move(index, index + 1, size - index);
+        ++size;
+        store(index, value);
+        ++modCount;
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index, size);
+        T old = valueAt(index);
+        move(index + 1, index, size - index - 1);
+        --size;
+        ++modCount;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        ++modCount;
+    }
+
+    /** Writes the values of this to the given buffer, in the same format as their field values would be written. */
+    abstract void write(GrowableByteBuffer buffer);
+
+    /** Appends the given number of values, read from the given buffer, to this. */
+    abstract void read(GrowableByteBuffer buffer, int count);
+
+    /** Returns a deep copy of this. */
+    abstract NumericArrayValues<T> copy();
+
+    abstract T valueAt(int index);
+
+    abstract void store(int index, T value);
+
+    abstract void ensureCapacity(int capacity);
+
+    abstract void move(int from, int to, int length);
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+    }
+
+    static int grow(int length, int capacity) {
+        return Math.max(capacity, length + (length >> 1) + 1);
+    }
+
+    static class IntegerValues extends NumericArrayValues<IntegerFieldValue> {
+
+        private int[] values;
+
+        IntegerValues(int initialCapacity) { values = new int[initialCapacity]; }
+
+        @Override IntegerFieldValue valueAt(int index) { return new IntegerFieldValue(values[index]); }
+        @Override void store(int index, IntegerFieldValue value) { values[index] = value.getInteger(); }
+        @Override void move(int from, int to, int length) { System.arraycopy(values, from, values, to, length); }
+        @Override void ensureCapacity(int capacity) {
+            if (capacity > values.length) values = Arrays.copyOf(values, grow(values.length, capacity));
+        }
+        @Override void write(GrowableByteBuffer buffer) {
+            for (int i = 0; i < size; i++) buffer.putInt(values[i]);
+        }
+        @Override void read(GrowableByteBuffer buffer, int count) {
+            ensureCapacity(size + count);
+            for (int i = 0; i < count; i++) values[size++] = buffer.getInt();
+        }
+        @Override IntegerValues copy() {
+            IntegerValues copy = new IntegerValues(0);
+            copy.values = Arrays.copyOf(values, size);
+            copy.size = size;
+            return copy;
+        }
+
+    }
+
+    static class LongValues extends NumericArrayValues<LongFieldValue> {
+
+        private long[] values;
+
+        LongValues(int initialCapacity) { values = new long[initialCapacity]; }
+
+        @Override LongFieldValue valueAt(int index) { return new LongFieldValue(values[index]); }
+        @Override void store(int index, LongFieldValue value) { values[index] = value.getLong(); }
+        @Override void move(int from, int to, int length) { System.arraycopy(values, from, values, to, length); }
+        @Override void ensureCapacity(int capacity) {
+            if (capacity > values.length) values = Arrays.copyOf(values, grow(values.length, capacity));
+        }
+        @Override void write(GrowableByteBuffer buffer) {
+            for (int i = 0; i < size; i++) buffer.putLong(values[i]);
+        }
+        @Override void read(GrowableByteBuffer buffer, int count) {
+            ensureCapacity(size + count);
+            for (int i = 0; i < count; i++) values[size++] = buffer.getLong();
+        }
+        @Override LongValues copy() {
+            LongValues copy = new LongValues(0);
+            copy.values = Arrays.copyOf(values, size);
+            copy.size = size;
+            return copy;
+        }
+
+    }
+
+    static class FloatValues extends NumericArrayValues<FloatFieldValue> {
+
+        private float[] values;
+
+        FloatValues(int initialCapacity) { values = new float[initialCapacity]; }
+
+        @Override FloatFieldValue valueAt(int index) { return new FloatFieldValue(values[index]); }
+        @Override void store(int index, FloatFieldValue value) { values[index] = value.getFloat(); }
+        @Override void move(int from, int to, int length) { System.arraycopy(values, from, values, to, length); }
+        @Override void ensureCapacity(int capacity) {
+            if (capacity > values.length) values = Arrays.copyOf(values, grow(values.length, capacity));
+        }
+        @Override void write(GrowableByteBuffer buffer) {
+            for (int i = 0; i < size; i++) buffer.putFloat(values[i]);
+        }
+        @Override void read(GrowableByteBuffer buffer, int count) {
+            ensureCapacity(size + count);
+            for (int i = 0; i < count; i++) values[size++] = buffer.getFloat();
+        }
+        @Override FloatValues copy() {
+            FloatValues copy = new FloatValues(0);
+            copy.values = Arrays.copyOf(values, size);
+            copy.size = size;
+            return copy;
+        }
+
+    }
+
+    static class DoubleValues extends NumericArrayValues<DoubleFieldValue> {
+
+        private double[] values;
+
+        DoubleValues(int initialCapacity) { values = new double[initialCapacity]; }
+
+        @Override DoubleFieldValue valueAt(int index) { return new DoubleFieldValue(values[index]); }
+        @Override void store(int index, DoubleFieldValue value) { values[index] = value.getDouble(); }
+        @Override void move(int from, int to, int length) { System.arraycopy(values, from, values, to, length); }
+        @Override void ensureCapacity(int capacity) {
+            if (capacity > values.length) values = Arrays.copyOf(values, grow(values.length, capacity));
+        }
+        @Override void write(GrowableByteBuffer buffer) {
+            for (int i = 0; i < size; i++) buffer.putDouble(values[i]);
+        }
+        @Override void read(GrowableByteBuffer buffer, int count) {
+            ensureCapacity(size + count);
+            for (int i = 0; i < count; i++) values[size++] = buffer.getDouble();
+        }
+        @Override DoubleValues copy() {
+            DoubleValues copy = new DoubleValues(0);
+            copy.values = Arrays.copyOf(values, size);
+            copy.size = size;
+            return copy;
+        }
+
+    }
+
+}
@@ -0,0 +1,406 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.base.Preconditions;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.Field;
+import com.yahoo.document.MapDataType;
+import com.yahoo.document.PositionDataType;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.StructuredDataType;
+import com.yahoo.document.WeightedSetDataType;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.json.readers.SingleValueReader;
+import com.yahoo.document.serialization.DocumentSerializer;
+import com.yahoo.document.serialization.DocumentSerializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.text.Text;
+import com.yahoo.vespa.objects.BufferSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.yahoo.document.json.readers.JsonParserHelpers.expectObjectStart;
+
+/**
+ * Transcodes the JSON "fields" of a document put directly to the binary document format, as read from a
+ * {@link JsonParser}, or from a {@link TokenBuffer} with the already parsed fields, without building a tree
+ * of {@link FieldValue}s.
+ *
+ * Primitive numeric, string and bool values, and arrays, weighted sets, maps (in object form) and structs of these,
+ * are written as they are read, using only the schema of the document type. Any other value, e.g., a tensor,
+ * a position, a reference, or a value in an unexpected form, is read by the same readers as {@link JsonReader} uses,
+ * and then serialized, so the result, and any validation error, is the same as when reading the put with a
+ * {@link JsonReader}, and serializing the document.
+ *
+ * The document produced by deserializing the output is equal to that of a {@link JsonReader}, and so are the bytes,
+ * except that entries of maps and weighted sets are written in the order they were first read.
+ *
+ * This is not thread safe.
+ *
+ * @author agent
+ */
+public class JsonDocumentTranscoder {
+
+    private final boolean ignoreUndefinedFields;
+    private final List<GrowableByteBuffer> scratch = new ArrayList<>();
+    private Tokens tokens;
+
+    public JsonDocumentTranscoder(boolean ignoreUndefinedFields) {
+        this.ignoreUndefinedFields = ignoreUndefinedFields;
+    }
+
+    /**
+     * Writes a serialized document with the given type and id to the given buffer, with the fields read from the given
+     * parser, which must be positioned at the start of the "fields" object, and is left at the end of it.
+     */
+    public void transcode(DocumentType type, DocumentId id, JsonParser parser, GrowableByteBuffer out) {
+        transcode(type, id, new ParserTokens(parser), out);
+    }
+
+    /**
+     * Writes a serialized document with the given type and id to the given buffer, with the fields read from the given
+     * buffer, which must be positioned at the start of the "fields" object, and is left at the end of it.
+     */
+    public void transcode(DocumentType type, DocumentId id, TokenBuffer buffer, GrowableByteBuffer out) {
+        transcode(type, id, new BufferTokens(buffer), out);
+    }
+
+    private void transcode(DocumentType type, DocumentId id, Tokens tokens, GrowableByteBuffer out) {
+        this.tokens = tokens;
+        try {
+            expectObjectStart(tokens.current());
+            DocumentSerializer serializer = DocumentSerializerFactory.createHead(out);
+            out.putShort(Document.SERIALIZED_VERSION);
+            int lengthPosition = out.position();
+            out.putInt(0);
+            serializer.write(id);
+            int contentsPosition = out.position();
+            out.put((byte) 0x01);
+            serializer.write(type);
+            int fieldsPosition = out.position();
+            if (writeStruct(type, name -> getField(type, name), out, 0) > 0)
+                out.put(contentsPosition, (byte) 0x03);
+            else
+                out.position(fieldsPosition);
+
+            out.putInt(lengthPosition, out.position() - lengthPosition - 4);
+        }
+        catch (JsonReaderException e) {
+            throw JsonReaderException.addDocId(e, id);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        finally {
+            this.tokens = null;
+        }
+    }
+
+    /** Returns the serialized document with the given type and id, with the fields read from the given parser, as above. */
+    public byte[] transcode(DocumentType type, DocumentId id, JsonParser parser) {
+        return transcode(type, id, new ParserTokens(parser));
+    }
+
+    /** Returns the serialized document with the given type and id, with the fields read from the given buffer, as above. */
+    public byte[] transcode(DocumentType type, DocumentId id, TokenBuffer buffer) {
+        return transcode(type, id, new BufferTokens(buffer));
+    }
+
+    private byte[] transcode(DocumentType type, DocumentId id, Tokens tokens) {
+        GrowableByteBuffer out = new GrowableByteBuffer(4096);
+        transcode(type, id, tokens, out);
+        out.flip();
+        byte[] data = new byte[out.remaining()];
+        out.get(data);
+        return data;
+    }
+
+    /** The field of a document is looked up like {@link Document#getField(String)} does. */
+    private static Field getField(DocumentType type, String name) {
+        Field field = type.contentStruct().getField(name);
+        if (field == null) {
+            for (DocumentType parent : type.getInheritedTypes()) {
+                field = parent.getField(name);
+                if (field != null) break;
+            }
+        }
+        return field;
+    }
+
+    @FunctionalInterface
+    private interface FieldLookup {
+        Field get(String name);
+    }
+
+    /** Writes the struct at the current object of the tokens, sorted by field id, and returns the number of fields. */
+    private int writeStruct(StructuredDataType type, FieldLookup fields, GrowableByteBuffer out, int depth) throws IOException {
+        GrowableByteBuffer data = scratch(depth);
+        int[] ids = new int[8], starts = new int[8], ends = new int[8];
+        int count = 0;
+        for (JsonToken token; (token = tokens.next()) != JsonToken.END_OBJECT; ) {
+            String name = tokens.name();
+            Field field = fields.get(name);
+            if (field == null) {
+                if ( ! ignoreUndefinedFields)
+                    throw new IllegalArgumentException("No field '" + name + "' in the structure of type '" + type.getDataTypeName() +
+                                                       "', which has the fields: " + type.getFields());
+                tokens.skipChildren();
+                continue;
+            }
+            if (token == JsonToken.VALUE_NULL) continue;
+
+            int start = data.position();
+            try {
+                writeValue(field.getDataType(), field, token, data, depth + 1);
+            }
+            catch (IllegalArgumentException e) {
+                throw new JsonReaderException(field, e);
+            }
+            int index = 0;
+            while (index < count && ids[index] != field.getId()) index++;
+            if (index == count) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, 2 * count);
+                    starts = Arrays.copyOf(starts, 2 * count);
+                    ends = Arrays.copyOf(ends, 2 * count);
+                }
+                ids[count++] = field.getId();
+            }
+            starts[index] = start;
+            ends[index] = data.position();
+        }
+        if (count == 0) return 0;
+
+        // Fields are written in order of their ids, like the struct serializer does.
+        for (int i = 1; i < count; i++)
+            for (int j = i; j > 0 && ids[j - 1] > ids[j]; j--) {
+                swap(ids, j); swap(starts, j); swap(ends, j);
+            }
+
+        int length = 0;
+        for (int i = 0; i < count; i++)
+            length += ends[i] - starts[i];
+
+        out.putInt(length);
+        out.put((byte) 0); // CompressionType.NONE
+        out.putInt1_4Bytes(count);
+        for (int i = 0; i < count; i++) {
+            out.putInt1_4Bytes(ids[i]);
+            out.putInt2_4_8Bytes(ends[i] - starts[i]);
+        }
+        for (int i = 0; i < count; i++)
+            out.put(data.array(), data.arrayOffset() + starts[i], ends[i] - starts[i]);
+
+        return count;
+    }
+
+    private static void swap(int[] values, int j) {
+        int value = values[j];
+        values[j] = values[j - 1];
+        values[j - 1] = value;
+    }
+
+    /** Writes the value at the current token, of the given type, to the given buffer. */
+    private void writeValue(DataType type, Field field, JsonToken token, GrowableByteBuffer out, int depth) throws IOException {
+        if (token.isScalarValue()) {
+            if ( ! writePrimitive(type, tokens.text(), out))
+                writeRead(type, field, token, out);
+        }
+        else if (type instanceof ArrayDataType && token == JsonToken.START_ARRAY)
+            writeArray(((ArrayDataType) type).getNestedType(), out, depth);
+        else if (type instanceof WeightedSetDataType && token == JsonToken.START_OBJECT && isPrimitive(((WeightedSetDataType) type).getNestedType()))
+            writeWeightedSet(((WeightedSetDataType) type).getNestedType(), out, depth);
+        else if (type instanceof MapDataType && token == JsonToken.START_OBJECT && isPrimitive(((MapDataType) type).getKeyType()))
+            writeMap((MapDataType) type, out, depth);
+        else if (type instanceof StructDataType && token == JsonToken.START_OBJECT && ! PositionDataType.INSTANCE.equals(type)) {
+            StructDataType struct = (StructDataType) type;
+            if (writeStruct(struct, struct::getField, out, depth) == 0) {
+                // An empty struct value is still written, with an empty header.
+                out.putInt(0);
+                out.put((byte) 0);
+                out.putInt1_4Bytes(0);
+            }
+        }
+        else
+            writeRead(type, field, token, out);
+    }
+
+    private static boolean isPrimitive(DataType type) {
+        return    DataType.STRING.equals(type)
+               || DataType.INT.equals(type)
+               || DataType.LONG.equals(type)
+               || DataType.BYTE.equals(type)
+               || DataType.FLOAT.equals(type)
+               || DataType.DOUBLE.equals(type)
+               || DataType.BOOL.equals(type);
+    }
+
+    /**
+     * Writes the given text as a value of the given type, and returns true, or returns false if the type is not primitive.
+     * Text is parsed as by the field values of the primitive types.
+     */
+    private static boolean writePrimitive(DataType type, String text, GrowableByteBuffer out) {
+        if (DataType.STRING.equals(type)) {
+            if ( ! Text.isValidTextString(text))
+                throw new IllegalArgumentException("The string field value contains illegal code point 0x" +
+                                                   Integer.toHexString(Text.validateTextString(text).getAsInt()).toUpperCase());
+            byte[] bytes = BufferSerializer.createUTF8CharArray(text);
+            out.put((byte) 0); // No span trees.
+            out.putInt1_4Bytes(bytes.length + 1);
+            out.put(bytes);
+            out.put((byte) 0);
+        }
+        else if (DataType.INT.equals(type)) out.putInt(Integer.parseInt(text));
+        else if (DataType.LONG.equals(type)) out.putLong(Long.parseLong(text));
+        else if (DataType.BYTE.equals(type)) out.put(Byte.parseByte(text));
+        else if (DataType.FLOAT.equals(type)) out.putFloat(Float.parseFloat(text));
+        else if (DataType.DOUBLE.equals(type)) out.putDouble(Double.parseDouble(text));
+        else if (DataType.BOOL.equals(type)) out.put(Boolean.parseBoolean(text) ? (byte) 1 : (byte) 0);
+        else return false;
+        return true;
+    }
+
+    private void writeArray(DataType nestedType, GrowableByteBuffer out, int depth) throws IOException {
+        GrowableByteBuffer elements = scratch(depth);
+        int count = 0;
+        JsonToken token;
+        while ((token = tokens.next()) != JsonToken.END_ARRAY) {
+            Preconditions.checkArgument(token != JsonToken.VALUE_NULL, "Illegal null value for array entry");
+            writeValue(nestedType, null, token, elements, depth + 1);
+            count++;
+        }
+        out.putInt1_2_4Bytes(count);
+        out.put(elements.array(), elements.arrayOffset(), elements.position());
+    }
+
+    private void writeWeightedSet(DataType nestedType, GrowableByteBuffer out, int depth) throws IOException {
+        GrowableByteBuffer entries = scratch(depth);
+        Map<ByteBuffer, int[]> ranges = new LinkedHashMap<>();
+        while (tokens.next() != JsonToken.END_OBJECT) {
+            int start = entries.position();
+            entries.putInt(0);
+            writePrimitive(nestedType, tokens.name(), entries);
+            ByteBuffer key = copyOf(entries, start + 4);
+            entries.putInt(Integer.valueOf(tokens.text()));
+            entries.putInt(start, entries.position() - start - 4);
+            ranges.put(key, new int[] { start, entries.position() }); // Later entries replace earlier ones.
+        }
+        out.putInt(nestedType.getId());
+        out.putInt(ranges.size());
+        for (int[] range : ranges.values())
+            out.put(entries.array(), entries.arrayOffset() + range[0], range[1] - range[0]);
+    }
+
+    private void writeMap(MapDataType type, GrowableByteBuffer out, int depth) throws IOException {
+        GrowableByteBuffer entries = scratch(depth);
+        Map<ByteBuffer, int[]> ranges = new LinkedHashMap<>();
+        for (JsonToken token; (token = tokens.next()) != JsonToken.END_OBJECT; ) {
+            int start = entries.position();
+            writePrimitive(type.getKeyType(), tokens.name(), entries);
+            ByteBuffer key = copyOf(entries, start);
+            writeValue(type.getValueType(), null, token, entries, depth + 1);
+            ranges.put(key, new int[] { start, entries.position() }); // Later entries replace earlier ones.
+        }
+        out.putInt1_2_4Bytes(ranges.size());
+        for (int[] range : ranges.values())
+            out.put(entries.array(), entries.arrayOffset() + range[0], range[1] - range[0]);
+    }
+
+    private static ByteBuffer copyOf(GrowableByteBuffer buffer, int start) {
+        int offset = buffer.arrayOffset();
+        return ByteBuffer.wrap(Arrays.copyOfRange(buffer.array(), offset + start, offset + buffer.position()));
+    }
+
+    /** Reads the value at the current token with the readers {@link JsonReader} uses, and serializes it. */
+    private void writeRead(DataType type, Field field, JsonToken token, GrowableByteBuffer out) {
+        FieldValue value = SingleValueReader.readSingleValue(tokens.buffer(token), type, ignoreUndefinedFields);
+        value.serialize(field, DocumentSerializerFactory.createHead(out));
+    }
+
+    /** Returns a cleared scratch buffer for the given nesting depth. */
+    private GrowableByteBuffer scratch(int depth) {
+        while (scratch.size() <= depth)
+            scratch.add(new GrowableByteBuffer(4096));
+
+        GrowableByteBuffer buffer = scratch.get(depth);
+        buffer.clear();
+        return buffer;
+    }
+
+    /** The tokens of the transcoded JSON, where each value is named by its field, if any, as by {@link JsonParser#nextValue}. */
+    private interface Tokens {
+
+        /** Advances to the next value, or end of struct, and returns it. */
+        JsonToken next() throws IOException;
+
+        JsonToken current();
+
+        String name() throws IOException;
+
+        String text() throws IOException;
+
+        /** Skips to the end of the current value, if this is the start of a struct. */
+        void skipChildren() throws IOException;
+
+        /** Returns a buffer with the current value, which is the given token, and skips to the end of it. */
+        TokenBuffer buffer(JsonToken token);
+
+    }
+
+    private static class ParserTokens implements Tokens {
+
+        private final JsonParser parser;
+
+        ParserTokens(JsonParser parser) { this.parser = parser; }
+
+        @Override public JsonToken next() throws IOException { return parser.nextValue(); }
+        @Override public JsonToken current() { return parser.currentToken(); }
+        @Override public String name() throws IOException { return parser.getCurrentName(); }
+        @Override public String text() throws IOException { return parser.getText(); }
+        @Override public void skipChildren() throws IOException { parser.skipChildren(); }
+        @Override public TokenBuffer buffer(JsonToken token) {
+            TokenBuffer buffer = new TokenBuffer();
+            if (token == JsonToken.START_OBJECT) buffer.bufferObject(token, parser);
+            else if (token == JsonToken.START_ARRAY) buffer.bufferArray(token, parser);
+            else buffer.bufferCurrentToken(parser);
+            return buffer;
+        }
+
+    }
+
+    private static class BufferTokens implements Tokens {
+
+        private final TokenBuffer buffer;
+
+        BufferTokens(TokenBuffer buffer) { this.buffer = buffer; }
+
+        @Override public JsonToken next() { return buffer.next(); }
+        @Override public JsonToken current() { return buffer.currentToken(); }
+        @Override public String name() { return buffer.currentName(); }
+        @Override public String text() { return buffer.currentText(); }
+        @Override public void skipChildren() {
+            if ( ! buffer.currentToken().isStructStart()) return;
+            for (int nesting = buffer.nesting(); buffer.nesting() >= nesting; )
+                buffer.next();
+        }
+        @Override public TokenBuffer buffer(JsonToken token) {
+            TokenBuffer value = buffer.prefetchCurrentElement();
+            skipChildren();
+            return value;
+        }
+
+    }
+
+}
@@ -4,14 +4,18 @@ package com.yahoo.document.json;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.yahoo.document.Document;
 import com.yahoo.document.DocumentId;
 import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
 import com.yahoo.document.DocumentType;
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.TestAndSetCondition;
 import com.yahoo.document.json.document.DocumentParser;
 import com.yahoo.document.json.readers.DocumentParseInfo;
 import com.yahoo.document.json.readers.VespaJsonDocumentReader;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -70,6 +74,62 @@ public class JsonReader {
             state = END_OF_FEED;
             throw new IllegalArgumentException(e);
         }
+        return createDocumentOperation(typeManager, documentParseInfo, operationType);
+    }
+
+    /**
+     * Reads a single put, like {@link #readSingleDocument} does, but returns it as by {@link #createPut}.
+     *
+     * @param docIdString document ID.
+     * @return the put
+     */
+    public DocumentPut readSinglePut(String docIdString) {
+        DocumentId docId = new DocumentId(docIdString);
+        DocumentParseInfo documentParseInfo;
+        try {
+            DocumentParser documentParser = new DocumentParser(parser);
+            documentParseInfo = documentParser.parse(Optional.of(docId)).get();
+        } catch (IOException e) {
+            state = END_OF_FEED;
+            throw new IllegalArgumentException(e);
+        }
+        return createPut(typeManager, documentParseInfo);
+    }
+
+    /**
+     * Creates a put from already parsed document content, like {@link #createDocumentOperation} does, but transcodes the
+     * fields directly to the binary document format, and returns a put of a document which deserializes each field from
+     * this when it is first accessed. This avoids creating field values for puts which are only serialized again, e.g.,
+     * to be sent to a content node. The document of the put must not be read by several threads concurrently.
+     *
+     * @param typeManager the document types to use
+     * @param documentParseInfo the parsed document content, with the document ID set
+     * @return the put
+     */
+    public static DocumentPut createPut(DocumentTypeManager typeManager, DocumentParseInfo documentParseInfo) {
+        if (documentParseInfo.fieldsBuffer.isEmpty() || documentParseInfo.create.isPresent()) // Fails, like other puts do.
+            return (DocumentPut) createDocumentOperation(typeManager, documentParseInfo, DocumentOperationType.PUT);
+
+        documentParseInfo.operationType = DocumentOperationType.PUT;
+        DocumentType type = getDocumentTypeFromString(documentParseInfo.documentId.getDocType(), typeManager);
+        byte[] serialized = new JsonDocumentTranscoder(typeManager.getIgnoreUndefinedFields())
+                .transcode(type, documentParseInfo.documentId, documentParseInfo.fieldsBuffer);
+        DocumentPut put = new DocumentPut(new Document(DocumentDeserializerFactory.createHeadWithLazyFields(typeManager,
+                                                                                                            GrowableByteBuffer.wrap(serialized))));
+        put.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.condition));
+        return put;
+    }
+
+    /**
+     * Creates a single operation from already parsed document content, e.g., from a {@link com.yahoo.document.json.document.NonBlockingDocumentParser}.
+     *
+     * @param typeManager the document types to use
+     * @param documentParseInfo the parsed document content, with the document ID set
+     * @param operationType the type of operation (update or put)
+     * @return the document operation
+     */
+    public static DocumentOperation createDocumentOperation(DocumentTypeManager typeManager, DocumentParseInfo documentParseInfo,
+                                                            DocumentOperationType operationType) {
         documentParseInfo.operationType = operationType;
         VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader(typeManager.getIgnoreUndefinedFields());
         DocumentOperation operation = vespaJsonDocumentReader.createDocumentOperation(
@@ -93,6 +93,15 @@ public class TokenBuffer {
         bufferJsonStruct(first, tokens, JsonToken.START_ARRAY);
     }
 
+    /** Adds the current token of the given parser, for callers which feed the tokens of a JSON struct one at a time. */
+    public void bufferCurrentToken(JsonParser tokens) {
+        JsonToken t = tokens.currentToken();
+        if (size() == 0) {
+            updateNesting(t);
+        }
+        addFromParser(t, tokens);
+    }
+
     private void bufferJsonStruct(JsonToken first, JsonParser tokens, JsonToken firstToken) {
         int localNesting = 0;
         JsonToken t = first;
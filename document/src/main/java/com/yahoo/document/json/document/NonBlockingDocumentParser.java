@@ -0,0 +1,130 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json.document;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.yahoo.document.json.readers.DocumentParseInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import static com.yahoo.document.json.document.DocumentParser.CONDITION;
+import static com.yahoo.document.json.document.DocumentParser.CREATE_IF_NON_EXISTENT;
+import static com.yahoo.document.json.document.DocumentParser.FIELDS;
+
+/**
+ * Parses a single document operation, whose ID and type are given externally, from UTF-8 encoded JSON which
+ * is fed in chunks, as it becomes available. This produces the same {@link DocumentParseInfo} as the
+ * {@link DocumentParser}, but the raw JSON need not be kept around until all of it has arrived, and
+ * parsing never blocks waiting for more input.
+ *
+ * Errors are kept until {@link #documentParseInfo()} is called, and any input after the document is ignored.
+ *
+ * @author agent
+ */
+public class NonBlockingDocumentParser {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final DocumentParseInfo documentParseInfo = new DocumentParseInfo();
+    private int depth = 0;       // Nesting of the current token in the document, excluding the fields.
+    private int fieldsDepth = 0; // Nesting of the current token in the fields, when these are being buffered.
+    private boolean done = false;
+    private Exception failure = null;
+
+    public NonBlockingDocumentParser(JsonFactory parserFactory) {
+        try {
+            this.parser = parserFactory.createNonBlockingByteArrayParser();
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /** Parses the remaining content of the given buffer, without changing its position. */
+    public void feed(ByteBuffer buffer) {
+        if (buffer.hasArray())
+            feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        else {
+            byte[] data = new byte[buffer.remaining()];
+            buffer.duplicate().get(data);
+            feed(data, 0, data.length);
+        }
+    }
+
+    /** Parses the given data; this is not retained after this returns. */
+    public void feed(byte[] data, int offset, int length) {
+        if (done || failure != null || length == 0) return;
+        try {
+            feeder.feedInput(data, offset, offset + length);
+            parseAvailable();
+        }
+        catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Signals the end of input, and returns the parsed document content, with no document ID or operation type set.
+     *
+     * @throws IllegalArgumentException if the input was not a complete, valid document
+     */
+    public DocumentParseInfo documentParseInfo() {
+        if ( ! done && failure == null) {
+            try {
+                feeder.endOfInput();
+                parseAvailable();
+            }
+            catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+        }
+        if (failure instanceof IllegalArgumentException)
+            throw (IllegalArgumentException) failure;
+        if (failure != null)
+            throw new IllegalArgumentException(failure);
+        if ( ! done)
+            throw new IllegalArgumentException("Could not read document, no document?");
+
+        return documentParseInfo;
+    }
+
+    private void parseAvailable() throws IOException {
+        for (JsonToken token; ! done && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null; )
+            if (token != JsonToken.FIELD_NAME) // Like DocumentParser, which reads values, with their names.
+                parse(token);
+    }
+
+    private void parse(JsonToken token) throws IOException {
+        if (fieldsDepth > 0) {
+            documentParseInfo.fieldsBuffer.bufferCurrentToken(parser);
+            if (token.isStructStart()) ++fieldsDepth;
+            if (token.isStructEnd()) --fieldsDepth;
+        }
+        else if (token.isStructStart()) {
+            if (depth == 1 && token == JsonToken.START_OBJECT && FIELDS.equals(parser.currentName())) {
+                documentParseInfo.fieldsBuffer.bufferCurrentToken(parser);
+                fieldsDepth = 1;
+            }
+            else
+                ++depth;
+        }
+        else if (token.isStructEnd()) {
+            done = --depth == 0;
+        }
+        else if (depth == 0) {
+            done = true; // Not a document, but handled as an empty one, like DocumentParser does.
+        }
+        else if (depth == 1) {
+            if (token.isBoolean() && CREATE_IF_NON_EXISTENT.equals(parser.currentName()))
+                documentParseInfo.create = Optional.of(token == JsonToken.VALUE_TRUE);
+            else if (token == JsonToken.VALUE_STRING && CONDITION.equals(parser.currentName()))
+                documentParseInfo.condition = Optional.of(parser.getText());
+        }
+    }
+
+}
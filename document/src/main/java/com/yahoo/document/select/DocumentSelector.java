@@ -1,13 +1,20 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.document.select;
 
+import com.yahoo.document.Document;
 import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
 import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.document.select.parser.SelectInput;
 import com.yahoo.document.select.parser.SelectParser;
 import com.yahoo.document.select.parser.TokenMgrException;
+import com.yahoo.document.select.SelectionCompiler.CompiledExpression;
 import com.yahoo.document.select.rule.ExpressionNode;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 /**
  * A document selector is a filter which accepts or rejects documents
  * based on their type and content. A document selector has a textual
@@ -16,11 +23,16 @@ import com.yahoo.document.select.rule.ExpressionNode;
  *
  * Document selectors are multithread safe.
  *
+ * Selections over document puts are compiled for each document type they see, see {@link SelectionCompiler}.
+ *
  * @author bratseth
  */
 public class DocumentSelector {
 
+    private static final int maxCompiledTypes = 64;
+
     private final ExpressionNode expression;
+    private volatile Map<DocumentType, CompiledExpression> compiled = new IdentityHashMap<>(); // Copied on write.
 
     /**
      * Creates a document selector from a Document Selection Language string
@@ -62,9 +74,34 @@ public class DocumentSelector {
      * @throws RuntimeException if the evaluation enters an illegal state
      */
     public Result accepts(Context context) {
+        if (context.getDocumentOperation() instanceof DocumentPut) {
+            Document document = ((DocumentPut) context.getDocumentOperation()).getDocument();
+            return compiledFor(document.getDataType()).evaluate(context, document);
+        }
+        return interpret(context);
+    }
+
+    /** Evaluates this selector by interpreting the parsed expression, without compiling it. */
+    Result interpret(Context context) {
         return Result.toResult(expression.evaluate(context));
     }
 
+    /** Returns the expression of this compiled for the given document type, compiling it on first use. */
+    CompiledExpression compiledFor(DocumentType type) {
+        CompiledExpression expression = compiled.get(type);
+        if (expression == null) {
+            expression = SelectionCompiler.compile(this.expression, type);
+            synchronized (this) {
+                // Types are compared by identity, so start over if there are many, e.g., due to many config changes.
+                Map<DocumentType, CompiledExpression> copy = compiled.size() < maxCompiledTypes ? new IdentityHashMap<>(compiled)
+                                                                                                : new IdentityHashMap<>();
+                copy.put(type, expression);
+                compiled = copy;
+            }
+        }
+        return expression;
+    }
+
     /**
      * Returns the list of different variables resulting in a true state for this expression
      *
@@ -0,0 +1,253 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.Field;
+import com.yahoo.document.NumericDataType;
+import com.yahoo.document.datatypes.BoolFieldValue;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.datatypes.NumericFieldValue;
+import com.yahoo.document.select.rule.AttributeNode;
+import com.yahoo.document.select.rule.ComparisonNode;
+import com.yahoo.document.select.rule.DocumentNode;
+import com.yahoo.document.select.rule.DocumentTypeNode;
+import com.yahoo.document.select.rule.EmbracedNode;
+import com.yahoo.document.select.rule.ExpressionNode;
+import com.yahoo.document.select.rule.IdNode;
+import com.yahoo.document.select.rule.LiteralNode;
+import com.yahoo.document.select.rule.LogicNode;
+import com.yahoo.document.select.rule.NegationNode;
+import com.yahoo.document.select.rule.NowNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a parsed document selection into an expression which is specialised for puts of documents of a given type.
+ * Field references are resolved once, literals are converted once, patterns are compiled once, and logic is evaluated
+ * on {@link Result} values directly, rather than through {@link ResultList}s.
+ *
+ * Only the parts of a selection which evaluate to a single result without variables are compiled: logic, negation,
+ * document type tests, literals, and comparisons between literals and primitive top-level fields. Anything else,
+ * e.g., collections, field paths, functions and arithmetic, is left to the interpreting {@link ExpressionNode}s,
+ * and the compiled expression gives the exact same result as the interpreted one.
+ *
+ * @author agent
+ */
+class SelectionCompiler {
+
+    /** An expression compiled for documents of a specific type. */
+    @FunctionalInterface
+    interface CompiledExpression {
+
+        /** Evaluates this for the given document, which is the document of the put operation in the given context. */
+        Result evaluate(Context context, Document document);
+
+    }
+
+    private final DocumentType type;
+
+    private SelectionCompiler(DocumentType type) {
+        this.type = type;
+    }
+
+    /** Returns the given expression compiled for puts of documents of the given type. */
+    static CompiledExpression compile(ExpressionNode expression, DocumentType type) {
+        CompiledExpression compiled = new SelectionCompiler(type).compile(expression);
+        return compiled != null ? compiled : interpreted(expression);
+    }
+
+    private static CompiledExpression interpreted(ExpressionNode node) {
+        return (context, document) -> Result.toResult(node.evaluate(context));
+    }
+
+    /** Returns the compiled node, or null if this node may evaluate to something with variables, or multiple results. */
+    private CompiledExpression compile(ExpressionNode node) {
+        if (node instanceof EmbracedNode)
+            return compile(((EmbracedNode) node).getNode());
+
+        if (node instanceof NegationNode) {
+            ExpressionNode inner = ((NegationNode) node).getNode();
+            CompiledExpression compiled = compile(inner);
+            if (compiled == null) compiled = interpreted(inner);
+            CompiledExpression negated = compiled;
+            return (context, document) -> Result.invert(negated.evaluate(context, document));
+        }
+
+        if (node instanceof LogicNode)
+            return compile((LogicNode) node);
+
+        if (node instanceof LiteralNode)
+            return constant(Result.toResult(((LiteralNode) node).getValue()));
+
+        if (node instanceof DocumentNode)
+            return constant(Result.toResult(type.isA(((DocumentNode) node).getType())));
+
+        if (node instanceof ComparisonNode)
+            return compile((ComparisonNode) node);
+
+        return null;
+    }
+
+    private static CompiledExpression constant(Result result) {
+        return (context, document) -> result;
+    }
+
+    /** Logic is compiled to a disjunction of conjunctions, evaluated left to right, like the interpreted node does. */
+    private CompiledExpression compile(LogicNode node) {
+        List<List<CompiledExpression>> disjunction = new ArrayList<>();
+        for (LogicNode.NodeItem item : node.getItems()) {
+            CompiledExpression compiled = compile(item.getNode());
+            if (compiled == null) return null;
+            if (item.getOperator() != LogicNode.AND || disjunction.isEmpty())
+                disjunction.add(new ArrayList<>());
+
+            disjunction.get(disjunction.size() - 1).add(compiled);
+        }
+        CompiledExpression[][] terms = new CompiledExpression[disjunction.size()][];
+        for (int i = 0; i < terms.length; i++)
+            terms[i] = disjunction.get(i).toArray(CompiledExpression[]::new);
+
+        return (context, document) -> {
+            Result any = Result.FALSE;
+            for (CompiledExpression[] conjunction : terms) {
+                Result all = Result.TRUE;
+                for (CompiledExpression term : conjunction) {
+                    Result result = term.evaluate(context, document);
+                    if (result == Result.FALSE) { all = Result.FALSE; break; }
+                    if (result == Result.INVALID) all = Result.INVALID;
+                }
+                if (all == Result.TRUE) return Result.TRUE;
+                if (all == Result.INVALID) any = Result.INVALID;
+            }
+            return any;
+        };
+    }
+
+    private CompiledExpression compile(ComparisonNode node) {
+        ExpressionNode lhs = node.getLHS(), rhs = node.getRHS();
+        if (isScalar(lhs) && isScalar(rhs))
+            return interpreted(node);
+
+        Field field;
+        if ((field = primitiveField(lhs)) != null && rhs instanceof LiteralNode)
+            return compare(field, node.getOperator(), ((LiteralNode) rhs).getValue(), false);
+
+        if ((field = primitiveField(rhs)) != null && lhs instanceof LiteralNode)
+            return compare(field, node.getOperator(), ((LiteralNode) lhs).getValue(), true);
+
+        return null;
+    }
+
+    /** Whether the given node evaluates to a single value, without any variables. */
+    private static boolean isScalar(ExpressionNode node) {
+        return    node instanceof LiteralNode
+               || node instanceof IdNode
+               || node instanceof DocumentTypeNode
+               || node instanceof NowNode;
+    }
+
+    /** Returns the top-level, primitive, non-imported field the given node refers to, or null if it is something else. */
+    private Field primitiveField(ExpressionNode node) {
+        if ( ! (node instanceof AttributeNode)) return null;
+        AttributeNode attribute = (AttributeNode) node;
+        if ( ! (attribute.getValue() instanceof DocumentNode)) return null;
+        if ( ! type.isA(((DocumentNode) attribute.getValue()).getType())) return null;
+        if (attribute.getItems().size() != 1) return null;
+
+        AttributeNode.Item item = attribute.getItems().get(0);
+        if (item.getType() != AttributeNode.Item.ATTRIBUTE) return null;
+        String name = item.getName();
+        if (name.indexOf('.') >= 0 || name.indexOf('{') >= 0 || name.indexOf('[') >= 0) return null;
+        if (type.hasImportedField(name)) return null;
+
+        Field field = type.getField(name);
+        if (field == null) return null;
+        DataType dataType = field.getDataType();
+        if ( ! (dataType instanceof NumericDataType || dataType.equals(DataType.STRING) || dataType.equals(DataType.BOOL)))
+            return null;
+
+        return field;
+    }
+
+    /** Compares the value of the given field with the given literal, with the literal on the left side if reversed. */
+    private static CompiledExpression compare(Field field, String operator, Object literal, boolean reversed) {
+        double number = asNumber(literal);
+        String string = "" + literal;
+        switch (operator) {
+            case "==":
+                return (context, document) -> {
+                    FieldValue value = document.getFieldValue(field);
+                    if (value == null || literal == null) return Result.toResult(value == literal);
+                    return Result.toResult(equal(value, number, string));
+                };
+            case "!=":
+                return (context, document) -> {
+                    FieldValue value = document.getFieldValue(field);
+                    if (value == null || literal == null) return Result.toResult(value != literal);
+                    return Result.invert(Result.toResult(equal(value, number, string)));
+                };
+            case "<": return order(field, literal, number, reversed ? ">" : "<");
+            case "<=": return order(field, literal, number, reversed ? ">=" : "<=");
+            case ">": return order(field, literal, number, reversed ? "<" : ">");
+            case ">=": return order(field, literal, number, reversed ? "<=" : ">=");
+            case "=":
+            case "=~":
+                if (reversed) return null; // Then the pattern is the field value, which we do not pre-compile.
+                Pattern pattern;
+                try {
+                    pattern = Pattern.compile(operator.equals("=") ? ComparisonNode.globToRegex(string) : string);
+                }
+                catch (PatternSyntaxException e) {
+                    return null; // Leave it to the interpreter to fail, if and when this is evaluated.
+                }
+                boolean glob = operator.equals("=");
+                return (context, document) -> {
+                    FieldValue value = document.getFieldValue(field);
+                    if (value == null || literal == null)
+                        return glob ? Result.toResult(value == literal) : Result.INVALID; // Glob falls back to equality.
+                    return Result.toResult(pattern.matcher(value.toString()).find());
+                };
+            default:
+                return null;
+        }
+    }
+
+    /** Compares the value of the given field with a literal, where the field value is on the left side. */
+    private static CompiledExpression order(Field field, Object literal, double number, String operator) {
+        if (literal == null || Double.isNaN(number))
+            return (context, document) -> Result.INVALID;
+
+        return (context, document) -> {
+            FieldValue value = document.getFieldValue(field);
+            if (value == null) return Result.INVALID;
+            double a = asNumber(value);
+            if (Double.isNaN(a)) return Result.INVALID;
+            switch (operator) {
+                case "<": return Result.toResult(a < number);
+                case "<=": return Result.toResult(a <= number);
+                case ">": return Result.toResult(a > number);
+                default: return Result.toResult(a >= number);
+            }
+        };
+    }
+
+    private static boolean equal(FieldValue value, double number, String string) {
+        double a = asNumber(value);
+        if (Double.isNaN(a) || Double.isNaN(number)) return value.toString().equals(string);
+        return a == number;
+    }
+
+    private static double asNumber(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value instanceof NumericFieldValue) return ((NumericFieldValue) value).getNumber().doubleValue();
+        if (value instanceof BoolFieldValue) return ((BoolFieldValue) value).getBoolean() ? 1 : 0;
+        if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+        return Double.NaN;
+    }
+
+}
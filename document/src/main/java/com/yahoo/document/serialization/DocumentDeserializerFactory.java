@@ -2,6 +2,7 @@
 package com.yahoo.document.serialization;
 
 import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.fieldset.FieldSet;
 import com.yahoo.io.GrowableByteBuffer;
 
 /**
@@ -19,6 +20,22 @@ public class DocumentDeserializerFactory {
         return new VespaDocumentDeserializerHead(manager, buf);
     }
 
+    /**
+     * Creates a de-serializer for the current head document format, which deserializes the field values
+     * of documents only when these are first accessed; see {@link LazyFieldValues}.
+     */
+    public static DocumentDeserializer createHeadWithLazyFields(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        return new VespaDocumentDeserializerHead(manager, buf).withLazyFields();
+    }
+
+    /**
+     * Creates a de-serializer for the current head document format, which skips the field values of documents
+     * which are not in the given field set, without deserializing them.
+     */
+    public static DocumentDeserializer createHead(DocumentTypeManager manager, GrowableByteBuffer buf, FieldSet fieldSet) {
+        return new VespaDocumentDeserializerHead(manager, buf).withFieldSet(fieldSet);
+    }
+
     /**
      * Creates a de-serializer for the 6.x document format.
      * This format is an extension of the 4.2 format.
@@ -0,0 +1,95 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Serialized field values of a document, which are deserialized one at a time, when first accessed.
+ * Values which are never accessed are serialized again by copying their bytes, when the document is serialized.
+ *
+ * This is not thread safe, and neither is the document which owns it.
+ *
+ * @author agent
+ */
+public class LazyFieldValues {
+
+    private final DocumentTypeManager manager;
+    private final short version;
+    private final byte[] data;
+    private final int[] ids;
+    private final int[] offsets;
+    private final int[] lengths;
+    private int size;
+
+    /** Creates a new set of lazy values from the given data, which must not be modified after this. */
+    LazyFieldValues(DocumentTypeManager manager, short version, byte[] data, int[] ids, int[] offsets, int[] lengths) {
+        this.manager = manager;
+        this.version = version;
+        this.data = data;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.size = (int) Arrays.stream(ids).filter(id -> id >= 0).count();
+    }
+
+    /** Returns the number of field values which are not yet deserialized or removed. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns whether the value of the given field is not yet deserialized or removed. */
+    public boolean contains(int fieldId) {
+        return indexOf(fieldId) >= 0;
+    }
+
+    /** Deserializes and removes the value of the given field, or returns null if not present. */
+    public FieldValue deserialize(Field field) {
+        int index = indexOf(field.getId());
+        if (index < 0) return null;
+
+        VespaDocumentDeserializer6 in = new VespaDocumentDeserializerHead(manager, GrowableByteBuffer.wrap(data, offsets[index], lengths[index]));
+        in.setVersion(version);
+        FieldValue value = field.getDataType().createFieldValue();
+        value.deserialize(field, in);
+        removeAt(index);
+        return value;
+    }
+
+    /** Removes the serialized value of the given field, if present. */
+    public void remove(int fieldId) {
+        int index = indexOf(fieldId);
+        if (index >= 0) removeAt(index);
+    }
+
+    /** Writes the serialized value of the given field to the given buffer, or throws if not present. */
+    public void serialize(int fieldId, GrowableByteBuffer buffer) {
+        int index = indexOf(fieldId);
+        if (index < 0) throw new IllegalArgumentException("No serialized value for field with id " + fieldId);
+        buffer.put(data, offsets[index], lengths[index]);
+    }
+
+    /** Returns a copy of this, which shares the serialized data with this. */
+    public LazyFieldValues copy() {
+        return new LazyFieldValues(manager, version, data, ids.clone(), offsets, lengths);
+    }
+
+    private int indexOf(int fieldId) {
+        if (fieldId < 0) return -1;
+        for (int i = 0; i < ids.length; i++)
+            if (ids[i] == fieldId)
+                return i;
+
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        ids[index] = -1;
+        --size;
+    }
+
+}
@@ -38,6 +38,9 @@ import com.yahoo.document.DocumentType;
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.DocumentUpdate;
 import com.yahoo.document.Field;
+import com.yahoo.document.fieldset.AllFields;
+import com.yahoo.document.fieldset.DocumentOnly;
+import com.yahoo.document.fieldset.FieldSet;
 import com.yahoo.document.fieldpathupdate.AddFieldPathUpdate;
 import com.yahoo.document.fieldpathupdate.AssignFieldPathUpdate;
 import com.yahoo.document.fieldpathupdate.FieldPathUpdate;
@@ -67,6 +70,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import static com.yahoo.text.Utf8.calculateStringPositions;
 
@@ -82,6 +87,8 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
     private List<SpanNode> spanNodes;
     private List<Annotation> annotations;
     private int[] stringPositions;
+    private boolean lazyFields = false;
+    private FieldSet fieldSet = null;
 
     VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf) {
         super(buf);
@@ -91,6 +98,27 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
 
     final public DocumentTypeManager getDocumentTypeManager() { return manager; }
 
+    /**
+     * Makes this keep the serialized field values of documents it reads, and deserialize each of them only
+     * when it is first accessed; see {@link LazyFieldValues}. Reading the documents then modifies them, so such
+     * documents must not be read concurrently, unless all their fields are accessed first.
+     */
+    public VespaDocumentDeserializer6 withLazyFields() {
+        this.lazyFields = true;
+        return this;
+    }
+
+    /**
+     * Makes this skip, without deserializing them, the field values of documents it reads which are not in the
+     * given field set. The result is the same as reading all fields, and then stripping those not in the field set.
+     */
+    public VespaDocumentDeserializer6 withFieldSet(FieldSet fieldSet) {
+        this.fieldSet = fieldSet instanceof AllFields ? null : fieldSet;
+        return this;
+    }
+
+    void setVersion(short version) { this.version = version; }
+
     public void read(Document document) {
         read(null, document);
     }
@@ -128,6 +156,9 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
 
     public <T extends FieldValue> void read(FieldBase field, Array<T> array) {
         int numElements = getNumCollectionElems();
+        array.clear();
+        if (array.readPrimitives(buf, numElements)) return;
+
         ArrayList<T> list = new ArrayList<>(numElements);
         ArrayDataType type = array.getDataType();
         for (int i = 0; i < numElements; i++) {
@@ -135,7 +166,6 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
             fv.deserialize(null, this);
             list.add((T) fv);
         }
-        array.clear();
         array.addAll(list);
     }
 
@@ -326,12 +356,19 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         buf = thisStructOnly;
 
         StructDataType priType = target.getDataType().contentStruct();
+        Predicate<Field> wanted = fieldFilter(target.getDataType());
+
+        if (lazyFields && target.getLazyFieldValues() == null) {
+            readLazily(target, priType, wanted, fieldIdsAndLengths, dataSize);
+            buf = bigBuf;
+            return;
+        }
 
         for (int i=0; i<numberOfFields; ++i) {
             int posBefore = position();
             Integer f_id = fieldIdsAndLengths.get(i).first;
             Field structField = priType.getField(f_id);
-            if (structField != null) {
+            if (structField != null && wanted.test(structField)) {
                 FieldValue value = structField.getDataType().createFieldValue();
                 value.deserialize(structField, this);
                 target.setFieldValue(structField, value);
@@ -344,6 +381,33 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         buf = bigBuf;
     }
 
+    /** Returns a filter for the fields of the given document type which are in the field set of this, if any. */
+    private Predicate<Field> fieldFilter(DocumentType type) {
+        if (fieldSet == null) return field -> true;
+        if (fieldSet instanceof DocumentOnly) {
+            Set<Field> fields = type.fieldSet(DocumentOnly.NAME);
+            if (fields != null) return fields::contains;
+        }
+        return fieldSet::contains;
+    }
+
+    /** Copies the serialized values of the known fields, and leaves them for the target to deserialize when needed. */
+    private void readLazily(Document target, StructDataType type, Predicate<Field> wanted,
+                            List<Tuple2<Integer, Long>> fieldIdsAndLengths, int dataSize) {
+        byte[] data = getBytes(null, dataSize);
+        int numberOfFields = fieldIdsAndLengths.size();
+        int[] ids = new int[numberOfFields];
+        int[] offsets = new int[numberOfFields];
+        int[] lengths = new int[numberOfFields];
+        for (int i = 0, offset = 0; i < numberOfFields; offset += lengths[i++]) {
+            Field field = type.getField(fieldIdsAndLengths.get(i).first);
+            ids[i] = field == null || ! wanted.test(field) ? -1 : field.getId(); // Unknown and unwanted fields are ignored.
+            offsets[i] = offset;
+            lengths[i] = fieldIdsAndLengths.get(i).second.intValue();
+        }
+        target.setLazyFieldValues(new LazyFieldValues(manager, version, data, ids, offsets, lengths));
+    }
+
     public void read(FieldBase field, StructuredFieldValue value) {
         throw new IllegalArgumentException("read not implemented yet.");
     }
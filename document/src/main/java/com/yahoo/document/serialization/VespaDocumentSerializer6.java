@@ -59,6 +59,7 @@ import com.yahoo.vespa.objects.FieldBase;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -133,6 +134,7 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
      */
     public <T extends FieldValue> void write(FieldBase field, Array<T> array) {
         buf.putInt1_2_4Bytes(array.size());
+        if (array.writePrimitives(buf)) return;
 
         List<T> lst = array.getValues();
         for (FieldValue value : lst) {
@@ -330,15 +332,35 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         List<Integer> fieldIds = new LinkedList<>();
         List<java.lang.Integer> fieldLengths = new LinkedList<>();
 
-        var iter = s.iterator();
-        while (iter.hasNext()) {
-            Map.Entry<Field, FieldValue> value = iter.next();
+        LazyFieldValues lazyValues = s instanceof Document ? ((Document) s).getLazyFieldValues() : null;
+        if (lazyValues != null) {
+            // Copy the values which are not yet deserialized, and serialize the others, in the order of an eager document.
+            List<Field> fields = new ArrayList<>(((Document) s).getDataType().contentStruct().getFields());
+            fields.sort(Comparator.comparingInt(Field::getId));
+            for (Field contentField : fields) {
+                int startPos = buffer.position();
+                if (lazyValues.contains(contentField.getId()))
+                    lazyValues.serialize(contentField.getId(), buffer);
+                else {
+                    FieldValue value = s.getFieldValue(contentField);
+                    if (value == null) continue;
+                    value.serialize(contentField, this);
+                }
+                fieldLengths.add(buffer.position() - startPos);
+                fieldIds.add(contentField.getId());
+            }
+        }
+        else {
+            var iter = s.iterator();
+            while (iter.hasNext()) {
+                Map.Entry<Field, FieldValue> value = iter.next();
 
-            int startPos = buffer.position();
-            value.getValue().serialize(value.getKey(), this);
+                int startPos = buffer.position();
+                value.getValue().serialize(value.getKey(), this);
 
-            fieldLengths.add(buffer.position() - startPos);
-            fieldIds.add(value.getKey().getId());
+                fieldLengths.add(buffer.position() - startPos);
+                fieldIds.add(value.getKey().getId());
+            }
         }
 
         // Switch buffers again:
@@ -3,6 +3,10 @@ package com.yahoo.document.datatypes;
 
 import com.yahoo.document.ArrayDataType;
 import com.yahoo.document.DataType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
+import com.yahoo.document.serialization.DocumentSerializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -10,6 +14,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -322,4 +327,95 @@ public class ArrayTestCase {
         assertEquals(-1, b.compareTo(a));
     }
 
+    @Test
+    public void testNumericArraysAreStoredAsPrimitives() {
+        for (DataType type : List.of(DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE)) {
+            List<FieldValue> primitive = NumericArrayValues.create(type, 1);
+            List<FieldValue> boxed = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                FieldValue value = type.createFieldValue(i);
+                primitive.add(value);
+                boxed.add(value);
+            }
+            primitive.add(0, type.createFieldValue(-1));
+            boxed.add(0, type.createFieldValue(-1));
+            primitive.set(50, type.createFieldValue(-50));
+            boxed.set(50, type.createFieldValue(-50));
+            assertEquals(boxed.remove(10), primitive.remove(10));
+            primitive.remove(type.createFieldValue(20));
+            boxed.remove(type.createFieldValue(20));
+            assertEquals(boxed, primitive);
+            assertEquals(boxed.size(), primitive.size());
+            assertEquals(boxed.indexOf(type.createFieldValue(30)), primitive.indexOf(type.createFieldValue(30)));
+
+            Array<FieldValue> array = new Array<>(new ArrayDataType(type), boxed);
+            Array<FieldValue> wrapped = new Array<>(new ArrayDataType(type));
+            wrapped.assign(boxed.stream().map(FieldValue::getWrappedValue).collect(Collectors.toList()));
+            assertFalse(array.storesPrimitives());
+
+            // Primitives are read directly, and written in the same format as their field values.
+            Array<FieldValue> read = serializeAndRead(array);
+            assertTrue(read.storesPrimitives());
+            assertEquals(array, read);
+            assertEquals(wrapped, read);
+            assertEquals(0, wrapped.compareTo(read));
+            assertEquals(array.hashCode(), read.hashCode());
+            assertEquals(read, serializeAndRead(read));
+            assertEquals(serialize(array), serialize(read));
+            assertTrue(read.storesPrimitives());
+
+            Array<FieldValue> clone = read.clone();
+            assertTrue(clone.storesPrimitives());
+            assertEquals(read, clone);
+            clone.remove(0);
+            assertNotEquals(read, clone);
+
+            read.clear();
+            assertTrue(read.isEmpty());
+        }
+    }
+
+    @Test
+    public void testElementsOfPrimitiveArraysAreModifiedInPlace() {
+        Array<IntegerFieldValue> array = new Array<>(new ArrayDataType(DataType.INT));
+        array.addAll(List.of(new IntegerFieldValue(1), new IntegerFieldValue(2), new IntegerFieldValue(3)));
+
+        Array<IntegerFieldValue> read = serializeAndRead(array);
+        assertTrue(read.storesPrimitives());
+        read.get(0).assign(5);
+        assertFalse(read.storesPrimitives());
+        assertSame(read.get(0), read.get(0));
+        assertEquals(new IntegerFieldValue(5), read.get(0));
+
+        read = serializeAndRead(array);
+        for (IntegerFieldValue value : read) value.assign(value.getInteger() * 2);
+        assertEquals(List.of(new IntegerFieldValue(2), new IntegerFieldValue(4), new IntegerFieldValue(6)), read.getValues());
+
+        read = serializeAndRead(array);
+        for (ListIterator<IntegerFieldValue> values = read.listIterator(); values.hasNext(); )
+            values.next().assign(-1);
+        ((IntegerFieldValue) read.getFieldValue(1)).assign(-2);
+        assertEquals(List.of(new IntegerFieldValue(-1), new IntegerFieldValue(-2), new IntegerFieldValue(-1)), read.getValues());
+
+        read = serializeAndRead(array);
+        IntegerFieldValue added = new IntegerFieldValue(4);
+        read.add(added);
+        added.assign(7);
+        assertEquals(new IntegerFieldValue(7), read.get(3));
+        assertEquals(read, serializeAndRead(read));
+    }
+
+    private static GrowableByteBuffer serialize(Array<?> array) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        DocumentSerializerFactory.createHead(buffer).write(null, array);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static <T extends FieldValue> Array<T> serializeAndRead(Array<T> array) {
+        Array<T> read = new Array<>(array.getDataType());
+        DocumentDeserializerFactory.createHead(new DocumentTypeManager(), serialize(array)).read(null, read);
+        return read;
+    }
+
 }
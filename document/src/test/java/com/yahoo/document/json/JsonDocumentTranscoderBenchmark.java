@@ -0,0 +1,42 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.yahoo.text.Utf8;
+
+import java.util.function.Supplier;
+
+/**
+ * Compares the throughput of reading and serializing JSON puts against that of transcoding them.
+ *
+ * @author agent
+ */
+public class JsonDocumentTranscoderBenchmark {
+
+    private static int serializedBytes = 0; // Keeps the benchmark loop from being optimised away.
+
+    public static void main(String[] args) {
+        StringBuilder json = new StringBuilder("{ \"title\": \"Bohemian Rhapsody\", \"year\": 1975, \"plays\": 1234567890, ")
+                .append("\"rating\": 4.9, \"popular\": true, \"tags\": [\"rock\", \"opera\", \"ballad\"], ")
+                .append("\"labels\": { \"classic\": 10, \"queen\": 20 }, \"outer\": { \"score\": 0.5, \"inner\": { \"name\": \"x\", \"values\": [1, 2, 3] } }, ")
+                .append("\"years\": [");
+        for (int i = 0; i < 256; i++) json.append(i > 0 ? ", " : "").append(1900 + i);
+        String fields = json.append("] }").toString();
+        int bytes = Utf8.toBytes(fields).length;
+
+        for (int round = 0; round < 3; round++) {
+            int documents = 1 << 13;
+            long readNanos = time(documents, () -> JsonDocumentTranscoderTestCase.read("id:ns:music::1", fields));
+            long transcodedNanos = time(documents, () -> JsonDocumentTranscoderTestCase.transcode("id:ns:music::1", fields));
+            System.out.printf("Read and serialized: %.1f MB/s, transcoded: %.1f MB/s%n",
+                              1e3 * bytes * documents / readNanos, 1e3 * bytes * documents / transcodedNanos);
+        }
+    }
+
+    private static long time(int documents, Supplier<byte[]> work) {
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < documents; i++)
+            serializedBytes += work.get().length;
+        return System.nanoTime() - startNanos;
+    }
+
+}
@@ -0,0 +1,249 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.MapDataType;
+import com.yahoo.document.PositionDataType;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.TensorDataType;
+import com.yahoo.document.WeightedSetDataType;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.json.document.NonBlockingDocumentParser;
+import com.yahoo.document.json.readers.DocumentParseInfo;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
+import com.yahoo.document.serialization.DocumentSerializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.text.Utf8;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * @author agent
+ */
+public class JsonDocumentTranscoderTestCase {
+
+    private static final JsonFactory factory = new JsonFactory();
+    private static final DocumentTypeManager types = new DocumentTypeManager();
+    private static final DocumentType type = new DocumentType("music");
+    static {
+        StructDataType inner = new StructDataType("inner");
+        inner.addField(new Field("name", DataType.STRING));
+        inner.addField(new Field("values", new ArrayDataType(DataType.INT)));
+        StructDataType outer = new StructDataType("outer");
+        outer.addField(new Field("inner", inner));
+        outer.addField(new Field("score", DataType.DOUBLE));
+
+        type.addField("title", DataType.STRING);
+        type.addField("year", DataType.INT);
+        type.addField("plays", DataType.LONG);
+        type.addField("rank", DataType.BYTE);
+        type.addField("rating", DataType.FLOAT);
+        type.addField("weight", DataType.DOUBLE);
+        type.addField("popular", DataType.BOOL);
+        type.addField("link", DataType.URI);
+        type.addField("data", DataType.RAW);
+        type.addField("where", PositionDataType.INSTANCE);
+        type.addField("embedding", new TensorDataType(TensorType.fromSpec("tensor<float>(x[3])")));
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+        type.addField("years", new ArrayDataType(DataType.INT));
+        type.addField("nested", new ArrayDataType(new ArrayDataType(DataType.STRING)));
+        type.addField("structs", new ArrayDataType(inner));
+        type.addField("labels", new WeightedSetDataType(DataType.STRING, false, false));
+        type.addField("ids", new WeightedSetDataType(DataType.LONG, false, false));
+        type.addField("counts", new MapDataType(DataType.STRING, DataType.INT));
+        type.addField("lookup", new MapDataType(DataType.INT, inner));
+        type.addField("outer", outer);
+        types.registerDocumentType(type);
+    }
+
+    /** Contents of "fields" objects of puts, valid ones first. */
+    private static final List<String> inputs = List.of(
+            "{}",
+            "{ \"title\": \"foo\" }",
+            "{ \"title\": \"føø \\u2603\", \"year\": 2000, \"plays\": 123456789012, \"rank\": -3, \"rating\": 4.5, " +
+            "  \"weight\": 1e-3, \"popular\": true, \"link\": \"http://vespa.ai/\", \"data\": \"Zm9v\" }",
+            "{ \"year\": \"2000\", \"rating\": \"4.5\", \"popular\": \"true\", \"title\": 123, \"weight\": 1 }",
+            "{ \"popular\": 1, \"title\": null, \"year\": null }",
+            "{ \"year\": 2000, \"title\": \"foo\", \"year\": 2001 }",
+            "{ \"where\": \"N63.429722;E10.393333\" }",
+            "{ \"where\": { \"x\": 1, \"y\": 2 } }",
+            "{ \"embedding\": { \"values\": [1, 2, 3] } }",
+            "{ \"tags\": [\"rock\", \"pop\", \"\"], \"years\": [1999, 2000], \"nested\": [[\"a\"], [], [\"b\", \"c\"]] }",
+            "{ \"tags\": [] }",
+            "{ \"structs\": [{ \"name\": \"foo\", \"values\": [1, 2] }, {}, { \"values\": [] }] }",
+            "{ \"labels\": { \"foo\": 1, \"bar\": -2, \"foo\": 3 }, \"ids\": { \"123\": 4 } }",
+            "{ \"counts\": { \"foo\": 1, \"bar\": 2 }, \"lookup\": { \"1\": { \"name\": \"one\" }, \"2\": {} } }",
+            "{ \"counts\": [{ \"key\": \"foo\", \"value\": 1 }, { \"key\": \"bar\", \"value\": 2 }] }",
+            "{ \"outer\": { \"score\": 0.5, \"inner\": { \"values\": [3], \"name\": \"baz\" } } }",
+            "{ \"outer\": {} }",
+
+            // Invalid input
+            "{ \"year\": 2000.5 }",
+            "{ \"year\": \"twothousand\" }",
+            "{ \"rank\": 300 }",
+            "{ \"title\": \"\\u0000\" }",
+            "{ \"link\": \"not a uri\" }",
+            "{ \"unknown\": 1 }",
+            "{ \"outer\": { \"unknown\": 1 } }",
+            "{ \"outer\": { \"inner\": { \"values\": [\"x\"] } } }",
+            "{ \"tags\": [\"foo\", null] }",
+            "{ \"tags\": { \"foo\": 1 } }",
+            "{ \"tags\": \"foo\" }",
+            "{ \"year\": [2000] }",
+            "{ \"year\": { \"value\": 2000 } }",
+            "{ \"labels\": { \"foo\": \"heavy\" } }",
+            "{ \"labels\": [\"foo\"] }",
+            "{ \"ids\": { \"foo\": 1 } }",
+            "{ \"counts\": { \"foo\": \"one\" } }",
+            "{ \"lookup\": { \"one\": {} } }",
+            "{ \"counts\": [{ \"key\": \"foo\" }] }");
+
+    @Test
+    public void transcoded_documents_are_equal_to_read_documents() {
+        for (String fields : inputs) {
+            String id = "id:ns:music::" + fields.hashCode();
+            Object read = evaluate(() -> read(id, fields));
+            Object transcoded = evaluate(() -> transcode(id, fields));
+            Object buffered = evaluate(() -> transcodeBuffered(id, fields));
+            if (transcoded instanceof byte[] && buffered instanceof byte[])
+                assertArrayEquals(fields, (byte[]) transcoded, (byte[]) buffered);
+            else
+                assertEquals(fields, transcoded, buffered);
+
+            if (read instanceof byte[] && transcoded instanceof byte[]) {
+                Document expected = deserialize((byte[]) read), actual = deserialize((byte[]) transcoded);
+                assertEquals(fields, expected, actual);
+                if ( ! fields.contains("labels") && ! fields.contains("counts") && ! fields.contains("lookup"))
+                    assertArrayEquals(fields, (byte[]) read, (byte[]) transcoded);
+            }
+            else
+                assertEquals(fields, read, transcoded);
+        }
+    }
+
+    @Test
+    public void transcoded_documents_ignore_undefined_fields_when_configured_to() {
+        JsonDocumentTranscoder transcoder = new JsonDocumentTranscoder(true);
+        Document document = deserialize(transcoder.transcode(type, new DocumentId("id:ns:music::1"),
+                                                             parser("{ \"title\": \"foo\", \"unknown\": { \"title\": \"bar\" } }")));
+        assertEquals(1, document.getFieldCount());
+        assertEquals(new StringFieldValue("foo"), document.getFieldValue("title"));
+    }
+
+    @Test
+    public void single_put_is_read_with_lazily_deserialized_fields() {
+        String json = "{ \"condition\": \"music.year == 2000\", \"ignored\": [1, 2], \"fields\": { \"title\": \"foo\", \"tags\": [\"bar\"] } }";
+        DocumentPut put = new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes(json)), factory).readSinglePut("id:ns:music::1");
+        DocumentPut expected = (DocumentPut) new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes(json)), factory)
+                .readSingleDocument(DocumentOperationType.PUT, "id:ns:music::1");
+
+        assertNotNull(put.getDocument().getLazyFieldValues());
+        assertEquals(expected.getCondition(), put.getCondition());
+        assertEquals(expected.getDocument(), put.getDocument());
+
+        assertEquals(evaluate(() -> new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes("{ \"condition\": \"true\" }")), factory)
+                                            .readSingleDocument(DocumentOperationType.PUT, "id:ns:music::1")),
+                     evaluate(() -> new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes("{ \"condition\": \"true\" }")), factory)
+                                            .readSinglePut("id:ns:music::1")));
+        assertEquals(evaluate(() -> new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes("{ \"create\": true, \"fields\": {} }")), factory)
+                                            .readSingleDocument(DocumentOperationType.PUT, "id:ns:music::1")),
+                     evaluate(() -> new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes("{ \"create\": true, \"fields\": {} }")), factory)
+                                            .readSinglePut("id:ns:music::1")));
+    }
+
+    @Test
+    public void parsed_put_is_created_with_lazily_deserialized_fields() {
+        String json = "{ \"condition\": \"music.year == 2000\", \"fields\": { \"title\": \"foo\", \"embedding\": { \"values\": [1, 2, 3] } } }";
+        DocumentPut put = JsonReader.createPut(types, parse(json));
+        DocumentPut expected = (DocumentPut) JsonReader.createDocumentOperation(types, parse(json), DocumentOperationType.PUT);
+
+        assertNotNull(put.getDocument().getLazyFieldValues());
+        assertEquals(expected.getCondition(), put.getCondition());
+        assertEquals(expected.getDocument(), put.getDocument());
+
+        for (String invalid : List.of("{ \"condition\": \"true\" }", "{ \"create\": true, \"fields\": {} }", "{ \"fields\": { \"year\": \"x\" } }"))
+            assertEquals(evaluate(() -> JsonReader.createDocumentOperation(types, parse(invalid), DocumentOperationType.PUT)),
+                         evaluate(() -> JsonReader.createPut(types, parse(invalid))));
+    }
+
+    private static DocumentParseInfo parse(String json) {
+        NonBlockingDocumentParser parser = new NonBlockingDocumentParser(factory);
+        byte[] data = Utf8.toBytes(json);
+        parser.feed(data, 0, data.length);
+        DocumentParseInfo documentParseInfo = parser.documentParseInfo();
+        documentParseInfo.documentId = new DocumentId("id:ns:music::1");
+        return documentParseInfo;
+    }
+
+    private static JsonParser parser(String fields) {
+        try {
+            JsonParser parser = factory.createParser(Utf8.toBytes(fields));
+            parser.nextToken();
+            return parser;
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    static byte[] read(String id, String fields) {
+        String json = "{ \"fields\": " + fields + " }";
+        DocumentPut put = (DocumentPut) new JsonReader(types, new ByteArrayInputStream(Utf8.toBytes(json)), factory)
+                .readSingleDocument(DocumentOperationType.PUT, id);
+        GrowableByteBuffer buffer = new GrowableByteBuffer(4096);
+        DocumentSerializerFactory.createHead(buffer).write(put.getDocument());
+        return toArray(buffer);
+    }
+
+    static byte[] transcode(String id, String fields) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer(4096);
+        new JsonDocumentTranscoder(types.getIgnoreUndefinedFields()).transcode(type, new DocumentId(id), parser(fields), buffer);
+        return toArray(buffer);
+    }
+
+    private static byte[] transcodeBuffered(String id, String fields) {
+        TokenBuffer buffer = parse("{ \"fields\": " + fields + " }").fieldsBuffer;
+        return new JsonDocumentTranscoder(types.getIgnoreUndefinedFields()).transcode(type, new DocumentId(id), buffer);
+    }
+
+    private static byte[] toArray(GrowableByteBuffer buffer) {
+        buffer.flip();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    private static Document deserialize(byte[] data) {
+        return new Document(DocumentDeserializerFactory.createHead(types, GrowableByteBuffer.wrap(data)));
+    }
+
+    /** Returns the result of the given evaluation, or the type and message of what it threw. */
+    private static Object evaluate(Supplier<?> evaluation) {
+        try {
+            Object result = evaluation.get();
+            return result instanceof DocumentPut ? ((DocumentPut) result).getDocument() : result;
+        }
+        catch (RuntimeException e) {
+            return e.getClass() + ": " + e.getMessage();
+        }
+    }
+
+}
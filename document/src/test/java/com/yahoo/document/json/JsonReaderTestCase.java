@@ -32,6 +32,7 @@ import com.yahoo.document.datatypes.Struct;
 import com.yahoo.document.datatypes.TensorFieldValue;
 import com.yahoo.document.datatypes.WeightedSet;
 import com.yahoo.document.internal.GeoPosType;
+import com.yahoo.document.json.document.NonBlockingDocumentParser;
 import com.yahoo.document.json.readers.DocumentParseInfo;
 import com.yahoo.document.json.readers.VespaJsonDocumentReader;
 import com.yahoo.document.serialization.DocumentSerializer;
@@ -62,6 +63,7 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
@@ -246,6 +248,55 @@ public class JsonReaderTestCase {
     }
 
 
+    @Test
+    public void nonBlockingParserGivesSameOperationsAsReader() {
+        String put = inputJson("{ 'put': 'id:unittest:testtensor::0',",
+                               "  'condition': 'testtensor.dense_tensor',",
+                               "  'ignored': { 'fields': { 'foo': 'bar' } },",
+                               "  'alsoIgnored': [ { 'condition': 'nope' }, 'create' ],",
+                               "  'fields': {",
+                               "    'sparse_tensor': { 'cells': [ { 'address': { 'x': 'bjørn', 'y': '€' }, 'value': 2.0 } ] },",
+                               "    'dense_tensor': { 'values': [ 1, 2.5, -3e-7, 4, 5, 6 ] },",
+                               "    'mixed_tensor': { 'blocks': { 'a': [ 1, 2, 3 ] } }",
+                               "  }",
+                               "}");
+        String update = inputJson("{ 'update': 'id:unittest:testMapStringToArrayOfInt::whee',",
+                                  "  'create': true,",
+                                  "  'fields': {",
+                                  "    'actualMapStringToArrayOfInt': {",
+                                  "      'assign': { 'bamse': [1, 2, 3] }}}}");
+        for (int chunkSize : new int[]{ 1, 7, 1 << 20 }) {
+            assertEquals(createReader(put).readSingleDocument(DocumentOperationType.PUT, "id:unittest:testtensor::0"),
+                         parseNonBlocking(put, chunkSize, DocumentOperationType.PUT, "id:unittest:testtensor::0"));
+            DocumentUpdate expected = (DocumentUpdate) createReader(update).readSingleDocument(DocumentOperationType.UPDATE, "id:unittest:testMapStringToArrayOfInt::whee");
+            DocumentUpdate actual = (DocumentUpdate) parseNonBlocking(update, chunkSize, DocumentOperationType.UPDATE, "id:unittest:testMapStringToArrayOfInt::whee");
+            assertEquals(expected, actual);
+            assertTrue(actual.getCreateIfNonExistent());
+        }
+    }
+
+    @Test
+    public void nonBlockingParserFailsOnInvalidDocuments() {
+        for (String json : new String[]{ "", "{ 'fields': { 'something': 'smoke' }", "{ 'fields': { 'something': smoke } }" }) {
+            try {
+                parseNonBlocking(inputJson(json), 1, DocumentOperationType.PUT, "id:unittest:smoke::doc1");
+                fail("Expected failure for '" + json + "'");
+            }
+            catch (IllegalArgumentException expected) { }
+        }
+    }
+
+    private DocumentOperation parseNonBlocking(String json, int chunkSize, DocumentOperationType operationType, String docId) {
+        NonBlockingDocumentParser parser = new NonBlockingDocumentParser(parserFactory);
+        byte[] data = Utf8.toBytes(json);
+        for (int offset = 0; offset < data.length; offset += chunkSize)
+            parser.feed(ByteBuffer.wrap(data, offset, Math.min(chunkSize, data.length - offset)).slice());
+
+        DocumentParseInfo parseInfo = parser.documentParseInfo();
+        parseInfo.documentId = new DocumentId(docId);
+        return JsonReader.createDocumentOperation(types, parseInfo, operationType);
+    }
+
     @Test
     public void smokeTest() throws IOException {
         JsonReader r = createReader(inputJson("{ 'put': 'id:unittest:smoke::doc1',",
@@ -0,0 +1,61 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.select.parser.ParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the time spent evaluating interpreted and compiled document selections.
+ *
+ * @author agent
+ */
+public class SelectionCompilerBenchmark {
+
+    private static int accepted = 0; // Keeps the benchmark loop from being optimised away.
+
+    public static void main(String[] args) throws ParseException {
+        List<DocumentSelector> selectors = selectors();
+        List<Context> contexts = contexts();
+        for (int round = 0; round < 3; round++) {
+            int evaluations = 1 << 16;
+            long interpretedNanos = time(evaluations, selectors, contexts, true);
+            long compiledNanos = time(evaluations, selectors, contexts, false);
+            System.out.printf("Interpreted: %d ns per evaluation, compiled: %d ns per evaluation%n",
+                              interpretedNanos / evaluations, compiledNanos / evaluations);
+        }
+    }
+
+    static List<DocumentSelector> selectors() throws ParseException {
+        List<DocumentSelector> selectors = new ArrayList<>();
+        for (String selection : List.of("music.year > 1990 and music.year < 2010",
+                                        "music.title == \"foo\" or music.title == \"bar\" or music.title == \"baz\"",
+                                        "music and not music.popular and music.rating >= 4.0",
+                                        "music.title = \"f*\" and id.namespace == \"ns\""))
+            selectors.add(new DocumentSelector(selection));
+
+        return selectors;
+    }
+
+    static List<Context> contexts() {
+        List<Context> contexts = new ArrayList<>();
+        for (Document document : SelectionCompilerTestCase.documents())
+            contexts.add(new Context(new DocumentPut(document)));
+
+        return contexts;
+    }
+
+    private static long time(int evaluations, List<DocumentSelector> selectors, List<Context> contexts, boolean interpret) {
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < evaluations; i++) {
+            DocumentSelector selector = selectors.get(i % selectors.size());
+            Context context = contexts.get(i % contexts.size());
+            if ((interpret ? selector.interpret(context) : selector.accepts(context)) == Result.TRUE) accepted++;
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+}
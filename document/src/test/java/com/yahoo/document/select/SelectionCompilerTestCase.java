@@ -0,0 +1,133 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.BoolFieldValue;
+import com.yahoo.document.datatypes.FloatFieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author agent
+ */
+public class SelectionCompilerTestCase {
+
+    private static final DocumentType parent = new DocumentType("media");
+    static final DocumentType type = new DocumentType("music", Set.of("imported"));
+    static {
+        parent.addField("name", DataType.STRING);
+        type.inherit(parent);
+        type.addField("title", DataType.STRING);
+        type.addField("year", DataType.INT);
+        type.addField("plays", DataType.LONG);
+        type.addField("rating", DataType.FLOAT);
+        type.addField("popular", DataType.BOOL);
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+    }
+
+    private static final List<String> selections = List.of(
+            "",
+            "true", "false", "null", "0", "1", "\"foo\"",
+            "music", "media", "book", "not music", "music or book", "music and book",
+            "music.title", "music.year", "music.tags", "media.name", "book.title",
+            "music.title == \"foo\"", "music.title != \"foo\"", "\"foo\" == music.title", "music.title == null", "music.title != null",
+            "music.title == 3", "music.title < 3", "music.title = \"f*\"", "music.title = \"F*\"", "music.title =~ \"^fo+$\"",
+            "music.title =~ \"[\"", "\"foo\" =~ music.title", "music.title.lowercase() == \"foo\"", "music.title = null", "music.title =~ null",
+            "music.year == 2000", "music.year == 2000.0", "music.year == \"2000\"", "music.year != 1999", "music.year == null",
+            "music.year < 2000", "music.year <= 2000", "music.year > 1999.5", "music.year >= 2001", "2000 < music.year", "1999 < music.year",
+            "music.year < \"2001\"", "music.year < null", "music.year = 2000", "music.year =~ \"^20\"", "music.year + 1 == 2001",
+            "music.plays > 1000", "music.plays == 123456789012", "music.rating > 4.0", "music.rating == 4.5",
+            "music.popular", "music.popular == true", "music.popular == 1", "music.popular != false", "music.popular < 1",
+            "music.tags == \"rock\"", "music.tags[0] == \"rock\"", "music.tags[$x] == \"rock\"", "media.name == \"bar\"",
+            "music.imported == null", "music.imported == 1", "book.title == \"foo\"",
+            "id == \"id:ns:music::1\"", "id.namespace == \"ns\"", "id.user == 1", "music.year > now() - 1000000000",
+            "music.year == 2000 and music.title == \"foo\"", "music.year == 2000 or music.title == \"foo\"",
+            "music.year == 2000 and music.title == \"bar\" or music.popular", "music.year < 2000 or music.title == \"foo\" and music.popular",
+            "not (music.year < 2000 or music.title == null)", "music.year < \"x\" and music.title == \"foo\"", "music.year < \"x\" or true",
+            "music.year < \"x\" and false", "music.year < \"x\" or false", "not music.year < \"x\"",
+            "music.tags[$x] == \"rock\" and music.tags[$x] == \"pop\"", "music.tags[$x] == \"rock\" or music.year == 2000",
+            "music and (music.year > 1990 and music.year < 2010) and not music.title = \"*bar*\" and id.namespace == \"ns\"");
+
+    static List<Document> documents() {
+        List<Document> documents = new ArrayList<>();
+        documents.add(new Document(type, "id:ns:music::0"));
+
+        Document full = new Document(type, "id:ns:music::1");
+        full.setFieldValue("name", new StringFieldValue("bar"));
+        full.setFieldValue("title", new StringFieldValue("foo"));
+        full.setFieldValue("year", new IntegerFieldValue(2000));
+        full.setFieldValue("plays", new LongFieldValue(123456789012L));
+        full.setFieldValue("rating", new FloatFieldValue(4.5f));
+        full.setFieldValue("popular", new BoolFieldValue(true));
+        Array<StringFieldValue> tags = new Array<>(type.getField("tags").getDataType());
+        tags.addAll(List.of(new StringFieldValue("rock"), new StringFieldValue("pop")));
+        full.setFieldValue("tags", tags);
+        documents.add(full);
+
+        Document other = new Document(type, "id:other:music:n=1:2");
+        other.setFieldValue("title", new StringFieldValue("Foo"));
+        other.setFieldValue("year", new IntegerFieldValue(1999));
+        other.setFieldValue("popular", new BoolFieldValue(false));
+        documents.add(other);
+
+        return documents;
+    }
+
+    @Test
+    public void compiled_selections_give_same_results_as_interpreted_ones() throws Exception {
+        for (String selection : selections) {
+            DocumentSelector selector = new DocumentSelector(selection);
+            for (Document document : documents()) {
+                Context context = new Context(new DocumentPut(document));
+                assertEquals(selection + " on " + document,
+                             evaluate(() -> selector.interpret(context)),
+                             evaluate(() -> selector.compiledFor(type).evaluate(context, document)));
+            }
+        }
+    }
+
+    @Test
+    public void compiled_selections_are_reused_per_type() throws Exception {
+        DocumentSelector selector = new DocumentSelector("music.year == 2000");
+        assertSame(selector.compiledFor(type), selector.compiledFor(type));
+        assertEquals(Result.TRUE, selector.accepts(new DocumentPut(documents().get(1))));
+        assertEquals(Result.FALSE, selector.accepts(new DocumentPut(documents().get(2))));
+    }
+
+    @Test
+    public void repeated_evaluation_gives_same_results() throws Exception {
+        List<DocumentSelector> selectors = SelectionCompilerBenchmark.selectors();
+        List<Context> contexts = SelectionCompilerBenchmark.contexts();
+        for (int i = 0; i < 100; i++) {
+            DocumentSelector selector = selectors.get(i % selectors.size());
+            Context context = contexts.get(i % contexts.size());
+            assertEquals(selector.interpret(context), selector.accepts(context));
+        }
+    }
+
+    /** Returns the result of the given evaluation, or the type and message of what it threw. */
+    private static Object evaluate(Callable<Result> evaluation) {
+        try {
+            return evaluation.call();
+        }
+        catch (Exception e) {
+            return e.getClass() + ": " + e.getMessage();
+        }
+    }
+
+}
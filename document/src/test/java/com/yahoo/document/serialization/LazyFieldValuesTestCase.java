@@ -0,0 +1,138 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.datatypes.Struct;
+import com.yahoo.io.GrowableByteBuffer;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author agent
+ */
+public class LazyFieldValuesTestCase {
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType type = new DocumentType("my_type");
+    private final StructDataType structType = new StructDataType("my_struct");
+
+    public LazyFieldValuesTestCase() {
+        structType.addField(new Field("inner", DataType.STRING));
+        type.addField("my_str", DataType.STRING);
+        type.addField("my_int", DataType.INT);
+        type.addField("my_array", new ArrayDataType(DataType.STRING));
+        type.addField("my_struct", structType);
+        type.addField("my_unset", DataType.STRING);
+        manager.register(type);
+    }
+
+    private Document createDocument() {
+        Document doc = new Document(type, "id:ns:my_type::0");
+        doc.setFieldValue("my_str", new StringFieldValue("foo"));
+        doc.setFieldValue("my_int", new IntegerFieldValue(69));
+        Array<StringFieldValue> array = new Array<>(type.getField("my_array").getDataType());
+        array.addAll(List.of(new StringFieldValue("bar"), new StringFieldValue("baz")));
+        doc.setFieldValue("my_array", array);
+        Struct struct = structType.createFieldValue();
+        struct.setFieldValue("inner", new StringFieldValue("qux"));
+        doc.setFieldValue("my_struct", struct);
+        return doc;
+    }
+
+    private static byte[] serialize(Document doc) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        DocumentSerializerFactory.createHead(buffer).write(doc);
+        buffer.flip();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    private static Document deserializeLazily(DocumentTypeManager manager, byte[] data) {
+        return new Document(DocumentDeserializerFactory.createHeadWithLazyFields(manager, GrowableByteBuffer.wrap(data)));
+    }
+
+    @Test
+    public void fields_are_deserialized_when_accessed() {
+        Document eager = createDocument();
+        byte[] data = serialize(eager);
+        Document lazy = deserializeLazily(manager, data);
+
+        assertEquals(4, lazy.getFieldCount());
+        assertEquals(4, lazy.getLazyFieldValues().size());
+
+        assertEquals(new StringFieldValue("foo"), lazy.getFieldValue("my_str"));
+        assertNull(lazy.getFieldValue("my_unset"));
+        assertEquals(3, lazy.getLazyFieldValues().size());
+        assertEquals(4, lazy.getFieldCount());
+
+        assertEquals(new IntegerFieldValue(69), lazy.removeFieldValue("my_int"));
+        assertEquals(2, lazy.getLazyFieldValues().size());
+        assertEquals(3, lazy.getFieldCount());
+
+        lazy.setFieldValue("my_array", new Array<>(type.getField("my_array").getDataType()));
+        assertEquals(1, lazy.getLazyFieldValues().size());
+        assertEquals(3, lazy.getFieldCount());
+
+        // Iteration, and comparison, deserializes all remaining fields.
+        eager.removeFieldValue("my_int");
+        eager.setFieldValue("my_array", new Array<>(type.getField("my_array").getDataType()));
+        assertEquals(eager, lazy);
+        assertNull(lazy.getLazyFieldValues());
+    }
+
+    @Test
+    public void untouched_fields_are_serialized_as_they_were() {
+        Document eager = createDocument();
+        byte[] data = serialize(eager);
+
+        assertArrayEquals(data, serialize(deserializeLazily(manager, data)));
+
+        Document lazy = deserializeLazily(manager, data);
+        lazy.setFieldValue("my_str", new StringFieldValue("foo"));
+        lazy.setFieldValue("my_unset", new StringFieldValue("set"));
+        eager.setFieldValue("my_unset", new StringFieldValue("set"));
+        assertEquals(3, lazy.getLazyFieldValues().size());
+        assertArrayEquals(serialize(eager), serialize(lazy));
+        assertEquals(3, lazy.getLazyFieldValues().size());
+    }
+
+    @Test
+    public void clones_are_independent() {
+        Document lazy = deserializeLazily(manager, serialize(createDocument()));
+        Document clone = lazy.clone();
+        clone.setFieldValue("my_str", new StringFieldValue("bar"));
+        assertEquals(new StringFieldValue("foo"), lazy.getFieldValue("my_str"));
+        assertEquals(new StringFieldValue("bar"), clone.getFieldValue("my_str"));
+        assertNotEquals(lazy, clone);
+    }
+
+    @Test
+    public void unknown_fields_are_ignored() {
+        DocumentTypeManager other = new DocumentTypeManager();
+        DocumentType otherType = new DocumentType("my_type");
+        otherType.addField("my_str", DataType.STRING);
+        other.register(otherType);
+
+        Document lazy = deserializeLazily(other, serialize(createDocument()));
+        assertEquals(1, lazy.getFieldCount());
+        assertEquals(new StringFieldValue("foo"), lazy.getFieldValue("my_str"));
+        assertNull(lazy.getLazyFieldValues());
+    }
+
+}
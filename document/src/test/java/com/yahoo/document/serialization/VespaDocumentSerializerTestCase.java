@@ -4,14 +4,19 @@ package com.yahoo.document.serialization;
 import com.yahoo.document.DataType;
 import com.yahoo.document.Document;
 import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.Field;
+import com.yahoo.document.fieldset.FieldSetRepo;
 import com.yahoo.document.datatypes.IntegerFieldValue;
 import com.yahoo.document.datatypes.PredicateFieldValue;
+import com.yahoo.document.datatypes.Raw;
 import com.yahoo.document.datatypes.StringFieldValue;
 import com.yahoo.io.GrowableByteBuffer;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -47,4 +52,34 @@ public class VespaDocumentSerializerTestCase {
         Mockito.verify(predicate, Mockito.times(1)).serialize(Mockito.same(field), Mockito.any(FieldWriter.class));
     }
 
+    @Test
+    public void fields_not_in_field_set_are_skipped() {
+        DocumentTypeManager manager = new DocumentTypeManager();
+        DocumentType docType = new DocumentType("my_type");
+        docType.addField("my_str", DataType.STRING);
+        docType.addField("my_int", DataType.INT);
+        docType.addField("my_raw", DataType.RAW);
+        manager.register(docType);
+        Document doc = new Document(docType, "id:ns:my_type::");
+        doc.setFieldValue("my_str", new StringFieldValue("foo"));
+        doc.setFieldValue("my_int", new IntegerFieldValue(69));
+        doc.setFieldValue("my_raw", new Raw(new byte[1 << 10]));
+
+        GrowableByteBuffer buf = new GrowableByteBuffer();
+        doc.serialize(buf);
+        buf.flip();
+        FieldSetRepo repo = new FieldSetRepo();
+        for (String fieldSet : List.of("[all]", "[document]", "[id]", "[none]", "my_type:my_str,my_int", "my_type:my_raw")) {
+            Document expected = new Document(DocumentDeserializerFactory.createHead(manager, buf.duplicate()));
+            repo.stripFields(expected, repo.parse(manager, fieldSet));
+
+            Document projected = new Document(DocumentDeserializerFactory.createHead(manager, buf.duplicate(), repo.parse(manager, fieldSet)));
+            assertEquals(fieldSet, expected, projected);
+
+            Document lazy = new Document(new VespaDocumentDeserializerHead(manager, buf.duplicate()).withLazyFields()
+                                                                                             .withFieldSet(repo.parse(manager, fieldSet)));
+            assertEquals(fieldSet, expected, lazy);
+        }
+    }
+
 }
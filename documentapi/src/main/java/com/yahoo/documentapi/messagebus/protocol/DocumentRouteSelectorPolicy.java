@@ -154,7 +154,7 @@ public class DocumentRouteSelectorPolicy
         switch (msg.getType()) {
 
         case DocumentProtocol.MESSAGE_PUTDOCUMENT:
-            return selector.accepts(((PutDocumentMessage)msg).getDocumentPut()) == Result.TRUE;
+            return selector.accepts(((PutDocumentMessage)msg).inspectDocumentPut()) == Result.TRUE;
 
         case DocumentProtocol.MESSAGE_UPDATEDOCUMENT:
             return selector.accepts(((UpdateDocumentMessage)msg).getDocumentUpdate()) != Result.FALSE;
@@ -14,6 +14,7 @@ import java.util.Arrays;
 public class PutDocumentMessage extends TestAndSetMessage {
 
     private DocumentDeserializer buffer = null;
+    private ByteBuffer serialized = null;
     private DocumentPut put = null;
     private long time = 0;
     private LazyDecoder decoder = null;
@@ -43,18 +44,31 @@ public class PutDocumentMessage extends TestAndSetMessage {
 
     /**
      * This method will make sure that any serialized content is deserialized into proper message content on first
-     * entry. Any subsequent entry into this function will do nothing.
+     * entry. Any subsequent entry into this function will do nothing. The serialized content is kept, and used for
+     * encoding this again, until the content is possibly modified, so unmodified puts are forwarded verbatim.
      */
     private void deserialize() {
         if (decoder != null && buffer != null) {
+            ByteBuffer original = buffer.getBuf().getByteBuffer().slice();
             decoder.decode(this, buffer);
             decoder = null;
             buffer = null;
+            serialized = original;
         }
     }
 
-    /** Returns the document put operation */
+    /** Returns the document put operation. As the returned operation may be modified, the serialized form of this is discarded */
     public DocumentPut getDocumentPut() {
+        deserialize();
+        serialized = null;
+        return put;
+    }
+
+    /**
+     * Returns the document put operation, for inspection only, e.g., by document selection or bucket calculation during routing.
+     * The returned operation must not be modified, as this is then forwarded with its original serialized form.
+     */
+    DocumentPut inspectDocumentPut() {
         deserialize();
         return put;
     }
@@ -63,6 +77,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
     public void setDocumentPut(DocumentPut put) {
         buffer = null;
         decoder = null;
+        serialized = null;
         this.put = put;
     }
 
@@ -74,19 +89,22 @@ public class PutDocumentMessage extends TestAndSetMessage {
 
     /** Sets the timestamp of the document to put */
     public void setTimestamp(long time) {
-        buffer = null;
-        decoder = null;
+        deserialize();
+        serialized = null;
         this.time = time;
     }
 
     /**
      * Returns the raw serialized buffer. This buffer is stored as the message is received from accross the network, and
-     * deserialized from as soon as a member is requested. This method will return null if the buffer has been decoded.
+     * deserialized from as soon as a member is requested. It is kept after decoding, and forwarded verbatim, while the
+     * message is unmodified. This method will return null if there is no such buffer.
      *
      * @return the buffer containing the serialized data for this message, or null
      */
     ByteBuffer getSerializedBuffer() {
-        return buffer != null ? buffer.getBuf().getByteBuffer() : null; // TODO: very dirty. Must make interface.
+        if (buffer != null) return buffer.getBuf().getByteBuffer().slice(); // TODO: very dirty. Must make interface.
+        deserialize();
+        return serialized != null ? serialized.duplicate() : null;
     }
 
     @Override
@@ -126,6 +144,8 @@ public class PutDocumentMessage extends TestAndSetMessage {
 
     @Override
     public void setCondition(TestAndSetCondition condition) {
+        deserialize();
+        serialized = null;
         put.setCondition(condition);
     }
 
@@ -9,6 +9,7 @@ import com.yahoo.document.DocumentUpdate;
 import com.yahoo.document.TestAndSetCondition;
 import com.yahoo.document.serialization.DocumentDeserializer;
 import com.yahoo.document.serialization.DocumentSerializer;
+import com.yahoo.document.serialization.VespaDocumentDeserializer6;
 import com.yahoo.messagebus.Routable;
 import com.yahoo.vdslib.DocumentSummary;
 import com.yahoo.vdslib.SearchResult;
@@ -603,7 +604,24 @@ public abstract class RoutableFactories60 {
     }
 
     public static class PutDocumentMessageFactory extends DocumentMessageFactory {
+
+        private final boolean lazyFields;
+
+        public PutDocumentMessageFactory() {
+            this(false);
+        }
+
+        /**
+         * Creates a factory which, if lazyFields is set, decodes the fields of documents only when these are first accessed.
+         * Documents with lazy fields must not be read by several threads; see {@link Document#setLazyFieldValues}.
+         */
+        public PutDocumentMessageFactory(boolean lazyFields) {
+            this.lazyFields = lazyFields;
+        }
+
         protected void decodeInto(PutDocumentMessage msg, DocumentDeserializer buf) {
+            // Fields are deserialized only if accessed, and the rest are copied if the document is serialized again.
+            if (lazyFields && buf instanceof VespaDocumentDeserializer6) ((VespaDocumentDeserializer6) buf).withLazyFields();
             msg.setDocumentPut(new DocumentPut(Document.createDocument(buf)));
             msg.setTimestamp(buf.getLong(null));
             decodeTasCondition(msg, buf);
@@ -0,0 +1,115 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi.messagebus.protocol;
+
+import com.yahoo.component.Version;
+import com.yahoo.component.VersionSpecification;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.TestAndSetCondition;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.select.DocumentSelector;
+import com.yahoo.document.select.Result;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author agent
+ */
+public class PutDocumentMessageTest {
+
+    private final Version version = new Version(6, 221);
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentProtocol protocol;
+    private final DocumentProtocol lazyProtocol;
+    private final byte[] data;
+
+    public PutDocumentMessageTest() throws Exception {
+        DocumentType type = new DocumentType("music");
+        type.addField("artist", DataType.STRING);
+        type.addField("title", DataType.STRING);
+        manager.register(type);
+        protocol = new DocumentProtocol(manager);
+        lazyProtocol = new DocumentProtocol(manager).putRoutableFactory(DocumentProtocol.MESSAGE_PUTDOCUMENT,
+                                                                        new RoutableFactories60.PutDocumentMessageFactory(true),
+                                                                        new VersionSpecification(6, 221));
+
+        Document document = new Document(type, "id:ns:music::0");
+        document.setFieldValue("artist", new StringFieldValue("foo"));
+        document.setFieldValue("title", new StringFieldValue("bar"));
+        PutDocumentMessage message = new PutDocumentMessage(new DocumentPut(document));
+        message.setTimestamp(123);
+        message.setCondition(new TestAndSetCondition("music.title == \"bar\""));
+        data = protocol.encode(version, message);
+    }
+
+    private PutDocumentMessage decode() {
+        return (PutDocumentMessage) lazyProtocol.decode(version, data);
+    }
+
+    @Test
+    public void eagerly_decoded_message_is_forwarded_verbatim() {
+        PutDocumentMessage message = (PutDocumentMessage) protocol.decode(version, data);
+        assertNotNull(message.getSerializedBuffer());
+        assertNull(message.inspectDocumentPut().getDocument().getLazyFieldValues());
+        assertEquals(123, message.getTimestamp());
+        assertNotNull(message.getSerializedBuffer());
+        assertArrayEquals(data, protocol.encode(version, message));
+
+        message.setTimestamp(321);
+        assertNull(message.getSerializedBuffer());
+    }
+
+    @Test
+    public void fully_deserialized_message_is_forwarded_verbatim() {
+        PutDocumentMessage message = decode();
+        Document document = message.inspectDocumentPut().getDocument();
+        assertEquals(new StringFieldValue("foo"), document.getFieldValue("artist"));
+        assertEquals(new StringFieldValue("bar"), document.getFieldValue("title"));
+        assertNotNull(message.getSerializedBuffer());
+        assertArrayEquals(data, protocol.encode(version, message));
+    }
+
+
+    @Test
+    public void inspected_message_is_forwarded_verbatim() throws Exception {
+        PutDocumentMessage message = decode();
+        assertNotNull(message.getSerializedBuffer());
+        assertArrayEquals(data, protocol.encode(version, message));
+
+        // Inspection by routing, and other read-only access, keeps the serialized form.
+        assertEquals(Result.TRUE, new DocumentSelector("music.artist == \"foo\"").accepts(message.inspectDocumentPut()));
+        assertEquals(123, message.getTimestamp());
+        assertEquals("music.title == \"bar\"", message.getCondition().getSelection());
+        assertNotNull(message.getSerializedBuffer());
+        assertArrayEquals(data, protocol.encode(version, message));
+        assertArrayEquals(data, protocol.encode(version, message));
+    }
+
+    @Test
+    public void possibly_modified_message_is_serialized_again() {
+        PutDocumentMessage message = decode();
+        message.setTimestamp(321);
+        assertNull(message.getSerializedBuffer());
+        assertEquals(321, ((PutDocumentMessage) protocol.decode(version, protocol.encode(version, message))).getTimestamp());
+
+        message = decode();
+        message.getDocumentPut().getDocument().setFieldValue("artist", new StringFieldValue("baz"));
+        assertNull(message.getSerializedBuffer());
+        assertEquals(new StringFieldValue("baz"),
+                     ((PutDocumentMessage) protocol.decode(version, protocol.encode(version, message))).getDocumentPut().getDocument().getFieldValue("artist"));
+
+        message = decode();
+        message.setCondition(new TestAndSetCondition("music.title == \"baz\""));
+        assertNull(message.getSerializedBuffer());
+        assertEquals("music.title == \"baz\"",
+                     ((PutDocumentMessage) protocol.decode(version, protocol.encode(version, message))).getCondition().getSelection());
+    }
+
+}
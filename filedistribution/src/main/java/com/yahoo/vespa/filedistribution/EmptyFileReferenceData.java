@@ -43,6 +43,11 @@ public class EmptyFileReferenceData extends FileReferenceData {
         return xxhash;
     }
 
+    @Override
+    public long contentXxhash() {
+        return xxhash;
+    }
+
     @Override
     public long size() {
         return content.length;
@@ -38,12 +38,19 @@ public class FileDownloader implements AutoCloseable {
     private final File downloadDirectory;
     private final Duration timeout;
     private final FileReferenceDownloader fileReferenceDownloader;
+    private final FileReceiver fileReceiver;
+    private final Optional<PeerFileServer> peerFileServer;
     private final Downloads downloads = new Downloads();
 
     public FileDownloader(ConnectionPool connectionPool, Supervisor supervisor, Duration timeout, Set<CompressionType> acceptedCompressionTypes) {
         this(connectionPool, supervisor, defaultDownloadDirectory, timeout, defaultSleepBetweenRetries, acceptedCompressionTypes);
     }
 
+    public FileDownloader(ConnectionPool connectionPool, Supervisor supervisor, Duration timeout,
+                          Set<CompressionType> acceptedCompressionTypes, Optional<String> peerSpec) {
+        this(connectionPool, supervisor, defaultDownloadDirectory, timeout, defaultSleepBetweenRetries, acceptedCompressionTypes, peerSpec);
+    }
+
     public FileDownloader(ConnectionPool connectionPool, Supervisor supervisor, File downloadDirectory, Duration timeout, Set<CompressionType> acceptedCompressionTypes) {
         this(connectionPool, supervisor, downloadDirectory, timeout, defaultSleepBetweenRetries, acceptedCompressionTypes);
     }
@@ -54,18 +61,36 @@ public class FileDownloader implements AutoCloseable {
                           Duration timeout,
                           Duration sleepBetweenRetries,
                           Set<CompressionType> acceptedCompressionTypes) {
+        this(connectionPool, supervisor, downloadDirectory, timeout, sleepBetweenRetries, acceptedCompressionTypes, Optional.empty());
+    }
+
+    /**
+     * Creates a file downloader which, if given the spec its supervisor listens on, also serves the files it has
+     * downloaded to its peers, advertises these to the config servers, and prefers downloading from peers.
+     */
+    public FileDownloader(ConnectionPool connectionPool,
+                          Supervisor supervisor,
+                          File downloadDirectory,
+                          Duration timeout,
+                          Duration sleepBetweenRetries,
+                          Set<CompressionType> acceptedCompressionTypes,
+                          Optional<String> peerSpec) {
         this.connectionPool = connectionPool;
         this.supervisor = supervisor;
         this.downloadDirectory = downloadDirectory;
         this.timeout = timeout;
         // Needed to receive RPC receiveFile* calls from server after starting download of file reference
-        new FileReceiver(supervisor, downloads, downloadDirectory);
+        this.fileReceiver = new FileReceiver(supervisor, downloads, downloadDirectory, this::downloadInParallel);
         this.fileReferenceDownloader = new FileReferenceDownloader(connectionPool,
                                                                    downloads,
                                                                    timeout,
                                                                    sleepBetweenRetries,
                                                                    downloadDirectory,
-                                                                   acceptedCompressionTypes);
+                                                                   acceptedCompressionTypes,
+                                                                   fileReceiver,
+                                                                   supervisor,
+                                                                   peerSpec);
+        this.peerFileServer = peerSpec.map(__ -> new PeerFileServer(supervisor, downloadDirectory));
         if (forceDownload)
             log.log(Level.INFO, "Force download of file references (download even if file reference exists on disk)");
     }
@@ -105,7 +130,7 @@ public class FileDownloader implements AutoCloseable {
         return getFileFromFileSystem(fileReference, downloadDirectory);
     }
 
-    private static Optional<File> getFileFromFileSystem(FileReference fileReference, File downloadDirectory) {
+    static Optional<File> getFileFromFileSystem(FileReference fileReference, File downloadDirectory) {
         if (forceDownload) return Optional.empty();
 
         File[] files = new File(downloadDirectory, fileReference.value()).listFiles();
@@ -144,9 +169,15 @@ public class FileDownloader implements AutoCloseable {
         return fileReferenceDownloader.startDownload(fileReferenceDownload);
     }
 
+    private void downloadInParallel(FileReference fileReference, int parts) {
+        fileReferenceDownloader.downloadInParallel(fileReference, parts);
+    }
+
     public void close() {
         fileReferenceDownloader.close();
+        peerFileServer.ifPresent(PeerFileServer::close);
         supervisor.transport().shutdown().join();
+        fileReceiver.close();
     }
 
     public static ConnectionPool emptyConnectionPool() {
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +30,11 @@ import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType
  * When asking for a file reference, this handles RPC callbacks from config server with file data and metadata.
  * Uses the same Supervisor as the original caller that requests files, so communication uses the same
  * connection in both directions.
+ * Clients which ask for a starting part when requesting a file receive it as chunks of a fixed size, each with its own
+ * hash, which are written to a preallocated {@link PartialFile} in any order; plain files, which are identical on all
+ * sources, may then be received over several connections at once, and downloads resume from the parts still missing.
+ * Parts are hashed by their senders, which may be peers, so files with an expected hash, from a config server, are also
+ * verified as a whole before they are completed.
  *
  * @author baldersheim
  */
@@ -38,12 +44,20 @@ public class FileReceiver {
     public final static String RECEIVE_META_METHOD = "filedistribution.receiveFileMeta";
     public final static String RECEIVE_PART_METHOD = "filedistribution.receiveFilePart";
     public final static String RECEIVE_EOF_METHOD = "filedistribution.receiveFileEof";
+    public final static String RECEIVE_CHUNK_METHOD = "filedistribution.receiveFileChunk";
+
+    /** Return value for a chunk which was already received, e.g., over another connection, telling the sender to stop. */
+    public final static int CHUNK_NOT_NEEDED = 2;
 
     private final Supervisor supervisor;
     private final Downloads downloads;
     private final File downloadDirectory;
     private final AtomicInteger nextSessionId = new AtomicInteger(1);
     private final Map<Integer, Session> sessions = new HashMap<>();
+    private final Map<Integer, PartialFile> chunkSessions = new HashMap<>();
+    private final Map<FileReference, PartialFile> partialFiles = new HashMap<>();
+    private final Map<FileReference, Long> expectedHashes = new HashMap<>();
+    private final BiConsumer<FileReference, Integer> partsToDownload;
 
     final static class Session {
         private final StreamingXXHash64 hasher;
@@ -114,33 +128,7 @@ public class FileReceiver {
 
         File close(long hash) {
             verifyHash(hash);
-
-            File file = new File(fileReferenceDir, fileName);
-            File decompressedDir = null;
-            try {
-                if (fileType == Type.file) {
-                    try {
-                        Files.createDirectories(fileReferenceDir.toPath());
-                    } catch (IOException e) {
-                        log.log(Level.SEVERE, "Failed creating directory (" + fileReferenceDir.toPath() + "): " + e.getMessage(), e);
-                        throw new RuntimeException("Failed creating directory (" + fileReferenceDir.toPath() + "): ", e);
-                    }
-                    log.log(Level.FINE, () -> "Uncompressed file, moving to " + file.getAbsolutePath());
-                    moveFileToDestination(inprogressFile, file);
-                } else {
-                    decompressedDir = Files.createTempDirectory(tmpDir.toPath(), "archive").toFile();
-                    log.log(Level.FINE, () -> "compression type to use=" + compressionType);
-                    new FileReferenceCompressor(fileType, compressionType).decompress(inprogressFile, decompressedDir);
-                    moveFileToDestination(decompressedDir, fileReferenceDir);
-                }
-            } catch (IOException e) {
-                log.log(Level.SEVERE, "Failed writing file: " + e.getMessage(), e);
-                throw new RuntimeException("Failed writing file: ", e);
-            } finally {
-                deletePath(inprogressFile);
-                deletePath(decompressedDir);
-            }
-            return file;
+            return moveToDestination(inprogressFile, tmpDir, reference, fileName, fileType, compressionType);
         }
 
         double percentageReceived() {
@@ -155,12 +143,56 @@ public class FileReceiver {
     }
 
     FileReceiver(Supervisor supervisor, Downloads downloads, File downloadDirectory) {
+        this(supervisor, downloads, downloadDirectory, (reference, parts) -> { });
+    }
+
+    /**
+     * Creates a new file receiver, which calls the given consumer with the file reference and number of parts
+     * whenever it starts receiving a new file which may be downloaded from several sources at once.
+     */
+    FileReceiver(Supervisor supervisor, Downloads downloads, File downloadDirectory, BiConsumer<FileReference, Integer> partsToDownload) {
         this.supervisor = supervisor;
         this.downloads = downloads;
         this.downloadDirectory = downloadDirectory;
+        this.partsToDownload = partsToDownload;
         registerMethods();
     }
 
+    /** Returns the first part still missing of the given file reference, i.e., where a new request for it should start. */
+    int firstMissingPart(FileReference reference) {
+        synchronized (partialFiles) {
+            PartialFile partial = partialFiles.get(reference);
+            return partial == null ? 0 : partial.firstMissingPart(0);
+        }
+    }
+
+    /** Returns whether some, but not all, parts of the given file reference have been received. */
+    boolean isPartial(FileReference reference) {
+        synchronized (partialFiles) {
+            return partialFiles.containsKey(reference);
+        }
+    }
+
+    /** Sets the xxhash64 the given file reference must have when it is completed, which is then verified. */
+    void expectHash(FileReference reference, long xxhash) {
+        synchronized (partialFiles) {
+            expectedHashes.put(reference, xxhash);
+        }
+    }
+
+    /** Discards all partially received files. */
+    void close() {
+        synchronized (partialFiles) {
+            partialFiles.values().forEach(PartialFile::discard);
+            partialFiles.clear();
+            expectedHashes.clear();
+        }
+        synchronized (sessions) {
+            chunkSessions.values().forEach(PartialFile::discard);
+            chunkSessions.clear();
+        }
+    }
+
     private void registerMethods() {
         receiveFileMethod().forEach(supervisor::addMethod);
     }
@@ -190,9 +222,47 @@ public class FileReceiver {
                 .paramDesc(3, "error-code", "Error code. 0 if none")
                 .paramDesc(4, "error-description", "Error description.")
                 .returnDesc(0, "ret", "0 if success, 1 if crc mismatch, 2 otherwise"));
+        methods.add(new Method(RECEIVE_CHUNK_METHOD, "siilx", "i", this::receiveFileChunk)
+                .paramDesc(0, "filereference", "file reference to download")
+                .paramDesc(1, "session-id", "Session id to be used for this transfer")
+                .paramDesc(2, "partid", "part number, starting at zero, of this fixed-size part of the file")
+                .paramDesc(3, "xxhash", "xxhash64 of the bytes in this part")
+                .paramDesc(4, "data", "bytes in this part")
+                .returnDesc(0, "ret", "0 if success, 1 if error, 2 if the part is not needed, and the sender should stop"));
         return methods;
     }
 
+    private static File moveToDestination(File inprogressFile, File downloadDirectory, FileReference reference,
+                                          String fileName, Type fileType, CompressionType compressionType) {
+        File fileReferenceDir = new File(downloadDirectory, reference.value());
+        File file = new File(fileReferenceDir, fileName);
+        File decompressedDir = null;
+        try {
+            if (fileType == Type.file) {
+                try {
+                    Files.createDirectories(fileReferenceDir.toPath());
+                } catch (IOException e) {
+                    log.log(Level.SEVERE, "Failed creating directory (" + fileReferenceDir.toPath() + "): " + e.getMessage(), e);
+                    throw new RuntimeException("Failed creating directory (" + fileReferenceDir.toPath() + "): ", e);
+                }
+                log.log(Level.FINE, () -> "Uncompressed file, moving to " + file.getAbsolutePath());
+                moveFileToDestination(inprogressFile, file);
+            } else {
+                decompressedDir = Files.createTempDirectory(downloadDirectory.toPath(), "archive").toFile();
+                log.log(Level.FINE, () -> "compression type to use=" + compressionType);
+                new FileReferenceCompressor(fileType, compressionType).decompress(inprogressFile, decompressedDir);
+                moveFileToDestination(decompressedDir, fileReferenceDir);
+            }
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "Failed writing file: " + e.getMessage(), e);
+            throw new RuntimeException("Failed writing file: ", e);
+        } finally {
+            deletePath(inprogressFile);
+            deletePath(decompressedDir);
+        }
+        return file;
+    }
+
     private static void moveFileToDestination(File tempFile, File destination) {
         try {
             Files.move(tempFile.toPath(), destination.toPath());
@@ -235,6 +305,13 @@ public class FileReceiver {
                 ? CompressionType.valueOf(req.parameters().get(4).asString())
                 : CompressionType.gzip; // fallback/legacy compression type
         int sessionId = nextSessionId.getAndIncrement();
+        if (req.parameters().size() > 6) {
+            int partSize = req.parameters().get(5).asInt32();
+            long xxhash = req.parameters().get(6).asInt64();
+            req.returnValues().add(new Int32Value(startChunkSession(sessionId, reference, fileName, type, compressionType, fileSize, partSize, xxhash)));
+            req.returnValues().add(new Int32Value(sessionId));
+            return;
+        }
         int retval = 0;
         synchronized (sessions) {
             if (sessions.containsKey(sessionId)) {
@@ -253,6 +330,105 @@ public class FileReceiver {
         req.returnValues().add(new Int32Value(sessionId));
     }
 
+    private int startChunkSession(int sessionId, FileReference reference, String fileName, Type type,
+                                  CompressionType compressionType, long fileSize, int partSize, long xxhash) {
+        PartialFile partial;
+        boolean created = false;
+        try {
+            // Compressed files are created by each source, and their content differs between sources, so only plain files are shared.
+            if (type == Type.file) {
+                synchronized (partialFiles) {
+                    partial = partialFiles.get(reference);
+                    if (partial == null || ! partial.matches(fileName, type, compressionType, fileSize, partSize, xxhash)) {
+                        if (partial != null) partial.discard();
+                        partial = new PartialFile(downloadDirectory, reference, fileName, type, compressionType, fileSize, partSize, xxhash);
+                        partialFiles.put(reference, partial);
+                        created = true;
+                    }
+                }
+            }
+            else {
+                partial = new PartialFile(downloadDirectory, reference, fileName, type, compressionType, fileSize, partSize, xxhash);
+            }
+        }
+        catch (RuntimeException e) {
+            log.log(Level.SEVERE, "Failed starting download of " + reference + ": " + e.getMessage(), e);
+            return 1;
+        }
+        synchronized (sessions) {
+            chunkSessions.put(sessionId, partial);
+        }
+        if (created) partsToDownload.accept(reference, partial.parts());
+        return 0;
+    }
+
+    private void receiveFileChunk(Request req) {
+        log.log(Level.FINEST, () -> "Received method call '" + req.methodName() + "' with parameters : " + req.parameters());
+
+        FileReference reference = new FileReference(req.parameters().get(0).asString());
+        int sessionId = req.parameters().get(1).asInt32();
+        int partId = req.parameters().get(2).asInt32();
+        long xxhash = req.parameters().get(3).asInt64();
+        byte[] part = req.parameters().get(4).asData();
+        PartialFile partial = getChunkSession(sessionId);
+        int retval = verifySession(partial == null ? null : partial.reference(), sessionId, reference);
+        if (retval == 0) {
+            if (partial.has(partId)) {
+                retval = CHUNK_NOT_NEEDED;
+            }
+            else {
+                try {
+                    partial.write(partId, xxhash, part);
+                } catch (Exception e) {
+                    log.severe("Got exception " + e);
+                    retval = 1;
+                }
+                double completeness = partial.completeness();
+                log.log(Level.FINEST, () -> String.format("%.1f percent of '%s' downloaded", completeness * 100, reference.value()));
+                downloads.setDownloadStatus(reference, completeness);
+                if (partial.complete())
+                    retval = completeDownload(partial);
+            }
+        }
+        req.returnValues().add(new Int32Value(retval));
+    }
+
+    private int completeDownload(PartialFile partial) {
+        Long expectedHash;
+        synchronized (partialFiles) {
+            partialFiles.remove(partial.reference(), partial);
+            expectedHash = expectedHashes.remove(partial.reference());
+        }
+        try {
+            File received = partial.release();
+            // Files from peers must have the hash the config server expects, and all others the one their senders gave
+            long expected = expectedHash != null ? expectedHash : partial.xxhash();
+            if (partial.xxhash() != expected || ! verifyHash(received, expected)) {
+                deletePath(received);
+                log.log(Level.WARNING, "Discarding " + partial.reference() + ", as its xxhash is not the expected " + expected);
+                return 1;
+            }
+            File file = moveToDestination(received, downloadDirectory, partial.reference(), partial.fileName(),
+                                          partial.type(), partial.compressionType());
+            downloads.completedDownloading(partial.reference(), file);
+            return 0;
+        }
+        catch (RuntimeException e) {
+            log.log(Level.SEVERE, "Failed completing download of " + partial.reference() + ": " + e.getMessage(), e);
+            return 1;
+        }
+    }
+
+    private static boolean verifyHash(File file, long expectedHash) {
+        try {
+            return LazyFileReferenceData.xxhash(file) == expectedHash;
+        }
+        catch (IOException e) {
+            log.log(Level.WARNING, "Failed reading '" + file + "': " + e.getMessage());
+            return false;
+        }
+    }
+
     private void receiveFilePart(Request req) {
         log.log(Level.FINEST, () -> "Received method call '" + req.methodName() + "' with parameters : " + req.parameters());
 
@@ -281,6 +457,21 @@ public class FileReceiver {
         FileReference reference = new FileReference(req.parameters().get(0).asString());
         int sessionId = req.parameters().get(1).asInt32();
         long xxhash = req.parameters().get(2).asInt64();
+        PartialFile partial;
+        synchronized (sessions) {
+            partial = chunkSessions.remove(sessionId);
+        }
+        if (partial != null) {
+            // Parts are verified individually, and the hash here is ignored, as senders stop early when the rest was received elsewhere.
+            // Whole files are instead verified against the hash sent with the meta request, see completeDownload.
+            int retval = verifySession(partial.reference(), sessionId, reference);
+            if (retval == 0 && partial.complete())
+                retval = completeDownload(partial);
+            else if (partial.type() != Type.file) // Not shared with other sessions, so no other session can complete it.
+                partial.discard();
+            req.returnValues().add(new Int32Value(retval));
+            return;
+        }
         Session session = getSession(sessionId);
         int retval = verifySession(session, sessionId, reference);
         File file = session.close(xxhash);
@@ -297,13 +488,23 @@ public class FileReceiver {
         }
     }
 
+    private PartialFile getChunkSession(Integer sessionId) {
+        synchronized (sessions) {
+            return chunkSessions.get(sessionId);
+        }
+    }
+
     private static int verifySession(Session session, int sessionId, FileReference reference) {
-        if (session == null) {
+        return verifySession(session == null ? null : session.reference, sessionId, reference);
+    }
+
+    private static int verifySession(FileReference sessionReference, int sessionId, FileReference reference) {
+        if (sessionReference == null) {
             log.severe("session-id " + sessionId + " does not exist.");
             return 1;
         }
-        if (! session.reference.equals(reference)) {
-            log.severe("Session " + session.sessionId + " expects reference " + reference.value() + ", but was " + session.reference.value());
+        if (! sessionReference.equals(reference)) {
+            log.severe("Session " + sessionId + " expects reference " + reference.value() + ", but was " + sessionReference.value());
             return 1;
         }
         return 0;
@@ -2,6 +2,9 @@
 package com.yahoo.vespa.filedistribution;
 
 import com.google.common.io.ByteStreams;
+import com.yahoo.compress.ZstdInputStream;
+import com.yahoo.compress.ZstdOutputStream;
+import com.yahoo.concurrent.DaemonThreadFactory;
 import net.jpountz.lz4.LZ4BlockInputStream;
 import net.jpountz.lz4.LZ4BlockOutputStream;
 import org.apache.commons.compress.archivers.ArchiveEntry;
@@ -20,6 +23,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -27,7 +32,8 @@ import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 /**
- * Utility class for compressing and decompressing files used in a file reference
+ * Utility class for compressing and decompressing files used in a file reference.
+ * Zstd compression is done in independent frames, which are compressed and decompressed in parallel.
  *
  * @author hmusum
  */
@@ -35,6 +41,10 @@ public class FileReferenceCompressor {
 
     private static final Logger log = Logger.getLogger(FileReferenceCompressor.class.getName());
     private static final int recurseDepth = 100;
+    private static final int zstdFrameSize = 1 << 20;
+    private static final int zstdParallelism = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService zstdExecutor = Executors.newFixedThreadPool(zstdParallelism,
+                                                                                     new DaemonThreadFactory("file-reference-zstd-"));
 
     private final FileReferenceData.Type type;
     private final FileReferenceData.CompressionType compressionType;
@@ -126,6 +136,8 @@ public class FileReferenceCompressor {
                         return new GZIPOutputStream(new FileOutputStream(outputFile));
                     case lz4:
                         return new LZ4BlockOutputStream(new FileOutputStream(outputFile));
+                    case zstd:
+                        return new ZstdOutputStream(new FileOutputStream(outputFile), zstdFrameSize, zstdExecutor, zstdParallelism);
                     default:
                         throw new RuntimeException("Unknown compression type " + compressionType);
                 }
@@ -145,6 +157,8 @@ public class FileReferenceCompressor {
                         return new GZIPInputStream(new FileInputStream(inputFile));
                     case lz4:
                         return new LZ4BlockInputStream(new FileInputStream(inputFile));
+                    case zstd:
+                        return new ZstdInputStream(new FileInputStream(inputFile), zstdExecutor, zstdParallelism);
                     default:
                         throw new RuntimeException("Unknown compression type " + compressionType);
                 }
@@ -56,6 +56,9 @@ public abstract class FileReferenceData {
      */
     public abstract long xxhash();
 
+    /** Returns the xxhash64 of all the content, i.e., what {@link #xxhash()} is when all is consumed, without consuming any. */
+    public abstract long contentXxhash();
+
     /**
      * The size of the content in bytes
      *
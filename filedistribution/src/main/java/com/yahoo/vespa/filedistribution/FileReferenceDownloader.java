@@ -4,16 +4,27 @@ package com.yahoo.vespa.filedistribution;
 import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.config.FileReference;
 import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int64Value;
 import com.yahoo.jrt.Request;
+import com.yahoo.jrt.Spec;
 import com.yahoo.jrt.StringArray;
 import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Supervisor;
 import com.yahoo.vespa.config.Connection;
 import com.yahoo.vespa.config.ConnectionPool;
+import com.yahoo.vespa.config.JRTConnection;
 import java.io.File;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -25,13 +36,18 @@ import java.util.logging.Logger;
 import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType;
 
 /**
- * Downloads file reference from config server and keeps track of files being downloaded
+ * Downloads file reference from config server and keeps track of files being downloaded.
+ * Large plain files are downloaded as ranges of parts from several config servers in parallel, and
+ * downloads which fail part-way resume from the first part still missing.
  *
  * @author hmusum
  */
 public class FileReferenceDownloader {
 
     private final static Logger log = Logger.getLogger(FileReferenceDownloader.class.getName());
+    private static final int maxParallelDownloads = 4;
+    private static final int minPartsPerDownload = 16;
+    private static final Duration peerRpcTimeout = Duration.ofSeconds(5);
 
     private final ExecutorService downloadExecutor =
             Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()),
@@ -43,13 +59,21 @@ public class FileReferenceDownloader {
     private final Duration rpcTimeout;
     private final File downloadDirectory;
     private final Set<CompressionType> acceptedCompressionTypes;
+    private final FileReceiver fileReceiver;
+    private final Supervisor supervisor;
+    private final Optional<String> peerSpec;
+    private final Map<FileReference, List<String>> activeRequests = new HashMap<>(); // addresses of the sources of active requests
+    private final Random random = new Random();
 
     FileReferenceDownloader(ConnectionPool connectionPool,
                             Downloads downloads,
                             Duration timeout,
                             Duration sleepBetweenRetries,
                             File downloadDirectory,
-                            Set<CompressionType> acceptedCompressionTypes) {
+                            Set<CompressionType> acceptedCompressionTypes,
+                            FileReceiver fileReceiver,
+                            Supervisor supervisor,
+                            Optional<String> peerSpec) {
         this.connectionPool = connectionPool;
         this.downloads = downloads;
         this.downloadTimeout = timeout;
@@ -58,6 +82,9 @@ public class FileReferenceDownloader {
         String timeoutString = System.getenv("VESPA_CONFIGPROXY_FILEDOWNLOAD_RPC_TIMEOUT");
         this.rpcTimeout = Duration.ofSeconds(timeoutString == null ? 30 : Integer.parseInt(timeoutString));
         this.acceptedCompressionTypes = requireNonEmpty(acceptedCompressionTypes);
+        this.fileReceiver = fileReceiver;
+        this.supervisor = supervisor;
+        this.peerSpec = peerSpec;
     }
 
     private void waitUntilDownloadStarted(FileReferenceDownload fileReferenceDownload) {
@@ -70,7 +97,10 @@ public class FileReferenceDownloader {
 
             if (FileDownloader.fileReferenceExists(fileReference, downloadDirectory))
                 return;
-            if (startDownloadRpc(fileReferenceDownload, retryCount, connection))
+            if (downloadFromPeer(fileReferenceDownload, connection))
+                return;
+            requestStarting(fileReference, connection);
+            if (downloadParts(fileReferenceDownload, retryCount, connection, fileReceiver.firstMissingPart(fileReference)))
                 return;
 
             retryCount++;
@@ -102,22 +132,157 @@ public class FileReferenceDownloader {
 
         log.log(Level.FINE, () -> "Will download " + fileReference + " with timeout " + downloadTimeout);
         downloads.add(fileReferenceDownload);
+        if (peerSpec.isPresent())
+            fileReferenceDownload.future().thenAcceptAsync(file -> file.filter(File::isFile)
+                                                                       .ifPresent(__ -> advertise(fileReference)),
+                                                           downloadExecutor);
         downloadExecutor.submit(() -> waitUntilDownloadStarted(fileReferenceDownload));
         return fileReferenceDownload.future();
     }
 
+    /**
+     * Starts more requests for the given file reference, which has the given number of parts and is already
+     * being received from one source, for ranges of parts from other sources, when there are enough parts.
+     * Each source sends parts from where it starts, until it reaches a part already received from another.
+     * Sources already in use for the file reference are not used again, and nothing is done if there are no others.
+     */
+    void downloadInParallel(FileReference fileReference, int parts) {
+        Optional<FileReferenceDownload> download = downloads.get(fileReference);
+        int maxRequests = Math.min(Math.min(maxParallelDownloads, connectionPool.getSize()), parts / minPartsPerDownload);
+        if (download.isEmpty() || maxRequests < 2) return;
+
+        List<Connection> sources = otherSources(fileReference, maxRequests - 1);
+        if (sources.isEmpty()) return;
+
+        int requests = sources.size() + 1;
+        log.log(Level.FINE, () -> "Downloading " + parts + " parts of " + fileReference + " from " + requests + " sources");
+        for (int i = 1; i < requests; i++) {
+            Connection source = sources.get(i - 1);
+            int firstPart = (int) ((long) parts * i / requests);
+            requestStarting(fileReference, source);
+            downloadExecutor.submit(() -> {
+                if ( ! downloadParts(download.get(), 0, source, firstPart))
+                    waitUntilDownloadStarted(download.get());
+            });
+        }
+    }
+
+    /** Returns up to the given number of distinct sources, which are not already used for the given file reference. */
+    private List<Connection> otherSources(FileReference fileReference, int count) {
+        Set<String> used;
+        synchronized (activeRequests) {
+            used = new HashSet<>(activeRequests.getOrDefault(fileReference, List.of()));
+        }
+        List<Connection> sources = new ArrayList<>();
+        // The pool picks connections at random, so try a few times more than needed to find distinct ones
+        Connection candidate = connectionPool.getCurrent();
+        for (int attempts = 0; sources.size() < count && attempts < 4 * connectionPool.getSize(); attempts++) {
+            if (candidate != null && used.add(candidate.getAddress()))
+                sources.add(candidate);
+            candidate = connectionPool.switchConnection(candidate);
+        }
+        return sources;
+    }
+
+    /**
+     * Downloads the given file reference from a random peer which the given config server knows has it,
+     * and returns whether nothing more is needed from the caller, like {@link #downloadParts}.
+     * Peers are not trusted, so the file must have the hash the config server has for it, or it is discarded.
+     */
+    private boolean downloadFromPeer(FileReferenceDownload fileReferenceDownload, Connection connection) {
+        if (peerSpec.isEmpty()) return false;
+
+        FileReference fileReference = fileReferenceDownload.fileReference();
+        Request request = new Request("filedistribution.getPeers");
+        request.parameters().add(new StringValue(fileReference.value()));
+        connection.invokeSync(request, peerRpcTimeout);
+        if ( ! validateResponse(request, "Sl")) return false;
+
+        List<String> peers = new ArrayList<>(List.of(request.returnValues().get(0).asStringArray()));
+        peers.remove(peerSpec.get());
+        if (peers.isEmpty()) return false;
+
+        long xxhash = request.returnValues().get(1).asInt64();
+        fileReceiver.expectHash(fileReference, xxhash);
+
+        JRTConnection peer = new JRTConnection(peers.get(random.nextInt(peers.size())), supervisor);
+        log.log(Level.FINE, () -> "Downloading " + fileReference + " from peer " + peer.getAddress());
+        try {
+            requestStarting(fileReference, peer);
+            // Peers only serve those who know the hash, i.e., whom the config server allows to download the file
+            boolean done = downloadParts(fileReferenceDownload, 0, peer, fileReceiver.firstMissingPart(fileReference), OptionalLong.of(xxhash));
+            // A peer may claim to have sent a file which it did not send, or which was then discarded
+            return done && (FileDownloader.fileReferenceExists(fileReference, downloadDirectory) || fileReceiver.isPartial(fileReference));
+        }
+        finally {
+            peer.getTarget().close();
+        }
+    }
+
+    /** Tells a config server that this has the given file reference, and serves it to its peers. */
+    private void advertise(FileReference fileReference) {
+        Connection connection = connectionPool.getCurrent();
+        if (connection == null) return;
+
+        Request request = new Request("filedistribution.addPeer");
+        request.parameters().add(new StringArray(new String[] { fileReference.value() }));
+        request.parameters().add(new Int32Value(new Spec(peerSpec.get()).port()));
+        connection.invokeSync(request, peerRpcTimeout);
+        if ( ! validateResponse(request, "i"))
+            log.log(Level.FINE, () -> "Failed advertising " + fileReference + " to " + connection.getAddress() + ": " + request.errorMessage());
+    }
+
+    /**
+     * Requests the given file reference from the given connection, starting at the given part, and returns whether
+     * nothing more is needed from the caller, i.e., whether the file was received, or other requests for it are
+     * still active, and the last of these to finish will resume the download if some parts are still missing.
+     */
+    private boolean downloadParts(FileReferenceDownload fileReferenceDownload, int retryCount, Connection connection, int firstPart) {
+        return downloadParts(fileReferenceDownload, retryCount, connection, firstPart, OptionalLong.empty());
+    }
+
+    private boolean downloadParts(FileReferenceDownload fileReferenceDownload, int retryCount, Connection connection,
+                                  int firstPart, OptionalLong xxhash) {
+        FileReference fileReference = fileReferenceDownload.fileReference();
+        boolean found, last;
+        try {
+            found = startDownloadRpc(fileReferenceDownload, retryCount, connection, firstPart, xxhash);
+        }
+        finally {
+            last = requestDone(fileReference, connection);
+        }
+        return ! last || found && ! fileReceiver.isPartial(fileReference);
+    }
+
+    private void requestStarting(FileReference fileReference, Connection source) {
+        synchronized (activeRequests) {
+            activeRequests.computeIfAbsent(fileReference, __ -> new ArrayList<>()).add(source.getAddress());
+        }
+    }
+
+    /** Returns whether this was the last active request for the given file reference. */
+    private boolean requestDone(FileReference fileReference, Connection source) {
+        synchronized (activeRequests) {
+            return activeRequests.compute(fileReference, (__, sources) -> {
+                if (sources != null) sources.remove(source.getAddress());
+                return sources == null || sources.isEmpty() ? null : sources;
+            }) == null;
+        }
+    }
+
     void failedDownloading(FileReference fileReference) {
         downloads.remove(fileReference);
     }
 
-    private boolean startDownloadRpc(FileReferenceDownload fileReferenceDownload, int retryCount, Connection connection) {
-        Request request = createRequest(fileReferenceDownload);
+    private boolean startDownloadRpc(FileReferenceDownload fileReferenceDownload, int retryCount, Connection connection,
+                                     int firstPart, OptionalLong xxhash) {
+        Request request = createRequest(fileReferenceDownload, firstPart, xxhash);
         Duration rpcTimeout = rpcTimeout(retryCount);
         connection.invokeSync(request, rpcTimeout);
 
         Level logLevel = (retryCount > 3 ? Level.INFO : Level.FINE);
         FileReference fileReference = fileReferenceDownload.fileReference();
-        if (validateResponse(request)) {
+        if (validateResponse(request, "is")) {
             log.log(Level.FINE, () -> "Request callback, OK. Req: " + request + "\nSpec: " + connection);
             int errorCode = request.returnValues().get(0).asInt32();
             if (errorCode == 0) {
@@ -135,13 +300,17 @@ public class FileReferenceDownloader {
         }
     }
 
-    private Request createRequest(FileReferenceDownload fileReferenceDownload) {
+    private Request createRequest(FileReferenceDownload fileReferenceDownload, int firstPart, OptionalLong xxhash) {
         Request request = new Request("filedistribution.serveFile");
         request.parameters().add(new StringValue(fileReferenceDownload.fileReference().value()));
         request.parameters().add(new Int32Value(fileReferenceDownload.downloadFromOtherSourceIfNotFound() ? 0 : 1));
         String[] temp = new String[acceptedCompressionTypes.size()];
         acceptedCompressionTypes.stream().map(Enum::name).toList().toArray(temp);
         request.parameters().add(new StringArray(temp));
+        // Newer servers send the file as chunks, with a hash per chunk, starting at this part
+        request.parameters().add(new Int32Value(firstPart));
+        // Peers require the hash of the file they serve
+        xxhash.ifPresent(hash -> request.parameters().add(new Int64Value(hash)));
         return request;
     }
 
@@ -149,12 +318,12 @@ public class FileReferenceDownloader {
         return Duration.ofSeconds(rpcTimeout.getSeconds()).plus(Duration.ofSeconds(retryCount * 5L));
     }
 
-    private boolean validateResponse(Request request) {
+    private boolean validateResponse(Request request, String returnTypes) {
         if (request.isError()) {
             return false;
         } else if (request.returnValues().size() == 0) {
             return false;
-        } else if (!request.checkReturnTypes("is")) { // TODO: Do not hard-code return type
+        } else if (!request.checkReturnTypes(returnTypes)) {
             log.log(Level.WARNING, "Invalid return types for response: " + request.errorMessage());
             return false;
         }
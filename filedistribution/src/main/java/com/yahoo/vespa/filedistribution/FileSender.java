@@ -0,0 +1,205 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.config.FileReference;
+import com.yahoo.jrt.DataValue;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int64Value;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Target;
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.logging.Logger;
+
+import static com.yahoo.vespa.filedistribution.FileReceiver.CHUNK_NOT_NEEDED;
+import static com.yahoo.vespa.filedistribution.FileReceiver.RECEIVE_CHUNK_METHOD;
+import static com.yahoo.vespa.filedistribution.FileReceiver.RECEIVE_EOF_METHOD;
+import static com.yahoo.vespa.filedistribution.FileReceiver.RECEIVE_META_METHOD;
+import static com.yahoo.vespa.filedistribution.FileReceiver.RECEIVE_PART_METHOD;
+import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType;
+
+/**
+ * Sends file reference data to a {@link FileReceiver} on the other end of the given target, which is the
+ * connection over which the file was requested. Used by config servers, and by nodes serving files to peers.
+ *
+ * @author hmusum
+ */
+public class FileSender {
+
+    private static final Logger log = Logger.getLogger(FileSender.class.getName());
+
+
+    public static final int partSize = 0x100000;
+    private static final XXHash64 hasher = XXHashFactory.fastestInstance().hash64();
+
+    private final Target target;
+    private final OptionalInt firstPart;
+
+    public FileSender(Target target) {
+        this(target, OptionalInt.empty());
+    }
+
+    /** Newer clients specify a first part to send, and then receive the file as chunks, each with its own hash. */
+    public FileSender(Target target, OptionalInt firstPart) {
+        this.target = target;
+        this.firstPart = firstPart;
+    }
+
+    @Override
+    public String toString() {
+        return target.toString();
+    }
+
+    /** Sends the given file data to the target, followed by the given status, which is non-zero if reading the data failed. */
+    public void send(FileReferenceData fileData, int statusCode, String statusDescription) {
+        int session = sendMeta(fileData);
+        if (firstPart.isPresent())
+            sendChunks(session, fileData, firstPart.getAsInt());
+        else
+            sendParts(session, fileData);
+        sendEof(session, fileData, statusCode, statusDescription);
+    }
+
+    /**
+     * Sends all parts from the first part, until a part is already received by the client, e.g., from another source.
+     * The hash sent with eof is then not that of the whole file, so clients receiving chunks verify each of these,
+     * and the whole file against the hash sent with the meta request instead.
+     */
+    private void sendChunks(int session, FileReferenceData fileData, int firstPart) {
+        ByteBuffer bb = ByteBuffer.allocate(partSize);
+        for (int partId = 0; fill(bb, fileData) > 0; partId++) {
+            if (partId >= firstPart && ! sendChunk(session, fileData.fileReference(), partId, Arrays.copyOf(bb.array(), bb.position())))
+                return;
+            bb.clear();
+        }
+    }
+
+    /** Reads content into the given buffer until it is full, or all content is read, and returns the number of bytes in it. */
+    private static int fill(ByteBuffer bb, FileReferenceData fileData) {
+        while (bb.hasRemaining() && fileData.nextContent(bb) >= 0) { }
+        return bb.position();
+    }
+
+    private void sendParts(int session, FileReferenceData fileData) {
+        ByteBuffer bb = ByteBuffer.allocate(0x100000);
+        for (int partId = 0, read = fileData.nextContent(bb); read >= 0; partId++, read = fileData.nextContent(bb)) {
+            byte [] buf = bb.array();
+            if (buf.length != bb.position()) {
+                buf = new byte [bb.position()];
+                bb.flip();
+                bb.get(buf);
+            }
+            sendPart(session, fileData.fileReference(), partId, buf);
+            bb.clear();
+        }
+    }
+
+    private int sendMeta(FileReferenceData fileData) {
+        Request request = createMetaRequest(fileData, firstPart.isPresent());
+        invokeRpcIfValidConnection(request);
+        if (request.isError()) {
+            log.warning("Failed delivering meta for reference '" + fileData.fileReference().value() + "' with file '" + fileData.filename() + "' to " +
+                    target.toString() + " with error: '" + request.errorMessage() + "'.");
+            return 1;
+        } else {
+            if (request.returnValues().get(0).asInt32() != 0) {
+                throw new IllegalArgumentException("Unknown error from target '" + target.toString() + "' during rpc call " + request.methodName());
+            }
+            return request.returnValues().get(1).asInt32();
+        }
+    }
+
+    // public for testing
+    public static Request createMetaRequest(FileReferenceData fileData, boolean chunked) {
+        Request request = createMetaRequest(fileData);
+        if (chunked) {
+            if (fileData.compressionType() == CompressionType.gzip)
+                request.parameters().add(new StringValue(fileData.compressionType().name()));
+            request.parameters().add(new Int32Value(partSize));
+            request.parameters().add(new Int64Value(fileData.contentXxhash()));
+        }
+        return request;
+    }
+
+    public static Request createMetaRequest(FileReferenceData fileData) {
+        Request request = new Request(RECEIVE_META_METHOD);
+        request.parameters().add(new StringValue(fileData.fileReference().value()));
+        request.parameters().add(new StringValue(fileData.filename()));
+        request.parameters().add(new StringValue(fileData.type().name()));
+        request.parameters().add(new Int64Value(fileData.size()));
+        // Only add paramter if not gzip, this is default and old clients will not handle the extra parameter
+        if (fileData.compressionType() != CompressionType.gzip)
+            request.parameters().add(new StringValue(fileData.compressionType().name()));
+        return request;
+    }
+
+    private void sendPart(int session, FileReference ref, int partId, byte [] buf) {
+        Request request = new Request(RECEIVE_PART_METHOD);
+        request.parameters().add(new StringValue(ref.value()));
+        request.parameters().add(new Int32Value(session));
+        request.parameters().add(new Int32Value(partId));
+        request.parameters().add(new DataValue(buf));
+        invokeRpcIfValidConnection(request);
+        if (request.isError()) {
+            throw new IllegalArgumentException("Failed delivering reference '" + ref.value() + "' to " +
+                                                       target.toString() + " with error: '" + request.errorMessage() + "'.");
+        } else {
+            if (request.returnValues().get(0).asInt32() != 0) {
+                throw new IllegalArgumentException("Unknown error from target '" + target.toString() + "' during rpc call " + request.methodName());
+            }
+        }
+    }
+
+    /** Sends the given chunk, and returns whether the client wants more. */
+    private boolean sendChunk(int session, FileReference ref, int partId, byte[] buf) {
+        Request request = new Request(RECEIVE_CHUNK_METHOD);
+        request.parameters().add(new StringValue(ref.value()));
+        request.parameters().add(new Int32Value(session));
+        request.parameters().add(new Int32Value(partId));
+        request.parameters().add(new Int64Value(hasher.hash(buf, 0, buf.length, 0)));
+        request.parameters().add(new DataValue(buf));
+        invokeRpcIfValidConnection(request);
+        if (request.isError()) {
+            throw new IllegalArgumentException("Failed delivering reference '" + ref.value() + "' to " +
+                                               target.toString() + " with error: '" + request.errorMessage() + "'.");
+        }
+        int retval = request.returnValues().get(0).asInt32();
+        if (retval == CHUNK_NOT_NEEDED) return false;
+        if (retval != 0) {
+            throw new IllegalArgumentException("Unknown error from target '" + target.toString() + "' during rpc call " + request.methodName());
+        }
+        return true;
+    }
+
+    private void sendEof(int session, FileReferenceData fileData, int statusCode, String statusDescription) {
+        Request request = new Request(RECEIVE_EOF_METHOD);
+        request.parameters().add(new StringValue(fileData.fileReference().value()));
+        request.parameters().add(new Int32Value(session));
+        request.parameters().add(new Int64Value(fileData.xxhash()));
+        request.parameters().add(new Int32Value(statusCode));
+        request.parameters().add(new StringValue(statusDescription));
+        invokeRpcIfValidConnection(request);
+        if (request.isError()) {
+            throw new IllegalArgumentException("Failed delivering reference '" + fileData.fileReference().value() + "' with file '" + fileData.filename() + "' to " +
+                                                       target.toString() + " with error: '" + request.errorMessage() + "'.");
+        } else {
+            if (request.returnValues().get(0).asInt32() != 0) {
+                throw new IllegalArgumentException("Unknown error from target '" + target.toString() + "' during rpc call " + request.methodName());
+            }
+        }
+    }
+
+    private void invokeRpcIfValidConnection(Request request) {
+        if (target.isValid()) {
+            target.invokeSync(request, Duration.ofMinutes(10));
+        } else {
+            throw new RuntimeException("Connection to " + target + " is invalid", target.getConnectionLostReason());
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ import net.jpountz.xxhash.XXHashFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
@@ -39,11 +40,33 @@ public class LazyFileReferenceData extends FileReferenceData {
         return read;
     }
 
+    /** Returns the xxhash64 of the content of the given file, i.e., what {@link #xxhash()} is when all of it is read. */
+    public static long xxhash(File file) throws IOException {
+        try (ReadableByteChannel channel = Files.newByteChannel(file.toPath());
+             StreamingXXHash64 hasher = XXHashFactory.fastestInstance().newStreamingHash64(0)) {
+            ByteBuffer bb = ByteBuffer.allocate(0x10000);
+            while (channel.read(bb) >= 0) {
+                hasher.update(bb.array(), 0, bb.position());
+                bb.clear();
+            }
+            return hasher.getValue();
+        }
+    }
+
     @Override
     public long xxhash() {
         return hasher.getValue();
     }
 
+    @Override
+    public long contentXxhash() {
+        try {
+            return xxhash(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public long size() {
         try {
@@ -0,0 +1,156 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.config.FileReference;
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.BitSet;
+
+import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType;
+import static com.yahoo.vespa.filedistribution.FileReferenceData.Type;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A file being received as parts of a fixed size, possibly over several connections at once.
+ * The file is preallocated, and each part is verified against its hash and then written at its position,
+ * in any order. Verified parts are kept until the file is complete, so an interrupted download can resume
+ * from the parts still missing, instead of from the start. The complete file must have the xxhash64 the
+ * sender gave for all of it.
+ *
+ * @author agent
+ */
+class PartialFile {
+
+    private static final XXHash64 hasher = XXHashFactory.fastestInstance().hash64();
+
+    private final FileReference reference;
+    private final String fileName;
+    private final Type type;
+    private final CompressionType compressionType;
+    private final long size;
+    private final int partSize;
+    private final long xxhash;
+    private final File file;
+    private final FileChannel channel;
+    private final BitSet verified = new BitSet();
+    private boolean completed = false;
+
+    PartialFile(File directory, FileReference reference, String fileName, Type type,
+                CompressionType compressionType, long size, int partSize, long xxhash) {
+        if (size < 0) throw new IllegalArgumentException("File size must be non-negative, but was " + size);
+        if (partSize <= 0) throw new IllegalArgumentException("Part size must be positive, but was " + partSize);
+        this.reference = reference;
+        this.fileName = fileName;
+        this.type = type;
+        this.compressionType = compressionType;
+        this.size = size;
+        this.partSize = partSize;
+        this.xxhash = xxhash;
+        try {
+            this.file = Files.createTempFile(directory.toPath(), fileName, ".inprogress").toFile();
+            this.channel = FileChannel.open(file.toPath(), READ, WRITE);
+            if (size > 0) channel.write(ByteBuffer.allocate(1), size - 1); // Preallocate the whole file.
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed creating in-progress file for " + fileName + " in '" + directory + "'", e);
+        }
+    }
+
+    FileReference reference() { return reference; }
+    String fileName() { return fileName; }
+    Type type() { return type; }
+    CompressionType compressionType() { return compressionType; }
+    long size() { return size; }
+    int partSize() { return partSize; }
+    long xxhash() { return xxhash; }
+
+    /** Returns the number of parts of this file. */
+    int parts() {
+        return (int) ((size + partSize - 1) / partSize);
+    }
+
+    /** Returns whether a file with the given metadata has the same content as this. */
+    boolean matches(String fileName, Type type, CompressionType compressionType, long size, int partSize, long xxhash) {
+        return    this.fileName.equals(fileName) && this.type == type && this.compressionType == compressionType
+               && this.size == size && this.partSize == partSize && this.xxhash == xxhash;
+    }
+
+    /** Returns whether the given part is already verified and written, or is not needed, as this is completed. */
+    synchronized boolean has(int partId) {
+        return completed || verified.get(partId);
+    }
+
+    /** Returns the first part at or after the given part id which is still missing, or {@link #parts()} if there are none. */
+    synchronized int firstMissingPart(int from) {
+        return Math.min(verified.nextClearBit(from), parts());
+    }
+
+    /** Returns whether all parts are verified and written, and this is the first call to do so, i.e., whether the caller should finish the download. */
+    synchronized boolean complete() {
+        if (completed || verified.cardinality() < parts()) return false;
+        return completed = true;
+    }
+
+    synchronized double completeness() {
+        return parts() == 0 ? 1 : (double) verified.cardinality() / parts();
+    }
+
+    /**
+     * Verifies the given part against the given hash, and writes it to its position in this file.
+     *
+     * @throws IllegalArgumentException if the part has the wrong id, size or hash
+     */
+    void write(int partId, long hash, byte[] part) {
+        if (partId < 0 || partId >= parts())
+            throw new IllegalArgumentException("Part id " + partId + " is outside [0, " + parts() + ") for " + fileName);
+        long position = (long) partId * partSize;
+        if (part.length != Math.min(partSize, size - position))
+            throw new IllegalArgumentException("Part " + partId + " of " + fileName + " should be " +
+                                               Math.min(partSize, size - position) + " bytes, but was " + part.length);
+        long actual = hasher.hash(part, 0, part.length, 0);
+        if (actual != hash)
+            throw new IllegalArgumentException("xxhash of part " + partId + " of " + fileName + " (" + actual +
+                                               ") is not equal to xxhash in request (" + hash + ")");
+        try {
+            for (ByteBuffer buffer = ByteBuffer.wrap(part); buffer.hasRemaining(); )
+                channel.write(buffer, position + buffer.position());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed writing part " + partId + " to '" + file + "'", e);
+        }
+        synchronized (this) {
+            verified.set(partId);
+        }
+    }
+
+    /** Closes this, and returns its file, which the caller is then responsible for. */
+    File release() {
+        try {
+            channel.close();
+            return file;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed closing '" + file + "'", e);
+        }
+    }
+
+    /** Closes this, and deletes its file. */
+    void discard() {
+        try {
+            channel.close();
+            Files.deleteIfExists(file.toPath());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed closing '" + file + "'", e);
+        }
+    }
+
+}
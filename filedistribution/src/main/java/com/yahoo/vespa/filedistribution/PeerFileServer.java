@@ -0,0 +1,123 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.config.FileReference;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Method;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Supervisor;
+import com.yahoo.jrt.Value;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType.gzip;
+import static com.yahoo.vespa.filedistribution.FileReferenceData.Type;
+
+/**
+ * Serves files this node has downloaded to its peers, with the same RPC method as config servers use, so that
+ * large files are copied from node to node, and config servers need only serve the first copies.
+ * Only plain files are served, since compressed file references are stored decompressed, and would have to be
+ * compressed again for each peer, and only as chunks, which only clients that know about peers ask for.
+ * <p>
+ * Peers are not authenticated, so a file is served only to those who send its xxhash64, which the config servers
+ * give out, together with the peers, only to those who are authorized to download the file from the config servers.
+ * The hash is no cryptographic secret, though, and anyone who can reach this, and knows both the file reference and
+ * the hash, e.g., a node which once had the file, may download it. This is accepted, as file references are content
+ * hashes which are given only to the nodes of the application the file belongs to.
+ *
+ * @author agent
+ */
+class PeerFileServer {
+
+    private static final Logger log = Logger.getLogger(PeerFileServer.class.getName());
+    private static final int maxHashes = 1024;
+
+    private final File downloadDirectory;
+    private final ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() / 2),
+                                                                          new DaemonThreadFactory("peer file server"));
+    // Downloaded files are immutable, so their hashes are kept until evicted
+    private final Map<FileReference, Long> hashes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<FileReference, Long> eldest) {
+            return size() > maxHashes;
+        }
+    };
+
+    PeerFileServer(Supervisor supervisor, File downloadDirectory) {
+        this.downloadDirectory = downloadDirectory;
+        supervisor.addMethod(new Method("filedistribution.serveFile", "si*", "is", this::serveFile)
+                                     .methodDesc("serve a file reference this node has to a peer which knows its xxhash64"));
+    }
+
+    private void serveFile(Request request) {
+        request.detach();
+        executor.execute(() -> {
+            FileReference reference = new FileReference(request.parameters().get(0).asString());
+            boolean served =    request.parameters().size() > 4
+                             && request.parameters().get(4).type() == Value.INT64
+                             && serveFile(reference, request);
+            request.returnValues()
+                   .add(new Int32Value(served ? 0 : 1))
+                   .add(new StringValue(served ? "OK" : "File reference not found"));
+            request.returnRequest();
+        });
+    }
+
+    private boolean serveFile(FileReference reference, Request request) {
+        try {
+            Optional<File> file = FileDownloader.getFileFromFileSystem(reference, downloadDirectory).filter(File::isFile);
+            if (file.isEmpty()) return false;
+            if (xxhash(reference, file.get()) != request.parameters().get(4).asInt64()) {
+                log.log(Level.FINE, () -> "Refusing to serve " + reference + " to peer " + request.target() + ", which sent the wrong hash");
+                return false;
+            }
+
+            log.log(Level.FINE, () -> "Serving " + reference + " to peer " + request.target());
+            FileReferenceData data = new LazyFileReferenceData(reference, file.get().getName(), Type.file, file.get(), gzip);
+            try {
+                new FileSender(request.target(), OptionalInt.of(request.parameters().get(3).asInt32())).send(data, 0, "OK");
+            }
+            finally {
+                data.close();
+            }
+            return true;
+        }
+        catch (IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Failed serving " + reference + " to peer " + request.target() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private long xxhash(FileReference reference, File file) throws IOException {
+        synchronized (hashes) {
+            Long hash = hashes.get(reference);
+            if (hash != null) return hash;
+        }
+        long hash = LazyFileReferenceData.xxhash(file);
+        synchronized (hashes) {
+            hashes.put(reference, hash);
+        }
+        return hash;
+    }
+
+    void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.interrupted(); // Ignore and continue shutdown.
+        }
+    }
+
+}
@@ -3,11 +3,17 @@ package com.yahoo.vespa.filedistribution;
 
 import com.yahoo.config.FileReference;
 import com.yahoo.io.IOUtils;
+import com.yahoo.jrt.Acceptor;
 import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int64Value;
+import com.yahoo.jrt.ListenFailedException;
 import com.yahoo.jrt.Request;
 import com.yahoo.jrt.RequestWaiter;
+import com.yahoo.jrt.Spec;
+import com.yahoo.jrt.StringArray;
 import com.yahoo.jrt.StringValue;
 import com.yahoo.jrt.Supervisor;
+import com.yahoo.jrt.Target;
 import com.yahoo.jrt.Transport;
 import com.yahoo.text.Utf8;
 import com.yahoo.vespa.config.Connection;
@@ -23,12 +29,15 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 
 import static com.yahoo.jrt.ErrorCode.CONNECTION;
@@ -265,6 +274,62 @@ public class FileDownloaderTest {
         assertEquals("content", IOUtils.readFile(downloadedFile));
     }
 
+    @Test
+    public void getFileFromPeer() throws IOException, InterruptedException {
+        FileReference fileReference = new FileReference("fromPeer");
+        try (Peer peer = new Peer(fileReference, "peer.jar", "content")) {
+            List<String> advertised = new CopyOnWriteArrayList<>();
+            connection.setResponseHandler(peerResponseHandler(peer.spec(), xxhash("content"), advertised,
+                                                              new MockConnection.UnknownFileReferenceResponseHandler()));
+            fileDownloader = createDownloader(connection, Duration.ofSeconds(5), Optional.of("tcp/localhost:19090"));
+
+            Optional<File> downloadedFile = getFile(fileReference);
+            assertTrue(downloadedFile.isPresent());
+            assertEquals("content", IOUtils.readFile(downloadedFile.get()));
+
+            // Files downloaded from a verified peer are served onwards
+            for (Instant deadline = Instant.now().plusSeconds(10); advertised.isEmpty() && Instant.now().isBefore(deadline); )
+                Thread.sleep(10);
+            assertEquals(List.of(fileReference.value()), advertised);
+        }
+    }
+
+    @Test
+    public void getFileFromConfigServerWhenPeerHasWrongContent() throws IOException {
+        FileReference fileReference = new FileReference("fromCorruptPeer");
+        try (Peer peer = new Peer(fileReference, "peer.jar", "corrupt")) {
+            List<Integer> configServerRequests = new CopyOnWriteArrayList<>();
+            connection.setResponseHandler(peerResponseHandler(peer.spec(), xxhash("content"), new CopyOnWriteArrayList<>(), request -> {
+                configServerRequests.add(request.parameters().get(3).asInt32());
+                receiveFile(fileReference, "peer.jar", FileReferenceData.Type.file, "content");
+                request.returnValues().add(new Int32Value(0));
+                request.returnValues().add(new StringValue("OK"));
+            }));
+            fileDownloader = createDownloader(connection, Duration.ofSeconds(5), Optional.of("tcp/localhost:19090"));
+
+            // The content sent by the peer does not have the hash the config server has, so it is discarded
+            Optional<File> downloadedFile = getFile(fileReference);
+            assertTrue(downloadedFile.isPresent());
+            assertEquals("content", IOUtils.readFile(downloadedFile.get()));
+            assertEquals(List.of(0), configServerRequests);
+        }
+    }
+
+    @Test
+    public void peerServesOnlyThoseWhoKnowTheHash() throws IOException {
+        FileReference fileReference = new FileReference("secret");
+        try (Peer peer = new Peer(fileReference, "peer.jar", "content")) {
+            Target target = supervisor.connect(new Spec(peer.spec()));
+            try {
+                assertEquals(1, serveFileFromPeer(target, fileReference, Optional.empty()));
+                assertEquals(1, serveFileFromPeer(target, fileReference, Optional.of(xxhash("corrupt"))));
+            }
+            finally {
+                target.close();
+            }
+        }
+    }
+
     @Test
     public void testCompressionTypes() {
         try {
@@ -309,6 +374,40 @@ public class FileDownloaderTest {
         fileDownloader.downloads().completedDownloading(fileReference, file);
     }
 
+    private static long xxhash(String content) {
+        return XXHashFactory.fastestInstance().hash64().hash(ByteBuffer.wrap(Utf8.toBytes(content)), 0);
+    }
+
+    private static int serveFileFromPeer(Target target, FileReference fileReference, Optional<Long> xxhash) {
+        Request request = new Request("filedistribution.serveFile");
+        request.parameters().add(new StringValue(fileReference.value()));
+        request.parameters().add(new Int32Value(1));
+        request.parameters().add(new StringArray(new String[] { gzip.name() }));
+        request.parameters().add(new Int32Value(0));
+        xxhash.ifPresent(hash -> request.parameters().add(new Int64Value(hash)));
+        target.invokeSync(request, Duration.ofSeconds(10));
+        assertFalse(request.errorMessage(), request.isError());
+        return request.returnValues().get(0).asInt32();
+    }
+
+    /** Returns a handler which acts as a config server which knows the given peer, and otherwise uses the given handler. */
+    private static MockConnection.ResponseHandler peerResponseHandler(String peer, long xxhash, List<String> advertised,
+                                                                     MockConnection.ResponseHandler configServer) {
+        return request -> {
+            switch (request.methodName()) {
+                case "filedistribution.getPeers" -> {
+                    request.returnValues().add(new StringArray(new String[] { peer }));
+                    request.returnValues().add(new Int64Value(xxhash));
+                }
+                case "filedistribution.addPeer" -> {
+                    advertised.addAll(List.of(request.parameters().get(0).asStringArray()));
+                    request.returnValues().add(new Int32Value(0));
+                }
+                default -> configServer.request(request);
+            }
+        };
+    }
+
     private Optional<File> getFile(FileReference fileReference) {
         return fileDownloader.getFile(new FileReferenceDownload(fileReference, "test"));
     }
@@ -321,6 +420,43 @@ public class FileDownloaderTest {
         return new FileDownloader(connection, supervisor, downloadDir, timeout, sleepBetweenRetries, acceptedCompressionTypes);
     }
 
+    private FileDownloader createDownloader(MockConnection connection, Duration timeout, Optional<String> peerSpec) {
+        return new FileDownloader(connection, supervisor, downloadDir, timeout, sleepBetweenRetries, acceptedCompressionTypes, peerSpec);
+    }
+
+    /** Another node, which has downloaded the given file reference, and serves it to its peers. */
+    private static class Peer implements AutoCloseable {
+
+        private final Supervisor supervisor = new Supervisor(new Transport()).setDropEmptyBuffers(true);
+        private final Acceptor acceptor;
+        private final FileDownloader downloader;
+
+        Peer(FileReference fileReference, String filename, String content) throws IOException {
+            File downloadDir = Files.createTempDirectory("filedistribution-peer").toFile();
+            IOUtils.writeFile(new File(new File(downloadDir, fileReference.value()), filename), content, false);
+            try {
+                acceptor = supervisor.listen(new Spec(0));
+            }
+            catch (ListenFailedException e) {
+                throw new IllegalStateException(e);
+            }
+            downloader = new FileDownloader(new MockConnection(), supervisor, downloadDir, Duration.ofSeconds(1),
+                                            sleepBetweenRetries, acceptedCompressionTypes, Optional.of(spec()));
+        }
+
+        String spec() {
+            return new Spec("localhost", acceptor.port()).toString();
+        }
+
+        @Override
+        public void close() {
+            downloader.close();
+            acceptor.shutdown().join();
+            supervisor.transport().shutdown().join();
+        }
+
+    }
+
     private static class MockConnection implements ConnectionPool, com.yahoo.vespa.config.Connection {
 
         private ResponseHandler responseHandler;
@@ -15,13 +15,18 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.util.Arrays;
 
 import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType;
 import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType.gzip;
 import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType.lz4;
+import static com.yahoo.vespa.filedistribution.FileReferenceData.CompressionType.zstd;
 import static com.yahoo.vespa.filedistribution.FileReferenceData.Type.compressed;
 import static com.yahoo.vespa.filedistribution.FileReferenceData.Type.file;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class FileReceiverTest {
     private File root;
@@ -75,6 +80,51 @@ public class FileReceiverTest {
         downloadDir = new File(root, "ref");
         assertEquals("1", IOUtils.readFile(new File(downloadDir, "a")));
         assertEquals("2", IOUtils.readFile(new File(downloadDir, "b")));
+
+        tempFile = temporaryFolder.newFile();
+        file = new FileReferenceCompressor(compressed, zstd).compress(dirWithFiles, tempFile);
+        transferCompressedData(zstd, new FileReference("ref"), "a", IOUtils.readFileBytes(file));
+        downloadDir = new File(root, "ref");
+        assertEquals("1", IOUtils.readFile(new File(downloadDir, "a")));
+        assertEquals("2", IOUtils.readFile(new File(downloadDir, "b")));
+    }
+
+    @Test
+    public void receiveChunksInAnyOrderAndResume() throws IOException {
+        byte[] content = Utf8.toBytes("first part, second part, third");
+        PartialFile partial = new PartialFile(root, new FileReference("ref-b"), "myfile", file, gzip, content.length, 12,
+                                              hash(content, 0, content.length));
+        assertEquals(3, partial.parts());
+
+        partial.write(2, hash(content, 24, 6), Arrays.copyOfRange(content, 24, 30));
+        partial.write(0, hash(content, 0, 12), Arrays.copyOfRange(content, 0, 12));
+        try {
+            partial.write(1, hash(content, 0, 12), Arrays.copyOfRange(content, 12, 24));
+            fail("Should fail on hash mismatch");
+        }
+        catch (IllegalArgumentException expected) { }
+        try {
+            partial.write(1, hash(content, 12, 11), Arrays.copyOfRange(content, 12, 23));
+            fail("Should fail on wrong part size");
+        }
+        catch (IllegalArgumentException expected) { }
+
+        assertTrue(partial.has(2));
+        assertFalse(partial.complete());
+        assertEquals(1, partial.firstMissingPart(0));
+        assertEquals(2.0 / 3, partial.completeness(), 1e-9);
+
+        partial.write(1, hash(content, 12, 12), Arrays.copyOfRange(content, 12, 24));
+        assertEquals(3, partial.firstMissingPart(0));
+        assertTrue(partial.complete());
+        assertFalse(partial.complete());
+        File received = partial.release();
+        assertEquals("first part, second part, third", Utf8.toString(Files.readAllBytes(received.toPath())));
+        received.delete();
+    }
+
+    private long hash(byte[] content, int offset, int length) {
+        return hasher.hash(content, offset, length, 0);
     }
 
     private void transferPartsAndAssert(FileReference ref, String fileName, String all, int numParts) throws IOException {
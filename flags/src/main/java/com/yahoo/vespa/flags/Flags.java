@@ -441,14 +441,14 @@ public class Flags {
     public static final UnboundListFlag<String> FILE_DISTRIBUTION_ACCEPTED_COMPRESSION_TYPES = defineListFlag(
             "file-distribution-accepted-compression-types", List.of("gzip", "lz4"), String.class,
             List.of("hmusum"), "2022-07-05", "2022-10-01",
-            "´List of accepted compression types used when asking for a file reference. Valid values: gzip, lz4",
+            "´List of accepted compression types used when asking for a file reference. Valid values: gzip, lz4, zstd",
             "Takes effect on restart of service",
             APPLICATION_ID);
 
     public static final UnboundListFlag<String> FILE_DISTRIBUTION_COMPRESSION_TYPES_TO_SERVE = defineListFlag(
             "file-distribution-compression-types-to-use", List.of("lz4", "gzip"), String.class,
             List.of("hmusum"), "2022-07-05", "2022-10-01",
-            "List of compression types to use (in preferred order), matched with accepted compression types when serving file references. Valid values: gzip, lz4",
+            "List of compression types to use (in preferred order), matched with accepted compression types when serving file references. Valid values: gzip, lz4, zstd",
             "Takes effect on restart of service",
             APPLICATION_ID);
 
@@ -502,6 +502,14 @@ public class Flags {
             "Takes effect at redeployment",
             ZONE_ID, APPLICATION_ID);
 
+    public static final UnboundIntFlag CONFIG_PREWARM_COUNT = defineIntFlag(
+            "config-prewarm-count", 0,
+            List.of("jonmv"), "2022-09-20", "2023-01-01",
+            "Number of most requested configs of the previous generation of an application to resolve " +
+            "when a new generation is activated, before config requests are served from it; 0 disables this",
+            "Takes effect on next activation",
+            APPLICATION_ID);
+
     /** WARNING: public for testing: All flags should be defined in {@link Flags}. */
     public static UnboundBooleanFlag defineFeatureFlag(String flagId, boolean defaultValue, List<String> owners,
                                                        String createdAt, String expiresAt, String description,
@@ -6,6 +6,7 @@ import java.nio.ByteBuffer;
 
 
 class Buffer {
+    private final BufferPool pool;
     private ByteBuffer buf;
     private int        readPos;
     private int        writePos;
@@ -55,18 +56,38 @@ class Buffer {
             if (buf.capacity() + free < minFree) {
                 size = buf.capacity() + minFree;
             }
-            ByteBuffer tmp = ByteBuffer.allocate(size);
+            ByteBuffer tmp = allocate(size);
             tmp.order(buf.order());
             buf.position(readPos);
             buf.limit(writePos);
             tmp.put(buf);
+            release(buf);
             buf = tmp;
             readPos = 0;
         }
     }
 
+    private ByteBuffer allocate(int size) {
+        return (pool == null) ? ByteBuffer.allocate(size) : pool.allocate(size);
+    }
+
+    private void release(ByteBuffer old) {
+        if (pool != null) {
+            pool.release(old);
+        }
+    }
+
     public Buffer(int size) {
-        buf = ByteBuffer.allocate(size);
+        this(size, null);
+    }
+
+    /**
+     * Creates a buffer which allocates its storage from the given
+     * pool, if not null, and from the heap otherwise.
+     **/
+    public Buffer(int size, BufferPool pool) {
+        this.pool = pool;
+        buf = allocate(size);
         readPos = 0;
         writePos = 0;
         readMode = false;
@@ -79,11 +100,15 @@ class Buffer {
         if (used > size || buf.capacity() <= size) {
             return false;
         }
-        ByteBuffer tmp = ByteBuffer.allocate(size);
+        if (pool != null && BufferPool.capacityFor(size) >= buf.capacity()) {
+            return false;
+        }
+        ByteBuffer tmp = allocate(size);
         tmp.order(buf.order());
         buf.position(rpos);
         buf.limit(wpos);
         tmp.put(buf);
+        release(buf);
         buf = tmp;
         readPos = 0;
         writePos = used;
@@ -92,6 +117,18 @@ class Buffer {
         return true;
     }
 
+    /**
+     * Drops the content of this buffer, and returns its storage to
+     * the pool it was allocated from, if any.
+     **/
+    public void dispose() {
+        release(buf);
+        buf = ByteBuffer.allocate(0);
+        readPos = 0;
+        writePos = 0;
+        readMode = false;
+    }
+
     public int bytes() {
         return (readMode)
             ? (writePos - buf.position())
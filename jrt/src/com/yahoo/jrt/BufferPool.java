@@ -0,0 +1,93 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct byte buffers, in size classes of powers of two, which may be shared by the
+ * connections of one or more {@link Supervisor}s. Reading from and writing to the network
+ * using direct buffers avoids the copy through the temporary direct buffers of the JDK, and
+ * pooling them avoids the cost of allocating and cleaning up direct memory.
+ * Buffers larger than the largest size class are allocated on the heap, and are not pooled.
+ *
+ * @author agent
+ */
+public class BufferPool {
+
+    static final int MIN_SIZE = 4 << 10;
+    static final int MAX_SIZE = 1 << 20;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_SIZE);
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final List<Queue<ByteBuffer>> free = new ArrayList<>();
+    private final long maxPooledBytes;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    /**
+     * Creates a new buffer pool, which keeps at most the given number of bytes in unused buffers.
+     *
+     * @param maxPooledBytes the maximum total size of the unused buffers kept by this
+     */
+    public BufferPool(long maxPooledBytes) {
+        if (maxPooledBytes < 0) throw new IllegalArgumentException("maxPooledBytes must be non-negative, but was " + maxPooledBytes);
+        this.maxPooledBytes = maxPooledBytes;
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size <<= 1)
+            free.add(new ConcurrentLinkedQueue<>());
+    }
+
+    /** Returns the capacity of a buffer allocated from this, for the given minimum size. */
+    static int capacityFor(int size) {
+        if (size <= 0) return 0;
+        if (size > MAX_SIZE) return size;
+        return Math.max(MIN_SIZE, Integer.highestOneBit(size - 1) << 1);
+    }
+
+    /** Returns a cleared buffer with capacity at least the given size, which should be released to this after use. */
+    ByteBuffer allocate(int size) {
+        int capacity = capacityFor(size);
+        if (capacity == 0) return EMPTY;
+        if (capacity > MAX_SIZE) return ByteBuffer.allocate(capacity);
+
+        ByteBuffer buffer = free.get(sizeClass(capacity)).poll();
+        if (buffer != null) {
+            pooledBytes.addAndGet(-capacity);
+            return buffer;
+        }
+        allocatedBytes.addAndGet(capacity);
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    /** Returns the given buffer, which must not be used after this, to this pool, if it was allocated from it. */
+    void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        if ( ! buffer.isDirect() || capacity < MIN_SIZE || capacity > MAX_SIZE || Integer.bitCount(capacity) != 1)
+            return;
+
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            pooledBytes.addAndGet(-capacity);
+            allocatedBytes.addAndGet(-capacity);
+            return; // Leave this to the garbage collector.
+        }
+        buffer.clear().order(ByteOrder.BIG_ENDIAN);
+        free.get(sizeClass(capacity)).offer(buffer);
+    }
+
+    /** Returns the total size of the unused buffers currently kept by this. */
+    public long pooledBytes() { return pooledBytes.get(); }
+
+    /** Returns the total size of the direct buffers allocated by this, and not yet left to the garbage collector. */
+    public long allocatedBytes() { return allocatedBytes.get(); }
+
+    private static int sizeClass(int capacity) {
+        return Integer.numberOfTrailingZeros(capacity) - MIN_SHIFT;
+    }
+
+}
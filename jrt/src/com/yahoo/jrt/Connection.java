@@ -34,12 +34,15 @@ class Connection extends Target {
     private int state = INITIAL;
     private final Queue  queue   = new Queue();
     private final Queue  myQueue = new Queue();
-    private final Buffer input   = new Buffer(0); // Start off with empty buffer.
-    private final Buffer output  = new Buffer(0); // Start off with empty buffer.
+    private final Buffer input;
+    private final Buffer output;
+    private final DataSegments segments = new DataSegments();
+    private ByteBuffer[] gathered = null; // Output not yet written, with large data payloads gathered in.
     private final int maxInputSize;
     private final int maxOutputSize;
     private final boolean dropEmptyBuffers;
     private final boolean tcpNoDelay;
+    private final TransportMetrics metrics = TransportMetrics.getInstance();
     private final Map<Integer, ReplyHandler> replyMap = new HashMap<>();
     private final Map<TargetWatcher, TargetWatcher> watchers = new IdentityHashMap<>();
     private int writeWork  = 0;
@@ -92,6 +95,8 @@ class Connection extends Target {
         this.socket = parent.transport().createServerCryptoSocket(channel);
         this.spec = null;
         this.tcpNoDelay = tcpNoDelay;
+        input = new Buffer(0, owner.getBufferPool()); // Start off with empty buffer.
+        output = new Buffer(0, owner.getBufferPool()); // Start off with empty buffer.
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
         dropEmptyBuffers = owner.getDropEmptyBuffers();
@@ -104,6 +109,8 @@ class Connection extends Target {
         this.owner = owner;
         this.spec = spec;
         this.tcpNoDelay = tcpNoDelay;
+        input = new Buffer(0, owner.getBufferPool()); // Start off with empty buffer.
+        output = new Buffer(0, owner.getBufferPool()); // Start off with empty buffer.
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
         dropEmptyBuffers = owner.getDropEmptyBuffers();
@@ -137,6 +144,7 @@ class Connection extends Target {
     public boolean postPacket(Packet packet, ReplyHandler handler) {
         boolean accepted = false;
         boolean enableWrite = false;
+        packet.setQueuedNanos(System.nanoTime());
         synchronized (this) {
             if (state <= CONNECTED) {
                 enableWrite = (writeWork == 0 && state == CONNECTED);
@@ -320,26 +328,48 @@ class Connection extends Target {
         synchronized (this) {
             queue.flush(myQueue);
         }
+        long now = System.nanoTime();
+        int packets = 0;
+        long queueNanos = 0;
+        int writes = 0;
         for (int i = 0; i < WRITE_REDO; i++) {
-            while (output.bytes() < WRITE_SIZE) {
+            while (gathered == null && output.bytes() < WRITE_SIZE) {
                 Packet packet = (Packet) myQueue.dequeue();
                 if (packet == null) {
                     break;
                 }
+                packets++;
+                queueNanos += now - packet.queuedNanos();
                 PacketInfo info = packet.getPacketInfo();
-                ByteBuffer wb = output.getWritable(info.packetLength());
+                ByteBuffer wb = output.getWritable(packet.inlineBytes());
                 owner.writePacket(info);
-                info.encodePacket(packet, wb);
+                info.encodePacket(packet, wb, segments);
+                if ( ! segments.isEmpty()) {
+                    gathered = segments.gather(output.getReadable());
+                }
+            }
+            if (gathered != null) {
+                socket.write(gathered);
+                writes++;
+                if (DataSegments.remaining(gathered) > 0) {
+                    break;
+                }
+                ByteBuffer rb = output.getReadable();
+                rb.position(rb.limit()); // All of this was written through the gathered buffers.
+                gathered = null;
+                continue;
             }
             ByteBuffer rb = output.getReadable();
             if (rb.remaining() == 0) {
                 break;
             }
             socket.write(rb);
+            writes++;
             if (rb.remaining() > 0) {
                 break;
             }
         }
+        metrics.addWriteBatch(writes, packets, queueNanos);
         int myWriteWork = 0;
         if (output.bytes() > 0) {
             myWriteWork++;
@@ -356,6 +386,11 @@ class Connection extends Target {
         }
         if (disableWrite) {
             disableWrite();
+        } else {
+            enableWrite();
+        }
+        if (gathered != null) {
+            return; // The gathered buffers share content with the output buffer.
         }
         if (dropEmptyBuffers) {
             socket.dropEmptyBuffers();
@@ -366,6 +401,20 @@ class Connection extends Target {
         }
     }
 
+    /**
+     * Writes all queued packets right away, rather than on the next
+     * write event, which is then enabled only if not all could be
+     * written. This lets the transport thread write all packets
+     * queued for a connection during a select cycle together.
+     */
+    void flush() throws IOException {
+        if (state == CONNECTED) {
+            write();
+        } else {
+            enableWrite();
+        }
+    }
+
     public void handleWriteEvent() throws IOException {
         if (state == CONNECTED) {
             write();
@@ -381,6 +430,9 @@ class Connection extends Target {
         if (selectionKey != null) {
             selectionKey.cancel();
         }
+        gathered = null;
+        input.dispose();
+        output.dispose();
     }
 
     public boolean isClosed() {
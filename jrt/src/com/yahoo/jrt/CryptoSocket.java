@@ -83,6 +83,24 @@ public interface CryptoSocket {
      **/
     public int write(ByteBuffer src) throws IOException;
 
+    /**
+     * Gathering version of write, which writes from the given
+     * buffers, in order. The default implementation writes from one
+     * buffer at a time, until one is not completely written.
+     **/
+    public default long write(ByteBuffer[] srcs) throws IOException {
+        long written = 0;
+        for (ByteBuffer src : srcs) {
+            if (src.hasRemaining()) {
+                written += write(src);
+                if (src.hasRemaining()) {
+                    break;
+                }
+            }
+        }
+        return written;
+    }
+
     public enum FlushResult { DONE, NEED_WRITE }
 
     /**
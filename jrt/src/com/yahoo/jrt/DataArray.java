@@ -47,6 +47,13 @@ public class DataArray extends Value
         }
         return bytes;
     }
+    int inlineBytes() {
+        int bytes = 4;
+        for (int i = 0; i < value.length; i++) {
+            bytes += 4 + (DataSegments.isGathered(value[i]) ? 0 : value[i].length);
+        }
+        return bytes;
+    }
     void encode(ByteBuffer dst) {
         dst.putInt(value.length);
         for (int i = 0; i < value.length; i++) {
@@ -54,6 +61,13 @@ public class DataArray extends Value
             dst.put(value[i]);
         }
     }
+    void encode(ByteBuffer dst, DataSegments segments) {
+        dst.putInt(value.length);
+        for (int i = 0; i < value.length; i++) {
+            dst.putInt(value[i].length);
+            segments.put(dst, value[i]);
+        }
+    }
 
     public byte[][] asDataArray() { return value; }
 
@@ -0,0 +1,82 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the large data payloads of a packet while it is encoded, so these can be written to
+ * the socket directly from their arrays, with a gathering write, instead of being copied into
+ * the output buffer first. The rest of the packet is encoded into the output buffer as usual,
+ * and the positions in that buffer where each payload belongs are recorded here.
+ *
+ * @author agent
+ */
+class DataSegments {
+
+    /** Payloads smaller than this are copied into the output buffer, as the gathering write costs more for those. */
+    static final int MIN_SIZE = 16 << 10;
+
+    private final List<Integer> offsets = new ArrayList<>();
+    private final List<byte[]> payloads = new ArrayList<>();
+
+    /** Returns whether the given payload is large enough to be written directly from its array. */
+    static boolean isGathered(byte[] payload) {
+        return payload.length >= MIN_SIZE;
+    }
+
+    /**
+     * Records the given payload as belonging at the current position of the given buffer,
+     * if it is large enough, or copies it into that buffer otherwise.
+     */
+    void put(ByteBuffer dst, byte[] payload) {
+        if (isGathered(payload)) {
+            offsets.add(dst.position());
+            payloads.add(payload);
+        } else {
+            dst.put(payload);
+        }
+    }
+
+    /** Returns whether any payloads are recorded in this. */
+    boolean isEmpty() {
+        return payloads.isEmpty();
+    }
+
+    /** Forgets all recorded payloads. */
+    void clear() {
+        offsets.clear();
+        payloads.clear();
+    }
+
+    /**
+     * Returns the buffers to write, in order, to write the readable content of the given
+     * output buffer, with the recorded payloads inserted at their positions, and then clears
+     * this. The returned buffers share content with the given one, which must therefore
+     * not be modified until they are written.
+     */
+    ByteBuffer[] gather(ByteBuffer readable) {
+        List<ByteBuffer> buffers = new ArrayList<>(2 * payloads.size() + 1);
+        int start = readable.position();
+        for (int i = 0; i < payloads.size(); i++) {
+            int offset = offsets.get(i);
+            if (offset > start) buffers.add(readable.duplicate().limit(offset).position(start));
+            buffers.add(ByteBuffer.wrap(payloads.get(i)));
+            start = offset;
+        }
+        if (readable.limit() > start) buffers.add(readable.duplicate().position(start));
+        clear();
+        return buffers.toArray(new ByteBuffer[0]);
+    }
+
+    /** Returns the number of bytes remaining in the given buffers. */
+    static long remaining(ByteBuffer[] buffers) {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        return remaining;
+    }
+
+}
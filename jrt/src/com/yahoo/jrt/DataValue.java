@@ -37,10 +37,15 @@ public class DataValue extends Value
     public int count() { return 1; }
 
     int bytes() { return 4 + value.length; }
+    int inlineBytes() { return DataSegments.isGathered(value) ? 4 : bytes(); }
     void encode(ByteBuffer dst) {
         dst.putInt(value.length);
         dst.put(value);
     }
+    void encode(ByteBuffer dst, DataSegments segments) {
+        dst.putInt(value.length);
+        segments.put(dst, value);
+    }
 
     public byte[] asData() { return value; }
 
@@ -22,6 +22,7 @@ abstract class Packet
 
     private int flags;
     private int requestId;
+    private long queuedNanos;
 
     public Packet(int flags, int reqId) {
         this.flags = flags;
@@ -44,6 +45,22 @@ abstract class Packet
     public abstract int packetCode();
     public abstract void encode(ByteBuffer dst);
 
+    /** Returns the number of bytes needed in the output buffer when large data payloads are gathered instead. */
+    public int inlineBytes() { return bytes(); }
+
+    /** Encodes this into the given buffer, letting the given segments gather large data payloads. */
+    public void encode(ByteBuffer dst, DataSegments segments) { encode(dst); }
+
+    /** Records the time this was queued for writing to a connection. */
+    void setQueuedNanos(long nanos) {
+        queuedNanos = nanos;
+    }
+
+    /** Returns the time this was queued for writing to a connection. */
+    long queuedNanos() {
+        return queuedNanos;
+    }
+
     public PacketInfo getPacketInfo() {
         return new PacketInfo(bytes(), flags, packetCode(), requestId);
     }
@@ -85,8 +85,18 @@ class PacketInfo
     }
 
     public void encodePacket(Packet packet, ByteBuffer dst) {
+        encodePacket(packet, dst, null);
+    }
+
+    /**
+     * Encodes the given packet into the given buffer, letting the
+     * given segments gather its large data payloads, if not null.
+     * The buffer then needs room for only the inline bytes of the
+     * packet.
+     **/
+    public void encodePacket(Packet packet, ByteBuffer dst, DataSegments segments) {
         int pos = dst.position();
-        int end = pos + packetLength;
+        int end = pos + ((segments == null) ? packetLength : packet.inlineBytes());
         int limit = dst.limit();
         try {
             dst.limit(end);
@@ -97,9 +107,16 @@ class PacketInfo
             if (reverseByteOrder()) {
                 dst.order(ByteOrder.LITTLE_ENDIAN);
             }
-            packet.encode(dst);
+            if (segments == null) {
+                packet.encode(dst);
+            } else {
+                packet.encode(dst, segments);
+            }
         } catch (RuntimeException e) {
             dst.position(pos);
+            if (segments != null) {
+                segments.clear();
+            }
             throw e;
         } finally {
             dst.order(ByteOrder.BIG_ENDIAN);
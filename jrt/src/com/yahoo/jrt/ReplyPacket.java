@@ -32,10 +32,19 @@ class ReplyPacket extends Packet
         return PCODE_REPLY;
     }
 
+    public int inlineBytes() {
+        return (headerLength +
+                returnValues.inlineBytes());
+    }
+
     public void encode(ByteBuffer dst) {
         returnValues.encode(dst);
     }
 
+    public void encode(ByteBuffer dst, DataSegments segments) {
+        returnValues.encode(dst, segments);
+    }
+
     public Values returnValues() {
         return returnValues;
     }
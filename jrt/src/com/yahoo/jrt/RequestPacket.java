@@ -37,11 +37,22 @@ class RequestPacket extends Packet
         return PCODE_REQUEST;
     }
 
+    public int inlineBytes() {
+        return (headerLength +
+                methodName.bytes() +
+                parameters.inlineBytes());
+    }
+
     public void encode(ByteBuffer dst) {
         methodName.encode(dst);
         parameters.encode(dst);
     }
 
+    public void encode(ByteBuffer dst, DataSegments segments) {
+        methodName.encode(dst);
+        parameters.encode(dst, segments);
+    }
+
     public String methodName() {
         return methodName.asString();
     }
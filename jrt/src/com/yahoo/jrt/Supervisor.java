@@ -21,6 +21,7 @@ public class Supervisor {
     private int                     maxInputBufferSize  = 64*1024;
     private int                     maxOutputBufferSize = 64*1024;
     private boolean                 dropEmptyBuffers = false;
+    private BufferPool              bufferPool = null;
 
     /**
      * Creates a new Supervisor based on the given {@link Transport}
@@ -45,6 +46,20 @@ public class Supervisor {
     }
     boolean getDropEmptyBuffers() { return dropEmptyBuffers; }
 
+    /**
+     * Sets the pool of direct buffers to use for the input and output
+     * buffers of connections created after this call. This avoids
+     * copying all data through the temporary direct buffers of the
+     * JDK, at the cost of keeping some direct memory around.
+     *
+     * @param pool the pool to allocate buffers from, or null to use heap buffers
+     */
+    public Supervisor setBufferPool(BufferPool pool) {
+        bufferPool = pool;
+        return this;
+    }
+    BufferPool getBufferPool() { return bufferPool; }
+
     /**
      * Sets maximum input buffer size. This value will only affect
      * connections that use a common input buffer when decoding
@@ -19,6 +19,11 @@ public class TransportMetrics {
     private final AtomicLong clientTlsConnectionsEstablished = new AtomicLong(0);
     private final AtomicLong serverUnencryptedConnectionsEstablished = new AtomicLong(0);
     private final AtomicLong clientUnencryptedConnectionsEstablished = new AtomicLong(0);
+    private final AtomicLong selectorWakeups = new AtomicLong(0);
+    private final AtomicLong socketWrites = new AtomicLong(0);
+    private final AtomicLong writeBatches = new AtomicLong(0);
+    private final AtomicLong packetsWritten = new AtomicLong(0);
+    private final AtomicLong writeQueueNanos = new AtomicLong(0);
 
     private TransportMetrics() {}
 
@@ -48,6 +53,31 @@ public class TransportMetrics {
         return clientUnencryptedConnectionsEstablished.get();
     }
 
+    /** Returns the number of times a transport thread was woken up to handle new work */
+    public long selectorWakeups() {
+        return selectorWakeups.get();
+    }
+
+    /** Returns the number of writes to sockets, each of which may write many packets */
+    public long socketWrites() {
+        return socketWrites.get();
+    }
+
+    /** Returns the number of times packets queued for a connection were written together */
+    public long writeBatches() {
+        return writeBatches.get();
+    }
+
+    /** Returns the number of packets written */
+    public long packetsWritten() {
+        return packetsWritten.get();
+    }
+
+    /** Returns the total time packets were queued for their connections before they were written */
+    public long writeQueueNanos() {
+        return writeQueueNanos.get();
+    }
+
     public Snapshot snapshot() { return new Snapshot(this); }
 
     void incrementTlsCertificateVerificationFailures() {
@@ -74,6 +104,21 @@ public class TransportMetrics {
         clientUnencryptedConnectionsEstablished.incrementAndGet();
     }
 
+    void incrementSelectorWakeups() {
+        selectorWakeups.incrementAndGet();
+    }
+
+    void addWriteBatch(int socketWrites, int packets, long queueNanos) {
+        if (socketWrites > 0) {
+            this.socketWrites.addAndGet(socketWrites);
+        }
+        if (packets > 0) {
+            writeBatches.incrementAndGet();
+            packetsWritten.addAndGet(packets);
+            writeQueueNanos.addAndGet(queueNanos);
+        }
+    }
+
     @Override
     public String toString() {
         return "TransportMetrics{" +
@@ -83,11 +128,16 @@ public class TransportMetrics {
                 ", clientTlsConnectionsEstablished=" + clientTlsConnectionsEstablished +
                 ", serverUnencryptedConnectionsEstablished=" + serverUnencryptedConnectionsEstablished +
                 ", clientUnencryptedConnectionsEstablished=" + clientUnencryptedConnectionsEstablished +
+                ", selectorWakeups=" + selectorWakeups +
+                ", socketWrites=" + socketWrites +
+                ", writeBatches=" + writeBatches +
+                ", packetsWritten=" + packetsWritten +
+                ", writeQueueNanos=" + writeQueueNanos +
                 '}';
     }
 
     public static class Snapshot {
-        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
 
         private final long tlsCertificateVerificationFailures;
         private final long peerAuthorizationFailures;
@@ -95,6 +145,11 @@ public class TransportMetrics {
         private final long clientTlsConnectionsEstablished;
         private final long serverUnencryptedConnectionsEstablished;
         private final long clientUnencryptedConnectionsEstablished;
+        private final long selectorWakeups;
+        private final long socketWrites;
+        private final long writeBatches;
+        private final long packetsWritten;
+        private final long writeQueueNanos;
 
         private Snapshot(TransportMetrics metrics) {
             this(metrics.tlsCertificateVerificationFailures.get(),
@@ -102,7 +157,12 @@ public class TransportMetrics {
                  metrics.serverTlsConnectionsEstablished.get(),
                  metrics.clientTlsConnectionsEstablished.get(),
                  metrics.serverUnencryptedConnectionsEstablished.get(),
-                 metrics.clientUnencryptedConnectionsEstablished.get());
+                 metrics.clientUnencryptedConnectionsEstablished.get(),
+                 metrics.selectorWakeups.get(),
+                 metrics.socketWrites.get(),
+                 metrics.writeBatches.get(),
+                 metrics.packetsWritten.get(),
+                 metrics.writeQueueNanos.get());
         }
 
         private Snapshot(long tlsCertificateVerificationFailures,
@@ -110,13 +170,23 @@ public class TransportMetrics {
                         long serverTlsConnectionsEstablished,
                         long clientTlsConnectionsEstablished,
                         long serverUnencryptedConnectionsEstablished,
-                        long clientUnencryptedConnectionsEstablished) {
+                        long clientUnencryptedConnectionsEstablished,
+                        long selectorWakeups,
+                        long socketWrites,
+                        long writeBatches,
+                        long packetsWritten,
+                        long writeQueueNanos) {
             this.tlsCertificateVerificationFailures = tlsCertificateVerificationFailures;
             this.peerAuthorizationFailures = peerAuthorizationFailures;
             this.serverTlsConnectionsEstablished = serverTlsConnectionsEstablished;
             this.clientTlsConnectionsEstablished = clientTlsConnectionsEstablished;
             this.serverUnencryptedConnectionsEstablished = serverUnencryptedConnectionsEstablished;
             this.clientUnencryptedConnectionsEstablished = clientUnencryptedConnectionsEstablished;
+            this.selectorWakeups = selectorWakeups;
+            this.socketWrites = socketWrites;
+            this.writeBatches = writeBatches;
+            this.packetsWritten = packetsWritten;
+            this.writeQueueNanos = writeQueueNanos;
         }
 
         public long tlsCertificateVerificationFailures() { return tlsCertificateVerificationFailures; }
@@ -125,6 +195,11 @@ public class TransportMetrics {
         public long clientTlsConnectionsEstablished() { return clientTlsConnectionsEstablished; }
         public long serverUnencryptedConnectionsEstablished() { return serverUnencryptedConnectionsEstablished; }
         public long clientUnencryptedConnectionsEstablished() { return clientUnencryptedConnectionsEstablished; }
+        public long selectorWakeups() { return selectorWakeups; }
+        public long socketWrites() { return socketWrites; }
+        public long writeBatches() { return writeBatches; }
+        public long packetsWritten() { return packetsWritten; }
+        public long writeQueueNanos() { return writeQueueNanos; }
 
         public Snapshot changesSince(Snapshot base) {
             return new Snapshot(
@@ -133,7 +208,12 @@ public class TransportMetrics {
                 changesSince(base, Snapshot::serverTlsConnectionsEstablished),
                 changesSince(base, Snapshot::clientTlsConnectionsEstablished),
                 changesSince(base, Snapshot::serverUnencryptedConnectionsEstablished),
-                changesSince(base, Snapshot::clientUnencryptedConnectionsEstablished));
+                changesSince(base, Snapshot::clientUnencryptedConnectionsEstablished),
+                changesSince(base, Snapshot::selectorWakeups),
+                changesSince(base, Snapshot::socketWrites),
+                changesSince(base, Snapshot::writeBatches),
+                changesSince(base, Snapshot::packetsWritten),
+                changesSince(base, Snapshot::writeQueueNanos));
         }
 
         private long changesSince(Snapshot base, ToLongFunction<Snapshot> metricProperty) {
@@ -149,6 +229,11 @@ public class TransportMetrics {
                     ", clientTlsConnectionsEstablished=" + clientTlsConnectionsEstablished +
                     ", serverUnencryptedConnectionsEstablished=" + serverUnencryptedConnectionsEstablished +
                     ", clientUnencryptedConnectionsEstablished=" + clientUnencryptedConnectionsEstablished +
+                    ", selectorWakeups=" + selectorWakeups +
+                    ", socketWrites=" + socketWrites +
+                    ", writeBatches=" + writeBatches +
+                    ", packetsWritten=" + packetsWritten +
+                    ", writeQueueNanos=" + writeQueueNanos +
                     '}';
         }
     }
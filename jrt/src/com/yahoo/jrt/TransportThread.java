@@ -4,7 +4,9 @@ package com.yahoo.jrt;
 import java.io.IOException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -74,6 +76,9 @@ public class TransportThread {
     private final Scheduler scheduler;
     private int             state;
     private final Selector  selector;
+    private boolean         selecting = false; // whether the thread may be waiting for I/O events
+    private final List<Connection> flushQueue = new ArrayList<>();
+    private final TransportMetrics metrics = TransportMetrics.getInstance();
 
     private void handleAddConnection(Connection conn) {
         if (conn.isClosed()) {
@@ -101,7 +106,23 @@ public class TransportThread {
         if (conn.isClosed()) {
             return;
         }
-        conn.enableWrite();
+        flushQueue.add(conn);
+    }
+
+    private void flushConnections() {
+        for (int i = 0; i < flushQueue.size(); i++) {
+            Connection conn = flushQueue.get(i);
+            if (conn.isClosed()) {
+                continue;
+            }
+            try {
+                conn.flush();
+            } catch (IOException e) {
+                conn.setLostReason(e);
+                handleCloseConnection(conn);
+            }
+        }
+        flushQueue.clear();
     }
 
     private void handleHandshakeWorkDone(Connection conn) {
@@ -117,15 +138,19 @@ public class TransportThread {
     }
 
     private boolean postCommand(Runnable cmd) {
-        int qlen;
+        boolean wakeup;
         synchronized (this) {
             if (state == CLOSED) {
                 return false;
             }
             queue.enqueue(cmd);
-            qlen = queue.size();
+            wakeup = (selecting && queue.size() >= parent.getEventsBeforeWakeup());
+            if (wakeup) {
+                selecting = false; // one wakeup per select is enough
+            }
         }
-        if (qlen == parent.getEventsBeforeWakeup()) {
+        if (wakeup) {
+            metrics.incrementSelectorWakeups();
             selector.wakeup();
         }
         return true;
@@ -270,6 +295,7 @@ public class TransportThread {
      * Wakes up this transport thread explicitly.
      */
     public void wakeup() {
+        metrics.incrementSelectorWakeups();
         selector.wakeup();
     }
 
@@ -307,12 +333,26 @@ public class TransportThread {
     private void run() {
         while (state == OPEN) {
 
-            // perform I/O selection
+            // perform I/O selection, but only wait for I/O events if
+            // there are too few commands to handle; posting more
+            // commands will then wake this thread up
+            boolean block;
+            synchronized (this) {
+                selecting = (queue.size() < parent.getEventsBeforeWakeup());
+                block = selecting;
+            }
             try {
-                selector.select(100);
+                if (block) {
+                    selector.select(100);
+                } else {
+                    selector.selectNow();
+                }
             } catch (IOException e) {
                 log.log(Level.WARNING, "error during select", e);
             }
+            synchronized (this) {
+                selecting = false;
+            }
 
             // handle internal events
             handleEvents();
@@ -330,6 +370,9 @@ public class TransportThread {
 
             // check scheduled tasks
             scheduler.checkTasks(System.currentTimeMillis());
+
+            // write what was queued for connections during this cycle
+            flushConnections();
         }
         synchronized (this) {
             state = CLOSED;
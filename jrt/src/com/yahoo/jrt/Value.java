@@ -100,6 +100,24 @@ public abstract class Value
      **/
     abstract void encode(ByteBuffer dst);
 
+    /**
+     * Determine the number of bytes needed to store this value in the
+     * output buffer, when large data payloads are gathered by a
+     * {@link DataSegments} instead
+     *
+     * @return number of bytes needed for encoding this value
+     **/
+    int inlineBytes() { return bytes(); }
+
+    /**
+     * Encode this value into the given buffer, letting the given
+     * segments gather large data payloads
+     *
+     * @param dst where to encode this value
+     * @param segments where to put large data payloads
+     **/
+    void encode(ByteBuffer dst, DataSegments segments) { encode(dst); }
+
     /**
      * Decode a value from the given buffer. This method also acts as
      * a factory for value objects
@@ -93,12 +93,38 @@ public class Values
         return bytes;
     }
 
+    /**
+     * Determine the number of bytes needed to store this value
+     * sequence in the output buffer, when large data payloads are
+     * gathered by a {@link DataSegments} instead
+     *
+     * @return number of bytes needed for encoding this value sequence
+     **/
+    int inlineBytes() {
+        int bytes = 4 + values.size();
+        for (int i = 0; i < values.size(); i++) {
+            bytes += get(i).inlineBytes();
+        }
+        return bytes;
+    }
+
     /**
      * Encode this value sequence into the given buffer
      *
      * @param dst where to encode this value sequence
      **/
     void encode(ByteBuffer dst) {
+        encode(dst, null);
+    }
+
+    /**
+     * Encode this value sequence into the given buffer, letting the
+     * given segments gather large data payloads, if not null
+     *
+     * @param dst where to encode this value sequence
+     * @param segments where to put large data payloads, or null
+     **/
+    void encode(ByteBuffer dst, DataSegments segments) {
         byte[] types = new byte[values.size()];
         for (int i = 0; i < types.length; i++) {
             types[i] = get(i).type();
@@ -106,7 +132,11 @@ public class Values
         dst.putInt(types.length);
         dst.put(types);
         for (int i = 0; i < types.length; i++) {
-            get(i).encode(dst);
+            if (segments == null) {
+                get(i).encode(dst);
+            } else {
+                get(i).encode(dst, segments);
+            }
         }
     }
 
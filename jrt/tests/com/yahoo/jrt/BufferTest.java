@@ -222,4 +222,60 @@ public class BufferTest {
         }
     }
 
+    @org.junit.Test
+    public void testPooledBuffer() {
+        BufferPool pool = new BufferPool(1 << 20);
+        Buffer buf = new Buffer(0, pool);
+        assertEquals(0, buf.getWritable(0).capacity());
+
+        ByteBuffer b = buf.getWritable(100);
+        assertTrue(b.isDirect());
+        assertEquals(4096, b.capacity());
+        b.put((byte)42);
+
+        byte[] x = new byte[10000];
+        Arrays.fill(x, (byte) 10);
+        b = buf.getWritable(x.length);
+        assertEquals(16384, b.capacity());
+        b.put(x);
+        assertEquals(4096, pool.pooledBytes());
+        assertEquals(4096 + 16384, pool.allocatedBytes());
+
+        b = buf.getReadable();
+        assertEquals(42, b.get());
+        byte[] y = new byte[x.length];
+        b.get(y);
+        assertTrue(Arrays.equals(x, y));
+
+        assertFalse(buf.shrink(10000)); // Would not get a smaller buffer from the pool.
+        assertTrue(buf.shrink(100));
+        assertEquals(4096, buf.getReadable().capacity());
+        assertEquals(16384, pool.pooledBytes());
+
+        buf.dispose();
+        assertEquals(0, buf.bytes());
+        assertEquals(4096 + 16384, pool.pooledBytes());
+        assertEquals(4096, new Buffer(4000, pool).getWritable(0).capacity());
+        assertEquals(16384, pool.pooledBytes());
+    }
+
+    @org.junit.Test
+    public void testBufferPoolLimits() {
+        BufferPool pool = new BufferPool(8192);
+        ByteBuffer large = pool.allocate(BufferPool.MAX_SIZE + 1);
+        assertFalse(large.isDirect());
+        pool.release(large);
+        assertEquals(0, pool.pooledBytes());
+
+        ByteBuffer first = pool.allocate(8192);
+        ByteBuffer second = pool.allocate(4096);
+        assertEquals(8192 + 4096, pool.allocatedBytes());
+        pool.release(first);
+        pool.release(second);
+        assertEquals(8192, pool.pooledBytes());
+        assertEquals(8192, pool.allocatedBytes());
+        assertTrue(first == pool.allocate(5000));
+        assertEquals(0, pool.pooledBytes());
+    }
+
 }
@@ -170,4 +170,47 @@ public class EchoTest {
             connAuthCtxAssertion.assertConnectionAuthContext(connAuthCtx);
         }
     }
+
+    @org.junit.Test
+    public void testEchoLargeData() {
+        useLargeRefValues();
+        assertEchoed(target, "xsX");
+    }
+
+    @org.junit.Test
+    public void testEchoWithBufferPool() {
+        Supervisor pooled = new Supervisor(new Transport("pooled", crypto, 1)).setBufferPool(new BufferPool(1 << 20));
+        Target pooledTarget = pooled.connect(new Spec("localhost", acceptor.port()));
+        try {
+            assertEchoed(pooledTarget, "bBhHiIlLfFdDxXsS");
+            useLargeRefValues();
+            assertEchoed(pooledTarget, "xsX");
+        }
+        finally {
+            pooledTarget.close();
+            pooled.transport().shutdown().join();
+        }
+    }
+
+    private void useLargeRefValues() {
+        byte[] small = new byte[1000];
+        byte[] large = new byte[3 << 20];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        refValues = new Values();
+        refValues.add(new DataValue(large));
+        refValues.add(new StringValue("test"));
+        refValues.add(new DataArray(new byte[][] { small, large, small }));
+    }
+
+    private void assertEchoed(Target target, String returnTypes) {
+        Request req = new Request("echo");
+        for (int i = 0; i < refValues.size(); i++) {
+            req.parameters().add(refValues.get(i));
+        }
+        target.invokeSync(req, Duration.ofSeconds(60));
+        assertTrue(req.checkReturnTypes(returnTypes));
+        assertTrue(Test.equals(req.returnValues(), refValues));
+    }
 }
@@ -2,6 +2,7 @@
 package com.yahoo.jrt;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -122,4 +123,40 @@ public class PacketTest {
         assertEquals(errStr, ((ErrorPacket)packet2).errorMessage());
     }
 
+    @org.junit.Test
+    public void testGatheredPacket() {
+        byte[] small = new byte[100];
+        byte[] large = new byte[DataSegments.MIN_SIZE];
+        Arrays.fill(small, (byte) 1);
+        Arrays.fill(large, (byte) 2);
+        Values params = new Values();
+        params.add(new DataValue(large));
+        params.add(new Int32Value(123));
+        params.add(new DataArray(new byte[][] { small, large, large, small }));
+
+        Packet packet = new RequestPacket(0, 42, "foobar", params);
+        PacketInfo info = packet.getPacketInfo();
+        assertEquals(info.packetLength() - 3 * large.length, packet.inlineBytes());
+
+        ByteBuffer ref = ByteBuffer.allocate(info.packetLength());
+        info.encodePacket(packet, ref);
+        ref.flip();
+
+        DataSegments segments = new DataSegments();
+        ByteBuffer buf = ByteBuffer.allocate(packet.inlineBytes());
+        info.encodePacket(packet, buf, segments);
+        assertEquals(0, buf.remaining());
+        buf.flip();
+        ByteBuffer[] gathered = segments.gather(buf);
+        assertTrue(segments.isEmpty());
+        assertEquals(info.packetLength(), DataSegments.remaining(gathered));
+        ByteBuffer joined = ByteBuffer.allocate(info.packetLength());
+        for (ByteBuffer segment : gathered) {
+            joined.put(segment);
+        }
+        joined.flip();
+        assertEquals(ref, joined);
+        assertEquals(0, buf.position());
+    }
+
 }
@@ -0,0 +1,46 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+/**
+ * Measures throughput and write batching of sequential and concurrent requests to a single target.
+ *
+ * @author agent
+ */
+public class PipeliningBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        PipeliningTest rpc = new PipeliningTest();
+        rpc.setUp();
+        try {
+            rpc.invokeSync(0); // Connect.
+            for (int round = 0; round < 3; round++) {
+                int requests = 20000;
+                TransportMetrics.Snapshot start = TransportMetrics.getInstance().snapshot();
+                long startNanos = System.nanoTime();
+                for (int i = 0; i < requests / 10; i++) {
+                    rpc.invokeSync(i);
+                }
+                report("Sequential", requests / 10, System.nanoTime() - startNanos, start);
+
+                start = TransportMetrics.getInstance().snapshot();
+                startNanos = System.nanoTime();
+                rpc.invokeConcurrently(8, requests / 8);
+                report("Concurrent", requests, System.nanoTime() - startNanos, start);
+            }
+        }
+        finally {
+            rpc.tearDown();
+        }
+    }
+
+    private static void report(String name, int requests, long nanos, TransportMetrics.Snapshot start) {
+        TransportMetrics.Snapshot changes = TransportMetrics.getInstance().snapshot().changesSince(start);
+        System.out.printf("%s: %d requests per second, %.2f syscalls per request, %.1f packets per batch, %d us average queue latency%n",
+                          name,
+                          requests * 1_000_000_000L / nanos,
+                          (changes.socketWrites() + changes.selectorWakeups()) / (double) requests,
+                          changes.packetsWritten() / (double) Math.max(1, changes.writeBatches()),
+                          changes.writeQueueNanos() / Math.max(1, changes.packetsWritten()) / 1000);
+    }
+
+}
@@ -0,0 +1,98 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that many concurrent requests to the same target are written in batches.
+ *
+ * @author agent
+ */
+public class PipeliningTest {
+
+    private Supervisor server;
+    private Supervisor client;
+    private Acceptor acceptor;
+    private Target target;
+
+    @Before
+    public void setUp() throws ListenFailedException {
+        server = new Supervisor(new Transport("server", 1));
+        client = new Supervisor(new Transport("client", 1));
+        server.addMethod(new Method("inc", "i", "i", this::rpc_inc));
+        acceptor = server.listen(new Spec(0));
+        target = client.connect(new Spec("localhost", acceptor.port()));
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+    }
+
+    private void rpc_inc(Request req) {
+        req.returnValues().add(new Int32Value(req.parameters().get(0).asInt32() + 1));
+    }
+
+    @org.junit.Test
+    public void testConcurrentRequestsAreBatched() throws InterruptedException {
+        invokeSync(0); // Connect.
+        TransportMetrics.Snapshot start = TransportMetrics.getInstance().snapshot();
+        int requests = 2000;
+        assertEquals(requests, invokeConcurrently(4, requests / 4));
+        TransportMetrics.Snapshot changes = TransportMetrics.getInstance().snapshot().changesSince(start);
+        assertTrue(changes.toString(), changes.packetsWritten() >= 2 * requests);
+        assertTrue(changes.toString(), changes.writeBatches() < changes.packetsWritten());
+        assertTrue(changes.toString(), changes.socketWrites() < changes.packetsWritten());
+    }
+
+    void invokeSync(int value) {
+        Request req = new Request("inc");
+        req.parameters().add(new Int32Value(value));
+        target.invokeSync(req, Duration.ofSeconds(60));
+        assertEquals(req.errorMessage(), value + 1, req.returnValues().get(0).asInt32());
+    }
+
+    /** Invokes the given number of requests asynchronously from each of the given number of threads, and returns the number of correct replies. */
+    int invokeConcurrently(int threads, int requestsPerThread) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(threads * requestsPerThread);
+        AtomicInteger correct = new AtomicInteger();
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread sender = new Thread(() -> {
+                for (int i = 0; i < requestsPerThread; i++) {
+                    Request req = new Request("inc");
+                    req.parameters().add(new Int32Value(i));
+                    int value = i;
+                    target.invokeAsync(req, Duration.ofSeconds(60), request -> {
+                        if ( ! request.isError() && request.returnValues().get(0).asInt32() == value + 1) {
+                            correct.incrementAndGet();
+                        }
+                        done.countDown();
+                    });
+                }
+            });
+            senders.add(sender);
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        return correct.get();
+    }
+
+}
@@ -10,6 +10,7 @@ import com.yahoo.messagebus.network.NetworkMultiplexer;
 import com.yahoo.messagebus.network.NetworkOwner;
 import com.yahoo.messagebus.routing.Resender;
 import com.yahoo.messagebus.routing.RetryPolicy;
+import com.yahoo.messagebus.routing.RoutingNode;
 import com.yahoo.messagebus.routing.RoutingPolicy;
 import com.yahoo.messagebus.routing.RoutingSpec;
 import com.yahoo.messagebus.routing.RoutingTable;
@@ -158,12 +159,12 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         }
 
         // Start messenger.
-        msn = new Messenger();
+        msn = new Messenger(params.getMessengerThreads());
 
         RetryPolicy retryPolicy = params.getRetryPolicy();
         if (retryPolicy != null) {
             resender = new Resender(retryPolicy);
-            msn.addRecurrentTask(new ResenderTask(resender));
+            msn.addRecurrentTask(new ResenderTask(resender, msn));
         } else {
             resender = null;
         }
@@ -478,6 +479,11 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         return resender;
     }
 
+    /** Returns the current statistics for each of the threads of the messenger of this, in order. */
+    public List<Messenger.Stats> getMessengerStats() {
+        return msn.stats();
+    }
+
     /**
      * <p>Returns the number of messages received that have not been replied to
      * yet.</p>
@@ -620,14 +626,19 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
     /**
      * <p>Implements a task for running the resender in the messenger
      * thread. This task acts as a proxy for the resender, allowing the task to
-     * be deleted without affecting the resender itself.</p>
+     * be deleted without affecting the resender itself. When the messenger has
+     * several threads, resending is spread over these, by sequence id for
+     * sequenced messages.</p>
      */
     private static class ResenderTask implements Messenger.Task {
 
         final Resender resender;
+        final Messenger messenger;
+        long next = 0;
 
-        ResenderTask(Resender resender) {
+        ResenderTask(Resender resender, Messenger messenger) {
             this.resender = resender;
+            this.messenger = messenger;
         }
 
         public void destroy() {
@@ -635,7 +646,42 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         }
 
         public void run() {
-            resender.resendScheduled();
+            if (messenger.threads() == 1) {
+                resender.resendScheduled();
+            } else {
+                resender.resendScheduled(node -> messenger.enqueue(new ResendTask(node), key(node.getMessage())));
+            }
+        }
+
+        private long key(Message msg) {
+            return msg.hasSequenceId() ? msg.getSequenceId() : next++;
+        }
+
+    }
+
+    /**
+     * <p>Implements a task for resending a single routing node in a messenger
+     * thread. The node is discarded if the task is destroyed without having
+     * been run.</p>
+     */
+    private static class ResendTask implements Messenger.Task {
+
+        final RoutingNode node;
+        boolean sent = false;
+
+        ResendTask(RoutingNode node) {
+            this.node = node;
+        }
+
+        public void run() {
+            sent = true;
+            node.send();
+        }
+
+        public void destroy() {
+            if (!sent) {
+                node.discard();
+            }
         }
 
     }
@@ -19,6 +19,7 @@ public class MessageBusParams {
     private RetryPolicy retryPolicy;
     private int maxPendingCount;
     private int maxPendingSize;
+    private int messengerThreads;
     private MessagebusConfig config;
 
     /**
@@ -28,6 +29,7 @@ public class MessageBusParams {
         retryPolicy = new RetryTransientErrorsPolicy();
         maxPendingCount = 1024;
         maxPendingSize = 128 * 1024 * 1024;
+        messengerThreads = 1;
         config = null;
     }
 
@@ -41,6 +43,7 @@ public class MessageBusParams {
         retryPolicy = params.retryPolicy;
         maxPendingCount = params.maxPendingCount;
         maxPendingSize = params.maxPendingSize;
+        messengerThreads = params.messengerThreads;
         config = params.config;
     }
 
@@ -147,6 +150,28 @@ public class MessageBusParams {
         return this;
     }
 
+    /**
+     * Returns the number of threads of the messenger, which runs the resender, among other things.
+     *
+     * @return The number of threads.
+     */
+    public int getMessengerThreads() {
+        return messengerThreads;
+    }
+
+    /**
+     * Sets the number of threads of the messenger. Resending is spread over these, by sequence id for sequenced
+     * messages, when there are more than one.
+     *
+     * @param threads The number of threads to set, which must be at least 1.
+     * @return This, to allow chaining.
+     */
+    public MessageBusParams setMessengerThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Messenger must have at least one thread, but got " + threads);
+        this.messengerThreads = threads;
+        return this;
+    }
+
     public MessagebusConfig getMessageBusConfig() {
         return config;
     }
@@ -4,20 +4,25 @@ package com.yahoo.messagebus;
 import com.yahoo.concurrent.SystemTimer;
 
 import java.time.Duration;
-import java.util.logging.Level;
-
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * <p>This class implements a single thread that is able to process arbitrary
- * tasks. Tasks are enqueued using the synchronized {@link #enqueue(Task)}
- * method, and are run in the order they were enqueued.</p>
+ * <p>This class implements a set of threads that are able to process arbitrary
+ * tasks. Tasks are enqueued using the lock-free {@link #enqueue(Task)} and
+ * {@link #enqueue(Task, long)} methods. Each thread has its own queue, and
+ * tasks enqueued with the same key, or without a key, are run by the same
+ * thread, in the order they were enqueued.</p>
  *
  * @author Simon Thoresen Hult
  */
@@ -26,19 +31,30 @@ public class Messenger implements Runnable {
     private static final Logger log = Logger.getLogger(Messenger.class.getName());
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final List<Task> children = new ArrayList<>();
-    private final Queue<Task> queue = new ArrayDeque<>();
-
-    private final Thread thread = new Thread(this, "Messenger");
+    private final Worker[] workers;
 
     public Messenger() {
-        thread.setDaemon(true);
+        this(1);
+    }
+
+    /**
+     * <p>Creates a messenger with the given number of threads. Recurrent tasks,
+     * and tasks enqueued without a key, are run by the first of these.</p>
+     *
+     * @param threads The number of threads to run tasks with.
+     */
+    public Messenger(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Messenger must have at least one thread, but got " + threads);
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++)
+            workers[i] = new Worker(i == 0 ? "Messenger" : "Messenger-" + i, i == 0);
     }
 
     /**
      * <p>Adds a recurrent task to this that is to be run for every iteration of
-     * the main loop. This task must be very light-weight as to not block the
-     * messenger. Note that this method is NOT thread-safe, so it should NOT be
-     * used after calling {@link #start()}.</p>
+     * the main loop of the first thread. This task must be very light-weight as
+     * to not block the messenger. Note that this method is NOT thread-safe, so
+     * it should NOT be used after calling {@link #start()}.</p>
      *
      * @param task The task to add.
      */
@@ -47,13 +63,31 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Starts the internal thread. This must be done AFTER all recurrent
+     * <p>Starts the internal threads. This must be done AFTER all recurrent
      * tasks have been added.</p>
      *
      * @see #addRecurrentTask(Task)
      */
     public void start() {
-        thread.start();
+        for (Worker worker : workers)
+            worker.thread.start();
+    }
+
+    /**
+     * <p>This was the main loop of the single messenger thread, which is now
+     * started, with any additional threads, by {@link #start()}.</p>
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    @Deprecated // Remove on 9
+    public void run() {
+        throw new UnsupportedOperationException("The messenger runs its own threads, which are started by start()");
+    }
+
+    /** Returns the number of threads of this. */
+    public int threads() {
+        return workers.length;
     }
 
     /**
@@ -89,36 +123,55 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Enqueues the given task in the list of tasks that this worker is to
-     * process. If this thread has been destroyed previously, this method
-     * invokes {@link Messenger.Task#destroy()}.</p>
+     * <p>Enqueues the given task in the list of tasks that the first thread is
+     * to process. If this has been destroyed previously, this method invokes
+     * {@link Messenger.Task#destroy()}.</p>
      *
      * @param task The task to enqueue.
      */
     public void enqueue(final Task task) {
+        enqueue(task, workers[0]);
+    }
+
+    /**
+     * <p>Enqueues the given task in the list of tasks of the thread given by
+     * the key, e.g., a sequence id. Tasks with equal keys are run in the order
+     * they were enqueued. If this has been destroyed previously, this method
+     * invokes {@link Messenger.Task#destroy()}.</p>
+     *
+     * @param task The task to enqueue.
+     * @param key  The key which decides the thread to run the task.
+     */
+    public void enqueue(final Task task, long key) {
+        enqueue(task, workers[(int) Math.floorMod(key ^ (key >>> 32), (long) workers.length)]);
+    }
+
+    private void enqueue(Task task, Worker worker) {
         if (destroyed.get()) {
             task.destroy();
             return;
         }
-        synchronized (this) {
-            queue.offer(task);
-            if (queue.size() == 1) {
-                notify();
-            }
-        }
+        worker.offer(task);
     }
 
     /**
-     * <p>Handshakes with the internal thread. If this method is called using
-     * the messenger thread, this will deadlock.</p>
+     * <p>Handshakes with the internal threads. If this method is called using
+     * a messenger thread, it returns immediately, as waiting for another
+     * messenger thread could deadlock.</p>
      */
     public void sync() {
-        if (Thread.currentThread() == thread) {
-            return; // no need to wait for self
+        for (Worker worker : workers)
+            if (Thread.currentThread() == worker.thread)
+                return; // no need to wait for self
+
+        List<SyncTask> tasks = new ArrayList<>();
+        for (Worker worker : workers) {
+            SyncTask task = new SyncTask();
+            enqueue(task, worker);
+            tasks.add(task);
         }
-        final SyncTask task = new SyncTask();
-        enqueue(task);
-        task.await();
+        for (SyncTask task : tasks)
+            task.await();
     }
 
     /**
@@ -131,15 +184,14 @@ public class Messenger implements Runnable {
      */
     public boolean destroy() {
         boolean done = false;
-        enqueue(TERMINATE);
+        for (Worker worker : workers)
+            enqueue(TERMINATE, worker);
         if (!destroyed.getAndSet(true)) {
             try {
-                synchronized (this) {
-                    while (!queue.isEmpty()) {
-                        wait();
-                    }
+                for (Worker worker : workers) {
+                    worker.thread.join();
+                    worker.destroyQueued(); // Tasks enqueued while the thread was terminating.
                 }
-                thread.join();
             } catch (final InterruptedException e) {
                 // ignore
             }
@@ -148,57 +200,126 @@ public class Messenger implements Runnable {
         return done;
     }
 
-    @Override
-    public void run() {
-        long timeoutMS = SystemTimer.adjustTimeoutByDetectedHz(Duration.ofMillis(100)).toMillis();
-        while (true) {
-            Task task = null;
-            synchronized (this) {
-                if (queue.isEmpty()) {
+    /** Returns the current statistics for each of the threads of this, in order. */
+    public List<Stats> stats() {
+        List<Stats> stats = new ArrayList<>(workers.length);
+        for (Worker worker : workers)
+            stats.add(new Stats(worker.size.get(), worker.tasks.get(), worker.latencyNanos.get()));
+        return stats;
+    }
+
+    /**
+     * Statistics for a single messenger thread.
+     *
+     * @param queueSize    the number of tasks currently queued for the thread
+     * @param tasks        the total number of tasks run by the thread
+     * @param latencyNanos the total time from enqueue until run, of all tasks run by the thread
+     */
+    public record Stats(int queueSize, long tasks, long latencyNanos) {
+
+        /** Returns the average time from enqueue until run, of all tasks run by the thread. */
+        public Duration averageLatency() {
+            return Duration.ofNanos(tasks == 0 ? 0 : latencyNanos / tasks);
+        }
+
+    }
+
+    /** A thread with its own multi-producer, single-consumer queue. */
+    private class Worker implements Runnable {
+
+        private final Queue<Queued> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong tasks = new AtomicLong();
+        private final AtomicLong latencyNanos = new AtomicLong();
+        private final boolean runsChildren;
+        private final Thread thread;
+
+        Worker(String name, boolean runsChildren) {
+            this.runsChildren = runsChildren;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        void offer(Task task) {
+            queue.offer(new Queued(task, System.nanoTime()));
+            if (size.getAndIncrement() == 0)
+                LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(SystemTimer.adjustTimeoutByDetectedHz(Duration.ofMillis(100)).toMillis());
+            while (true) {
+                Queued queued = queue.poll();
+                if (queued == null) {
+                    if (runsChildren && ! children.isEmpty())
+                        LockSupport.parkNanos(this, timeoutNanos);
+                    else
+                        LockSupport.park(this);
+
+                    Thread.interrupted(); // Interrupts are ignored, like before.
+                    queued = queue.poll();
+                }
+                Task task = null;
+                if (queued != null) {
+                    size.decrementAndGet();
+                    latencyNanos.addAndGet(System.nanoTime() - queued.enqueuedNanos);
+                    tasks.incrementAndGet();
+                    task = queued.task;
+                }
+                if (task == TERMINATE) {
+                    break;
+                }
+                if (task != null) {
                     try {
-                        if (children.isEmpty()) {
-                            wait();
-                        } else {
-                            wait(timeoutMS);
-                        }
-                    } catch (final InterruptedException e) {
-                        continue;
+                        task.run();
+                    } catch (final Exception e) {
+                        log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
                     }
+                    destroy(task);
                 }
-                if (queue.size() > 0) {
-                    task = queue.poll();
+                if (runsChildren) {
+                    for (final Task child : children) {
+                        child.run();
+                    }
                 }
             }
-            if (task == TERMINATE) {
-                break;
-            }
-            if (task != null) {
-                try {
-                    task.run();
-                } catch (final Exception e) {
-                    log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
-                }
-                try {
-                    task.destroy();
-                } catch (final Exception e) {
-                    log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " + e);
-                    log.warning("Someone, somewhere might have to wait indefinitely for something.");
+            if (runsChildren) {
+                for (final Task child : children) {
+                    child.destroy();
                 }
             }
-            for (final Task child : children) {
-                child.run();
-            }
+            destroyQueued();
         }
-        for (final Task child : children) {
-            child.destroy();
+
+        void destroyQueued() {
+            for (Queued queued; (queued = queue.poll()) != null; ) {
+                size.decrementAndGet();
+                destroy(queued.task);
+            }
         }
-        synchronized (this) {
-            while (!queue.isEmpty()) {
-                final Task task = queue.poll();
+
+        private void destroy(Task task) {
+            try {
                 task.destroy();
+            } catch (final Exception e) {
+                log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " + e);
+                log.warning("Someone, somewhere might have to wait indefinitely for something.");
             }
-            notify();
         }
+
+    }
+
+    private static class Queued {
+
+        final Task task;
+        final long enqueuedNanos;
+
+        Queued(Task task, long enqueuedNanos) {
+            this.task = task;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
     }
 
     /**
@@ -13,13 +13,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * id, and messages are only sent when they are at the front of their list. When a reply arrives, the current front of
  * the list is removed and the next message, if any, is sent.
  *
+ * The lists are kept in a number of stripes, each guarded by its own lock, so that senders with different sequencing
+ * ids rarely contend for the same lock.
+ *
  * @author Simon Thoresen Hult
  */
 public class Sequencer implements MessageHandler, ReplyHandler {
 
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final MessageHandler sender;
-    private final Map<Long, Queue<Message>> seqMap = new HashMap<>();
+    private final Stripe[] stripes;
 
     /**
      * Constructs a new sequencer on top of the given async sender.
@@ -27,7 +30,27 @@ public class Sequencer implements MessageHandler, ReplyHandler {
      * @param sender The underlying sender.
      */
     public Sequencer(MessageHandler sender) {
+        this(sender, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new sequencer on top of the given async sender, with the given number of stripes, rounded up to a
+     * power of two.
+     *
+     * @param sender  The underlying sender.
+     * @param stripes The number of independently locked stripes of sequencing state.
+     */
+    Sequencer(MessageHandler sender, int stripes) {
         this.sender = sender;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, 2 * stripes - 1))];
+        for (int i = 0; i < this.stripes.length; i++)
+            this.stripes[i] = new Stripe();
+    }
+
+    /** Returns the stripe which holds the state for the given sequence id. */
+    private Stripe stripe(long seqId) {
+        long hash = seqId * 0x9E3779B97F4A7C15L; // Spreads ids which differ only in their high bits.
+        return stripes[(int) (hash >>> 32) & (stripes.length - 1)];
     }
 
     /**
@@ -38,15 +61,17 @@ public class Sequencer implements MessageHandler, ReplyHandler {
      */
     public boolean destroy() {
         if (!destroyed.getAndSet(true)) {
-            synchronized (this) {
-                for (Queue<Message> queue : seqMap.values()) {
-                    if (queue != null) {
-                        for (Message msg : queue) {
-                            msg.discard();
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    for (Queue<Message> queue : stripe.seqMap.values()) {
+                        if (queue != null) {
+                            for (Message msg : queue) {
+                                msg.discard();
+                            }
                         }
                     }
+                    stripe.seqMap.clear();
                 }
-                seqMap.clear();
             }
             return true;
         }
@@ -65,7 +90,9 @@ public class Sequencer implements MessageHandler, ReplyHandler {
     private boolean filter(Message msg) {
         long seqId = msg.getSequenceId();
         msg.setContext(seqId);
-        synchronized (this) {
+        Stripe stripe = stripe(seqId);
+        synchronized (stripe) {
+            Map<Long, Queue<Message>> seqMap = stripe.seqMap;
             if (seqMap.containsKey(seqId)) {
                 Queue<Message> queue = seqMap.get(seqId);
                 if (queue == null) {
@@ -138,7 +165,9 @@ public class Sequencer implements MessageHandler, ReplyHandler {
                                    "Sequencer received reply with sequence id '" + seqId + "'.");
         }
         Message msg = null;
-        synchronized (this) {
+        Stripe stripe = stripe(seqId);
+        synchronized (stripe) {
+            Map<Long, Queue<Message>> seqMap = stripe.seqMap;
             Queue<Message> queue = seqMap.get(seqId);
             if (queue == null || queue.isEmpty()) {
                 seqMap.remove(seqId);
@@ -153,4 +182,11 @@ public class Sequencer implements MessageHandler, ReplyHandler {
         handler.handleReply(reply);
     }
 
+    /** The sequencing state for a subset of the sequence ids, guarded by the monitor of this. */
+    private static class Stripe {
+
+        final Map<Long, Queue<Message>> seqMap = new HashMap<>();
+
+    }
+
 }
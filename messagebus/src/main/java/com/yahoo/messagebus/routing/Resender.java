@@ -10,6 +10,7 @@ import com.yahoo.messagebus.TraceLevel;
 import java.util.PriorityQueue;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The resender handles scheduling and execution of sending instances of {@link RoutingNode}. An instance of this class
@@ -102,6 +103,16 @@ public class Resender {
      * Invokes {@link RoutingNode#send()} on all routing nodes that are applicable for sending at the current time.
      */
     public void resendScheduled() {
+        resendScheduled(RoutingNode::send);
+    }
+
+    /**
+     * Passes all routing nodes that are applicable for sending at the current time to the given sender, which must
+     * eventually invoke either {@link RoutingNode#send()} or {@link RoutingNode#discard()} on each of them.
+     *
+     * @param sender The sender to pass the nodes to.
+     */
+    public void resendScheduled(Consumer<RoutingNode> sender) {
         List<RoutingNode> sendList;
 
         long now = SystemTimer.INSTANCE.milliTime();
@@ -115,7 +126,7 @@ public class Resender {
 
         for (RoutingNode node : sendList) {
             node.getTrace().trace(TraceLevel.COMPONENT, "Resender resending message.");
-            node.send();
+            sender.accept(node);
         }
     }
 
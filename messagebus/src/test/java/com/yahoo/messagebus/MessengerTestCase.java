@@ -3,9 +3,17 @@ package com.yahoo.messagebus;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -95,6 +103,94 @@ public class MessengerTestCase {
         assertTrue(tryMessenger(msn));
     }
 
+    @Test
+    void requireThatTasksWithEqualKeysAreRunInOrder() throws InterruptedException {
+        Messenger msn = new Messenger(4);
+        msn.start();
+        int keys = 16, tasksPerKey = 1000;
+        List<List<Integer>> runs = new ArrayList<>();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(keys * tasksPerKey);
+        for (int key = 0; key < keys; key++)
+            runs.add(Collections.synchronizedList(new ArrayList<>()));
+        for (int i = 0; i < tasksPerKey; i++) {
+            for (int key = 0; key < keys; key++) {
+                List<Integer> run = runs.get(key);
+                int index = i;
+                msn.enqueue(new Messenger.Task() {
+                    @Override
+                    public void run() {
+                        threads.add(Thread.currentThread());
+                        run.add(index);
+                    }
+
+                    @Override
+                    public void destroy() {
+                        latch.countDown();
+                    }
+                }, key);
+            }
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        for (List<Integer> run : runs)
+            for (int i = 0; i < tasksPerKey; i++)
+                assertEquals(i, run.get(i));
+
+        assertEquals(4, threads.size());
+        assertEquals(4, msn.stats().size());
+        assertEquals(keys * tasksPerKey, msn.stats().stream().mapToLong(Messenger.Stats::tasks).sum());
+        assertEquals(0, msn.stats().stream().mapToInt(Messenger.Stats::queueSize).sum());
+        assertTrue(msn.destroy());
+    }
+
+    @Test
+    void requireThatSyncWaitsForAllThreads() throws InterruptedException {
+        Messenger msn = new Messenger(3);
+        msn.start();
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean(false);
+        msn.enqueue(new Messenger.Task() {
+            @Override
+            public void run() {
+                try {
+                    blocked.await();
+                    done.set(true);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public void destroy() { }
+        }, 2);
+        Thread syncer = new Thread(msn::sync);
+        syncer.start();
+        syncer.join(100);
+        assertTrue(syncer.isAlive());
+        blocked.countDown();
+        syncer.join();
+        assertTrue(done.get());
+        assertTrue(msn.destroy());
+    }
+
+    @Test
+    void requireThatTasksAreDestroyedWithMessenger() throws InterruptedException {
+        Messenger msn = new Messenger(2);
+        msn.start();
+        assertTrue(msn.destroy());
+        MyTask task = new MyTask();
+        msn.enqueue(task, 1);
+        assertTrue(task.destroyLatch.await(60, TimeUnit.SECONDS));
+        assertEquals(1, task.runLatch.getCount());
+    }
+
+    @Test
+    void requireThatThreadCountIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> new Messenger(0));
+        assertThrows(IllegalArgumentException.class, () -> new MessageBusParams().setMessengerThreads(0));
+        assertEquals(2, new MessageBusParams().setMessengerThreads(2).getMessengerThreads());
+    }
+
     private static boolean tryMessenger(Messenger msn) {
         MyTask task = new MyTask();
         msn.enqueue(task);
@@ -0,0 +1,25 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.messagebus;
+
+/**
+ * Measures the throughput of a sequencer with many concurrent senders, with a single and with many lock stripes.
+ *
+ * @author agent
+ */
+public class SequencerBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = 32, messages = 20000;
+        for (int round = 0; round < 3; round++) {
+            for (int stripes : new int[] { 1, 4 * Runtime.getRuntime().availableProcessors() }) {
+                Sequencer seq = new Sequencer(new SequencerTestCase.ReplyingSender(msg -> { }), stripes);
+                long startNanos = System.nanoTime();
+                SequencerTestCase.runSenders(seq, threads, messages, Long.MAX_VALUE);
+                long nanos = System.nanoTime() - startNanos;
+                System.out.printf("%d threads, %d stripes: %d messages per second%n",
+                                  threads, stripes, threads * messages * 1_000_000_000L / nanos);
+            }
+        }
+    }
+
+}
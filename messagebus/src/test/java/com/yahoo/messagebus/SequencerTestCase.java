@@ -4,8 +4,17 @@ package com.yahoo.messagebus;
 import com.yahoo.messagebus.test.SimpleMessage;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,6 +111,82 @@ public class SequencerTestCase {
         assertEquals(0, dst.size());
     }
 
+    @Test
+    void testConcurrentSendersKeepOrderPerId() throws InterruptedException {
+        int threads = 8, messages = 2000;
+        Map<Long, List<Integer>> sent = new ConcurrentHashMap<>();
+        Sequencer seq = new Sequencer(new ReplyingSender(msg -> sent.computeIfAbsent(msg.getSequenceId(), __ -> Collections.synchronizedList(new ArrayList<>()))
+                                                                    .add(((IndexedMessage) msg).index)));
+        runSenders(seq, threads, messages, 16);
+        assertEquals(16, sent.size());
+        for (List<Integer> indices : sent.values()) {
+            assertEquals(threads * messages / 16, indices.size());
+            Map<Integer, Integer> lastPerThread = new HashMap<>();
+            for (int index : indices) { // Indices of messages from the same thread, with the same id, are increasing.
+                Integer last = lastPerThread.put(index / messages, index);
+                assertTrue(last == null || last < index);
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentSendersWithDistinctIds() throws InterruptedException {
+        for (int stripes : new int[] { 1, 16 }) {
+            Map<Long, Integer> sent = new ConcurrentHashMap<>();
+            runSenders(new Sequencer(new ReplyingSender(msg -> sent.merge(msg.getSequenceId(), 1, Integer::sum)), stripes), 4, 100, Long.MAX_VALUE);
+            assertEquals(400, sent.values().stream().mapToInt(Integer::intValue).sum());
+        }
+    }
+
+    /** Sends the given number of messages from each of the given number of threads, with ids modulo the given number. */
+    static void runSenders(Sequencer seq, int threads, int messages, long ids) throws InterruptedException {
+        CountDownLatch replies = new CountDownLatch(threads * messages);
+        ReplyHandler handler = reply -> replies.countDown();
+        List<Thread> senders = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int first = thread * messages;
+            senders.add(new Thread(() -> {
+                for (int i = first; i < first + messages; i++) {
+                    Message msg = new IndexedMessage((i * 0x5DEECE66DL) % ids, i);
+                    msg.pushHandler(handler);
+                    seq.handleMessage(msg);
+                }
+            }));
+        }
+        senders.forEach(Thread::start);
+        for (Thread sender : senders) sender.join();
+        assertTrue(replies.await(60, TimeUnit.SECONDS));
+    }
+
+    /** Replies to each message directly, in the sending thread, after passing it to the given consumer. */
+    static class ReplyingSender implements MessageHandler {
+
+        final Consumer<Message> consumer;
+
+        ReplyingSender(Consumer<Message> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void handleMessage(Message msg) {
+            consumer.accept(msg);
+            Reply reply = new EmptyReply();
+            reply.swapState(msg);
+            reply.setMessage(msg);
+            reply.popHandler().handleReply(reply);
+        }
+    }
+
+    private static class IndexedMessage extends MyMessage {
+
+        final int index;
+
+        IndexedMessage(long seqId, int index) {
+            super(true, seqId);
+            this.index = index;
+        }
+    }
+
     @SuppressWarnings("serial")
     private static class TestQueue extends LinkedList<Routable> implements ReplyHandler {
 
@@ -79,6 +79,39 @@ public class ResenderTestCase {
         System.out.println(reply.getTrace());
     }
 
+    @Test
+    void testRetryWithMultipleMessengerThreads() throws ListenFailedException {
+        TestServer server = new TestServer(new MessageBusParams().setRetryPolicy(retryPolicy).addProtocol(new SimpleProtocol()).setMessengerThreads(4),
+                                           new RPCNetworkParams().setSlobrokConfigId(TestServer.getSlobrokConfig(slobrok)));
+        SourceSession session = server.mb.createSourceSession(new SourceSessionParams().setTimeout(600.0).setReplyHandler(new Receptor()));
+        assertTrue(server.waitSlobrok("dst/session", 1));
+        try {
+            for (int i = 0; i < 8; ++i) {
+                assertTrue(session.send(createMessage("msg" + i), Route.parse("dst/session")).isAccepted());
+            }
+            for (int i = 0; i < 8; ++i) {
+                Message msg = ((Receptor) dstSession.getMessageHandler()).getMessage(60);
+                assertNotNull(msg);
+                replyFromDestination(msg, ErrorCode.APP_TRANSIENT_ERROR, 0);
+            }
+            for (int i = 0; i < 8; ++i) {
+                Message msg = ((Receptor) dstSession.getMessageHandler()).getMessage(60);
+                assertNotNull(msg);
+                assertEquals(1, msg.getRetry());
+                dstSession.acknowledge(msg);
+            }
+            for (int i = 0; i < 8; ++i) {
+                Reply reply = ((Receptor) session.getReplyHandler()).getReply(60);
+                assertNotNull(reply);
+                assertFalse(reply.hasErrors());
+            }
+        }
+        finally {
+            session.destroy();
+            server.destroy();
+        }
+    }
+
     @Test
     void testRetryEnabledTag() {
         Message msg = createMessage("msg");
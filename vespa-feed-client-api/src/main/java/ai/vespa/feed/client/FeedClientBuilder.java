@@ -116,7 +116,38 @@ public interface FeedClientBuilder {
     /** Specify HTTP(S) proxy for all endpoints */
     FeedClientBuilder setProxy(URI uri);
 
+    /** Sets the policy used to adjust the number of inflight requests; the default is {@link ThrottlePolicy#THROUGHPUT}. */
+    FeedClientBuilder setThrottlePolicy(ThrottlePolicy policy);
+
+    /** Sets the compression used for request bodies; the default is {@link Compression#NONE}. */
+    FeedClientBuilder setCompression(Compression compression);
+
     /** Constructs instance of {@link FeedClient} from builder configuration */
     FeedClient build();
 
+    /** Policies for adjusting the number of inflight requests to the load the cluster can handle. */
+    enum ThrottlePolicy {
+
+        /** Samples throughput for different numbers of inflight requests, and picks a value which balances throughput and latency. */
+        THROUGHPUT,
+
+        /** Keeps the number of inflight requests where latency is close to its observed minimum, i.e., with little queueing in the cluster. */
+        LATENCY
+
+    }
+
+    /** Compression of request bodies. Compressed requests are decompressed by the container before they are processed. */
+    enum Compression {
+
+        /** Compresses request bodies which are large enough that compression is likely to pay off. */
+        AUTO,
+
+        /** Never compresses request bodies. */
+        NONE,
+
+        /** Always compresses request bodies, with gzip. */
+        GZIP
+
+    }
+
 }
@@ -21,10 +21,19 @@ public class OperationStats {
     private final long maxLatencyMillis;
     private final long bytesSent;
     private final long bytesReceived;
+    private final long uncompressedBytesSent;
+    private final long compressionMillis;
 
     public OperationStats(long requests, Map<Integer, Long> responsesByCode, long exceptions, long inflight,
                           long averageLatencyMillis, long minLatencyMillis, long maxLatencyMillis,
                           long bytesSent, long bytesReceived) {
+        this(requests, responsesByCode, exceptions, inflight, averageLatencyMillis, minLatencyMillis, maxLatencyMillis,
+             bytesSent, bytesReceived, bytesSent, 0);
+    }
+
+    public OperationStats(long requests, Map<Integer, Long> responsesByCode, long exceptions, long inflight,
+                          long averageLatencyMillis, long minLatencyMillis, long maxLatencyMillis,
+                          long bytesSent, long bytesReceived, long uncompressedBytesSent, long compressionMillis) {
         this.requests = requests;
         this.responsesByCode = responsesByCode;
         this.exceptions = exceptions;
@@ -34,6 +43,8 @@ public class OperationStats {
         this.maxLatencyMillis = maxLatencyMillis;
         this.bytesSent = bytesSent;
         this.bytesReceived = bytesReceived;
+        this.uncompressedBytesSent = uncompressedBytesSent;
+        this.compressionMillis = compressionMillis;
     }
 
     /** Returns the difference between this and the initial. Min and max latency are not modified. */
@@ -50,7 +61,9 @@ public class OperationStats {
                                   minLatencyMillis,
                                   maxLatencyMillis,
                                   bytesSent - initial.bytesSent,
-                                  bytesReceived - initial.bytesReceived);
+                                  bytesReceived - initial.bytesReceived,
+                                  uncompressedBytesSent - initial.uncompressedBytesSent,
+                                  compressionMillis - initial.compressionMillis);
     }
 
     /** Number of HTTP requests attempted. */
@@ -108,17 +121,32 @@ public class OperationStats {
         return bytesReceived;
     }
 
+    /** Number of bytes in HTTP request bodies before compression, for HTTP requests with a response. */
+    public long uncompressedBytesSent() {
+        return uncompressedBytesSent;
+    }
+
+    /** Ratio of bytes in HTTP request bodies before and after compression, or 1 if nothing was sent. */
+    public double compressionRatio() {
+        return bytesSent == 0 ? 1 : (double) uncompressedBytesSent / bytesSent;
+    }
+
+    /** Time spent compressing HTTP request bodies, for HTTP requests with a response. */
+    public long compressionMillis() {
+        return compressionMillis;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         OperationStats that = (OperationStats) o;
-        return requests == that.requests && inflight == that.inflight && exceptions == that.exceptions && averageLatencyMillis == that.averageLatencyMillis && minLatencyMillis == that.minLatencyMillis && maxLatencyMillis == that.maxLatencyMillis && bytesSent == that.bytesSent && bytesReceived == that.bytesReceived && responsesByCode.equals(that.responsesByCode);
+        return requests == that.requests && inflight == that.inflight && exceptions == that.exceptions && averageLatencyMillis == that.averageLatencyMillis && minLatencyMillis == that.minLatencyMillis && maxLatencyMillis == that.maxLatencyMillis && bytesSent == that.bytesSent && bytesReceived == that.bytesReceived && uncompressedBytesSent == that.uncompressedBytesSent && compressionMillis == that.compressionMillis && responsesByCode.equals(that.responsesByCode);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(requests, responsesByCode, inflight, exceptions, averageLatencyMillis, minLatencyMillis, maxLatencyMillis, bytesSent, bytesReceived);
+        return Objects.hash(requests, responsesByCode, inflight, exceptions, averageLatencyMillis, minLatencyMillis, maxLatencyMillis, bytesSent, bytesReceived, uncompressedBytesSent, compressionMillis);
     }
 
     @Override
@@ -133,6 +161,8 @@ public class OperationStats {
                ", maxLatencyMillis=" + maxLatencyMillis +
                ", bytesSent=" + bytesSent +
                ", bytesReceived=" + bytesReceived +
+               ", uncompressedBytesSent=" + uncompressedBytesSent +
+               ", compressionMillis=" + compressionMillis +
                '}';
     }
 
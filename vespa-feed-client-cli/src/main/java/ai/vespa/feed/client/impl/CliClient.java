@@ -215,6 +215,8 @@ public class CliClient {
             generator.writeNumberField("http.request.count", stats.requests());
             generator.writeNumberField("http.request.bytes", stats.bytesSent());
             writeFloatField(generator, "http.request.MBps", stats.bytesSent() * 1e3 / durationNanos, 3);
+            writeFloatField(generator, "http.request.compression.ratio", stats.compressionRatio(), 3);
+            generator.writeNumberField("http.request.compression.millis", stats.compressionMillis());
 
             generator.writeNumberField("http.exception.count", stats.exceptions());
 
@@ -36,6 +36,8 @@ public class BenchmarkingCluster implements Cluster {
     private long maxLatencyMillis = 0;
     private long bytesSent = 0;
     private long bytesReceived = 0;
+    private long uncompressedBytesSent = 0;
+    private long compressionNanos = 0;
 
     public BenchmarkingCluster(Cluster delegate) {
         this.delegate = requireNonNull(delegate);
@@ -57,6 +59,8 @@ public class BenchmarkingCluster implements Cluster {
                                          maxLatencyMillis = Math.max(maxLatencyMillis, latency);
                                          bytesSent += request.body() == null ? 0 : request.body().length;
                                          bytesReceived += response.body() == null ? 0 : response.body().length;
+                                         uncompressedBytesSent += request.uncompressedSize();
+                                         compressionNanos += request.compressionNanos();
                                      }
                                      else
                                          exceptions++;
@@ -96,7 +100,9 @@ public class BenchmarkingCluster implements Cluster {
                                   this.responses == 0 ? -1 : minLatencyMillis,
                                   this.responses == 0 ? -1 : maxLatencyMillis,
                                   bytesSent,
-                                  bytesReceived);
+                                  bytesReceived,
+                                  uncompressedBytesSent,
+                                  compressionNanos / 1_000_000);
     }
 
     @Override
@@ -50,6 +50,8 @@ public class FeedClientBuilderImpl implements FeedClientBuilder {
     boolean benchmark = true;
     boolean dryrun = false;
     boolean speedTest = false;
+    ThrottlePolicy throttlePolicy = ThrottlePolicy.THROUGHPUT;
+    Compression compression = Compression.NONE;
     URI proxy;
 
 
@@ -196,6 +198,18 @@ public class FeedClientBuilderImpl implements FeedClientBuilder {
 
     @Override public FeedClientBuilder setProxy(URI uri) { this.proxy = uri; return this; }
 
+    @Override
+    public FeedClientBuilderImpl setThrottlePolicy(ThrottlePolicy policy) {
+        this.throttlePolicy = requireNonNull(policy);
+        return this;
+    }
+
+    @Override
+    public FeedClientBuilderImpl setCompression(Compression compression) {
+        this.compression = requireNonNull(compression);
+        return this;
+    }
+
     /** Constructs instance of {@link ai.vespa.feed.client.FeedClient} from builder configuration */
     @Override
     public FeedClient build() {
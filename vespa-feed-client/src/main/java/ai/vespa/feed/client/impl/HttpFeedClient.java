@@ -3,6 +3,7 @@ package ai.vespa.feed.client.impl;
 
 import ai.vespa.feed.client.DocumentId;
 import ai.vespa.feed.client.FeedClient;
+import ai.vespa.feed.client.FeedClientBuilder.Compression;
 import ai.vespa.feed.client.FeedException;
 import ai.vespa.feed.client.HttpResponse;
 import ai.vespa.feed.client.OperationParameters;
@@ -14,7 +15,9 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.HashMap;
@@ -24,6 +27,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
@@ -37,8 +41,11 @@ import static java.util.Objects.requireNonNull;
 class HttpFeedClient implements FeedClient {
 
     private static final JsonFactory factory = new JsonFactory();
+    static final int minAutoCompressedSize = 512; // Smaller bodies rarely compress enough to pay for the extra work.
 
     private final Map<String, Supplier<String>> requestHeaders;
+    private final Map<String, Supplier<String>> compressedRequestHeaders;
+    private final Compression compression;
     private final RequestStrategy requestStrategy;
     private final AtomicBoolean closed = new AtomicBoolean();
     private final boolean speedTest;
@@ -49,6 +56,9 @@ class HttpFeedClient implements FeedClient {
 
     HttpFeedClient(FeedClientBuilderImpl builder, RequestStrategy requestStrategy) {
         this.requestHeaders = new HashMap<>(builder.requestHeaders);
+        this.compressedRequestHeaders = new HashMap<>(builder.requestHeaders);
+        this.compressedRequestHeaders.put("Content-Encoding", () -> "gzip");
+        this.compression = builder.compression;
         this.requestStrategy = requestStrategy;
         this.speedTest = builder.speedTest;
     }
@@ -91,11 +101,17 @@ class HttpFeedClient implements FeedClient {
         if (closed.get())
             throw new IllegalStateException("Client is closed");
 
-        HttpRequest request = new HttpRequest(method,
-                                              getPath(documentId) + getQuery(params, speedTest),
-                                              requestHeaders,
-                                              operationJson == null ? null : operationJson.getBytes(UTF_8), // TODO: make it bytes all the way?
-                                              params.timeout().orElse(null));
+        String path = getPath(documentId) + getQuery(params, speedTest);
+        byte[] body = operationJson == null ? null : operationJson.getBytes(UTF_8); // TODO: make it bytes all the way?
+        HttpRequest request;
+        if (shouldCompress(body)) {
+            long startNanos = System.nanoTime();
+            byte[] compressed = gzip(body);
+            request = new HttpRequest(method, path, compressedRequestHeaders, compressed, params.timeout().orElse(null),
+                                      body.length, System.nanoTime() - startNanos);
+        }
+        else
+            request = new HttpRequest(method, path, requestHeaders, body, params.timeout().orElse(null));
 
         CompletableFuture<Result> promise = new CompletableFuture<>();
         requestStrategy.enqueue(documentId, request)
@@ -113,6 +129,26 @@ class HttpFeedClient implements FeedClient {
         return promise;
     }
 
+    private boolean shouldCompress(byte[] body) {
+        if (body == null) return false;
+        switch (compression) {
+            case GZIP: return true;
+            case AUTO: return body.length >= minAutoCompressedSize;
+            default: return false;
+        }
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 2 + 32);
+        try (GZIPOutputStream zip = new GZIPOutputStream(buffer)) {
+            zip.write(body);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
     private enum Outcome { success, conditionNotMet, vespaFailure, transportFailure };
 
     static Result.Type toResultType(Outcome outcome) {
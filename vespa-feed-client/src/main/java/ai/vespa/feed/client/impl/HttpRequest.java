@@ -12,13 +12,23 @@ class HttpRequest {
     private final Map<String, Supplier<String>> headers;
     private final byte[] body;
     private final Duration timeout;
+    private final int uncompressedSize;
+    private final long compressionNanos;
 
     public HttpRequest(String method, String path, Map<String, Supplier<String>> headers, byte[] body, Duration timeout) {
+        this(method, path, headers, body, timeout, body == null ? 0 : body.length, 0);
+    }
+
+    /** Creates a request with a compressed body, which was uncompressedSize bytes, and took compressionNanos to compress. */
+    public HttpRequest(String method, String path, Map<String, Supplier<String>> headers, byte[] body, Duration timeout,
+                       int uncompressedSize, long compressionNanos) {
         this.method = method;
         this.path = path;
         this.headers = headers;
         this.body = body;
         this.timeout = timeout;
+        this.uncompressedSize = uncompressedSize;
+        this.compressionNanos = compressionNanos;
     }
 
     public String method() {
@@ -41,6 +51,14 @@ class HttpRequest {
         return timeout;
     }
 
+    public int uncompressedSize() {
+        return uncompressedSize;
+    }
+
+    public long compressionNanos() {
+        return compressionNanos;
+    }
+
     @Override
     public String toString() {
         return method + " " + path;
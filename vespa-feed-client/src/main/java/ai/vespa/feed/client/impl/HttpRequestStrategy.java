@@ -5,6 +5,7 @@ import ai.vespa.feed.client.DocumentId;
 import ai.vespa.feed.client.FeedClient;
 import ai.vespa.feed.client.FeedClient.CircuitBreaker;
 import ai.vespa.feed.client.FeedClient.RetryStrategy;
+import ai.vespa.feed.client.FeedClientBuilder;
 import ai.vespa.feed.client.FeedException;
 import ai.vespa.feed.client.HttpResponse ;
 import ai.vespa.feed.client.OperationStats;
@@ -76,7 +77,8 @@ class HttpRequestStrategy implements RequestStrategy {
         this.cluster = builder.benchmark ? new BenchmarkingCluster(cluster) : cluster;
         this.strategy = builder.retryStrategy;
         this.breaker = builder.circuitBreaker;
-        this.throttler = new DynamicThrottler(builder);
+        this.throttler = builder.throttlePolicy == FeedClientBuilder.ThrottlePolicy.LATENCY ? new LatencyThrottler(builder)
+                                                                                           : new DynamicThrottler(builder);
 
         Thread dispatcher = new Thread(this::dispatch, "feed-client-dispatcher");
         dispatcher.setDaemon(true);
@@ -109,7 +111,10 @@ class HttpRequestStrategy implements RequestStrategy {
 
     private void offer(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
         delayedCount.incrementAndGet();
-        queue.offer(() -> cluster.dispatch(request, vessel));
+        queue.offer(() -> {
+            throttler.dispatched(vessel);
+            cluster.dispatch(request, vessel);
+        });
     }
 
     private boolean poll() {
@@ -0,0 +1,98 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.HttpResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Keeps the number of inflight requests close to what the server side can process without queueing, much like TCP Vegas.
+ *
+ * The minimum latency of successful requests, over a sliding window, estimates the latency without any queueing,
+ * while the average latency over the last round of requests, i.e., the last target inflight number of responses,
+ * shows how much of the inflight window is queued on the server side. The target inflight count is increased while
+ * the average stays close to the minimum, and is decreased in proportion to the excess latency when it does not.
+ * Unlike {@link DynamicThrottler}, this backs off before the server starts rejecting requests.
+ *
+ * @author agent
+ */
+public class LatencyThrottler extends StaticThrottler {
+
+    static final double increaseBelowRatio = 1.25; // Increase target inflight when latency is below this multiple of the minimum.
+    static final double decreaseAboveRatio = 2.0; // Decrease target inflight when latency is above this multiple of the minimum.
+    static final long minLatencyWindowNanos = 10_000_000_000L; // Minimum latency is forgotten after 1-2 such windows.
+
+    private final LongSupplier nanoClock;
+    private final AtomicLong targetInflight;
+    private final AtomicLong peakInflight = new AtomicLong();
+    private long windowStartNanos;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private long previousMinLatencyNanos = Long.MAX_VALUE;
+    private long latencySumNanos = 0;
+    private long samples = 0;
+
+    public LatencyThrottler(FeedClientBuilderImpl builder) {
+        this(builder, System::nanoTime);
+    }
+
+    LatencyThrottler(FeedClientBuilderImpl builder, LongSupplier nanoClock) {
+        super(builder);
+        this.nanoClock = nanoClock;
+        this.targetInflight = new AtomicLong(8 * minInflight);
+        this.windowStartNanos = nanoClock.getAsLong();
+    }
+
+    @Override
+    public void sent(long inflight, CompletableFuture<HttpResponse> vessel) {
+        peakInflight.accumulateAndGet(inflight, Math::max);
+    }
+
+    @Override
+    public void dispatched(CompletableFuture<HttpResponse> vessel) {
+        long startNanos = nanoClock.getAsLong();
+        vessel.thenAccept(response -> {
+            if (response.code() / 100 == 2) // Only successful responses tell how long it takes to process an operation.
+                sampled(nanoClock.getAsLong() - startNanos);
+        });
+    }
+
+    /** Records the latency of a successful request, and adjusts target inflight when a full round of samples is recorded. */
+    synchronized void sampled(long latencyNanos) {
+        long nowNanos = nanoClock.getAsLong();
+        if (nowNanos - windowStartNanos > minLatencyWindowNanos) {
+            previousMinLatencyNanos = minLatencyNanos;
+            minLatencyNanos = Long.MAX_VALUE;
+            windowStartNanos = nowNanos;
+        }
+        minLatencyNanos = min(minLatencyNanos, max(1, latencyNanos));
+        latencySumNanos += latencyNanos;
+        if (++samples < targetInflight.get())
+            return;
+
+        double ratio = (double) latencySumNanos / samples / min(minLatencyNanos, previousMinLatencyNanos);
+        long current = targetInflight.get();
+        long target = current;
+        if (ratio < increaseBelowRatio) {
+            if (peakInflight.get() >= current / 2) // Only grow the window when it is actually used.
+                target = current + max(1, current / 8);
+        }
+        else if (ratio > decreaseAboveRatio) {
+            target = (long) (current * (increaseBelowRatio + decreaseAboveRatio) / 2 / ratio);
+        }
+        targetInflight.set(max(minInflight, min(maxInflight, target)));
+        peakInflight.set(0);
+        latencySumNanos = 0;
+        samples = 0;
+    }
+
+    @Override
+    public long targetInflight() {
+        return min(super.targetInflight(), targetInflight.get());
+    }
+
+}
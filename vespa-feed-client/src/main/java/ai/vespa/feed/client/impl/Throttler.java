@@ -17,6 +17,11 @@ interface Throttler {
      */
     void sent(long inflight, CompletableFuture<HttpResponse> vessel);
 
+    /**
+     * An attempt at a request was just dispatched to the cluster, and {@code vessel} completes with its result.
+     */
+    default void dispatched(CompletableFuture<HttpResponse> vessel) { }
+
     /**
      * A successful response was obtained.
      */
@@ -4,6 +4,7 @@ package ai.vespa.feed.client.impl;
 import ai.vespa.feed.client.DocumentId;
 import ai.vespa.feed.client.FeedClient;
 import ai.vespa.feed.client.FeedClientBuilder;
+import ai.vespa.feed.client.FeedClientBuilder.Compression;
 import ai.vespa.feed.client.HttpResponse;
 import ai.vespa.feed.client.OperationParameters;
 import ai.vespa.feed.client.OperationStats;
@@ -11,6 +12,9 @@ import ai.vespa.feed.client.Result;
 import ai.vespa.feed.client.ResultException;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.time.Duration;
 import java.util.Collections;
@@ -19,6 +23,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
+import java.util.zip.GZIPInputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -203,4 +208,64 @@ class HttpFeedClientTest {
         assertEquals("Status 500 executing 'POST /document/v1/ns/type/docid/0': Alla ska i jorden.", expected.getCause().getMessage());
     }
 
+    @Test
+    void testCompression() throws ExecutionException, InterruptedException, IOException {
+        DocumentId id = DocumentId.of("ns", "type", "0");
+        AtomicReference<HttpRequest> sent = new AtomicReference<>();
+        class MockRequestStrategy implements RequestStrategy {
+            @Override public OperationStats stats() { throw new UnsupportedOperationException(); }
+            @Override public FeedClient.CircuitBreaker.State circuitBreakerState() { return FeedClient.CircuitBreaker.State.CLOSED; }
+            @Override public void destroy() { throw new UnsupportedOperationException(); }
+            @Override public void await() { throw new UnsupportedOperationException(); }
+            @Override public CompletableFuture<HttpResponse> enqueue(DocumentId documentId, HttpRequest request) {
+                sent.set(request);
+                return CompletableFuture.completedFuture(HttpResponse.of(200, "{}".getBytes(UTF_8)));
+            }
+        }
+        String small = "{\"fields\":{\"text\":\"short\"}}";
+        String large = "{\"fields\":{\"text\":\"" + String.join(" ", Collections.nCopies(100, "repetitive")) + "\"}}";
+
+        // Bodies are not compressed by default.
+        FeedClient client = new HttpFeedClient(new FeedClientBuilderImpl(Collections.singletonList(URI.create("https://dummy:123"))), new MockRequestStrategy());
+        client.put(id, large, OperationParameters.empty()).get();
+        assertEquals(large, new String(sent.get().body(), UTF_8));
+        assertNull(sent.get().headers().get("Content-Encoding"));
+
+        // With automatic compression, small bodies are not compressed.
+        client = new HttpFeedClient(new FeedClientBuilderImpl(Collections.singletonList(URI.create("https://dummy:123"))).setCompression(Compression.AUTO),
+                                    new MockRequestStrategy());
+        client.put(id, small, OperationParameters.empty()).get();
+        assertEquals(small, new String(sent.get().body(), UTF_8));
+        assertNull(sent.get().headers().get("Content-Encoding"));
+
+        // With automatic compression, large bodies are compressed.
+        client.put(id, large, OperationParameters.empty()).get();
+        assertEquals("gzip", sent.get().headers().get("Content-Encoding").get());
+        assertEquals(large, new String(gunzip(sent.get().body()), UTF_8));
+        assertEquals(large.length(), sent.get().uncompressedSize());
+        assertTrue(sent.get().body().length * 10 < large.length());
+
+        // Compression may also be forced.
+
+        client = new HttpFeedClient(new FeedClientBuilderImpl(Collections.singletonList(URI.create("https://dummy:123"))).setCompression(Compression.GZIP),
+                                    new MockRequestStrategy());
+        client.put(id, small, OperationParameters.empty()).get();
+        assertEquals(small, new String(gunzip(sent.get().body()), UTF_8));
+
+        // Removes have no body to compress.
+        client.remove(id, OperationParameters.empty()).get();
+        assertNull(sent.get().body());
+        assertNull(sent.get().headers().get("Content-Encoding"));
+    }
+
+    static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int read; (read = in.read(buffer)) > 0; )
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+
 }
@@ -0,0 +1,27 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.FeedClientBuilder.ThrottlePolicy;
+import ai.vespa.feed.client.OperationStats;
+
+import static ai.vespa.feed.client.impl.LatencyThrottlerTest.feedSimulatedContainer;
+
+/**
+ * Compares the throughput and latency of the throttle policies, when feeding a simulated container.
+ *
+ * @author agent
+ */
+public class LatencyThrottlerBenchmark {
+
+    public static void main(String[] args) {
+        int documents = 1 << 14;
+        for (ThrottlePolicy policy : ThrottlePolicy.values()) {
+            long startNanos = System.nanoTime();
+            OperationStats stats = feedSimulatedContainer(policy, documents);
+            double seconds = (System.nanoTime() - startNanos) * 1e-9;
+            System.out.printf("%s: %.0f operations/s, %d ms average latency, %d rejected%n",
+                              policy, documents / seconds, stats.averageLatencyMillis(), stats.responsesByCode().getOrDefault(503, 0L));
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.DocumentId;
+import ai.vespa.feed.client.FeedClientBuilder.ThrottlePolicy;
+import ai.vespa.feed.client.HttpResponse;
+import ai.vespa.feed.client.OperationStats;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToDoubleFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author agent
+ */
+class LatencyThrottlerTest {
+
+    static final long millis = 1_000_000;
+
+    @Test
+    void testTargetFollowsLatency() {
+        AtomicLong now = new AtomicLong(0);
+        LatencyThrottler throttler = new LatencyThrottler(new FeedClientBuilderImpl(List.of(URI.create("https://dummy:123")))
+                                                                  .setConnectionsPerEndpoint(1),
+                                                          now::get);
+        assertEquals(128, throttler.targetInflight());
+
+        // Latency at the minimum, but window not used: no change.
+        sample(throttler, 128, 10 * millis);
+        assertEquals(128, throttler.targetInflight());
+
+        // Latency at the minimum, with the window in use: increase.
+        throttler.sent(128, null);
+        sample(throttler, 128, 10 * millis);
+        assertEquals(144, throttler.targetInflight());
+
+        // Latency slightly higher than the minimum: no change.
+        throttler.sent(144, null);
+        sample(throttler, 144, 15 * millis);
+        assertEquals(144, throttler.targetInflight());
+
+        // Latency much higher than the minimum: decrease in proportion.
+        sample(throttler, 144, 30 * millis);
+        assertEquals(78, throttler.targetInflight());
+
+        // Never below the minimum, of 16 streams per connection.
+        sample(throttler, 78, 1000 * millis);
+        assertEquals(16, throttler.targetInflight());
+
+        // The old minimum is forgotten after a while, and the new latency is the baseline.
+        now.addAndGet(LatencyThrottler.minLatencyWindowNanos + 1);
+        sample(throttler, 16, 1000 * millis);
+        now.addAndGet(LatencyThrottler.minLatencyWindowNanos + 1);
+        throttler.sent(16, null);
+        sample(throttler, 16, 1000 * millis);
+        assertEquals(18, throttler.targetInflight());
+
+        // Throttling from the server still caps the target.
+        throttler.throttled(2);
+        assertEquals(16, throttler.targetInflight());
+    }
+
+    static void sample(LatencyThrottler throttler, int count, long latencyNanos) {
+        for (int i = 0; i < count; i++)
+            throttler.sampled(latencyNanos);
+    }
+
+    @Test
+    void testFeedAgainstSimulatedContainer() {
+        for (ThrottlePolicy policy : ThrottlePolicy.values()) {
+            OperationStats stats = feedSimulatedContainer(policy, 1 << 8);
+            assertEquals(1 << 8, (long) stats.responsesByCode().get(200));
+        }
+    }
+
+    /** Feeds the given number of documents to a simulated container, using the given throttle policy, and returns the stats. */
+    static OperationStats feedSimulatedContainer(ThrottlePolicy policy, int documents) {
+        // A container with 64 workers, where service time grows slightly with concurrency, and which rejects beyond 1024 inflight.
+        IntToDoubleFunction serviceMillis = concurrent -> 2 + concurrent / 256.0;
+        SimulatedContainer container = new SimulatedContainer(64, 1024, serviceMillis);
+        HttpRequestStrategy strategy = new HttpRequestStrategy(new FeedClientBuilderImpl(List.of(URI.create("https://dummy:123")))
+                                                                       .setConnectionsPerEndpoint(4)
+                                                                       .setThrottlePolicy(policy),
+                                                               container);
+        HttpRequest request = new HttpRequest("POST", "/", null, null, null);
+        for (int i = 0; i < documents; i++)
+            strategy.enqueue(DocumentId.of("ns", "type", Integer.toString(i)), request);
+
+        strategy.await();
+        OperationStats stats = strategy.stats();
+        strategy.destroy();
+        container.close();
+        return stats;
+    }
+
+    /** Simulates a container with a number of workers, a configurable service time curve, and a bounded queue. */
+    static class SimulatedContainer implements Cluster {
+
+        final HttpResponse ok = HttpResponse.of(200, "{}".getBytes(UTF_8));
+        final HttpResponse overloaded = HttpResponse.of(503, "{}".getBytes(UTF_8));
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        final AtomicInteger inflight = new AtomicInteger();
+        final int workers;
+        final int maxInflight;
+        final IntToDoubleFunction serviceMillis;
+
+        SimulatedContainer(int workers, int maxInflight, IntToDoubleFunction serviceMillis) {
+            this.workers = workers;
+            this.maxInflight = maxInflight;
+            this.serviceMillis = serviceMillis;
+        }
+
+        @Override
+        public void dispatch(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
+            int concurrent = inflight.incrementAndGet();
+            if (concurrent > maxInflight) {
+                inflight.decrementAndGet();
+                vessel.complete(overloaded);
+                return;
+            }
+            // Requests beyond the number of workers are queued, and wait for their turn.
+            double latencyMillis = serviceMillis.applyAsDouble(Math.min(concurrent, workers)) * Math.max(1, (double) concurrent / workers);
+            executor.schedule(() -> {
+                                  inflight.decrementAndGet();
+                                  vessel.complete(ok);
+                              },
+                              (long) (latencyMillis * 1000), TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public void close() {
+            executor.shutdown();
+        }
+
+    }
+
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.yahoo.component.annotation.Inject;
 import com.yahoo.cloud.config.ClusterListConfig;
+import com.yahoo.compress.ZstdCompressor;
 import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.concurrent.SystemTimer;
 import com.yahoo.container.core.HandlerMetricContextUtil;
@@ -26,6 +27,8 @@ import com.yahoo.document.idstring.IdIdString;
 import com.yahoo.document.json.DocumentOperationType;
 import com.yahoo.document.json.JsonReader;
 import com.yahoo.document.json.JsonWriter;
+import com.yahoo.document.json.document.NonBlockingDocumentParser;
+import com.yahoo.document.json.readers.DocumentParseInfo;
 import com.yahoo.document.restapi.DocumentOperationExecutorConfig;
 import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.documentapi.AckToken;
@@ -52,9 +55,7 @@ import com.yahoo.jdisc.handler.AbstractRequestHandler;
 import com.yahoo.jdisc.handler.BufferedContentChannel;
 import com.yahoo.jdisc.handler.CompletionHandler;
 import com.yahoo.jdisc.handler.ContentChannel;
-import com.yahoo.jdisc.handler.ReadableContentChannel;
 import com.yahoo.jdisc.handler.ResponseHandler;
-import com.yahoo.jdisc.handler.UnsafeContentInputStream;
 import com.yahoo.jdisc.http.HttpRequest;
 import com.yahoo.jdisc.http.HttpRequest.Method;
 import com.yahoo.messagebus.DynamicThrottlePolicy;
@@ -73,12 +74,12 @@ import com.yahoo.yolean.Exceptions.RunnableThrowingIOException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
@@ -92,10 +93,12 @@ import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -365,7 +368,14 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         disallow(request, DRY_RUN);
         enqueueAndDispatch(request, handler, () -> {
             boolean streamed = getProperty(request, STREAM, booleanParser).orElse(false);
-            VisitorParameters parameters = parseGetParameters(request, path, streamed);
+            if (isParallel(request, streamed)) {
+                List<VisitorParameters> slices = parseSlicedGetParameters(request, path);
+                return () -> {
+                    visitAndWrite(request, slices, handler);
+                    return true; // VisitorSession has its own throttle handling.
+                };
+            }
+            VisitorParameters parameters = parseGetParameters(request, path, streamed, false);
             return () -> {
                 visitAndWrite(request, parameters, handler, streamed);
                 return true; // VisitorSession has its own throttle handling.
@@ -391,14 +401,14 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
 
     private ContentChannel putDocuments(HttpRequest request, DocumentPath path, ResponseHandler handler) {
         disallow(request, DRY_RUN);
-        return new ForwardingContentChannel(in -> {
+        return new ForwardingContentChannel(json -> {
             enqueueAndDispatch(request, handler, () -> {
                 StorageCluster cluster = resolveCluster(Optional.of(requireProperty(request, CLUSTER)), clusters);
                 VisitorParameters parameters = parseParameters(request, path);
                 parameters.setFieldSet(DocIdOnly.NAME);
                 String type = path.documentType().orElseThrow(() -> new IllegalStateException("Document type must be specified for mass updates"));
                 IdIdString dummyId = new IdIdString("dummy", type, "", "");
-                DocumentUpdate update = parser.parseUpdate(in, dummyId.toString());
+                DocumentUpdate update = parser.parseUpdate(json, dummyId.toString());
                 update.setCondition(new TestAndSetCondition(requireProperty(request, SELECTION)));
                 return () -> {
                     visitAndUpdate(request, parameters, handler, update, cluster.name());
@@ -452,9 +462,9 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             return ignoredContent;
         }
 
-        return new ForwardingContentChannel(in -> {
+        return new ForwardingContentChannel(json -> {
             enqueueAndDispatch(request, handler, () -> {
-                DocumentPut put = parser.parsePut(in, path.id().toString());
+                DocumentPut put = parser.parsePut(json, path.id().toString());
                 getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(put::setCondition);
                 DocumentOperationParameters parameters = parametersFromRequest(request, ROUTE)
                         .withResponseHandler(response -> {
@@ -474,9 +484,9 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             return ignoredContent;
         }
 
-        return new ForwardingContentChannel(in -> {
+        return new ForwardingContentChannel(json -> {
             enqueueAndDispatch(request, handler, () -> {
-                DocumentUpdate update = parser.parseUpdate(in, path.id().toString());
+                DocumentUpdate update = parser.parseUpdate(json, path.id().toString());
                 getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(update::setCondition);
                 getProperty(request, CREATE, booleanParser).ifPresent(update::setCreateIfNonExistent);
                 DocumentOperationParameters parameters = parametersFromRequest(request, ROUTE)
@@ -606,6 +616,8 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
 
         private static final ByteBuffer emptyBuffer = ByteBuffer.wrap(new byte[0]);
         private static final int FLUSH_SIZE = 128;
+        private static final long FLUSH_BYTES = 1 << 20;       // Flush queued documents early if they are this large.
+        private static final long MAX_PENDING_BYTES = 1 << 23; // Withhold acks while this much document data is not yet written.
 
         private final BufferedContentChannel buffer = new BufferedContentChannel();
         private final OutputStream out = new ContentChannelOutputStream(buffer);
@@ -617,9 +629,13 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         private final AtomicLong documentsWritten = new AtomicLong();
         private final AtomicLong documentsFlushed = new AtomicLong();
         private final AtomicLong documentsAcked = new AtomicLong();
+        private final AtomicLong bytesQueued = new AtomicLong();  // Serialised documents not yet passed to the network layer.
+        private final AtomicLong bytesPending = new AtomicLong(); // Serialised documents not yet written by the network layer.
         private boolean documentsDone = false;
         private boolean first = true;
+        private boolean zstd = false;
         private ContentChannel channel;
+        private volatile ZstdContentChannel compressedChannel;
 
         private JsonResponse(ResponseHandler handler) throws IOException {
             this(handler, null);
@@ -663,8 +679,12 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         synchronized void commit(int status) throws IOException {
             Response response = new Response(status);
             response.headers().addAll(Map.of("Content-Type", List.of("application/json; charset=UTF-8")));
+            if (zstd)
+                response.headers().add("Content-Encoding", "zstd");
             try {
                 channel = handler.handleResponse(response);
+                if (zstd)
+                    channel = compressedChannel = new ZstdContentChannel(channel);
                 buffer.connectTo(channel);
             }
             catch (RuntimeException e) {
@@ -697,6 +717,14 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             }
         }
 
+        /** Compresses all content of this with zstd, and sets the corresponding content encoding; must be called before commit. */
+        synchronized void compressWithZstd() {
+            if (channel != null)
+                throw new IllegalStateException("Response already committed");
+
+            zstd = true;
+        }
+
         synchronized void writePathId(String path) throws IOException {
             json.writeStringField("pathId", path);
         }
@@ -750,30 +778,46 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             json.writeArrayFieldStart("documents");
         }
 
-        /** Writes documents to an internal queue, which is flushed regularly. */
+        /**
+         * Writes documents to an internal queue, which is flushed regularly.
+         * The given completion handler is called when the network layer is ready for more data, which
+         * is when at most {@link #FLUSH_SIZE} documents, and {@link #MAX_PENDING_BYTES} bytes, are not yet written.
+         */
         void writeDocumentValue(Document document, CompletionHandler completionHandler) throws IOException {
-            if (completionHandler != null) {
-                acks.add(completionHandler);
-                ackDocuments();
-            }
-
-            // Serialise document and add to queue, not necessarily in the order dictated by "written" above,
+            // Serialise document and add to queue, not necessarily in the order dictated by "written" below,
             // i.e., the first 128 documents in the queue are not necessarily the ones ack'ed early.
             ByteArrayOutputStream myOut = new ByteArrayOutputStream(1);
             myOut.write(','); // Prepend rather than append, to avoid double memory copying.
             try (JsonGenerator myJson = jsonFactory.createGenerator(myOut)) {
                 new JsonWriter(myJson, tensorShortForm()).write(document);
             }
+            bytesPending.addAndGet(myOut.size());
             docs.add(myOut);
 
-            // Flush the first FLUSH_SIZE documents in the queue to the network layer if chunk is filled.
-            if (documentsWritten.incrementAndGet() % FLUSH_SIZE == 0) {
+            if (completionHandler != null) {
+                acks.add(completionHandler);
+                ackDocuments();
+            }
+
+            // Flush the first FLUSH_SIZE documents in the queue to the network layer if chunk is filled, or large enough.
+            boolean chunkFilled = documentsWritten.incrementAndGet() % FLUSH_SIZE == 0;
+            if (bytesQueued.addAndGet(myOut.size()) >= FLUSH_BYTES || chunkFilled) {
                 flushDocuments();
+                writeCompressed();
             }
         }
 
+        /** Compresses and writes any complete zstd frames, outside the lock of this, so other writers are not held up. */
+        private void writeCompressed() {
+            ZstdContentChannel compressed = compressedChannel;
+            if (compressed != null)
+                compressed.writeFrames();
+        }
+
+        /** Acks documents while the network layer keeps up, and leaves the rest to be acked when pending writes complete. */
         void ackDocuments() {
-            while (documentsAcked.incrementAndGet() <= documentsFlushed.get() + FLUSH_SIZE) {
+            while (   documentsAcked.incrementAndGet() <= documentsFlushed.get() + FLUSH_SIZE
+                   && bytesPending.get() < MAX_PENDING_BYTES) {
                 CompletionHandler ack = acks.poll();
                 if (ack != null)
                     ack.completed();
@@ -784,11 +828,14 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         }
 
         synchronized void flushDocuments() throws IOException {
-            for (int i = 0; i < FLUSH_SIZE; i++) {
+            int count = 0;
+            long bytes = 0;
+            for ( ; count < FLUSH_SIZE; count++) {
                 ByteArrayOutputStream doc = docs.poll();
                 if (doc == null)
                     break;
 
+                bytes += doc.size();
                 if ( ! documentsDone) {
                     if (first) { // First chunk, remove leading comma from first document, and flush "json" to "buffer".
                         json.flush();
@@ -801,10 +848,16 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
                 }
             }
 
+            bytesQueued.addAndGet(-bytes);
+
             // Ensure new, eligible acks are done, after flushing these documents.
+            // Writes complete in order, so all documents above are written by the network layer when this completes.
+            long flushedBytes = bytes;
+            int flushedCount = count;
             buffer.write(emptyBuffer, new CompletionHandler() {
                 @Override public void completed() {
-                    documentsFlushed.addAndGet(FLUSH_SIZE);
+                    bytesPending.addAndGet(-flushedBytes);
+                    documentsFlushed.addAndGet(flushedCount);
                     ackDocuments();
                 }
                 @Override public void failed(Throwable t) {
@@ -826,6 +879,106 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
 
     }
 
+    /**
+     * Content channel which compresses its content into zstd frames; concatenated frames form a valid zstd stream.
+     * Written data is collected until it fills a frame of {@link JsonResponse#FLUSH_BYTES}, or an empty buffer is written
+     * to flush it, and complete frames are then compressed and passed on by {@link #writeFrames()}, or when this is closed.
+     * Completion handlers of writes are called when the frame containing their data is written by the delegate.
+     */
+    private static class ZstdContentChannel implements ContentChannel {
+
+        private final ZstdCompressor compressor = new ZstdCompressor();
+        private final Queue<Frame> frames = new ConcurrentLinkedQueue<>();
+        private final Object compressionLock = new Object();
+        private final ContentChannel delegate;
+        private ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private List<CompletionHandler> handlers = new ArrayList<>();
+
+        private ZstdContentChannel(ContentChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void write(ByteBuffer buf, CompletionHandler handler) {
+            boolean flush = ! buf.hasRemaining();
+            if (buf.hasArray()) {
+                data.write(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+                buf.position(buf.limit());
+            }
+            else {
+                byte[] bytes = new byte[buf.remaining()];
+                buf.get(bytes);
+                data.write(bytes, 0, bytes.length);
+            }
+            if (handler != null)
+                handlers.add(handler);
+
+            if (flush || data.size() >= JsonResponse.FLUSH_BYTES)
+                completeFrame();
+        }
+
+        private void completeFrame() {
+            frames.add(new Frame(data.toByteArray(), handlers));
+            data = new ByteArrayOutputStream();
+            handlers = new ArrayList<>();
+        }
+
+        /** Compresses and writes all complete frames, in order. */
+        void writeFrames() {
+            synchronized (compressionLock) {
+                for (Frame frame; (frame = frames.poll()) != null; )
+                    delegate.write(frame.data.length == 0 ? ByteBuffer.wrap(frame.data)
+                                                          : ByteBuffer.wrap(compressor.compress(frame.data, 0, frame.data.length)),
+                                   frame);
+            }
+        }
+
+        @Override
+        public void close(CompletionHandler handler) {
+            synchronized (this) {
+                if (data.size() > 0 || ! handlers.isEmpty())
+                    completeFrame();
+            }
+            writeFrames();
+            delegate.close(handler);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            delegate.onError(error);
+        }
+
+        private static class Frame implements CompletionHandler {
+
+            private final byte[] data;
+            private final List<CompletionHandler> handlers;
+
+            private Frame(byte[] data, List<CompletionHandler> handlers) {
+                this.data = data;
+                this.handlers = handlers;
+            }
+
+            @Override public void completed() { handlers.forEach(CompletionHandler::completed); }
+
+            @Override public void failed(Throwable t) { handlers.forEach(handler -> handler.failed(t)); }
+
+        }
+
+    }
+
+    /** Returns whether the client lists zstd as an acceptable content encoding. */
+    private static boolean acceptsZstd(HttpRequest request) {
+        List<String> values = request.headers().get("Accept-Encoding");
+        if (values == null)
+            return false;
+
+        return values.stream()
+                     .flatMap(value -> Stream.of(value.split(",")))
+                     .map(encoding -> encoding.split(";"))
+                     .anyMatch(encoding ->    encoding[0].trim().equalsIgnoreCase("zstd")
+                                           && Stream.of(encoding).skip(1).map(String::trim).noneMatch(q -> q.matches("q=0(\\.0*)?")));
+    }
+
     private static void options(Collection<Method> methods, ResponseHandler handler) {
         loggingException(() -> {
             Response response = new Response(Response.Status.NO_CONTENT);
@@ -969,22 +1122,25 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         private DispatchException(Throwable cause) { super(cause); }
     }
 
-    /** Readable content channel which forwards data to a reader when closed. */
+    /**
+     * Content channel which parses a JSON document operation as data arrives, and forwards the parser to a reader when closed.
+     * Parse errors are kept by the parser, and thrown when the reader asks it for the parsed document content.
+     */
     static class ForwardingContentChannel implements ContentChannel {
 
-        private final ReadableContentChannel delegate = new ReadableContentChannel();
-        private final Consumer<InputStream> reader;
+        private final NonBlockingDocumentParser parser = new NonBlockingDocumentParser(jsonFactory);
+        private final Consumer<NonBlockingDocumentParser> reader;
         private volatile boolean errorReported = false;
 
-        public ForwardingContentChannel(Consumer<InputStream> reader) {
+        public ForwardingContentChannel(Consumer<NonBlockingDocumentParser> reader) {
             this.reader = reader;
         }
 
-        /** Write is complete when we have stored the buffer — call completion handler. */
+        /** Write is complete when we have parsed the buffer — call completion handler. */
         @Override
-        public void write(ByteBuffer buf, CompletionHandler handler) {
+        public synchronized void write(ByteBuffer buf, CompletionHandler handler) {
             try {
-                delegate.write(buf, logException);
+                parser.feed(buf);
                 handler.completed();
             }
             catch (Exception e) {
@@ -992,13 +1148,12 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             }
         }
 
-        /** Close is complete when we have closed the buffer. */
+        /** Close is complete when we have forwarded the parser. */
         @Override
-        public void close(CompletionHandler handler) {
+        public synchronized void close(CompletionHandler handler) {
             try {
-                delegate.close(logException);
                 if (!errorReported) {
-                    reader.accept(new UnsafeContentInputStream(delegate));
+                    reader.accept(parser);
                 }
                 handler.completed();
             }
@@ -1023,16 +1178,21 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             this.manager = new DocumentTypeManager(config);
         }
 
-        DocumentPut parsePut(InputStream inputStream, String docId) {
-            return (DocumentPut) parse(inputStream, docId, DocumentOperationType.PUT);
+        /** Returns a put whose fields are transcoded directly to their serialized form, and deserialized only if accessed. */
+        DocumentPut parsePut(NonBlockingDocumentParser parser, String docId) {
+            DocumentParseInfo documentParseInfo = parser.documentParseInfo();
+            documentParseInfo.documentId = new DocumentId(docId);
+            return JsonReader.createPut(manager, documentParseInfo);
         }
 
-        DocumentUpdate parseUpdate(InputStream inputStream, String docId)  {
-            return (DocumentUpdate) parse(inputStream, docId, DocumentOperationType.UPDATE);
+        DocumentUpdate parseUpdate(NonBlockingDocumentParser parser, String docId)  {
+            return (DocumentUpdate) parse(parser, docId, DocumentOperationType.UPDATE);
         }
 
-        private DocumentOperation parse(InputStream inputStream, String docId, DocumentOperationType operation)  {
-            return new JsonReader(manager, inputStream, jsonFactory).readSingleDocument(operation, docId);
+        private DocumentOperation parse(NonBlockingDocumentParser parser, String docId, DocumentOperationType operation)  {
+            DocumentParseInfo documentParseInfo = parser.documentParseInfo();
+            documentParseInfo.documentId = new DocumentId(docId);
+            return JsonReader.createDocumentOperation(manager, documentParseInfo, operation);
         }
 
     }
@@ -1109,7 +1269,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
 
     // ------------------------------------------------- Visits ------------------------------------------------
 
-    private VisitorParameters parseGetParameters(HttpRequest request, DocumentPath path, boolean streamed) {
+    private VisitorParameters parseGetParameters(HttpRequest request, DocumentPath path, boolean streamed, boolean parallel) {
         int wantedDocumentCount = Math.min(streamed ? Integer.MAX_VALUE : 1 << 10,
                                            getProperty(request, WANTED_DOCUMENT_COUNT, integerParser)
                                                    .orElse(streamed ? Integer.MAX_VALUE : 1));
@@ -1126,7 +1286,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         if (cluster.isEmpty() && path.documentType().isEmpty())
             throw new IllegalArgumentException("Must set 'cluster' parameter to a valid content cluster id when visiting at a root /document/v1/ level");
 
-        VisitorParameters parameters = parseCommonParameters(request, path, cluster);
+        VisitorParameters parameters = parseCommonParameters(request, path, cluster, parallel);
         // TODO can the else-case be safely reduced to always be DocumentOnly.NAME?
         parameters.setFieldSet(getProperty(request, FIELD_SET).orElse(path.documentType().map(type -> type + ":[document]").orElse(DocumentOnly.NAME)));
         parameters.setMaxTotalHits(wantedDocumentCount);
@@ -1145,17 +1305,77 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         return parameters;
     }
 
+    /** Returns whether this is a streamed visit which should be split into the requested number of slices, and run in parallel. */
+    private static boolean isParallel(HttpRequest request, boolean streamed) {
+        return streamed && request.parameters().containsKey(SLICES) && ! request.parameters().containsKey(SLICE_ID);
+    }
+
+    /**
+     * Returns parameters for each slice of a parallel visit, resumed from the composite continuation, if present.
+     * Slices which are already finished are left out.
+     */
+    private List<VisitorParameters> parseSlicedGetParameters(HttpRequest request, DocumentPath path) {
+        int slices = getProperty(request, SLICES, integerParser).orElseThrow();
+        if (slices <= 0)
+            throw new IllegalArgumentException("slices must be positive");
+
+        List<ProgressToken> progress = getProperty(request, CONTINUATION).map(token -> parseSlicedProgress(token, slices))
+                                                                         .orElse(Collections.nCopies(slices, null));
+        List<VisitorParameters> parameters = new ArrayList<>();
+        for (int sliceId = 0; sliceId < slices; sliceId++) {
+            if (progress.get(sliceId) != null && progress.get(sliceId).isFinished())
+                continue;
+
+            VisitorParameters slice = parseGetParameters(request, path, true, true);
+            slice.slice(slices, sliceId);
+            slice.setResumeToken(progress.get(sliceId));
+            if (slice.getMaxTotalHits() < Integer.MAX_VALUE)
+                slice.setMaxTotalHits((slice.getMaxTotalHits() + slices - 1) / slices);
+
+            parameters.add(slice);
+        }
+        if (parameters.isEmpty())
+            throw new IllegalArgumentException("All slices in the given continuation token are already finished");
+
+        return parameters;
+    }
+
+    /**
+     * Serialises the progress of each slice of a parallel visit to a composite continuation token.
+     * This is the serialised progress token of each slice, in order, separated by '.'; a slice without progress is empty.
+     */
+    static String serializeSlicedProgress(List<ProgressToken> progress) {
+        return progress.stream()
+                       .map(token -> token == null ? "" : token.serializeToString())
+                       .collect(joining("."));
+    }
+
+    /** Parses a composite continuation token, as serialised by {@link #serializeSlicedProgress}, with the given number of slices. */
+    static List<ProgressToken> parseSlicedProgress(String continuation, int slices) {
+        String[] tokens = continuation.split("\\.", -1);
+        if (tokens.length != slices)
+            throw new IllegalArgumentException("Continuation token has progress for " + tokens.length + " slices, but '" +
+                                               SLICES + "' is " + slices);
+
+        List<ProgressToken> progress = new ArrayList<>();
+        for (String token : tokens)
+            progress.add(token.isEmpty() ? null : ProgressToken.fromSerializedString(token));
+
+        return progress;
+    }
+
     private VisitorParameters parseParameters(HttpRequest request, DocumentPath path) {
         disallow(request, CONCURRENCY, FIELD_SET, ROUTE, WANTED_DOCUMENT_COUNT);
         requireProperty(request, SELECTION);
-        VisitorParameters parameters = parseCommonParameters(request, path, Optional.of(requireProperty(request, CLUSTER)));
+        VisitorParameters parameters = parseCommonParameters(request, path, Optional.of(requireProperty(request, CLUSTER)), false);
         parameters.setThrottlePolicy(new DynamicThrottlePolicy().setMinWindowSize(1).setWindowSizeIncrement(1));
         long timeChunk = getProperty(request, TIME_CHUNK, timeoutMillisParser).orElse(60_000L);
         parameters.setSessionTimeoutMs(Math.max(1, Math.min(timeChunk, request.getTimeout(MILLISECONDS) - handlerTimeout.toMillis())));
         return parameters;
     }
 
-    private VisitorParameters parseCommonParameters(HttpRequest request, DocumentPath path, Optional<String> cluster) {
+    /** Returns parameters common to all visits; the continuation and slice of a parallel visit are set per slice by the caller. */
+    private VisitorParameters parseCommonParameters(HttpRequest request, DocumentPath path, Optional<String> cluster, boolean parallel) {
         VisitorParameters parameters = new VisitorParameters(Stream.of(getProperty(request, SELECTION),
                                                                        path.documentType(),
                                                                        path.namespace().map(value -> "id.namespace=='" + value + "'"),
@@ -1166,7 +1386,9 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
                                                                            StringJoiner::merge)
                                                                    .toString());
 
-        getProperty(request, CONTINUATION).map(ProgressToken::fromSerializedString).ifPresent(parameters::setResumeToken);
+        if ( ! parallel)
+            getProperty(request, CONTINUATION).map(ProgressToken::fromSerializedString).ifPresent(parameters::setResumeToken);
+
         parameters.setPriority(DocumentProtocol.Priority.NORMAL_4);
 
         StorageCluster storageCluster = resolveCluster(cluster, clusters);
@@ -1180,7 +1402,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         Optional<Integer> sliceId = getProperty(request, SLICE_ID, integerParser);
         if (slices.isPresent() && sliceId.isPresent())
             parameters.slice(slices.get(), sliceId.get());
-        else if (slices.isPresent() != sliceId.isPresent())
+        else if (slices.isPresent() != sliceId.isPresent() && ! parallel)
             throw new IllegalArgumentException("None or both of '" + SLICES + "' and '" + SLICE_ID + "' must be set");
 
         return parameters;
@@ -1255,8 +1477,20 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     }
 
     private void visitAndWrite(HttpRequest request, VisitorParameters parameters, ResponseHandler handler, boolean streamed) {
-        visit(request, parameters, streamed, handler, new VisitCallback() {
+        visit(request, List.of(parameters), false, streamed, handler, writingCallback(request, streamed));
+    }
+
+    /** Visits all the given slices in parallel, interleaving their documents in a single, streamed response. */
+    private void visitAndWrite(HttpRequest request, List<VisitorParameters> slices, ResponseHandler handler) {
+        visit(request, slices, true, true, handler, writingCallback(request, true));
+    }
+
+    private static VisitCallback writingCallback(HttpRequest request, boolean streamed) {
+        return new VisitCallback() {
             @Override public void onStart(JsonResponse response) throws IOException {
+                if (acceptsZstd(request))
+                    response.compressWithZstd();
+
                 if (streamed)
                     response.commit(Response.Status.OK);
 
@@ -1284,84 +1518,93 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             @Override public void onEnd(JsonResponse response) throws IOException {
                 response.writeArrayEnd();
             }
-        });
+        };
     }
 
     private void visitWithRemote(HttpRequest request, VisitorParameters parameters, ResponseHandler handler) {
         visit(request, parameters, false, handler, new VisitCallback() { });
     }
 
-    @SuppressWarnings("fallthrough")
     private void visit(HttpRequest request, VisitorParameters parameters, boolean streaming, ResponseHandler handler, VisitCallback callback) {
+        visit(request, List.of(parameters), false, streaming, handler, callback);
+    }
+
+    /**
+     * Visits with each of the given parameters in parallel, and renders the combined result to a single response.
+     * If sliced, the continuation is the composite of the progress of all slices; see {@link #serializeSlicedProgress}.
+     */
+    @SuppressWarnings("fallthrough")
+    private void visit(HttpRequest request, List<VisitorParameters> slices, boolean sliced, boolean streaming,
+                       ResponseHandler handler, VisitCallback callback) {
         try {
             JsonResponse response = JsonResponse.create(request, handler);
-            Phaser phaser = new Phaser(2); // Synchronize this thread (dispatch) with the visitor callback thread.
             AtomicReference<String> error = new AtomicReference<>(); // Set if error occurs during processing of visited documents.
+            AtomicInteger remaining = new AtomicInteger(slices.size()); // The last visit to complete renders the end of the response.
+            List<VisitorControlHandler> controllers = new CopyOnWriteArrayList<>();
             callback.onStart(response);
-            VisitorControlHandler controller = new VisitorControlHandler() {
-                final ScheduledFuture<?> abort = streaming ? visitDispatcher.schedule(this::abort, request.getTimeout(MILLISECONDS), MILLISECONDS) : null;
-                @Override public void onDone(CompletionCode code, String message) {
-                    super.onDone(code, message);
-                    loggingException(() -> {
-                        try (response) {
-                            callback.onEnd(response);
-
-                            if (getVisitorStatistics() != null)
-                                response.writeDocumentCount(getVisitorStatistics().getDocumentsVisited());
-
-                            int status = Response.Status.BAD_GATEWAY;
-                            switch (code) {
-                                case TIMEOUT:
-                                    if ( ! hasVisitedAnyBuckets() && parameters.getVisitInconsistentBuckets()) {
-                                        response.writeMessage("No buckets visited within timeout of " +
-                                                              parameters.getSessionTimeoutMs() + "ms (request timeout -5s)");
-                                        status = Response.Status.GATEWAY_TIMEOUT;
-                                        break;
-                                    }
-                                case SUCCESS: // Intentional fallthrough.
-                                case ABORTED: // Intentional fallthrough.
-                                    if (error.get() == null) {
-                                        ProgressToken progress = getProgress() != null ? getProgress() : parameters.getResumeToken();
-                                        if (progress != null && ! progress.isFinished())
-                                            response.writeContinuation(progress.serializeToString());
-
-                                        status = Response.Status.OK;
-                                        break;
-                                    }
-                                default:
-                                    response.writeMessage(error.get() != null ? error.get() : message != null ? message : "Visiting failed");
-                            }
-                            if ( ! streaming)
-                                response.commit(status);
+            for (VisitorParameters parameters : slices) {
+                Phaser phaser = new Phaser(2); // Synchronize this thread (dispatch) with the visitor callback thread.
+                VisitorControlHandler controller = new VisitorControlHandler() {
+                    final ScheduledFuture<?> abort = streaming ? visitDispatcher.schedule(this::abort, request.getTimeout(MILLISECONDS), MILLISECONDS) : null;
+                    @Override public void onDone(CompletionCode code, String message) {
+                        super.onDone(code, message);
+                        if (remaining.decrementAndGet() == 0)
+                            loggingException(() -> {
+                                try (response) {
+                                    callback.onEnd(response);
+                                    renderEnd(response, slices, controllers, sliced, error.get(), streaming);
+                                }
+                            });
+                        if (abort != null) abort.cancel(false); // Avoid keeping scheduled future alive if this completes in any other fashion.
+                        visitDispatcher.execute(() -> {
+                            phaser.arriveAndAwaitAdvance(); // We may get here while dispatching thread is still putting us in the map.
+                            VisitorSession session = visits.remove(this);
+                            if (session != null) session.destroy(); // Not present if the session failed to start.
+                        });
+
+                    }
+                };
+                if (parameters.getRemoteDataHandler() == null) {
+                    parameters.setLocalDataHandler(new VisitorDataHandler() {
+                        @Override public void onMessage(Message m, AckToken token) {
+                            if (m instanceof PutDocumentMessage)
+                                callback.onDocument(response,
+                                                    ((PutDocumentMessage) m).getDocumentPut().getDocument(),
+                                                    () -> ack(token),
+                                                    errorMessage -> {
+                                                        error.set(errorMessage);
+                                                        controller.abort();
+                                                        abortOthers(controllers, controller); // Other slices of this visit are pointless now.
+                                                    });
+                            else
+                                throw new UnsupportedOperationException("Only PutDocumentMessage is supported, but got a " + m.getClass());
                         }
                     });
-                    if (abort != null) abort.cancel(false); // Avoid keeping scheduled future alive if this completes in any other fashion.
-                    visitDispatcher.execute(() -> {
-                        phaser.arriveAndAwaitAdvance(); // We may get here while dispatching thread is still putting us in the map.
-                        visits.remove(this).destroy();
-                    });
-
                 }
-            };
-            if (parameters.getRemoteDataHandler() == null) {
-                parameters.setLocalDataHandler(new VisitorDataHandler() {
-                    @Override public void onMessage(Message m, AckToken token) {
-                        if (m instanceof PutDocumentMessage)
-                            callback.onDocument(response,
-                                                ((PutDocumentMessage) m).getDocumentPut().getDocument(),
-                                                () -> ack(token),
-                                                errorMessage -> {
-                                                    error.set(errorMessage);
-                                                    controller.abort();
-                                                });
-                        else
-                            throw new UnsupportedOperationException("Only PutDocumentMessage is supported, but got a " + m.getClass());
-                    }
-                });
+                parameters.setControlHandler(controller);
+                controllers.add(controller);
+                VisitorSession session;
+                try {
+                    session = access.createVisitorSession(parameters);
+                }
+                catch (ParseException | RuntimeException e) {
+                    if (controllers.size() == 1 && ! streaming)
+                        throw e; // Nothing is started, and nothing is written yet, so the error is the response.
+
+                    // Slices not yet started never complete, and those already started are pointless now.
+                    error.set("Failed starting visit" + (sliced ? " of slice " + parameters.getSliceId() : "") +
+                              ": " + Exceptions.toMessageString(e));
+                    remaining.addAndGet(controllers.size() - slices.size());
+                    abortOthers(controllers, controller);
+                    phaser.arriveAndDeregister();
+                    controller.onDone(VisitorControlHandler.CompletionCode.FAILURE, error.get());
+                    break;
+                }
+                visits.put(controller, session);
+                phaser.arriveAndDeregister();
+                if (error.get() != null) // Another slice failed before this was started.
+                    session.abort();
             }
-            parameters.setControlHandler(controller);
-            visits.put(controller, access.createVisitorSession(parameters));
-            phaser.arriveAndDeregister();
         }
         catch (ParseException e) {
             badRequest(request, new IllegalArgumentException(e), handler);
@@ -1371,6 +1614,86 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         }
     }
 
+    /** Aborts all the given visits which are already started, except the given one. */
+    private void abortOthers(List<VisitorControlHandler> controllers, VisitorControlHandler except) {
+        for (VisitorControlHandler controller : controllers) {
+            VisitorSession session = controller == except ? null : visits.get(controller);
+            if (session != null) session.abort();
+        }
+    }
+
+    /**
+     * Writes document count, continuation and message to the given response, based on the outcome of all the given visits.
+     * Only the first slices, which have controllers, were started, if starting one of them failed.
+     */
+    @SuppressWarnings("fallthrough")
+    private static void renderEnd(JsonResponse response, List<VisitorParameters> slices, List<VisitorControlHandler> controllers,
+                                  boolean sliced, String error, boolean streaming) throws IOException {
+        if (controllers.stream().anyMatch(controller -> controller.getVisitorStatistics() != null))
+            response.writeDocumentCount(controllers.stream()
+                                                   .filter(controller -> controller.getVisitorStatistics() != null)
+                                                   .mapToLong(controller -> controller.getVisitorStatistics().getDocumentsVisited())
+                                                   .sum());
+
+        int status = Response.Status.OK;
+        String failure = null;
+        for (int i = 0; i < controllers.size() && failure == null; i++) {
+            VisitorControlHandler controller = controllers.get(i);
+            VisitorParameters parameters = slices.get(i);
+            VisitorControlHandler.Result result = controller.getResult();
+            switch (result.getCode()) {
+                case TIMEOUT:
+                    if ( ! controller.hasVisitedAnyBuckets() && parameters.getVisitInconsistentBuckets()) {
+                        failure = "No buckets visited within timeout of " + parameters.getSessionTimeoutMs() + "ms (request timeout -5s)";
+                        status = Response.Status.GATEWAY_TIMEOUT;
+                        break;
+                    }
+                case SUCCESS: // Intentional fallthrough.
+                case ABORTED: // Intentional fallthrough.
+                    if (error == null)
+                        break;
+                default:
+                    failure = error != null ? error : result.getMessage() != null ? result.getMessage() : "Visiting failed";
+                    status = Response.Status.BAD_GATEWAY;
+            }
+        }
+
+        if (failure != null)
+            response.writeMessage(failure);
+        else if (sliced)
+            writeSlicedContinuation(response, slices, controllers);
+        else {
+            ProgressToken progress = progressOf(controllers.get(0), slices.get(0));
+            if (progress != null && ! progress.isFinished())
+                response.writeContinuation(progress.serializeToString());
+        }
+
+        if ( ! streaming)
+            response.commit(status);
+    }
+
+    /** Writes the composite progress of all slices, if any of them are unfinished; slices finished earlier are not included in the given lists. */
+    private static void writeSlicedContinuation(JsonResponse response, List<VisitorParameters> slices,
+                                                List<VisitorControlHandler> controllers) throws IOException {
+        int sliceCount = slices.get(0).getSlices();
+        List<ProgressToken> progress = new ArrayList<>(Collections.nCopies(sliceCount, new ProgressToken())); // Finished.
+        boolean finished = true;
+        for (int i = 0; i < slices.size(); i++) {
+            ProgressToken token = progressOf(controllers.get(i), slices.get(i));
+            if (token == null && controllers.get(i).getResult().getCode() == VisitorControlHandler.CompletionCode.SUCCESS)
+                continue; // Completed without reporting any progress.
+
+            progress.set(slices.get(i).getSliceId(), token);
+            finished &= token != null && token.isFinished();
+        }
+        if ( ! finished)
+            response.writeContinuation(serializeSlicedProgress(progress));
+    }
+
+    private static ProgressToken progressOf(VisitorControlHandler controller, VisitorParameters parameters) {
+        return controller.getProgress() != null ? controller.getProgress() : parameters.getResumeToken();
+    }
+
     // ------------------------------------------------ Helpers ------------------------------------------------
 
     private static String requireProperty(HttpRequest request, String name) {
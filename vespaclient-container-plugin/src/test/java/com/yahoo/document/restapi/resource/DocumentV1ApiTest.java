@@ -2,6 +2,7 @@
 package com.yahoo.document.restapi.resource;
 
 import com.yahoo.cloud.config.ClusterListConfig;
+import com.yahoo.compress.ZstdInputStream;
 import com.yahoo.container.jdisc.RequestHandlerTestDriver;
 import com.yahoo.document.BucketId;
 import com.yahoo.document.Document;
@@ -43,6 +44,9 @@ import com.yahoo.documentapi.VisitorParameters;
 import com.yahoo.documentapi.VisitorResponse;
 import com.yahoo.documentapi.VisitorSession;
 import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
+import com.yahoo.jdisc.Request;
+import com.yahoo.jdisc.handler.ReadableContentChannel;
+import com.yahoo.jdisc.http.HttpRequest;
 import com.yahoo.jdisc.test.MockMetric;
 import com.yahoo.messagebus.StaticThrottlePolicy;
 import com.yahoo.messagebus.Trace;
@@ -62,8 +66,11 @@ import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -77,6 +84,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -89,6 +97,7 @@ import static com.yahoo.jdisc.http.HttpRequest.Method.POST;
 import static com.yahoo.jdisc.http.HttpRequest.Method.PUT;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -300,6 +309,106 @@ public class DocumentV1ApiTest {
                        "}", response.readAll());
         assertEquals(200, response.getStatus());
 
+        // GET with slices, but no sliceId, in streaming mode, is a parallel visit over all slices, with a composite continuation.
+        ProgressToken unfinished = new ProgressToken();
+        VisitorIterator.createFromExplicitBucketSet(Set.of(new BucketId(1), new BucketId(2)), 8, unfinished)
+                       .update(new BucketId(1), new BucketId(1));
+        String sliced = DocumentV1ApiHandler.serializeSlicedProgress(List.of(unfinished, new ProgressToken()));
+        access.expect(tokens.subList(0, 2));
+        access.expect(parameters -> {
+            assertEquals(2, parameters.getSlices());
+            assertNull(parameters.getResumeToken());
+            VisitorStatistics statistics = new VisitorStatistics();
+            statistics.setBucketsVisited(1);
+            statistics.setDocumentsVisited(1);
+            parameters.getControlHandler().onVisitorStatistics(statistics);
+            if (parameters.getSliceId() == 0) {
+                parameters.getLocalDataHandler().onMessage(new PutDocumentMessage(new DocumentPut(doc1)), tokens.get(0));
+                parameters.getControlHandler().onProgress(unfinished);
+                parameters.getControlHandler().onDone(VisitorControlHandler.CompletionCode.TIMEOUT, "timeout is OK");
+            }
+            else {
+                assertEquals(1, parameters.getSliceId());
+                parameters.getLocalDataHandler().onMessage(new PutDocumentMessage(new DocumentPut(doc2)), tokens.get(1));
+                parameters.getControlHandler().onDone(VisitorControlHandler.CompletionCode.SUCCESS, "done");
+            }
+        });
+        response = driver.sendRequest("http://localhost/document/v1?cluster=content&fieldSet=[id]&stream=true&slices=2");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1\"," +
+                       "  \"documents\": [" +
+                       "    {" +
+                       "      \"id\": \"id:space:music::one\"," +
+                       "      \"fields\": {" +
+                       "        \"artist\": \"Tom Waits\"," +
+                       "        \"embedding\": { \"type\": \"tensor(x[3])\", \"values\": [1.0,2.0,3.0] } " +
+                       "      }" +
+                       "    }," +
+                       "    {" +
+                       "      \"id\": \"id:space:music:n=1:two\"," +
+                       "      \"fields\": {" +
+                       "        \"artist\": \"Asa-Chan & Jun-Ray\"," +
+                       "        \"embedding\": { \"type\": \"tensor(x[3])\", \"values\": [4.0,5.0,6.0] } " +
+                       "      }" +
+                       "    }" +
+                       "  ]," +
+                       "  \"documentCount\": 2," +
+                       "  \"continuation\": \"" + sliced + "\"" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
+        // Resuming a parallel visit only visits the unfinished slices.
+        access.expect(parameters -> {
+            assertEquals(2, parameters.getSlices());
+            assertEquals(0, parameters.getSliceId());
+            assertEquals(unfinished.serializeToString(), parameters.getResumeToken().serializeToString());
+            parameters.getControlHandler().onProgress(new ProgressToken()); // Finished.
+            parameters.getControlHandler().onDone(VisitorControlHandler.CompletionCode.SUCCESS, "done");
+        });
+        response = driver.sendRequest("http://localhost/document/v1?cluster=content&stream=true&slices=2&continuation=" + sliced);
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1\"," +
+                       "  \"documents\": []" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
+        // A composite continuation must match the number of slices.
+        response = driver.sendRequest("http://localhost/document/v1?cluster=content&stream=true&slices=3&continuation=" + sliced);
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1\"," +
+                       "  \"message\": \"Continuation token has progress for 2 slices, but 'slices' is 3\"" +
+                       "}", response.readAll());
+        assertEquals(400, response.getStatus());
+
+        // If a slice of a parallel visit fails to start, slices already started are aborted, and the failure is reported.
+        access.expect(tokens.subList(0, 1));
+        AtomicReference<VisitorControlHandler> started = new AtomicReference<>();
+        access.expect(parameters -> {
+            if (parameters.getSliceId() == 1)
+                throw new IllegalStateException("no more sessions");
+
+            assertEquals(0, parameters.getSliceId());
+            parameters.getLocalDataHandler().onMessage(new PutDocumentMessage(new DocumentPut(doc1)), tokens.get(0));
+            started.set(parameters.getControlHandler());
+        });
+        response = driver.sendRequest("http://localhost/document/v1?cluster=content&stream=true&slices=3");
+        assertEquals(1, access.aborted.get());
+        started.get().onDone(VisitorControlHandler.CompletionCode.ABORTED, "aborted");
+        assertSameJson("{" +
+                       "  \"pathId\": \"/document/v1\"," +
+                       "  \"documents\": [" +
+                       "    {" +
+                       "      \"id\": \"id:space:music::one\"," +
+                       "      \"fields\": {" +
+                       "        \"artist\": \"Tom Waits\"," +
+                       "        \"embedding\": { \"type\": \"tensor(x[3])\", \"values\": [1.0,2.0,3.0] } " +
+                       "      }" +
+                       "    }" +
+                       "  ]," +
+                       "  \"message\": \"Failed starting visit of slice 1: no more sessions\"" +
+                       "}", response.readAll());
+        assertEquals(200, response.getStatus());
+
         // GET with namespace and document type is a restricted visit.
         ProgressToken progress = new ProgressToken();
         VisitorIterator.createFromExplicitBucketSet(Set.of(new BucketId(1), new BucketId(2)), 8, progress)
@@ -599,6 +708,7 @@ public class DocumentV1ApiTest {
 
         // POST with a document payload is a document put operation.
         access.session.expect((put, parameters) -> {
+            assertNotNull(((DocumentPut) put).getDocument().getLazyFieldValues()); // Fields are transcoded, not read.
             DocumentPut expectedPut = new DocumentPut(doc2);
             expectedPut.setCondition(new TestAndSetCondition("test it"));
             assertEquals(expectedPut, put);
@@ -657,7 +767,8 @@ public class DocumentV1ApiTest {
                                       "}");
         Inspector responseRoot = SlimeUtils.jsonToSlime(response.readAll()).get();
         assertEquals("/document/v1/space/music/number/1/two", responseRoot.field("pathId").asString());
-        assertTrue(responseRoot.field("message").asString().startsWith("Unexpected character ('┻' (code 9531 / 0x253b)): was expecting double-quote to start field name"));
+        // The non-blocking parser reports the first byte of the UTF-8 encoded character.
+        assertTrue(responseRoot.field("message").asString().startsWith("Unexpected character ('\u00e2' (code 226)): was expecting double-quote to start field name"));
         assertEquals(400, response.getStatus());
 
         // PUT on a unknown document type is a 400
@@ -830,6 +941,91 @@ public class DocumentV1ApiTest {
         driver.close();
     }
 
+    @Test
+    public void testStreamedVisitAcksAreWithheldWhileMuchDataIsUnwritten() throws IOException {
+        for (boolean zstd : List.of(false, true)) {
+            RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+            String artist = "x".repeat(3 << 20);
+            List<AckToken> tokens = List.of(new AckToken(null), new AckToken(null), new AckToken(null), new AckToken(null));
+            List<Integer> outstanding = new ArrayList<>();
+            access.expect(tokens);
+            access.expect(parameters -> {
+                for (int i = 0; i < tokens.size(); i++) {
+                    Document document = new Document(manager.getDocumentType("music"), "id:space:music::" + i);
+                    document.setFieldValue("artist", artist);
+                    parameters.getLocalDataHandler().onMessage(new PutDocumentMessage(new DocumentPut(document)), tokens.get(i));
+                    outstanding.add(access.outstanding.size());
+                }
+                parameters.getControlHandler().onDone(VisitorControlHandler.CompletionCode.SUCCESS, "done");
+            });
+            ReadableContentChannel content = new ReadableContentChannel();
+            sendRequest(driver, "http://localhost/document/v1?cluster=content&stream=true", zstd, content, new AtomicReference<>());
+            // Documents are acked until 8MiB of them are not yet written, and the rest when the response is read.
+            assertEquals(List.of(3, 2, 2, 2), outstanding);
+            try (InputStream in = zstd ? new ZstdInputStream(content.toStream()) : content.toStream()) {
+                Inspector root = SlimeUtils.jsonToSlime(in.readAllBytes()).get();
+                assertEquals(4, root.field("documents").entries());
+                assertEquals(artist, root.field("documents").entry(3).field("fields").field("artist").asString());
+            }
+            assertEquals(Set.of(), access.outstanding);
+            driver.close();
+        }
+    }
+
+    @Test
+    public void testZstdCompressedVisits() throws IOException {
+        RequestHandlerTestDriver driver = new RequestHandlerTestDriver(handler);
+        String expected = "{" +
+                          "  \"pathId\": \"/document/v1\"," +
+                          "  \"documents\": [" +
+                          "    {" +
+                          "      \"id\": \"id:space:music::one\"," +
+                          "      \"fields\": {" +
+                          "        \"artist\": \"Tom Waits\"," +
+                          "        \"embedding\": { \"type\": \"tensor(x[3])\", \"values\": [1.0,2.0,3.0] } " +
+                          "      }" +
+                          "    }," +
+                          "    {" +
+                          "     \"id\": \"id:space:music:g=a:three\"," +
+                          "     \"fields\": {}" +
+                          "    }" +
+                          "  ]," +
+                          "  \"documentCount\": 2" +
+                          "}";
+        for (String query : List.of("", "&stream=true")) {
+            List<AckToken> tokens = List.of(new AckToken(null), new AckToken(null));
+            access.expect(tokens);
+            access.expect(parameters -> {
+                parameters.getLocalDataHandler().onMessage(new PutDocumentMessage(new DocumentPut(doc1)), tokens.get(0));
+                parameters.getLocalDataHandler().onMessage(new PutDocumentMessage(new DocumentPut(doc3)), tokens.get(1));
+                VisitorStatistics statistics = new VisitorStatistics();
+                statistics.setDocumentsVisited(2);
+                parameters.getControlHandler().onVisitorStatistics(statistics);
+                parameters.getControlHandler().onDone(VisitorControlHandler.CompletionCode.SUCCESS, "done");
+            });
+            ReadableContentChannel content = new ReadableContentChannel();
+            AtomicReference<com.yahoo.jdisc.Response> response = new AtomicReference<>();
+            sendRequest(driver, "http://localhost/document/v1?cluster=content" + query, true, content, response);
+            try (InputStream in = new ZstdInputStream(content.toStream())) {
+                assertSameJson(expected, new String(in.readAllBytes(), UTF_8));
+            }
+            assertEquals(200, response.get().getStatus());
+            assertEquals("zstd", response.get().headers().getFirst("Content-Encoding"));
+            assertEquals(Set.of(), access.outstanding);
+        }
+        driver.close();
+    }
+
+    /** Sends a GET request, optionally accepting zstd encoded content, and connects the response content to the given channel. */
+    private static void sendRequest(RequestHandlerTestDriver driver, String uri, boolean zstd, ReadableContentChannel content,
+                                    AtomicReference<com.yahoo.jdisc.Response> response) {
+        Request request = HttpRequest.newServerRequest(driver.jDiscDriver(), URI.create(uri), HttpRequest.Method.GET);
+        if (zstd)
+            request.headers().add("Accept-Encoding", "gzip, zstd");
+        request.connect(jdiscResponse -> { response.set(jdiscResponse); return content; }).close(null);
+        request.release();
+    }
+
     @Test
     public void testThroughput() throws InterruptedException {
         DocumentOperationExecutorConfig executorConfig = new DocumentOperationExecutorConfig.Builder().build();
@@ -906,6 +1102,7 @@ public class DocumentV1ApiTest {
 
         private final AtomicReference<Consumer<VisitorParameters>> expectations = new AtomicReference<>();
         private final Set<AckToken> outstanding = new CopyOnWriteArraySet<>();
+        private final AtomicInteger aborted = new AtomicInteger();
         private final MockAsyncSession session = new MockAsyncSession();
 
         MockDocumentAccess(DocumentmanagerConfig config) {
@@ -935,7 +1132,7 @@ public class DocumentV1ApiTest {
                 @Override public Trace getTrace() { return null; }
                 @Override public boolean waitUntilDone(long timeoutMs) { return false; }
                 @Override public void ack(AckToken token) { assertTrue(outstanding.remove(token)); }
-                @Override public void abort() { }
+                @Override public void abort() { aborted.incrementAndGet(); }
                 @Override public VisitorResponse getNext() { return null; }
                 @Override public VisitorResponse getNext(int timeoutMilliseconds) { return null; }
                 @Override public void destroy() { assertEquals(Set.of(), outstanding); }
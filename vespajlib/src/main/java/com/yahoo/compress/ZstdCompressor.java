@@ -12,7 +12,9 @@ import java.util.Arrays;
 public class ZstdCompressor {
 
     private static final io.airlift.compress.zstd.ZstdCompressor compressor = new io.airlift.compress.zstd.ZstdCompressor();
-    private static final io.airlift.compress.zstd.ZstdDecompressor decompressor = new io.airlift.compress.zstd.ZstdDecompressor();
+    // The decompressor keeps state while decompressing a frame, so each thread needs its own.
+    private static final ThreadLocal<io.airlift.compress.zstd.ZstdDecompressor> decompressor =
+            ThreadLocal.withInitial(io.airlift.compress.zstd.ZstdDecompressor::new);
 
     public byte[] compress(byte[] input, int inputOffset, int inputLength) {
         int maxCompressedLength = getMaxCompressedLength(inputLength);
@@ -38,7 +40,7 @@ public class ZstdCompressor {
     }
 
     public int decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength) {
-        return decompressor.decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        return decompressor.get().decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
     }
 
     public static int getMaxCompressedLength(int uncompressedLength) {
@@ -0,0 +1,194 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads data from a sequence of Zstd frames, such as those written by {@link ZstdOutputStream}.
+ * The boundaries of each frame are found from its frame and block headers, and the frames are then
+ * decompressed independently, possibly in parallel, see {@link #ZstdInputStream(InputStream, Executor, int)}.
+ *
+ * @author agent
+ */
+public class ZstdInputStream extends InputStream {
+
+    private static final int frameMagic = 0xFD2FB528;
+    private static final int skippableFrameMagicMask = 0xFFFFFFF0;
+    private static final int skippableFrameMagic = 0x184D2A50;
+    private static final int maxBlockSize = 1 << 17;
+
+    private final ZstdCompressor compressor = new ZstdCompressor();
+    private final InputStream in;
+    private final Executor executor;
+    private final int parallelism;
+    private final Deque<CompletableFuture<ByteBuffer>> pendingFrames = new ArrayDeque<>();
+    private ByteBuffer current = ByteBuffer.allocate(0);
+    private byte[] frame;
+    private int framePosition;
+    private long frameMaxDecompressedLength;
+    private boolean endOfInput = false;
+    private boolean isClosed = false;
+
+    public ZstdInputStream(InputStream in) {
+        this(in, Runnable::run, 1);
+    }
+
+    /**
+     * Creates a stream which reads ahead, and decompresses up to the given number of frames at a time,
+     * using the given executor.
+     */
+    public ZstdInputStream(InputStream in, Executor executor, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive, but was " + parallelism);
+        this.in = new BufferedInputStream(in);
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return fill() ? current.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if ( ! fill()) return -1;
+        int length = Math.min(len, current.remaining());
+        current.get(b, off, length);
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return current.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) return;
+        isClosed = true;
+        pendingFrames.clear();
+        in.close();
+    }
+
+    /** Makes sure there is data in the current buffer, and returns whether there was any more data. */
+    private boolean fill() throws IOException {
+        if (isClosed) throw new IOException("Input stream is already closed");
+        while ( ! current.hasRemaining()) {
+            while ( ! endOfInput && pendingFrames.size() < parallelism) {
+                if (readFrame()) {
+                    byte[] input = frame;
+                    int inputLength = framePosition;
+                    int maxOutputLength = (int) frameMaxDecompressedLength;
+                    pendingFrames.add(CompletableFuture.supplyAsync(() -> decompress(input, inputLength, maxOutputLength), executor));
+                }
+                else endOfInput = true;
+            }
+            if (pendingFrames.isEmpty()) return false;
+            try {
+                current = pendingFrames.remove().join();
+            }
+            catch (CompletionException e) {
+                throw new IOException("Failed decompressing frame", e.getCause());
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer decompress(byte[] input, int inputLength, int maxOutputLength) {
+        byte[] output = new byte[maxOutputLength];
+        int outputLength = compressor.decompress(input, 0, inputLength, output, 0, maxOutputLength);
+        return ByteBuffer.wrap(output, 0, outputLength);
+    }
+
+    /** Reads the next frame into a new frame buffer, skipping any skippable frames, and returns whether there was one. */
+    private boolean readFrame() throws IOException {
+        while (true) {
+            int first = in.read();
+            if (first == -1) return false;
+
+            frame = new byte[1 << 16];
+            frame[0] = (byte) first;
+            framePosition = 1;
+            frameMaxDecompressedLength = 0;
+            readIntoFrame(3);
+            int magic = intAt(0);
+            if ((magic & skippableFrameMagicMask) == skippableFrameMagic) {
+                readIntoFrame(4);
+                skipFully(Integer.toUnsignedLong(intAt(4)));
+                continue;
+            }
+            if (magic != frameMagic)
+                throw new IOException("Expected Zstd frame magic number, but got " + Integer.toHexString(magic));
+
+            readIntoFrame(1);
+            int descriptor = frame[4] & 0xff;
+            int contentSizeFlag = descriptor >>> 6;
+            boolean singleSegment = (descriptor & 0x20) != 0;
+            boolean hasChecksum = (descriptor & 0x04) != 0;
+            int dictionaryIdFlag = descriptor & 0x03;
+            readIntoFrame(  (singleSegment ? 0 : 1)
+                          + (dictionaryIdFlag == 3 ? 4 : dictionaryIdFlag)
+                          + (contentSizeFlag == 0 ? (singleSegment ? 1 : 0) : 1 << contentSizeFlag));
+
+            boolean lastBlock;
+            do {
+                readIntoFrame(3);
+                int header = (frame[framePosition - 3] & 0xff) | (frame[framePosition - 2] & 0xff) << 8 | (frame[framePosition - 1] & 0xff) << 16;
+                lastBlock = (header & 1) != 0;
+                int blockType = (header >>> 1) & 0x03;
+                int blockSize = header >>> 3;
+                switch (blockType) {
+                    case 0: readIntoFrame(blockSize); frameMaxDecompressedLength += blockSize; break;    // Raw block.
+                    case 1: readIntoFrame(1); frameMaxDecompressedLength += blockSize; break;            // RLE block.
+                    case 2: readIntoFrame(blockSize); frameMaxDecompressedLength += maxBlockSize; break; // Compressed block.
+                    default: throw new IOException("Reserved block type in Zstd frame");
+                }
+                if (frameMaxDecompressedLength > Integer.MAX_VALUE - 8)
+                    throw new IOException("Zstd frame is too large to decompress");
+            } while ( ! lastBlock);
+
+            if (hasChecksum) readIntoFrame(4);
+            return true;
+        }
+    }
+
+    private void readIntoFrame(int length) throws IOException {
+        if (frame.length < framePosition + length)
+            frame = Arrays.copyOf(frame, Math.max(framePosition + length, 2 * frame.length));
+
+        while (length > 0) {
+            int read = in.read(frame, framePosition, length);
+            if (read == -1) throw new EOFException("Unexpected end of input in Zstd frame");
+            framePosition += read;
+            length -= read;
+        }
+    }
+
+    private void skipFully(long length) throws IOException {
+        while (length > 0) {
+            long skipped = in.skip(length);
+            if (skipped <= 0) {
+                if (in.read() == -1) throw new EOFException("Unexpected end of input in skippable Zstd frame");
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    private int intAt(int position) {
+        return   (frame[position] & 0xff)       | (frame[position + 1] & 0xff) << 8
+               | (frame[position + 2] & 0xff) << 16 | (frame[position + 3] & 0xff) << 24;
+    }
+
+}
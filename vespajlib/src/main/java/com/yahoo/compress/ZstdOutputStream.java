@@ -3,8 +3,17 @@ package com.yahoo.compress;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
+ * Writes data as a sequence of independent Zstd frames, one per filled input buffer, which can be read by
+ * {@link ZstdInputStream}, or any other Zstd decompressor. Frames may be compressed in parallel, see
+ * {@link #ZstdOutputStream(OutputStream, int, Executor, int)}.
+ *
  * @author bjorncs
  */
 public class ZstdOutputStream extends OutputStream {
@@ -14,15 +23,29 @@ public class ZstdOutputStream extends OutputStream {
     public static final int DEFAULT_INPUT_BUFFER_SIZE = 8*1024;
 
     private final OutputStream out;
-    private final byte[] inputBuffer;
+    private final Executor executor;
+    private final int parallelism;
+    private final Deque<CompletableFuture<byte[]>> pendingFrames = new ArrayDeque<>();
+    private byte[] inputBuffer;
     private final byte[] outputBuffer;
     private int inputPosition = 0;
     private boolean isClosed = false;
 
     public ZstdOutputStream(OutputStream out, int inputBufferSize) {
+        this(out, inputBufferSize, null, 1);
+    }
+
+    /**
+     * Creates a stream which compresses up to the given number of frames at a time, using the given executor,
+     * and writes them to the given output stream in order. Each frame holds the given input buffer size of data.
+     */
+    public ZstdOutputStream(OutputStream out, int inputBufferSize, Executor executor, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive, but was " + parallelism);
         this.out = out;
+        this.executor = executor;
+        this.parallelism = parallelism;
         this.inputBuffer = new byte[inputBufferSize];
-        this.outputBuffer = new byte[ZstdCompressor.getMaxCompressedLength(inputBufferSize)];
+        this.outputBuffer = executor == null ? new byte[ZstdCompressor.getMaxCompressedLength(inputBufferSize)] : null;
     }
 
     public ZstdOutputStream(OutputStream out) {
@@ -57,6 +80,8 @@ public class ZstdOutputStream extends OutputStream {
     @Override
     public void flush() throws IOException {
         flushInternal();
+        while ( ! pendingFrames.isEmpty())
+            writePendingFrame();
         out.flush();
     }
 
@@ -70,11 +95,30 @@ public class ZstdOutputStream extends OutputStream {
 
     private void flushInternal() throws IOException {
         throwIfClosed();
+        if (executor != null) {
+            byte[] input = inputBuffer;
+            int inputLength = inputPosition;
+            inputBuffer = new byte[input.length];
+            inputPosition = 0;
+            pendingFrames.add(CompletableFuture.supplyAsync(() -> compressor.compress(input, 0, inputLength), executor));
+            while (pendingFrames.size() > parallelism)
+                writePendingFrame();
+            return;
+        }
         int compressedLength = compressor.compress(inputBuffer, 0, inputPosition, outputBuffer, 0, outputBuffer.length);
         out.write(outputBuffer, 0, compressedLength);
         inputPosition = 0;
     }
 
+    private void writePendingFrame() throws IOException {
+        try {
+            out.write(pendingFrames.remove().join());
+        }
+        catch (CompletionException e) {
+            throw new IOException("Failed compressing frame", e.getCause());
+        }
+    }
+
     private void flushIfFull() throws IOException {
         if (inputPosition == inputBuffer.length) {
             flushInternal();
@@ -0,0 +1,159 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Microbenchmark of the codecs used for file references (streams of large files), and for config payloads
+ * (many small, repetitive documents). Reports compression ratio and throughput of uncompressed bytes.
+ *
+ * @author agent
+ */
+public class CompressionBenchmark {
+
+    private interface Codec {
+        OutputStream compress(OutputStream out) throws IOException;
+        InputStream decompress(InputStream in) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            byte[] files = files(64 << 20);
+            System.out.println("File references, " + (files.length >> 20) + " MiB, " + threads + " threads:");
+            benchmark("gzip", files, new Codec() {
+                public OutputStream compress(OutputStream out) throws IOException { return new GZIPOutputStream(out); }
+                public InputStream decompress(InputStream in) throws IOException { return new GZIPInputStream(in); }
+            });
+            benchmark("lz4", files, new Codec() {
+                public OutputStream compress(OutputStream out) { return new LZ4BlockOutputStream(out); }
+                public InputStream decompress(InputStream in) { return new LZ4BlockInputStream(in); }
+            });
+            benchmark("zstd, sequential", files, new Codec() {
+                public OutputStream compress(OutputStream out) { return new ZstdOutputStream(out, 1 << 20); }
+                public InputStream decompress(InputStream in) { return new ZstdInputStream(in); }
+            });
+            benchmark("zstd, parallel", files, new Codec() {
+                public OutputStream compress(OutputStream out) { return new ZstdOutputStream(out, 1 << 20, executor, threads); }
+                public InputStream decompress(InputStream in) { return new ZstdInputStream(in, executor, threads); }
+            });
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        byte[][] payloads = payloads(10000);
+        long size = 0;
+        for (byte[] payload : payloads) size += payload.length;
+        System.out.println("Config payloads, " + payloads.length + " payloads of average " + size / payloads.length + " bytes:");
+        benchmark("lz4", payloads, CompressionType.LZ4);
+        benchmark("zstd", payloads, CompressionType.ZSTD);
+    }
+
+    private static void benchmark(String name, byte[] data, Codec codec) throws IOException {
+        byte[] compressed = null;
+        long compressNanos = Long.MAX_VALUE, decompressNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream out = codec.compress(bytes)) {
+                for (int offset = 0; offset < data.length; offset += 1 << 16)
+                    out.write(data, offset, Math.min(1 << 16, data.length - offset));
+            }
+            compressed = bytes.toByteArray();
+            compressNanos = Math.min(compressNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            byte[] buffer = new byte[1 << 16];
+            try (InputStream in = codec.decompress(new ByteArrayInputStream(compressed))) {
+                while (in.read(buffer) != -1) { }
+            }
+            decompressNanos = Math.min(decompressNanos, System.nanoTime() - start);
+        }
+        report(name, data.length, compressed.length, compressNanos, decompressNanos);
+    }
+
+    private static void benchmark(String name, byte[][] payloads, CompressionType type) {
+        Compressor compressor = new Compressor(type, 0, 1, 0);
+        long compressedSize = 0, size = 0;
+        long compressNanos = Long.MAX_VALUE, decompressNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            compressedSize = size = 0;
+            Compressor.Compression[] compressions = new Compressor.Compression[payloads.length];
+            long start = System.nanoTime();
+            for (int j = 0; j < payloads.length; j++)
+                compressions[j] = compressor.compress(payloads[j]);
+            compressNanos = Math.min(compressNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (Compressor.Compression compression : compressions)
+                compressor.decompress(compression.type(), compression.data(), 0, compression.uncompressedSize(), Optional.of(compression.data().length));
+            decompressNanos = Math.min(decompressNanos, System.nanoTime() - start);
+
+            for (int j = 0; j < payloads.length; j++) {
+                size += payloads[j].length;
+                compressedSize += compressions[j].data().length;
+            }
+        }
+        report(name, size, compressedSize, compressNanos, decompressNanos);
+    }
+
+    private static void report(String name, long size, long compressedSize, long compressNanos, long decompressNanos) {
+        System.out.printf("  %-18s ratio %5.2f, compress %7.1f MB/s, decompress %7.1f MB/s%n",
+                          name, (double) size / compressedSize, size * 1e3 / compressNanos, size * 1e3 / decompressNanos);
+    }
+
+    /** Returns a mix of text, like application package files, and floats with little redundancy, like model weights. */
+    private static byte[] files(int size) {
+        Random random = new Random(size);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        String[] words = { "schema", "document", "field", "type", "string", "indexing", "summary", "attribute",
+                           "rank-profile", "first-phase", "expression", "bm25", "{", "}", ":", "|", "\n" };
+        while (buffer.hasRemaining()) {
+            if (random.nextInt(4) == 0) {
+                while (buffer.remaining() >= 4 && random.nextInt(1 << 14) != 0)
+                    buffer.putFloat((float) random.nextGaussian() * 0.02f);
+            }
+            else {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(1 << 14); i > 0; i--)
+                    text.append(words[random.nextInt(words.length)]).append(i % 7 == 0 ? "_" + random.nextInt(100) : "").append(' ');
+                byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                buffer.put(bytes, 0, Math.min(bytes.length, buffer.remaining()));
+            }
+        }
+        return buffer.array();
+    }
+
+    /** Returns JSON config payloads with similar structure, but different values. */
+    private static byte[][] payloads(int count) {
+        Random random = new Random(count);
+        byte[][] payloads = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            StringBuilder json = new StringBuilder("{\"cluster\":\"cluster-").append(random.nextInt(10)).append("\",\"nodes\":[");
+            for (int j = random.nextInt(64); j >= 0; j--)
+                json.append("{\"hostname\":\"host-").append(random.nextInt(1000)).append(".example.com\",\"port\":")
+                    .append(19100 + random.nextInt(100)).append(",\"weight\":").append(random.nextDouble())
+                    .append(",\"enabled\":").append(random.nextBoolean()).append('}').append(j > 0 ? "," : "");
+            payloads[i] = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return payloads;
+    }
+
+}
@@ -0,0 +1,97 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author agent
+ */
+class ZstdInputStreamTest {
+
+    @Test
+    void input_stream_decompresses_output_stream_frames() throws IOException {
+        byte[] inputData = data(1 << 20);
+        assertArrayEquals(inputData, decompress(compress(inputData, out -> new ZstdOutputStream(out, 1000)), 1));
+        assertArrayEquals(inputData, decompress(compress(inputData, out -> new ZstdOutputStream(out, 1 << 18)), 1));
+        assertArrayEquals(new byte[0], decompress(compress(new byte[0], ZstdOutputStream::new), 1));
+    }
+
+    @Test
+    void frames_are_compressed_and_decompressed_in_parallel() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            byte[] inputData = data(3 << 20);
+            byte[] sequential = compress(inputData, out -> new ZstdOutputStream(out, 1 << 16));
+            byte[] parallel = compress(inputData, out -> new ZstdOutputStream(out, 1 << 16, executor, 4));
+            assertArrayEquals(sequential, parallel);
+
+            try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(parallel), executor, 4)) {
+                assertArrayEquals(inputData, in.readAllBytes());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void skippable_frames_are_skipped_and_truncated_frames_fail() throws IOException {
+        byte[] inputData = data(1 << 12);
+        byte[] compressed = compress(inputData, ZstdOutputStream::new);
+        ByteArrayOutputStream withSkippable = new ByteArrayOutputStream();
+        withSkippable.write(new byte[]{ 0x5a, 0x2a, 0x4d, 0x18, 3, 0, 0, 0, 1, 2, 3 });
+        withSkippable.write(compressed);
+        assertArrayEquals(inputData, decompress(withSkippable.toByteArray(), 1));
+
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length - 1);
+        assertThrows(EOFException.class, () -> decompress(truncated, 1));
+
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(inputData[0] & 0xff, in.read());
+            assertEquals(inputData[1] & 0xff, in.read());
+        }
+    }
+
+    private static byte[] data(int size) {
+        Random random = new Random(size);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; ) {
+            int run = Math.min(size - i, 1 + random.nextInt(64));
+            if (random.nextBoolean()) Arrays.fill(data, i, i + run, (byte) random.nextInt());
+            else for (int j = 0; j < run; j++) data[i + j] = (byte) random.nextInt();
+            i += run;
+        }
+        return data;
+    }
+
+    private static byte[] compress(byte[] data, Function<OutputStream, ZstdOutputStream> zstdOut) throws IOException {
+        ByteArrayOutputStream arrayOut = new ByteArrayOutputStream();
+        try (ZstdOutputStream out = zstdOut.apply(arrayOut)) {
+            out.write(data);
+        }
+        return arrayOut.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data, int parallelism) throws IOException {
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(data), Runnable::run, parallelism)) {
+            return in.readAllBytes();
+        }
+    }
+
+}
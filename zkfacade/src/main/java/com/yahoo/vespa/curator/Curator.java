@@ -32,11 +32,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -290,6 +292,42 @@ public class Curator extends AbstractComponent implements VespaCurator, AutoClos
         }
     }
 
+    /**
+     * Returns the data at each of the given paths, as {@link #getData(Path)} would, in the same order as the paths.
+     * All reads are sent before any response is awaited, so this costs about one round trip to ZooKeeper,
+     * rather than one per path.
+     */
+    public List<Optional<byte[]>> getData(List<Path> paths) {
+        List<CompletableFuture<Optional<byte[]>>> futures = new ArrayList<>();
+        for (Path path : paths) {
+            CompletableFuture<Optional<byte[]>> future = new CompletableFuture<>();
+            futures.add(future);
+            try {
+                framework().getData().inBackground((__, event) -> {
+                    if (event.getResultCode() == KeeperException.Code.OK.intValue())
+                        future.complete(Optional.of(event.getData()));
+                    else if (event.getResultCode() == KeeperException.Code.NONODE.intValue())
+                        future.complete(Optional.empty());
+                    else
+                        future.completeExceptionally(KeeperException.create(KeeperException.Code.get(event.getResultCode()), event.getPath()));
+                }).forPath(path.getAbsolute());
+            }
+            catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+        List<Optional<byte[]>> data = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            try {
+                data.add(futures.get(i).join());
+            }
+            catch (CompletionException e) {
+                throw new RuntimeException("Could not get data at " + paths.get(i).getAbsolute(), e.getCause());
+            }
+        }
+        return data;
+    }
+
     /**
      * Returns the stat data at the given path.
      * Empty is returned if the path does not exist.
@@ -411,4 +449,7 @@ public class Curator extends AbstractComponent implements VespaCurator, AutoClos
      */
     public int zooKeeperEnsembleCount() { return connectionSpec.ensembleSize(); }
 
+    /** Returns the max number of bytes allowed per node, and per request, to ZooKeeper. */
+    public long juteMaxBuffer() { return juteMaxBuffer; }
+
 }
@@ -28,6 +28,8 @@ import org.apache.curator.framework.api.CreateBuilder;
 import org.apache.curator.framework.api.CreateBuilder2;
 import org.apache.curator.framework.api.CreateBuilderMain;
 import org.apache.curator.framework.api.CreateProtectACLCreateModePathAndBytesable;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorEventType;
 import org.apache.curator.framework.api.CuratorListener;
 import org.apache.curator.framework.api.CuratorWatcher;
 import org.apache.curator.framework.api.DeleteBuilder;
@@ -83,6 +85,7 @@ import org.apache.curator.retry.RetryForever;
 import org.apache.curator.utils.EnsurePath;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.ACL;
 import org.apache.zookeeper.data.Stat;
@@ -1115,9 +1118,29 @@ public class MockCuratorFramework implements CuratorFramework  {
             throw new UnsupportedOperationException("Not implemented in MockCurator");
         }
 
+        /** Reads the data synchronously, and then calls the callback, in the calling thread */
         @Override
         public ErrorListenerPathable<byte[]> inBackground(BackgroundCallback backgroundCallback) {
-            throw new UnsupportedOperationException("Not implemented in MockCurator");
+            return new ErrorListenerPathable<>() {
+                @Override
+                public Pathable<byte[]> withUnhandledErrorListener(UnhandledErrorListener listener) {
+                    return this;
+                }
+
+                @Override
+                public byte[] forPath(String path) throws Exception {
+                    try {
+                        byte[] data = getData(path, fileSystem.root());
+                        backgroundCallback.processResult(MockCuratorFramework.this,
+                                                         new MockCuratorEvent(CuratorEventType.GET_DATA, KeeperException.Code.OK, path, data));
+                    }
+                    catch (KeeperException e) {
+                        backgroundCallback.processResult(MockCuratorFramework.this,
+                                                         new MockCuratorEvent(CuratorEventType.GET_DATA, e.code(), path, null));
+                    }
+                    return null;
+                }
+            };
         }
 
         @Override
@@ -1142,6 +1165,34 @@ public class MockCuratorFramework implements CuratorFramework  {
     }
 
     // extends MockBackgroundACLPathAndBytesableBuilder<Stat>
+    private static class MockCuratorEvent implements CuratorEvent {
+
+        private final CuratorEventType type;
+        private final KeeperException.Code resultCode;
+        private final String path;
+        private final byte[] data;
+
+        MockCuratorEvent(CuratorEventType type, KeeperException.Code resultCode, String path, byte[] data) {
+            this.type = type;
+            this.resultCode = resultCode;
+            this.path = path;
+            this.data = data;
+        }
+
+        @Override public CuratorEventType getType() { return type; }
+        @Override public int getResultCode() { return resultCode.intValue(); }
+        @Override public String getPath() { return path; }
+        @Override public Object getContext() { return null; }
+        @Override public Stat getStat() { return null; }
+        @Override public byte[] getData() { return data; }
+        @Override public String getName() { return null; }
+        @Override public List<String> getChildren() { return null; }
+        @Override public List<ACL> getACLList() { return null; }
+        @Override public List<CuratorTransactionResult> getOpResults() { return null; }
+        @Override public WatchedEvent getWatchedEvent() { return null; }
+
+    }
+
     private class MockSetDataBuilder implements SetDataBuilder {
 
         @Override
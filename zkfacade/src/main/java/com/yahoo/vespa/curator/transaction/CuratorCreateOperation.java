@@ -28,7 +28,7 @@ class CuratorCreateOperation implements CuratorOperation {
         int lastSlash = path.lastIndexOf("/");
         if (lastSlash < 0) return; // root; ok
         String parent = path.substring(0, lastSlash);
-        if ( ! parent.isEmpty() && ! curator.exists(Path.fromString(parent)) && ! changes.create(parent))
+        if ( ! parent.isEmpty() && ! changes.create(parent) && ! curator.exists(Path.fromString(parent)))
             throw new IllegalStateException("Cannot perform " + this + ": Parent '" + parent + "' does not exist");
         changes.addCreate(path);
     }
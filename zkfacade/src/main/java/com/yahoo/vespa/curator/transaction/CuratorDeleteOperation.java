@@ -19,7 +19,7 @@ class CuratorDeleteOperation implements CuratorOperation {
 
     @Override
     public void check(Curator curator, TransactionChanges changes) {
-        if (  ! curator.exists(Path.fromString(path)) && ! changes.create(path))
+        if ( ! changes.create(path) && ! curator.exists(Path.fromString(path)))
             throw new IllegalStateException("Cannot perform " + this + ": Path does not exist");
         if (hasNondeletedChildren(Path.fromString(path), curator, changes) || changes.createsChildrenOf(path))
             throw new IllegalStateException("Cannot perform " + this + ": Path is not empty");
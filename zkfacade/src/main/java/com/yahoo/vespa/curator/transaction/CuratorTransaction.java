@@ -66,6 +66,12 @@ public class CuratorTransaction extends AbstractTransaction {
         }
     }
 
+    /** Commits this transaction without checking its operations first, for callers which already know they are valid */
+    void commitUnchecked() {
+        prepared = true;
+        commit();
+    }
+
     @Override
     public String toString() {
         return operations().stream().map(Object::toString).collect(Collectors.joining(","));
@@ -0,0 +1,153 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.curator.transaction;
+
+import com.yahoo.path.Path;
+import com.yahoo.vespa.curator.Curator;
+import org.apache.zookeeper.KeeperException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects writes to ZooKeeper, and commits them as a few large multi operations, through {@link CuratorTransaction}s,
+ * instead of as one or more synchronous requests per node, like {@link Curator#set(Path, byte[])} does.
+ * A transaction is committed whenever the next write would make it too large for a single request, and when this is committed.
+ * <p>
+ * Whether to create a node or set its data, and which parents to create first, is decided from the children of each parent,
+ * which are read once, when first needed, and then kept up to date with the writes in this. Nodes created by this are known
+ * to have no children, so writing a new subtree requires no reads. This assumes no one else writes to the same nodes
+ * while this is in use, and that this is not used after a failed commit, when some of its writes may have been lost.
+ * <p>
+ * This is not thread safe.
+ *
+ * @author agent
+ */
+public class CuratorWriteBatch {
+
+    /** Upper bound on the size of a single transaction, as very large ones are slow to replicate to followers. */
+    static final long defaultMaxTransactionBytes = 4 << 20;
+
+    /** Rough overhead of an operation in a multi request, in addition to its path and data. */
+    private static final int operationOverheadBytes = 64;
+
+    private final Curator curator;
+    private final long maxTransactionBytes;
+    private final Map<Path, Set<String>> children = new HashMap<>(); // Null values for nodes known not to exist.
+    private CuratorTransaction transaction;
+    private long transactionBytes = 0;
+    private int committedTransactions = 0;
+
+    public CuratorWriteBatch(Curator curator) {
+        this(curator, Math.min(defaultMaxTransactionBytes, curator.juteMaxBuffer() / 2));
+    }
+
+    CuratorWriteBatch(Curator curator, long maxTransactionBytes) {
+        this.curator = curator;
+        this.maxTransactionBytes = maxTransactionBytes;
+        this.transaction = new CuratorTransaction(curator);
+    }
+
+    /** Sets the data of the node at the given path, first creating it, and any missing parents, if it does not exist. */
+    public CuratorWriteBatch set(Path path, byte[] data) {
+        if (data.length > curator.juteMaxBuffer())
+            throw new IllegalArgumentException("Cannot not set data at " + path.getAbsolute() + ", " + data.length +
+                                               " bytes is too much, max number of bytes allowed per node is " + curator.juteMaxBuffer());
+
+        if (childrenOf(path.getParentPath()).contains(path.getName()))
+            add(CuratorOperations.setData(path.getAbsolute(), data), path, data.length);
+        else
+            create(path, data);
+
+        return this;
+    }
+
+    /** Creates an empty node at the given path, and any missing parents, unless it already exists. */
+    public CuratorWriteBatch create(Path path) {
+        if ( ! path.isRoot() && ! childrenOf(path.getParentPath()).contains(path.getName()))
+            create(path, new byte[0]);
+
+        return this;
+    }
+
+    /** Deletes the node at the given path, and everything below it, if it exists. */
+    public CuratorWriteBatch delete(Path path) {
+        Set<String> siblings = path.isRoot() ? null : existingChildrenOf(path.getParentPath());
+        if (siblings != null && siblings.remove(path.getName()))
+            deleteRecursively(path);
+
+        return this;
+    }
+
+    /** Commits all writes not yet committed. */
+    public void commit() {
+        if (transaction.operations().isEmpty()) return;
+
+        // Operations are valid by construction, so skip the per-operation existence checks against ZooKeeper.
+        transaction.commitUnchecked();
+        transaction = new CuratorTransaction(curator);
+        transactionBytes = 0;
+        committedTransactions++;
+    }
+
+    /** Returns the number of transactions committed by this so far. */
+    public int committedTransactions() {
+        return committedTransactions;
+    }
+
+    private void create(Path path, byte[] data) {
+        Set<String> siblings = childrenOf(path.getParentPath());
+        add(CuratorOperations.create(path.getAbsolute(), data), path, data.length);
+        siblings.add(path.getName());
+        children.put(path, new HashSet<>());
+    }
+
+    private void deleteRecursively(Path path) {
+        Set<String> names = existingChildrenOf(path);
+        if (names != null)
+            for (String child : List.copyOf(names))
+                deleteRecursively(path.append(child));
+
+        add(CuratorOperations.delete(path.getAbsolute()), path, 0);
+        children.put(path, null);
+    }
+
+    /** Returns the names of the children of the given node, as of when this is committed, creating the node if it does not exist. */
+    private Set<String> childrenOf(Path path) {
+        Set<String> names = existingChildrenOf(path);
+        if (names != null) return names;
+
+        create(path, new byte[0]);
+        return children.get(path);
+    }
+
+    /** Returns the names of the children of the given node, as of when this is committed, or null if the node does not exist. */
+    private Set<String> existingChildrenOf(Path path) {
+        if (children.containsKey(path)) return children.get(path);
+
+        Set<String> names;
+        try {
+            names = new HashSet<>(curator.framework().getChildren().forPath(path.getAbsolute()));
+        }
+        catch (KeeperException.NoNodeException e) {
+            names = null;
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Could not get children of " + path.getAbsolute(), e);
+        }
+        children.put(path, names);
+        return names;
+    }
+
+    private void add(CuratorOperation operation, Path path, int dataBytes) {
+        long bytes = operationOverheadBytes + path.getAbsolute().length() + dataBytes;
+        if (transactionBytes > 0 && transactionBytes + bytes > maxTransactionBytes)
+            commit();
+
+        transaction.add(operation);
+        transactionBytes += bytes;
+    }
+
+}
@@ -5,8 +5,10 @@ import com.yahoo.cloud.config.CuratorConfig;
 import com.yahoo.net.HostName;
 import com.yahoo.path.Path;
 import com.yahoo.text.Utf8;
+import com.yahoo.vespa.curator.mock.MockCurator;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
@@ -58,6 +60,18 @@ public class CuratorTest {
         }
     }
 
+    @Test
+    public void require_that_data_is_read_for_many_paths_at_once() {
+        MockCurator curator = new MockCurator();
+        Path root = Path.fromString("/root");
+        curator.set(root.append("a"), Utf8.toBytes("a"));
+        curator.set(root.append("b"), new byte[0]);
+        List<Optional<byte[]>> data = curator.getData(List.of(root.append("b"), root.append("missing"), root.append("a")));
+        assertEquals(0, data.get(0).get().length);
+        assertEquals(Optional.empty(), data.get(1));
+        assertEquals("a", Utf8.toString(data.get(2).get()));
+    }
+
     private CuratorConfig createTestConfig() {
         CuratorConfig.Builder builder = new CuratorConfig.Builder();
         builder.server(createZKBuilder(localhost, port1));
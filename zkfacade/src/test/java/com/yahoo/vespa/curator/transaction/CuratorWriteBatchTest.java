@@ -0,0 +1,68 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.curator.transaction;
+
+import com.yahoo.path.Path;
+import com.yahoo.text.Utf8;
+import com.yahoo.vespa.curator.mock.MockCurator;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class CuratorWriteBatchTest {
+
+    private final MockCurator curator = new MockCurator();
+    private final Path root = Path.fromString("/root");
+
+    @Test
+    public void writes_are_committed_in_transactions_of_bounded_size() {
+        curator.set(root.append("existing"), Utf8.toBytes("old"));
+
+        CuratorWriteBatch batch = new CuratorWriteBatch(curator, 1000);
+        batch.set(root.append("existing"), Utf8.toBytes("new"))
+             .set(root.append("a/b/c"), Utf8.toBytes("c"))
+             .create(root.append("a/b"))
+             .create(root.append("empty"));
+        for (int i = 0; i < 10; i++)
+            batch.set(root.append("a/b/" + i), new byte[200]);
+
+        assertEquals(3, batch.committedTransactions());
+        assertFalse(curator.exists(root.append("a/b/9")));
+        batch.commit();
+        assertEquals(4, batch.committedTransactions());
+
+        assertEquals("new", Utf8.toString(curator.getData(root.append("existing")).get()));
+        assertEquals("c", Utf8.toString(curator.getData(root.append("a/b/c")).get()));
+        assertEquals(0, curator.getData(root.append("a/b")).get().length);
+        assertTrue(curator.exists(root.append("empty")));
+        assertEquals(11, curator.getChildren(root.append("a/b")).size());
+    }
+
+    @Test
+    public void deleted_subtrees_can_be_rewritten_in_the_same_batch() {
+        curator.set(root.append("a/b/c"), Utf8.toBytes("c"));
+        curator.set(root.append("a/d"), Utf8.toBytes("d"));
+
+        new CuratorWriteBatch(curator).delete(root.append("a"))
+                                      .delete(root.append("missing/child"))
+                                      .set(root.append("a/b/e"), Utf8.toBytes("e"))
+                                      .commit();
+
+        assertEquals(List.of("b"), curator.getChildren(root.append("a")));
+        assertEquals(List.of("e"), curator.getChildren(root.append("a/b")));
+        assertEquals("e", Utf8.toString(curator.getData(root.append("a/b/e")).get()));
+        assertFalse(curator.exists(root.append("missing")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void too_large_nodes_are_rejected() {
+        new CuratorWriteBatch(curator).set(root, new byte[(int) curator.juteMaxBuffer() + 1]);
+    }
+
+}